@@ -0,0 +1,63 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Retries methods annotated with {@link RetryOnConflict} when their transaction fails on a stale row version, a
+ * deadlock or a lock timeout. Ordered before the transaction advice, so every attempt gets its own transaction and
+ * persistence context.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+    private static final Logger logger = LoggerFactory.getLogger(ConflictRetryAspect.class);
+
+    private final int attempts;
+
+    public ConflictRetryAspect(@Value("${taxonomy.conflict-retry.attempts:3}") int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Around("@annotation(no.ndla.taxonomy.config.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Inside someone else's transaction the failed attempt would take the whole transaction down with it
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        for (var attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                logger.info(
+                        "{} lost a race on attempt {}, retrying: {}",
+                        joinPoint.getSignature().toShortString(),
+                        attempt,
+                        e.getMessage());
+                // Spread the retries so the same requests do not collide again
+                Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+            }
+        }
+    }
+}
@@ -10,11 +10,13 @@ package no.ndla.taxonomy.config;
 import java.util.HashMap;
 import java.util.Map;
 import javax.sql.DataSource;
+import no.ndla.taxonomy.config.cache.TenantCacheRegionFactory;
 import no.ndla.taxonomy.service.VersionConnectionProvider;
 import no.ndla.taxonomy.service.VersionIdentifierResolver;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Environment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,13 +33,17 @@ public class HibernateConfig {
     @Autowired
     private JpaProperties jpaProperties;
 
+    @Value("${taxonomy.cache.enabled:true}")
+    private boolean cacheEnabled;
+
     @Bean
     @Primary
     public LocalContainerEntityManagerFactoryBean entityManagerFactory(
             DataSource dataSource,
             JpaVendorAdapter jpaVendorAdapter,
             VersionConnectionProvider versionConnectionProvider,
-            VersionIdentifierResolver versionIdentifierResolver) {
+            VersionIdentifierResolver versionIdentifierResolver,
+            TenantCacheRegionFactory cacheRegionFactory) {
         Map<String, Object> properties = new HashMap<>(jpaProperties.getProperties());
         properties.put(
                 AvailableSettings.PHYSICAL_NAMING_STRATEGY,
@@ -47,6 +53,14 @@ public class HibernateConfig {
                 "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy");
         properties.put(Environment.MULTI_TENANT_CONNECTION_PROVIDER, versionConnectionProvider);
         properties.put(Environment.MULTI_TENANT_IDENTIFIER_RESOLVER, versionIdentifierResolver);
+        properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, cacheEnabled);
+        properties.put(AvailableSettings.USE_QUERY_CACHE, cacheEnabled);
+        if (cacheEnabled) {
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, cacheRegionFactory);
+            // Child and parent connections are mapped by the connection side, so the collection caches on node must
+            // be evicted when a connection changes.
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+        }
 
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
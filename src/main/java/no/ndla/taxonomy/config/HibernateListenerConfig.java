@@ -0,0 +1,32 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import no.ndla.taxonomy.service.NodeSuggestIndexListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the Hibernate event listeners of the service layer, so that the entities need not know about them.
+ */
+@Configuration
+public class HibernateListenerConfig {
+    public HibernateListenerConfig(
+            EntityManagerFactory entityManagerFactory, NodeSuggestIndexListener nodeSuggestIndexListener) {
+        var registry = entityManagerFactory
+                .unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, nodeSuggestIndexListener);
+        registry.appendListeners(EventType.POST_UPDATE, nodeSuggestIndexListener);
+        registry.appendListeners(EventType.POST_DELETE, nodeSuggestIndexListener);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Makes jsonb operators available in HQL. Postgres only uses GIN indexes for the operator forms, not for the
+ * equivalent functions, so these render the operators directly. Registered in META-INF/services.
+ */
+public class JsonbFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var registry = functionContributions.getFunctionRegistry();
+        var booleanType =
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+
+        // jsonb_contains_entry(doc, key, value): doc @> {"key": "value"}
+        registry.registerPattern(
+                "jsonb_contains_entry", "(?1 @> jsonb_build_object(cast(?2 as text), cast(?3 as text)))", booleanType);
+        // jsonb_matches_path(doc, path): doc @@ path, where path is a jsonpath predicate
+        registry.registerPattern("jsonb_matches_path", "(?1 @@ cast(?2 as jsonpath))", booleanType);
+        // jsonb_has_key(doc, key): the function behind the ? operator, which clashes with JDBC placeholders
+        registry.registerPattern("jsonb_has_key", "jsonb_exists(?1, cast(?2 as text))", booleanType);
+    }
+}
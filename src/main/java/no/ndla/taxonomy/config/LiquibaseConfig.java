@@ -7,17 +7,30 @@
 
 package no.ndla.taxonomy.config;
 
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
-import java.sql.ResultSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import javax.sql.DataSource;
+import liquibase.Contexts;
+import liquibase.LabelExpression;
 import liquibase.exception.LiquibaseException;
 import liquibase.integration.spring.SpringLiquibase;
+import no.ndla.taxonomy.service.VersionSnapshotter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
@@ -26,83 +39,276 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
 
+/**
+ * Migrates the schemas of the versions. The published and beta versions are migrated in parallel before the
+ * application starts, archived versions in the background afterwards, or by the first request that needs them. Delta
+ * versions are migrated together with their base.
+ */
 @Configuration
+@DependsOn("liquibase")
 public class LiquibaseConfig implements InitializingBean, ResourceLoaderAware {
     final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
     private DataSource dataSource;
 
-    @Value("${spring.datasource.hikari.schema:taxonomy_api}")
-    private String defaultSchema;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    @Value("${spring.datasource.url:}")
-    private String dataSourceUrl;
+    @Autowired
+    private VersionSnapshotter versionSnapshotter;
 
-    @Value("${spring.datasource.username:}")
-    private String dataSourceUsername;
+    @Value("${spring.datasource.hikari.schema:taxonomy_api}")
+    private String defaultSchema;
 
-    @Value("${spring.datasource.password:}")
-    private String dataSourcePassword;
+    @Value("${taxonomy.liquibase.threads:4}")
+    private int threads;
 
     @Autowired
     private LiquibaseProperties liquibaseProperties;
 
     private ResourceLoader resourceLoader;
 
+    private final Map<String, Migration> migrations = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
     @Override
     public void afterPropertiesSet() {
-        try {
-            List<String> schemas = new ArrayList<>();
-            ResultSet resultSet = dataSource
-                    .getConnection()
-                    .prepareStatement("SELECT hash FROM version")
-                    .executeQuery();
-            while (resultSet.next()) {
-                schemas.add(String.format("%s_%s", defaultSchema, resultSet.getString(1)));
+        List<String> eager = new ArrayList<>();
+        List<String> archived = new ArrayList<>();
+        Map<String, List<String>> deltas = new HashMap<>();
+        try (var connection = dataSource.getConnection();
+                var statement =
+                        connection.prepareStatement("SELECT v.hash, v.version_type, v.base_hash FROM version v")) {
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    var schema = schemaFromHash(resultSet.getString(1));
+                    var baseHash = resultSet.getString(3);
+                    if (baseHash != null) {
+                        // Delta versions are views on top of their base, and are migrated together with it
+                        deltas.computeIfAbsent(schemaFromHash(baseHash), base -> new ArrayList<>())
+                                .add(schema);
+                    } else {
+                        ("ARCHIVED".equals(resultSet.getString(2)) ? archived : eager).add(schema);
+                    }
+                }
             }
-            this.runOnAllSchemas(dataSource, schemas);
-        } catch (SQLException | LiquibaseException exception) {
+        } catch (SQLException exception) {
             // No version table
             logger.info(
                     "Failed to find version table in database. Does not run migration on alternative schemas",
                     exception);
+            return;
+        }
+
+        var count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(
+                Math.max(1, threads), runnable -> new Thread(runnable, "liquibase-" + count.incrementAndGet()));
+        for (var schema : Stream.concat(eager.stream(), archived.stream()).toList()) {
+            var migration = new Migration(schema, deltas.getOrDefault(schema, List.of()));
+            migrations.put(schema, migration);
+            migration.deltas.forEach(delta -> migrations.put(delta, migration));
+        }
+
+        var started = System.nanoTime();
+        var eagerMigrations = eager.stream()
+                .map(schema -> CompletableFuture.runAsync(migrations.get(schema)::run, executor))
+                .toArray(CompletableFuture[]::new);
+        // Queued behind the eager ones, and picked up by whichever comes first of the pool and a request
+        archived.forEach(schema -> executor.execute(migrations.get(schema)::run));
+        executor.shutdown();
+
+        CompletableFuture.allOf(eagerMigrations).join();
+        logger.info(
+                "Liquibase ran for {} published and beta versions in {} ms, {} archived versions are migrated in the"
+                        + " background",
+                eager.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                archived.size());
+    }
+
+    /**
+     * Waits until the schema of the version is migrated, migrating it right away if no one has started on it yet.
+     * Returns at once for schemas that are migrated or not migrated by this class.
+     */
+    public void awaitMigration(String schema) {
+        var migration = migrations.get(schema);
+        if (migration != null) {
+            migration.run();
+            migration.done.join();
+        }
+    }
+
+    @PreDestroy
+    public void stopMigrations() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private String schemaFromHash(String hash) {
+        return String.format("%s_%s", defaultSchema, hash);
+    }
+
+    /**
+     * Migrates the schema of a version, and of the delta versions on top of it.
+     */
+    private class Migration {
+        private final String schema;
+        private final List<String> deltas;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Migration(String schema, List<String> deltas) {
+            this.schema = schema;
+            this.deltas = deltas;
+        }
+
+        void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                var materialized = materializeIfMigrating(schema, deltas);
+                if (materialized.isEmpty()) {
+                    logger.error("Liquibase skipped for version {}, delta versions are laid out on top of it", schema);
+                    return;
+                }
+                migrate(schema);
+                materialized.get().forEach(LiquibaseConfig.this::migrate);
+            } finally {
+                done.complete(null);
+            }
+        }
+    }
+
+    /**
+     * The overlays of delta versions are laid out for their base as it is. Changesets could change the types of the
+     * columns they show, and data changesets would only reach the rows of the base, so the delta versions are stored in
+     * full before the base is migrated, and migrated like any other version afterwards. Returns the schemas that were
+     * materialized, or nothing if the base must not be migrated as some of them could not be.
+     */
+    private Optional<List<String>> materializeIfMigrating(String base, List<String> deltas) {
+        if (deltas.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        var materialized = new ArrayList<String>();
+        try (var connection = dataSource.getConnection()) {
+            var searchPath = currentSearchPath(connection);
+            try {
+                if (!hasUnrunChangeSets(connection, base)) {
+                    return Optional.of(List.of());
+                }
+                for (var delta : deltas) {
+                    connection.setAutoCommit(false);
+                    try {
+                        versionSnapshotter.materialize(connection, base, delta);
+                        try (var statement = connection.prepareStatement(String.format(
+                                "UPDATE %s.version SET storage = 'FULL', base_hash = NULL WHERE hash = ?",
+                                defaultSchema))) {
+                            statement.setString(1, delta.substring(defaultSchema.length() + 1));
+                            statement.executeUpdate();
+                        }
+                        connection.commit();
+                        materialized.add(delta);
+                    } catch (SQLException | RuntimeException exception) {
+                        connection.rollback();
+                        logger.error(
+                                "Failed to materialize delta version {} before migrating {}", delta, base, exception);
+                        return Optional.empty();
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            } finally {
+                restoreSearchPath(connection, searchPath);
+            }
+        } catch (SQLException | LiquibaseException exception) {
+            logger.error("Failed to check for changesets to run on {}", base, exception);
+            return Optional.empty();
+        }
+        return Optional.of(materialized);
+    }
+
+    private boolean hasUnrunChangeSets(Connection connection, String schema)
+            throws SQLException, LiquibaseException {
+        var liquibase = new SchemaLiquibase();
+        configure(liquibase, new SingleConnectionDataSource(connection, true), schema);
+        return liquibase.hasUnrunChangeSets();
+    }
+
+    /** Exposes the changesets Liquibase would run, without running them. */
+    private static class SchemaLiquibase extends SpringLiquibase {
+        boolean hasUnrunChangeSets() throws SQLException, LiquibaseException {
+            // The connection is closed together with Liquibase, so it is handed a copy that ignores closing
+            try (var liquibase = createLiquibase(getDataSource().getConnection())) {
+                return !liquibase
+                        .listUnrunChangeSets(new Contexts(getContexts()), new LabelExpression(getLabelFilter()))
+                        .isEmpty();
+            }
         }
     }
 
-    protected void runOnAllSchemas(DataSource dataSource, Collection<String> schemas) throws LiquibaseException {
-        for (String schema : schemas) {
-            logger.info("Initializing Liquibase for version " + schema);
-
-            // TODO: There is probably a better way to do this.
-            var ds = dataSource;
-            if (!"".equals(dataSourceUsername)) {
-                var hc = new HikariConfig();
-                hc.setMaximumPoolSize(1);
-                hc.setSchema(schema);
-                hc.setUsername(dataSourceUsername);
-                hc.setPassword(dataSourcePassword);
-                hc.setJdbcUrl(dataSourceUrl);
-                ds = new HikariDataSource(hc);
+    /**
+     * Runs Liquibase on one schema with a connection of its own from the pool. Liquibase moves the connection to the
+     * schema, so it is moved back before it goes back to the pool, where the connection provider expects it to be
+     * where it left it. Failures are logged, the version is served as it is.
+     */
+    private void migrate(String schema) {
+        logger.info("Initializing Liquibase for version " + schema);
+        var sample = Timer.start(meterRegistry);
+        try (var connection = dataSource.getConnection()) {
+            var searchPath = currentSearchPath(connection);
+            try {
+                SpringLiquibase liquibase =
+                        this.getSpringLiquibase(new SingleConnectionDataSource(connection, true), schema);
+                liquibase.afterPropertiesSet();
+            } finally {
+                restoreSearchPath(connection, searchPath);
             }
+            var nanos = sample.stop(Timer.builder("taxonomy.liquibase.migration")
+                    .description("Time taken to migrate the schema of a version")
+                    .tag("schema", schema)
+                    .register(meterRegistry));
+            logger.info("Liquibase ran for version {} in {} ms", schema, TimeUnit.NANOSECONDS.toMillis(nanos));
+        } catch (SQLException | LiquibaseException exception) {
+            logger.error("Liquibase failed for version " + schema, exception);
+        }
+    }
 
-            SpringLiquibase liquibase = this.getSpringLiquibase(ds, schema);
-            liquibase.afterPropertiesSet();
-            logger.info("Liquibase ran for version " + schema);
+    private static String currentSearchPath(Connection connection) throws SQLException {
+        try (var statement = connection.prepareStatement("SELECT current_setting('search_path')");
+                var resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static void restoreSearchPath(Connection connection, String searchPath) throws SQLException {
+        try (var statement = connection.prepareStatement("SELECT set_config('search_path', ?, false)")) {
+            statement.setString(1, searchPath);
+            statement.execute();
         }
     }
 
     protected SpringLiquibase getSpringLiquibase(DataSource dataSource, String schema) {
         SpringLiquibase liquibase = new SpringLiquibase();
+        configure(liquibase, dataSource, schema);
+        return liquibase;
+    }
+
+    private void configure(SpringLiquibase liquibase, DataSource dataSource, String schema) {
         liquibase.setResourceLoader(getResourceLoader());
         liquibase.setDataSource(dataSource);
         liquibase.setDefaultSchema(schema);
         liquibase.setLiquibaseSchema(schema);
         liquibase.setChangeLogParameters(Map.of("schema", schema));
         liquibase.setChangeLog(liquibaseProperties.getChangeLog());
-        return liquibase;
     }
 
     public ResourceLoader getResourceLoader() {
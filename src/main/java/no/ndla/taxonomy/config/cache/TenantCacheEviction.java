@@ -0,0 +1,43 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config.cache;
+
+import java.util.Collection;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Evicts single entries of the version of a session from the second level cache. The eviction methods of Hibernate's
+ * {@link org.hibernate.Cache} build their keys without a tenant, so they never match what is cached for a version.
+ */
+public final class TenantCacheEviction {
+    private TenantCacheEviction() {}
+
+    public static void evictEntities(SharedSessionContractImplementor session, Class<?> entity, Collection<?> ids) {
+        var factory = session.getFactory();
+        var persister = factory.getMappingMetamodel().getEntityDescriptor(entity);
+        var access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        for (var id : ids) {
+            access.evict(access.generateCacheKey(id, persister, factory, session.getTenantIdentifier()));
+        }
+    }
+
+    public static void evictCollections(SharedSessionContractImplementor session, String role, Collection<?> ownerIds) {
+        var factory = session.getFactory();
+        var persister = factory.getMappingMetamodel().getCollectionDescriptor(role);
+        var access = persister.getCacheAccessStrategy();
+        if (access == null) {
+            return;
+        }
+        for (var ownerId : ownerIds) {
+            access.evict(access.generateCacheKey(ownerId, persister, factory, session.getTenantIdentifier()));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Second level cache backed by caffeine. Entity, collection and query regions are partitioned by tenant so that each
+ * version schema gets its own cache. Only locked versions are cached: they never change, so their entries are kept
+ * without expiry and are the same on every instance. Editable versions, the default schema included, can be written
+ * through any instance, so they are read from the database to never serve stale rows or ETags.
+ */
+@Component
+public class TenantCacheRegionFactory extends RegionFactoryTemplate {
+    private static final Logger logger = LoggerFactory.getLogger(TenantCacheRegionFactory.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long maximumSize;
+    private final Map<String, TenantPartitionedStorageAccess> regions = new ConcurrentHashMap<>();
+    private final Set<String> lockedTenants = ConcurrentHashMap.newKeySet();
+
+    public TenantCacheRegionFactory(
+            MeterRegistry meterRegistry, @Value("${taxonomy.cache.max-size:50000}") long maximumSize) {
+        this.meterRegistry = meterRegistry;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        logger.info("Starting second level cache for locked versions with max size {}", maximumSize);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(StorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(
+            DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return register(new TenantPartitionedStorageAccess(
+                regionConfig.getRegionName(), true, this::newCache, lockedTenants::contains));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(
+            String regionName, SessionFactoryImplementor sessionFactory) {
+        return register(new TenantPartitionedStorageAccess(regionName, true, this::newCache, lockedTenants::contains));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(
+            String regionName, SessionFactoryImplementor sessionFactory) {
+        // Table names are the same in every schema, so update timestamps are shared. This only over-invalidates
+        // query results across versions. Timestamps must never expire or stale query results could be served.
+        return register(new TenantPartitionedStorageAccess(
+                regionName,
+                false,
+                tenant -> Caffeine.newBuilder().recordStats().build()));
+    }
+
+    private TenantPartitionedStorageAccess register(TenantPartitionedStorageAccess storage) {
+        regions.put(storage.getRegionName(), storage);
+        Gauge.builder("taxonomy.cache.hit.ratio", storage, TenantPartitionedStorageAccess::hitRatio)
+                .description("Hit ratio of second level cache region")
+                .tag("region", storage.getRegionName())
+                .register(meterRegistry);
+        Gauge.builder("taxonomy.cache.size", storage, TenantPartitionedStorageAccess::size)
+                .description("Entries in second level cache region, all versions")
+                .tag("region", storage.getRegionName())
+                .register(meterRegistry);
+        FunctionCounter.builder("taxonomy.cache.hits", storage, s -> s.stats().hitCount())
+                .tag("region", storage.getRegionName())
+                .register(meterRegistry);
+        FunctionCounter.builder("taxonomy.cache.misses", storage, s -> s.stats().missCount())
+                .tag("region", storage.getRegionName())
+                .register(meterRegistry);
+        return storage;
+    }
+
+    private Cache<Object, Object> newCache(String tenant) {
+        return Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    /**
+     * Sets which tenants are locked, and so cached. Tenants that were locked and are not any longer are dropped from
+     * the cache, as are tenants that become locked, in case something was cached for them before.
+     */
+    public synchronized void setLockedTenants(Set<String> locked) {
+        var changed = new HashSet<String>();
+        lockedTenants.stream().filter(tenant -> !locked.contains(tenant)).forEach(changed::add);
+        locked.stream().filter(tenant -> !lockedTenants.contains(tenant)).forEach(changed::add);
+        lockedTenants.retainAll(locked);
+        lockedTenants.addAll(locked);
+        changed.forEach(this::invalidateTenant);
+    }
+
+    public boolean isLocked(String tenant) {
+        return lockedTenants.contains(tenant);
+    }
+
+    public void invalidateTenant(String tenant) {
+        regions.values().forEach(region -> region.evictTenant(tenant));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * Storage for one hibernate cache region, split into one caffeine cache per tenant (version schema). Hibernate
+ * already includes the tenant in its cache keys, the partitioning lets us drop a single version without touching the
+ * others. Tenants that are not cached are passed straight through to the database.
+ */
+public class TenantPartitionedStorageAccess implements DomainDataStorageAccess {
+    static final String SHARED_PARTITION = "";
+
+    private final String regionName;
+    private final boolean partitioned;
+    private final Function<String, Cache<Object, Object>> cacheFactory;
+    private final Predicate<String> cached;
+    private final Map<String, Cache<Object, Object>> partitions = new ConcurrentHashMap<>();
+    private final AtomicReference<CacheStats> retiredStats = new AtomicReference<>(CacheStats.empty());
+
+    public TenantPartitionedStorageAccess(
+            String regionName, boolean partitioned, Function<String, Cache<Object, Object>> cacheFactory) {
+        this(regionName, partitioned, cacheFactory, tenant -> true);
+    }
+
+    public TenantPartitionedStorageAccess(
+            String regionName,
+            boolean partitioned,
+            Function<String, Cache<Object, Object>> cacheFactory,
+            Predicate<String> cached) {
+        this.regionName = regionName;
+        this.partitioned = partitioned;
+        this.cacheFactory = cacheFactory;
+        this.cached = cached;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    private String tenantOf(SharedSessionContractImplementor session) {
+        if (!partitioned || session == null) {
+            return SHARED_PARTITION;
+        }
+        var tenant = session.getTenantIdentifierValue();
+        return tenant == null ? SHARED_PARTITION : tenant.toString();
+    }
+
+    /**
+     * The cache of the tenant of the session, or null if the tenant is not cached.
+     */
+    private Cache<Object, Object> partition(SharedSessionContractImplementor session) {
+        var tenant = tenantOf(session);
+        if (!cached.test(tenant)) {
+            return null;
+        }
+        return partitions.computeIfAbsent(tenant, cacheFactory);
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        var partition = partition(session);
+        return partition == null ? null : partition.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        var partition = partition(session);
+        if (partition == null) {
+            return;
+        }
+        if (value == null) {
+            partition.invalidate(key);
+            return;
+        }
+        partition.put(key, value);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        var partition = partition(session);
+        if (partition != null) {
+            partition.invalidate(key);
+        }
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        if (session == null) {
+            evictData();
+            return;
+        }
+        var partition = partition(session);
+        if (partition != null) {
+            partition.invalidateAll();
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return partitions.values().stream().anyMatch(cache -> cache.getIfPresent(key) != null);
+    }
+
+    @Override
+    public void evictData() {
+        partitions.values().forEach(Cache::invalidateAll);
+    }
+
+    @Override
+    public void evictData(Object key) {
+        partitions.values().forEach(cache -> cache.invalidate(key));
+    }
+
+    /**
+     * Drops everything cached for the tenant. The partition is recreated on next use if the tenant is still cached.
+     */
+    public void evictTenant(String tenant) {
+        var removed = partitions.remove(tenant);
+        if (removed != null) {
+            retiredStats.accumulateAndGet(removed.stats(), CacheStats::plus);
+            removed.invalidateAll();
+        }
+    }
+
+    public CacheStats stats() {
+        return partitions.values().stream().map(Cache::stats).reduce(retiredStats.get(), CacheStats::plus);
+    }
+
+    public double hitRatio() {
+        return stats().hitRate();
+    }
+
+    public long size() {
+        return partitions.values().stream().mapToLong(Cache::estimatedSize).sum();
+    }
+
+    @Override
+    public void release() {
+        evictData();
+        partitions.clear();
+    }
+}
@@ -17,18 +17,28 @@ import no.ndla.taxonomy.config.Constants;
 import no.ndla.taxonomy.domain.exceptions.ChildNotFoundException;
 import no.ndla.taxonomy.domain.exceptions.DuplicateIdException;
 import no.ndla.taxonomy.util.PrettyUrlUtil;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Node extends DomainObject implements EntityWithMetadata {
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(Node.class);
 
     @OneToMany(mappedBy = "child", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OptimisticLock(excluded = true)
     private final Set<NodeConnection> parentConnections = new TreeSet<>();
 
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @OptimisticLock(excluded = true)
     private final Set<NodeConnection> childConnections = new TreeSet<>();
 
     @Column
@@ -47,6 +57,7 @@ public class Node extends DomainObject implements EntityWithMetadata {
 
     @Column
     @UpdateTimestamp
+    @OptimisticLock(excluded = true)
     private Instant updated_at;
 
     @Column
@@ -72,10 +83,12 @@ public class Node extends DomainObject implements EntityWithMetadata {
 
     @Type(JsonBinaryType.class)
     @Column(name = "contexts", columnDefinition = "jsonb")
+    @OptimisticLock(excluded = true)
     private Set<TaxonomyContext> contexts = new HashSet<>();
 
     @Type(JsonBinaryType.class)
     @Column(name = "contextids", columnDefinition = "jsonb")
+    @OptimisticLock(excluded = true)
     private Set<String> contextIds = new HashSet<>();
 
     @Column(name = "quality_evaluation")
@@ -86,9 +99,11 @@ public class Node extends DomainObject implements EntityWithMetadata {
     private String qualityEvaluationComment;
 
     @Column(name = "child_quality_evaluation_sum")
+    @OptimisticLock(excluded = true)
     private int childQualityEvaluationSum;
 
     @Column(name = "child_quality_evaluation_count")
+    @OptimisticLock(excluded = true)
     private int childQualityEvaluationCount;
 
     @Column(name = "requires_technical_evaluation")
@@ -97,6 +112,14 @@ public class Node extends DomainObject implements EntityWithMetadata {
     @Column(name = "technical_evaluation_comment")
     private String technicalEvaluationComment;
 
+    /*
+     * Bumped on every edit of the node itself. Connections, contexts and averages are derived or belong to other
+     * rows, so changing them does not count as an edit.
+     */
+    @jakarta.persistence.Version
+    @Column(name = "row_version")
+    private int rowVersion;
+
     // Needed for hibernate
     public Node() {}
 
@@ -246,14 +269,42 @@ public class Node extends DomainObject implements EntityWithMetadata {
     }
 
     public void updateEntireAverageTree() {
-        var allChildGrades = getChildGradesRecursively();
-        var gradeAverage = GradeAverage.fromGrades(allChildGrades);
+        var gradeAverage = computeChildQualityEvaluationAverage(new IdentityHashMap<>());
         logger.info(
                 "Found average grades for {} children of node '{}' -> {}",
-                allChildGrades.size(),
+                gradeAverage.getCount(),
                 this.getPublicId(),
                 gradeAverage);
 
+        setChildQualityEvaluationAverage(gradeAverage);
+    }
+
+    /**
+     * Sums the grades of the resources below this node, counting a resource once for each path to it. Averages already
+     * in the map are reused, so shared subtrees are only walked once.
+     */
+    public GradeAverage computeChildQualityEvaluationAverage(Map<Node, GradeAverage> computed) {
+        var cached = computed.get(this);
+        if (cached != null) {
+            return cached;
+        }
+        var sum = 0;
+        var count = 0;
+        for (var child : getChildNodesForQualityEvaluation()) {
+            var childAverage = child.computeChildQualityEvaluationAverage(computed);
+            sum += childAverage.getAverageSum();
+            count += childAverage.getCount();
+            if (child.nodeType == NodeType.RESOURCE && child.qualityEvaluation != null) {
+                sum += child.qualityEvaluation.toInt();
+                count++;
+            }
+        }
+        var average = new GradeAverage(sum, count);
+        computed.put(this, average);
+        return average;
+    }
+
+    public void setChildQualityEvaluationAverage(GradeAverage gradeAverage) {
         if (gradeAverage.count == 0) {
             this.childQualityEvaluationSum = 0;
             this.childQualityEvaluationCount = 0;
@@ -263,19 +314,6 @@ public class Node extends DomainObject implements EntityWithMetadata {
         }
     }
 
-    public List<Optional<Grade>> getChildGradesRecursively() {
-        var children = getChildNodesForQualityEvaluation();
-        return children.stream()
-                .flatMap(child -> {
-                    ArrayList<Optional<Grade>> childGrades = new ArrayList<>(child.getChildGradesRecursively());
-                    if (child.nodeType == NodeType.RESOURCE) {
-                        childGrades.add(child.getQualityEvaluationGrade());
-                    }
-                    return childGrades.stream();
-                })
-                .toList();
-    }
-
     public void setQualityEvaluation(Grade qualityEvaluation) {
         this.qualityEvaluation = qualityEvaluation;
     }
@@ -693,6 +731,10 @@ public class Node extends DomainObject implements EntityWithMetadata {
         return this.updated_at;
     }
 
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
     @PreRemove
     void preRemove() {
         Set.copyOf(childConnections).forEach(NodeConnection::disassociate);
@@ -12,11 +12,15 @@ import jakarta.persistence.*;
 import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OptimisticLock;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class NodeConnection extends DomainEntity
         implements EntityWithMetadata, Comparable<NodeConnection>, SortableResourceConnection {
     @ManyToOne
@@ -54,12 +58,17 @@ public class NodeConnection extends DomainEntity
 
     @Column
     @UpdateTimestamp
+    @OptimisticLock(excluded = true)
     private Instant updated_at;
 
     @Enumerated(EnumType.STRING)
     @Column
     private NodeConnectionType connectionType = NodeConnectionType.BRANCH;
 
+    @jakarta.persistence.Version
+    @Column(name = "row_version")
+    private int rowVersion;
+
     public NodeConnection() {
         setPublicId(URI.create("urn:node-connection:" + UUID.randomUUID()));
     }
@@ -250,6 +259,10 @@ public class NodeConnection extends DomainEntity
         return this.updated_at;
     }
 
+    public int getRowVersion() {
+        return rowVersion;
+    }
+
     public NodeConnectionType getConnectionType() {
         return connectionType;
     }
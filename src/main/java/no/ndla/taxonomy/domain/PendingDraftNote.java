@@ -0,0 +1,101 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * A note waiting to be sent to draft-api. Written in the same transaction as the change it describes, and deleted once
+ * draft-api has accepted it. Notes are sent with the credentials of taxonomy-api, so no token of the caller is kept.
+ */
+@Entity
+public class PendingDraftNote {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column
+    private long draftId;
+
+    @Column
+    private String note;
+
+    @Column
+    private Instant created;
+
+    @Column
+    private int attempts;
+
+    @Column
+    private Instant nextAttempt;
+
+    @Column
+    private String lastError;
+
+    @Column
+    private Instant deadLettered;
+
+    protected PendingDraftNote() {}
+
+    public PendingDraftNote(long draftId, String note) {
+        this.draftId = draftId;
+        this.note = note;
+        this.created = Instant.now();
+        this.nextAttempt = this.created;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getDraftId() {
+        return draftId;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(Instant nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    public Optional<String> getLastError() {
+        return Optional.ofNullable(lastError);
+    }
+
+    public Optional<Instant> getDeadLettered() {
+        return Optional.ofNullable(deadLettered);
+    }
+
+    public void attemptFailed(String error, Instant nextAttempt) {
+        this.attempts++;
+        this.lastError = error;
+        this.nextAttempt = nextAttempt;
+    }
+
+    public void deadLetter(String error) {
+        this.attempts++;
+        this.lastError = error;
+        this.deadLettered = Instant.now();
+    }
+}
@@ -10,6 +10,7 @@ package no.ndla.taxonomy.domain;
 import jakarta.persistence.*;
 import java.net.URI;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Entity
@@ -23,6 +24,10 @@ public class ResourceResourceType extends DomainEntity implements Comparable<Res
     @JoinColumn(name = "resource_type_id")
     private ResourceType resourceType;
 
+    // Read without loading the resource type, which is looked up in the resource type tree instead
+    @Column(name = "resource_type_id", insertable = false, updatable = false)
+    private Integer resourceTypeId;
+
     public ResourceResourceType() {
         setPublicId(URI.create("urn:resource-resourcetype:" + UUID.randomUUID()));
     }
@@ -32,6 +37,7 @@ public class ResourceResourceType extends DomainEntity implements Comparable<Res
 
         resourceResourceType.node = resource;
         resourceResourceType.resourceType = resourceType;
+        resourceResourceType.resourceTypeId = resourceType.getId();
 
         resource.addResourceResourceType(resourceResourceType);
 
@@ -64,6 +70,11 @@ public class ResourceResourceType extends DomainEntity implements Comparable<Res
 
     public void setResourceType(ResourceType resourceType) {
         this.resourceType = resourceType;
+        this.resourceTypeId = resourceType != null ? resourceType.getId() : null;
+    }
+
+    public Optional<Integer> getResourceTypeId() {
+        return Optional.ofNullable(resourceTypeId);
     }
 
     @PreRemove
@@ -12,10 +12,13 @@ import jakarta.persistence.*;
 import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import org.jetbrains.annotations.NotNull;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ResourceType extends DomainObject implements Comparable<ResourceType> {
 
     public ResourceType() {
@@ -29,6 +32,7 @@ public class ResourceType extends DomainObject implements Comparable<ResourceTyp
     @OneToMany(
             mappedBy = "parent",
             cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.PERSIST})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<ResourceType> subtypes = new HashSet<>();
 
     @Type(JsonBinaryType.class)
@@ -39,6 +39,13 @@ public class Version extends DomainEntity {
     @Column
     private Instant archived;
 
+    @Column
+    @Enumerated(EnumType.STRING)
+    private VersionStorage storage = VersionStorage.FULL;
+
+    @Column
+    private String baseHash;
+
     public Version() {
         setPublicId(URI.create("urn:version:" + UUID.randomUUID()));
         this.hash = HashUtil.shortHash(getPublicId());
@@ -96,4 +103,20 @@ public class Version extends DomainEntity {
     public void setArchived(Instant archived) {
         this.archived = archived;
     }
+
+    public VersionStorage getStorage() {
+        return storage;
+    }
+
+    public void setStorage(VersionStorage storage) {
+        this.storage = storage;
+    }
+
+    public String getBaseHash() {
+        return baseHash;
+    }
+
+    public void setBaseHash(String baseHash) {
+        this.baseHash = baseHash;
+    }
 }
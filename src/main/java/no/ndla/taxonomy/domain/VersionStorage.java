@@ -0,0 +1,20 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.domain;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * How the schema of a version is stored. {@code FULL} versions have a copy of every table, {@code DELTA} versions only
+ * the rows changed since the locked version they are based on.
+ */
+@Schema(enumAsRef = true)
+public enum VersionStorage {
+    FULL,
+    DELTA
+}
@@ -7,8 +7,8 @@
 
 package no.ndla.taxonomy.integration;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.Optional;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.http.client.ClientHttpRequestInitializer;
 import org.springframework.lang.NonNull;
@@ -17,21 +17,19 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 
 /** Gets the Authorization header from the incoming request and passes it along to the outgoing request. */
 public class AuthorizationRequestInitializer implements ClientHttpRequestInitializer {
-    private static final Logger logger = LoggerFactory.getLogger(AuthorizationRequestInitializer.class);
-
     @Override
     public void initialize(@NonNull ClientHttpRequest request) {
-        var incomingRequest = RequestContextHolder.getRequestAttributes();
-        if (incomingRequest == null) {
-            logger.warn("No incoming request found in context, skipping authorization header");
-            return;
-        }
-
-        var servletRequest = ((ServletRequestAttributes) incomingRequest).getRequest();
-        var authHeader = servletRequest.getHeader("Authorization");
+        // Outside a request, such as when notes are dispatched, the service token is set on the request instead
+        incomingAuthorization().ifPresent(header -> request.getHeaders().add(HttpHeaders.AUTHORIZATION, header));
+    }
 
-        if (authHeader != null && !authHeader.isEmpty()) {
-            request.getHeaders().add("Authorization", authHeader);
+    /** The Authorization header of the request being handled on this thread, if any. */
+    private static Optional<String> incomingAuthorization() {
+        var incomingRequest = RequestContextHolder.getRequestAttributes();
+        if (!(incomingRequest instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return Optional.empty();
         }
+        var authHeader = servletRequestAttributes.getRequest().getHeader(HttpHeaders.AUTHORIZATION);
+        return Optional.ofNullable(authHeader).filter(header -> !header.isEmpty());
     }
 }
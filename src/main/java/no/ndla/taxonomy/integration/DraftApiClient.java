@@ -20,6 +20,8 @@ import no.ndla.taxonomy.service.VersionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
@@ -28,11 +30,18 @@ import org.springframework.web.client.RestClient;
 public class DraftApiClient {
     private static final Logger logger = LoggerFactory.getLogger(DraftApiClient.class);
     private final RestClient restClient;
+    private final DraftNotesOutbox draftNotesOutbox;
+    private final ServiceTokenProvider serviceTokenProvider;
 
     @Value("${spring.datasource.hikari.schema:taxonomy_api}")
     private String defaultSchema;
 
-    public DraftApiClient(@Value("${DRAFT_API_HOST:draft-api}") String draftApiHost) {
+    public DraftApiClient(
+            @Value("${DRAFT_API_HOST:draft-api}") String draftApiHost,
+            DraftNotesOutbox draftNotesOutbox,
+            ServiceTokenProvider serviceTokenProvider) {
+        this.draftNotesOutbox = draftNotesOutbox;
+        this.serviceTokenProvider = serviceTokenProvider;
         var baseUrl = String.format("http://%s/draft-api", draftApiHost);
         restClient = RestClient.builder()
                 .baseUrl(baseUrl)
@@ -297,30 +306,24 @@ public class DraftApiClient {
     }
 
     private void updateNotes(UpdateNotesDTO updateNotes) {
-        int maxRetries = 3;
-        int attempt = 0;
-        while (attempt < maxRetries) {
-            var response = restClient
-                    .post()
-                    .uri("/v1/drafts/notes")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(updateNotes)
-                    .retrieve()
-                    .onStatus(status -> status.value() == 409, (request, resp) -> {
-                        // Don't throw exception, will retry in the loop
-                    })
-                    .toBodilessEntity();
-
-            if (response.getStatusCode().is2xxSuccessful()) {
-                return;
-            } else if (response.getStatusCode().value() == 409) {
-                attempt++;
-            } else {
-                logger.error(
-                        "Got status code '{}' when updating notes",
-                        response.getStatusCode().value());
-                break;
-            }
-        }
+        draftNotesOutbox.enqueue(updateNotes);
+    }
+
+    /**
+     * Posts notes to draft-api. Called by {@link DraftNotesDispatcher}, outside any request, so the notes are sent with
+     * the credentials of taxonomy-api rather than those of the requests that made them.
+     *
+     * @return the status code from draft-api
+     */
+    public HttpStatusCode sendNotes(UpdateNotesDTO updateNotes) {
+        var request = restClient.post().uri("/v1/drafts/notes").contentType(MediaType.APPLICATION_JSON);
+        serviceTokenProvider.authorization().ifPresent(header -> request.header(HttpHeaders.AUTHORIZATION, header));
+        return request.body(updateNotes)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, resp) -> {
+                    // Reported through the returned status, the dispatcher decides whether to retry
+                })
+                .toBodilessEntity()
+                .getStatusCode();
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.integration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import no.ndla.taxonomy.domain.PendingDraftNote;
+import no.ndla.taxonomy.integration.dtos.DraftNotesDTO;
+import no.ndla.taxonomy.integration.dtos.UpdateNotesDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Sends the notes in {@link DraftNotesOutbox} to draft-api. Due notes are sent in batches, with all notes for one
+ * draft merged into a single entry, so a burst of connection changes becomes a single call. Failed notes are retried
+ * with backoff and dead-lettered after {@link DraftNotesOutbox#MAX_ATTEMPTS} attempts.
+ */
+@Component
+public class DraftNotesDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DraftNotesDispatcher.class);
+    static final int BATCH_SIZE = 200;
+    private static final Duration LEASE = Duration.ofMinutes(2);
+    static final Duration DEAD_LETTER_RETENTION = Duration.ofDays(30);
+
+    private final DraftNotesOutbox draftNotesOutbox;
+    private final DraftApiClient draftApiClient;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public DraftNotesDispatcher(
+            DraftNotesOutbox draftNotesOutbox, DraftApiClient draftApiClient, MeterRegistry meterRegistry) {
+        this.draftNotesOutbox = draftNotesOutbox;
+        this.draftApiClient = draftApiClient;
+        this.sentCounter = Counter.builder("taxonomy.draft.notes.sent")
+                .description("Notes delivered to draft-api")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("taxonomy.draft.notes.failed")
+                .description("Note deliveries to draft-api that failed and will be retried or dead-lettered")
+                .register(meterRegistry);
+        Gauge.builder("taxonomy.draft.notes.pending", pending, AtomicLong::get)
+                .description("Notes waiting to be sent to draft-api")
+                .register(meterRegistry);
+        Gauge.builder("taxonomy.draft.notes.dead", deadLettered, AtomicLong::get)
+                .description("Notes that gave up after too many attempts")
+                .register(meterRegistry);
+        Gauge.builder("taxonomy.draft.notes.lag", lagMillis, millis -> millis.get() / 1000.0)
+                .description("Age of the oldest note waiting to be sent")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${taxonomy.draft-notes.dispatch-delay-ms:2000}",
+            fixedDelayString = "${taxonomy.draft-notes.dispatch-delay-ms:2000}")
+    public void dispatch() {
+        List<PendingDraftNote> claimed;
+        boolean allDelivered;
+        do {
+            claimed = draftNotesOutbox.claimDue(BATCH_SIZE, LEASE);
+            allDelivered = claimed.isEmpty() || send(claimed);
+        } while (allDelivered && claimed.size() == BATCH_SIZE);
+        updateStats();
+    }
+
+    @Scheduled(
+            initialDelayString = "${taxonomy.draft-notes.purge-delay-ms:3600000}",
+            fixedDelayString = "${taxonomy.draft-notes.purge-delay-ms:3600000}")
+    public void purgeDeadLettered() {
+        var purged = draftNotesOutbox.purgeDeadLettered(DEAD_LETTER_RETENTION);
+        if (purged > 0) {
+            logger.info("Purged {} dead-lettered notes for draft-api", purged);
+        }
+    }
+
+    /**
+     * @return true if every note was delivered
+     */
+    private boolean send(List<PendingDraftNote> notes) {
+        var ids = notes.stream().map(PendingDraftNote::getId).toList();
+        String error;
+        try {
+            var status = draftApiClient.sendNotes(coalesce(notes));
+            if (status.is2xxSuccessful()) {
+                draftNotesOutbox.delivered(ids);
+                sentCounter.increment(ids.size());
+                return true;
+            }
+            error = "Got status code " + status.value();
+        } catch (RestClientException e) {
+            error = e.getMessage();
+        }
+        logger.warn("Failed to send {} notes to draft-api: {}", ids.size(), error);
+        draftNotesOutbox.failed(ids, error);
+        failedCounter.increment(ids.size());
+        return false;
+    }
+
+    static UpdateNotesDTO coalesce(List<PendingDraftNote> notes) {
+        var byDraft = new LinkedHashMap<Long, List<String>>();
+        notes.forEach(note -> byDraft.computeIfAbsent(note.getDraftId(), id -> new ArrayList<>())
+                .add(note.getNote()));
+        return new UpdateNotesDTO(byDraft.entrySet().stream()
+                .map(entry -> new DraftNotesDTO(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    private void updateStats() {
+        var stats = draftNotesOutbox.stats();
+        pending.set(stats.getPending());
+        deadLettered.set(stats.getDeadLettered());
+        lagMillis.set(Optional.ofNullable(stats.getLagSeconds())
+                .map(seconds -> Math.round(seconds * 1000))
+                .orElse(0L));
+    }
+}
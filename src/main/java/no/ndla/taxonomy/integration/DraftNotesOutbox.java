@@ -0,0 +1,95 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.integration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import no.ndla.taxonomy.domain.PendingDraftNote;
+import no.ndla.taxonomy.integration.dtos.UpdateNotesDTO;
+import no.ndla.taxonomy.repositories.PendingDraftNoteRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores notes for draft-api until {@link DraftNotesDispatcher} has delivered them. Each method is its own short
+ * transaction, nothing here holds a transaction open while talking to draft-api.
+ */
+@Service
+public class DraftNotesOutbox {
+    static final int MAX_ATTEMPTS = 10;
+    private static final Duration FIRST_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final PendingDraftNoteRepository pendingDraftNoteRepository;
+
+    public DraftNotesOutbox(PendingDraftNoteRepository pendingDraftNoteRepository) {
+        this.pendingDraftNoteRepository = pendingDraftNoteRepository;
+    }
+
+    /**
+     * Joins the caller's transaction, so the notes are only kept if the change they describe is committed.
+     */
+    @Transactional
+    public void enqueue(UpdateNotesDTO updateNotes) {
+        var pending = updateNotes.data().stream()
+                .flatMap(draftNotes -> draftNotes.notes().stream()
+                        .map(note -> new PendingDraftNote(draftNotes.draftId(), note)))
+                .toList();
+        pendingDraftNoteRepository.saveAll(pending);
+    }
+
+    /**
+     * Takes up to limit due notes and pushes their next attempt out by the lease, so other dispatchers leave them alone
+     * while these are being sent.
+     */
+    @Transactional
+    public List<PendingDraftNote> claimDue(int limit, Duration lease) {
+        var due = pendingDraftNoteRepository.lockDue(limit);
+        var leasedUntil = Instant.now().plus(lease);
+        due.forEach(note -> note.setNextAttempt(leasedUntil));
+        return due;
+    }
+
+    @Transactional
+    public void delivered(Collection<Integer> ids) {
+        pendingDraftNoteRepository.deleteAllByIdInBatch(ids);
+    }
+
+    @Transactional
+    public void failed(Collection<Integer> ids, String error) {
+        pendingDraftNoteRepository.findAllById(ids).forEach(note -> {
+            if (note.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                note.deadLetter(error);
+            } else {
+                note.attemptFailed(error, Instant.now().plus(backoff(note.getAttempts())));
+            }
+        });
+    }
+
+    /**
+     * Deletes notes that were dead-lettered more than the retention ago, they are kept that long to be looked into.
+     *
+     * @return the number of notes deleted
+     */
+    @Transactional
+    public int purgeDeadLettered(Duration retention) {
+        return pendingDraftNoteRepository.deleteDeadLetteredBefore(Instant.now().minus(retention));
+    }
+
+    @Transactional(readOnly = true)
+    public PendingDraftNoteRepository.OutboxStats stats() {
+        return pendingDraftNoteRepository.stats();
+    }
+
+    static Duration backoff(int previousAttempts) {
+        var backoff = FIRST_BACKOFF.multipliedBy(1L << Math.min(previousAttempts, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.integration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Gets tokens for taxonomy-api itself with the client credentials grant, for calls made outside any request, such as
+ * when {@link DraftNotesDispatcher} sends notes. The token is kept until shortly before it expires.
+ */
+@Component
+public class ServiceTokenProvider {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenProvider.class);
+    private static final Duration EXPIRY_MARGIN = Duration.ofMinutes(1);
+
+    private final RestClient restClient;
+    private final String audience;
+    private final String clientId;
+    private final String clientSecret;
+    private Token token;
+
+    private record Token(String authorization, Instant refreshAfter) {}
+
+    private record TokenResponse(
+            @JsonProperty("access_token") String accessToken,
+            @JsonProperty("token_type") String tokenType,
+            @JsonProperty("expires_in") long expiresIn) {}
+
+    public ServiceTokenProvider(
+            @Value("${auth0.issuer:}") String issuer,
+            @Value("${auth0.audience:ndla_system}") String audience,
+            @Value("${TAXONOMY_CLIENT_ID:}") String clientId,
+            @Value("${TAXONOMY_CLIENT_SECRET:}") String clientSecret) {
+        this.restClient = RestClient.builder().baseUrl(issuer).build();
+        this.audience = audience;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        if (clientId.isEmpty() || clientSecret.isEmpty()) {
+            logger.warn("No client credentials configured, calls to other services are made without authorization");
+        }
+    }
+
+    /**
+     * The Authorization header to send, or nothing if no client credentials are configured.
+     *
+     * @throws RestClientException if a new token was needed and could not be had
+     */
+    public synchronized Optional<String> authorization() {
+        if (clientId.isEmpty() || clientSecret.isEmpty()) {
+            return Optional.empty();
+        }
+        if (token == null || Instant.now().isAfter(token.refreshAfter())) {
+            token = fetchToken();
+        }
+        return Optional.of(token.authorization());
+    }
+
+    private Token fetchToken() {
+        var form = new LinkedMultiValueMap<String, String>();
+        form.add("grant_type", "client_credentials");
+        form.add("client_id", clientId);
+        form.add("client_secret", clientSecret);
+        form.add("audience", audience);
+        var response = restClient
+                .post()
+                .uri("oauth/token")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(form)
+                .retrieve()
+                .body(TokenResponse.class);
+        if (response == null || response.accessToken() == null) {
+            throw new RestClientException("Got no access token for the client credentials");
+        }
+        var tokenType = Optional.ofNullable(response.tokenType()).orElse("Bearer");
+        var expiresIn = Duration.ofSeconds(response.expiresIn()).minus(EXPIRY_MARGIN);
+        return new Token(tokenType + " " + response.accessToken(), Instant.now().plus(expiresIn));
+    }
+}
@@ -7,14 +7,19 @@
 
 package no.ndla.taxonomy.repositories;
 
+import jakarta.persistence.QueryHint;
 import java.net.URI;
 import java.util.*;
+import java.util.stream.Stream;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.NodeType;
 import no.ndla.taxonomy.domain.Relevance;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface NodeConnectionRepository extends TaxonomyRepository<NodeConnection> {
     @Query("""
@@ -101,4 +106,156 @@ public interface NodeConnectionRepository extends TaxonomyRepository<NodeConnect
             AND nc.child.id = :childId
             """)
     NodeConnection findByParentIdAndChildId(Integer parentId, Integer childId);
+
+    /**
+     * Gives the children of a parent ranks 1..n in the order of the given connection ids. Bumps the row version like
+     * an edit through Hibernate would.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node_connection"))
+    @Query(nativeQuery = true, value = """
+            UPDATE node_connection nc
+            SET rank = o.ordinal, row_version = nc.row_version + 1
+            FROM unnest(cast(:connectionIds as text[])) WITH ORDINALITY AS o(public_id, ordinal)
+            WHERE nc.public_id = o.public_id
+            AND nc.parent_id = :parentId
+            """)
+    int updateChildRanks(Integer parentId, String[] connectionIds);
+
+    /**
+     * Sets the rank of the contexts created by the given connections to match {@link #updateChildRanks}, leaving
+     * the rest of the contexts as they are.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node"))
+    @Query(nativeQuery = true, value = """
+            UPDATE node n
+            SET contexts = (
+                SELECT jsonb_agg(CASE
+                    WHEN o.ordinal IS NULL THEN ctx
+                    ELSE jsonb_set(ctx, '{rank}', to_jsonb(o.ordinal))
+                END)
+                FROM jsonb_array_elements(n.contexts) AS ctx
+                LEFT JOIN unnest(cast(:connectionIds as text[])) WITH ORDINALITY AS o(public_id, ordinal)
+                    ON ctx ->> 'connectionId' = o.public_id
+            )
+            WHERE n.id IN (SELECT nc.child_id FROM node_connection nc WHERE nc.parent_id = :parentId)
+            AND jsonb_array_length(n.contexts) > 0
+            """)
+    int updateChildContextRanks(Integer parentId, String[] connectionIds);
+
+    /**
+     * Copies the connections between the source nodes to the matching clones, keeping rank, relevance and metadata.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node_connection"))
+    @Query(nativeQuery = true, value = """
+            INSERT INTO node_connection (public_id, parent_id, child_id, rank, is_primary, relevance, visible,
+                grepcodes, customfields, connection_type, created_at, updated_at)
+            SELECT 'urn:node-connection:' || gen_random_uuid(), p.clone_id, c.clone_id, nc.rank, nc.is_primary,
+                nc.relevance, nc.visible, nc.grepcodes, nc.customfields, nc.connection_type, now(), now()
+            FROM node_connection nc
+            JOIN unnest(cast(:sourceIds as int[]), cast(:cloneIds as int[])) AS p(source_id, clone_id)
+                ON p.source_id = nc.parent_id
+            JOIN unnest(cast(:sourceIds as int[]), cast(:cloneIds as int[])) AS c(source_id, clone_id)
+                ON c.source_id = nc.child_id
+            """)
+    int cloneConnections(Integer[] sourceIds, Integer[] cloneIds);
+
+    /**
+     * Makes the oldest parent connection primary for each of the given children that has parents but no primary one.
+     * Links are never made primary, and a child with only links as parents is left without a primary parent.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node_connection"))
+    @Query(nativeQuery = true, value = """
+            UPDATE node_connection
+            SET is_primary = true, row_version = row_version + 1
+            WHERE id IN (
+                SELECT min(id) FROM node_connection
+                WHERE child_id = ANY(cast(:childIds as int[]))
+                AND connection_type IS DISTINCT FROM 'LINK'
+                GROUP BY child_id
+                HAVING NOT bool_or(is_primary)
+            )
+            """)
+    int ensurePrimaryParents(Integer[] childIds);
+
+    interface ConnectionEdge {
+        Integer getParentId();
+
+        Integer getChildId();
+    }
+
+    /**
+     * All parent-child pairs that count towards quality evaluation averages, that is every connection except links.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT nc.parent_id AS "parentId", nc.child_id AS "childId"
+            FROM node_connection nc
+            WHERE nc.connection_type IS DISTINCT FROM 'LINK'
+            AND nc.parent_id IS NOT NULL
+            AND nc.child_id IS NOT NULL
+            """)
+    Stream<ConnectionEdge> streamQualityEvaluationEdges();
+
+    @Query(nativeQuery = true, value = """
+            SELECT nc.id
+            FROM node_connection nc
+            WHERE nc.parent_id = ANY(cast(:nodeIds as int[]))
+            OR nc.child_id = ANY(cast(:nodeIds as int[]))
+            """)
+    List<Integer> findIdsByNodeIds(Integer[] nodeIds);
+
+    /**
+     * Children of the given nodes that are not among them themselves.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT DISTINCT nc.child_id
+            FROM node_connection nc
+            WHERE nc.parent_id = ANY(cast(:nodeIds as int[]))
+            AND NOT nc.child_id = ANY(cast(:nodeIds as int[]))
+            """)
+    List<Integer> findChildIdsOutside(Integer[] nodeIds);
+
+    /**
+     * Parents of the given nodes that are not among them themselves. Links are left out, as they do not count towards
+     * the parents' quality evaluation averages.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT DISTINCT nc.parent_id
+            FROM node_connection nc
+            WHERE nc.child_id = ANY(cast(:nodeIds as int[]))
+            AND NOT nc.parent_id = ANY(cast(:nodeIds as int[]))
+            AND nc.connection_type IS DISTINCT FROM 'LINK'
+            """)
+    List<Integer> findParentIdsOutside(Integer[] nodeIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node_connection"))
+    @Query(nativeQuery = true, value = """
+            DELETE FROM node_connection
+            WHERE parent_id = ANY(cast(:nodeIds as int[]))
+            OR child_id = ANY(cast(:nodeIds as int[]))
+            """)
+    int deleteByNodeIds(Integer[] nodeIds);
+
+    /**
+     * Parents of the given nodes, except through links.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT DISTINCT nc.parent_id
+            FROM node_connection nc
+            WHERE nc.child_id = ANY(cast(:childIds as int[]))
+            AND nc.connection_type IS DISTINCT FROM 'LINK'
+            """)
+    List<Integer> findParentIds(Integer[] childIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node_connection"))
+    @Query(nativeQuery = true, value = """
+            DELETE FROM node_connection
+            WHERE child_id = ANY(cast(:childIds as int[]))
+            """)
+    int deleteByChildIds(Integer[] childIds);
 }
@@ -7,6 +7,7 @@
 
 package no.ndla.taxonomy.repositories;
 
+import jakarta.persistence.QueryHint;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
@@ -14,12 +15,20 @@ import java.util.Optional;
 import java.util.stream.Stream;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface NodeRepository extends TaxonomyRepository<Node> {
+    /**
+     * Query space of the updates to child quality evaluations. Not the node table, as Hibernate would then drop every
+     * cached node of the version on each grade change. The callers evict the nodes they changed instead.
+     */
+    String CHILD_QUALITY_EVALUATION_SPACE = "node_child_quality_evaluation";
+
     @Query("SELECT DISTINCT n FROM Node n WHERE n.context = :isContext")
     List<Node> findAllByContextIncludingCachedUrlsAndTranslations(boolean isContext);
 
@@ -37,14 +46,6 @@ public interface NodeRepository extends TaxonomyRepository<Node> {
             """)
     List<Node> findByIds(Collection<Integer> ids);
 
-    @Query("""
-            SELECT n
-            FROM Node n
-            LEFT JOIN FETCH n.parentConnections pc
-            WHERE n.qualityEvaluation IS NOT NULL
-            """)
-    Stream<Node> findNodesWithQualityEvaluation();
-
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("""
             UPDATE Node n
@@ -58,9 +59,11 @@ public interface NodeRepository extends TaxonomyRepository<Node> {
             LEFT JOIN n.parentConnections pc
             WHERE ((:#{#nodeTypes == null} = true) OR n.nodeType in (:nodeTypes))
             AND ((:#{#publicIds == null} = true) OR n.publicId in (:publicIds))
-            AND (:metadataFilterKey IS NULL OR jsonb_extract_path_text(n.customfields, cast(:metadataFilterKey as text)) IS NOT NULL)
-            AND (:metadataFilterValue IS NULL OR cast(jsonb_path_query_array(n.customfields, '$.*') as text) like :metadataFilterValue)
+            AND (:metadataFilterKey IS NULL OR jsonb_has_key(n.customfields, :metadataFilterKey) = true)
+            AND (:containedKey IS NULL OR jsonb_contains_entry(n.customfields, :containedKey, :containedValue) = true)
+            AND (:valuePath IS NULL OR jsonb_matches_path(n.customfields, :valuePath) = true)
             AND (:contentUri IS NULL OR n.contentUri = :contentUri)
+            AND ((:#{#ids == null} = true) OR n.id in (:ids))
             AND (:isContext IS NULL OR n.context = :isContext)
             AND (:isRoot IS NULL OR (pc IS NULL AND n.context = true))
             """)
@@ -68,11 +71,34 @@ public interface NodeRepository extends TaxonomyRepository<Node> {
             Optional<List<NodeType>> nodeTypes,
             Optional<List<URI>> publicIds,
             Optional<String> metadataFilterKey,
-            Optional<String> metadataFilterValue,
+            Optional<String> containedKey,
+            Optional<String> containedValue,
+            Optional<String> valuePath,
             Optional<URI> contentUri,
+            Optional<Collection<Integer>> ids,
             Optional<Boolean> isRoot,
             Optional<Boolean> isContext);
 
+    interface GrepCodeNode {
+        String getCode();
+
+        Integer getId();
+
+        String getPublicId();
+    }
+
+    /**
+     * Nodes tagged with each of the codes. The expression must match node_grepcodes_code_index in
+     * db-master-changelog.xml for the index to be used.
+     */
+    @Query(value = """
+            SELECT c.code AS "code", n.id AS "id", n.public_id AS "publicId"
+            FROM unnest(cast(:codes as text[])) AS c(code)
+            JOIN node n ON jsonb_path_query_array(n.grepcodes, '$[*].code') @> jsonb_build_array(c.code)
+            ORDER BY c.code, n.id
+            """, nativeQuery = true)
+    List<GrepCodeNode> findByGrepCodes(String[] codes);
+
     @Query(value = """
             SELECT n.id FROM Node n
             WHERE (:contextId IS NULL OR n.contextids @> jsonb_build_array(:contextId))
@@ -114,4 +140,300 @@ public interface NodeRepository extends TaxonomyRepository<Node> {
             WHERE n.contentUri = :contentUri
             """)
     List<Node> findByContentUri(Optional<URI> contentUri);
+
+    interface SubtreeNode {
+        Integer getId();
+
+        String getNodeType();
+
+        String getContentUri();
+    }
+
+    /**
+     * The node and everything below it. Links are not followed, and nodes reachable along several paths are only listed
+     * once.
+     */
+    @Query(value = """
+            WITH RECURSIVE subtree(id) AS (
+                SELECT cast(:rootId as int)
+                UNION
+                SELECT nc.child_id
+                FROM node_connection nc
+                JOIN subtree s ON nc.parent_id = s.id
+                WHERE nc.connection_type IS DISTINCT FROM 'LINK'
+            )
+            SELECT n.id AS "id", n.node_type AS "nodeType", n.content_uri AS "contentUri"
+            FROM subtree s
+            JOIN node n ON n.id = s.id
+            ORDER BY n.id
+            """, nativeQuery = true)
+    List<SubtreeNode> findSubtree(Integer rootId);
+
+    interface InvisibleNode {
+        Integer getRootId();
+
+        Integer getNodeId();
+    }
+
+    /**
+     * Invisible nodes that can be reached from a root subject through visible nodes only, together with the root they
+     * are reached from. A node below several roots is listed once for each.
+     */
+    @Query(value = """
+            WITH RECURSIVE reach(root_id, id, visible) AS (
+                SELECT n.id, n.id, n.visible
+                FROM node n
+                WHERE n.node_type = 'SUBJECT'
+                AND n.context = true
+                UNION
+                SELECT r.root_id, c.id, c.visible
+                FROM reach r
+                JOIN node_connection nc ON nc.parent_id = r.id
+                JOIN node c ON c.id = nc.child_id
+                WHERE r.visible
+            )
+            SELECT r.root_id AS "rootId", r.id AS "nodeId"
+            FROM reach r
+            WHERE NOT r.visible
+            ORDER BY r.root_id, r.id
+            """, nativeQuery = true)
+    List<InvisibleNode> findInvisibleFrontier();
+
+    /**
+     * The node and the nodes below it that would be left without a parent if it was removed. Links are not followed,
+     * and a node that also hangs below a node outside the subtree is kept, together with everything below it.
+     */
+    @Query(value = """
+            WITH RECURSIVE subtree(id) AS (
+                SELECT cast(:rootId as int)
+                UNION
+                SELECT nc.child_id
+                FROM node_connection nc
+                JOIN subtree s ON nc.parent_id = s.id
+                WHERE nc.connection_type IS DISTINCT FROM 'LINK'
+            ),
+            kept(id) AS (
+                SELECT nc.child_id
+                FROM node_connection nc
+                JOIN subtree s ON s.id = nc.child_id
+                WHERE nc.child_id <> :rootId
+                AND nc.connection_type IS DISTINCT FROM 'LINK'
+                AND nc.parent_id NOT IN (SELECT id FROM subtree)
+                UNION
+                SELECT nc.child_id
+                FROM node_connection nc
+                JOIN kept k ON nc.parent_id = k.id
+                WHERE nc.child_id <> :rootId
+                AND nc.connection_type IS DISTINCT FROM 'LINK'
+            )
+            SELECT s.id
+            FROM subtree s
+            WHERE s.id NOT IN (SELECT id FROM kept)
+            ORDER BY s.id
+            """, nativeQuery = true)
+    List<Integer> findSubtreeToDelete(Integer rootId);
+
+    /**
+     * Copies each source node to a new node with the given public id, ident and content uri. Contexts are left empty
+     * and have to be built afterwards.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node"))
+    @Query(value = """
+            INSERT INTO node (public_id, node_type, ident, name, content_uri, context, visible, translations,
+                grepcodes, customfields, contexts, contextids, quality_evaluation, quality_evaluation_comment,
+                child_quality_evaluation_sum, child_quality_evaluation_count, created_at, updated_at)
+            SELECT c.public_id, n.node_type, c.ident, n.name, c.content_uri, n.context, n.visible, n.translations,
+                n.grepcodes, n.customfields, '[]', '[]', n.quality_evaluation, n.quality_evaluation_comment,
+                n.child_quality_evaluation_sum, n.child_quality_evaluation_count, now(), now()
+            FROM unnest(cast(:sourceIds as int[]), cast(:publicIds as text[]), cast(:idents as text[]),
+                cast(:contentUris as text[])) AS c(source_id, public_id, ident, content_uri)
+            JOIN node n ON n.id = c.source_id
+            """, nativeQuery = true)
+    int cloneNodes(Integer[] sourceIds, String[] publicIds, String[] idents, String[] contentUris);
+
+    /**
+     * Ids of the nodes with the given public ids, in the same order.
+     */
+    @Query(value = """
+            SELECT n.id
+            FROM unnest(cast(:publicIds as text[])) WITH ORDINALITY AS p(public_id, ordinal)
+            JOIN node n ON n.public_id = p.public_id
+            ORDER BY p.ordinal
+            """, nativeQuery = true)
+    List<Integer> findIdsByPublicIds(String[] publicIds);
+
+    interface QualityEvaluationNode {
+        Integer getId();
+
+        Integer getGrade();
+
+        Boolean getResource();
+    }
+
+    @Query(value = """
+            SELECT n.id AS "id", n.quality_evaluation AS "grade", n.node_type = 'RESOURCE' AS "resource"
+            FROM node n
+            """, nativeQuery = true)
+    Stream<QualityEvaluationNode> streamQualityEvaluationNodes();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node"))
+    @Query(value = """
+            UPDATE node n
+            SET child_quality_evaluation_sum = v.new_sum,
+                child_quality_evaluation_count = v.new_count
+            FROM unnest(cast(:ids as int[]), cast(:sums as int[]), cast(:counts as int[])) AS v(id, new_sum, new_count)
+            WHERE n.id = v.id
+            AND (n.child_quality_evaluation_sum IS DISTINCT FROM v.new_sum
+                OR n.child_quality_evaluation_count IS DISTINCT FROM v.new_count)
+            """, nativeQuery = true)
+    int updateChildQualityEvaluationAverages(Integer[] ids, Integer[] sums, Integer[] counts);
+
+    interface QualityEvaluationAncestor {
+        Integer getId();
+
+        Integer getPaths();
+    }
+
+    /**
+     * The given nodes and every node above them through non-link connections, with the number of distinct paths
+     * leading up to each. A node listed twice counts as two paths.
+     */
+    @Query(value = """
+            WITH RECURSIVE ancestors(id, path) AS (
+                SELECT s.id, ARRAY[s.id]
+                FROM unnest(cast(:nodeIds as int[])) AS s(id)
+                UNION ALL
+                SELECT nc.parent_id, a.path || nc.parent_id
+                FROM ancestors a
+                JOIN node_connection nc ON nc.child_id = a.id
+                WHERE nc.connection_type IS DISTINCT FROM 'LINK'
+                AND nc.parent_id IS NOT NULL
+                AND NOT nc.parent_id = ANY(a.path)
+            )
+            SELECT id AS "id", cast(count(*) as int) AS "paths"
+            FROM ancestors
+            GROUP BY id
+            ORDER BY id
+            """, nativeQuery = true)
+    List<QualityEvaluationAncestor> findQualityEvaluationAncestors(Integer[] nodeIds);
+
+    /**
+     * Waits for the quality evaluation locks of the given nodes and holds them until the transaction ends. The ids must
+     * be sorted, so that concurrent updates of overlapping trees queue up instead of deadlocking. Advisory locks are
+     * used rather than row locks, as the nodes of delta versions are views that cannot be locked FOR UPDATE.
+     */
+    @Query(value = """
+            SELECT count(pg_advisory_xact_lock(hashtext(concat(current_schema(), ':quality')), l.id))
+            FROM unnest(cast(:ids as int[])) AS l(id)
+            """, nativeQuery = true)
+    long lockQualityEvaluations(Integer[] ids);
+
+    /**
+     * Waits for the lock on the grade of a node and holds it until the transaction ends. Kept apart from the locks of
+     * {@link #lockQualityEvaluations}, so that a node's own grade can be held while its ancestors are locked.
+     */
+    @Query(
+            value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(concat(current_schema(), ':grade')), :id)",
+            nativeQuery = true)
+    int lockQualityEvaluationGrade(int id);
+
+    /**
+     * Adds a change to the child averages of the given nodes in the database, once per path. Take the locks with
+     * {@link #lockQualityEvaluations} first, so that each update is applied on top of the previous one instead of
+     * overwriting it.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CHILD_QUALITY_EVALUATION_SPACE))
+    @Query(value = """
+            WITH delta AS (
+                SELECT d.id, :sumDelta * d.paths AS sum_delta, :countDelta * d.paths AS count_delta
+                FROM unnest(cast(:ids as int[]), cast(:paths as int[])) AS d(id, paths)
+            )
+            UPDATE node n
+            SET child_quality_evaluation_sum = CASE
+                    WHEN n.child_quality_evaluation_sum + d.sum_delta <= 0
+                        OR n.child_quality_evaluation_count + d.count_delta <= 0 THEN 0
+                    ELSE n.child_quality_evaluation_sum + d.sum_delta
+                END,
+                child_quality_evaluation_count = CASE
+                    WHEN n.child_quality_evaluation_sum + d.sum_delta <= 0
+                        OR n.child_quality_evaluation_count + d.count_delta <= 0 THEN 0
+                    ELSE n.child_quality_evaluation_count + d.count_delta
+                END
+            FROM delta d
+            WHERE n.id = d.id
+            """, nativeQuery = true)
+    int addChildQualityEvaluationDelta(Integer[] ids, Integer[] paths, int sumDelta, int countDelta);
+
+    /**
+     * Sums the child averages of the given nodes up again from the averages and grades of their children, and adds the
+     * difference to every node above them, once per path, like {@link #addChildQualityEvaluationDelta}. Take the locks
+     * of the nodes and their ancestors with {@link #lockQualityEvaluations} first.
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CHILD_QUALITY_EVALUATION_SPACE))
+    @Query(value = """
+            WITH RECURSIVE fresh AS (
+                SELECT p.id,
+                    coalesce(sum(c.child_quality_evaluation_sum + CASE
+                        WHEN c.node_type = 'RESOURCE' THEN coalesce(c.quality_evaluation, 0) ELSE 0
+                    END), 0) - p.child_quality_evaluation_sum AS sum_delta,
+                    coalesce(sum(c.child_quality_evaluation_count + CASE
+                        WHEN c.node_type = 'RESOURCE' AND c.quality_evaluation IS NOT NULL THEN 1 ELSE 0
+                    END), 0) - p.child_quality_evaluation_count AS count_delta
+                FROM node p
+                LEFT JOIN node_connection nc ON nc.parent_id = p.id AND nc.connection_type IS DISTINCT FROM 'LINK'
+                LEFT JOIN node c ON c.id = nc.child_id
+                WHERE p.id = ANY(cast(:nodeIds as int[]))
+                GROUP BY p.id, p.child_quality_evaluation_sum, p.child_quality_evaluation_count
+            ),
+            ancestors(id, path, sum_delta, count_delta) AS (
+                SELECT f.id, ARRAY[f.id], f.sum_delta, f.count_delta
+                FROM fresh f
+                WHERE f.sum_delta <> 0 OR f.count_delta <> 0
+                UNION ALL
+                SELECT nc.parent_id, a.path || nc.parent_id, a.sum_delta, a.count_delta
+                FROM ancestors a
+                JOIN node_connection nc ON nc.child_id = a.id
+                WHERE nc.connection_type IS DISTINCT FROM 'LINK'
+                AND nc.parent_id IS NOT NULL
+                AND NOT nc.parent_id = ANY(a.path)
+            ),
+            delta AS (
+                SELECT id, sum(sum_delta) AS sum_delta, sum(count_delta) AS count_delta
+                FROM ancestors
+                GROUP BY id
+            )
+            UPDATE node n
+            SET child_quality_evaluation_sum = CASE
+                    WHEN n.child_quality_evaluation_sum + d.sum_delta <= 0
+                        OR n.child_quality_evaluation_count + d.count_delta <= 0 THEN 0
+                    ELSE n.child_quality_evaluation_sum + d.sum_delta
+                END,
+                child_quality_evaluation_count = CASE
+                    WHEN n.child_quality_evaluation_sum + d.sum_delta <= 0
+                        OR n.child_quality_evaluation_count + d.count_delta <= 0 THEN 0
+                    ELSE n.child_quality_evaluation_count + d.count_delta
+                END
+            FROM delta d
+            WHERE n.id = d.id
+            """, nativeQuery = true)
+    int recalculateChildQualityEvaluations(Integer[] nodeIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "node"))
+    @Query(value = "DELETE FROM node WHERE id = ANY(cast(:ids as int[]))", nativeQuery = true)
+    int deleteByIds(Integer[] ids);
+
+    /**
+     * Waits for the advisory lock of the subtree below a root and holds it until the transaction ends. The key is
+     * scoped to the current schema, so versions do not block each other. Roots are given by public id, as stored in
+     * the contexts, and two roots hashing alike only means that their changes wait for each other.
+     */
+    @Query(
+            value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(current_schema()), hashtext(:rootId))",
+            nativeQuery = true)
+    int lockSubtree(String rootId);
 }
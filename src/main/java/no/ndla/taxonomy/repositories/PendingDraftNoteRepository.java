@@ -0,0 +1,51 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import no.ndla.taxonomy.domain.PendingDraftNote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface PendingDraftNoteRepository extends JpaRepository<PendingDraftNote, Integer> {
+    interface OutboxStats {
+        long getPending();
+
+        long getDeadLettered();
+
+        Double getLagSeconds();
+    }
+
+    /**
+     * Notes that are due, skipping rows another dispatcher already holds.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT * FROM pending_draft_note
+            WHERE dead_lettered IS NULL
+            AND next_attempt <= now()
+            ORDER BY next_attempt, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """)
+    List<PendingDraftNote> lockDue(int limit);
+
+    @Modifying
+    @Query("DELETE FROM PendingDraftNote n WHERE n.deadLettered < :before")
+    int deleteDeadLetteredBefore(Instant before);
+
+    @Query(nativeQuery = true, value = """
+            SELECT count(*) FILTER (WHERE dead_lettered IS NULL) AS "pending",
+                   count(*) FILTER (WHERE dead_lettered IS NOT NULL) AS "deadLettered",
+                   cast(extract(epoch FROM now() - min(created) FILTER (WHERE dead_lettered IS NULL)) AS double precision)
+                       AS "lagSeconds"
+            FROM pending_draft_note
+            """)
+    OutboxStats stats();
+}
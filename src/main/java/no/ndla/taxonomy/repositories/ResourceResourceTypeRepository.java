@@ -7,10 +7,14 @@
 
 package no.ndla.taxonomy.repositories;
 
+import jakarta.persistence.QueryHint;
 import java.net.URI;
 import java.util.List;
 import no.ndla.taxonomy.domain.ResourceResourceType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface ResourceResourceTypeRepository extends TaxonomyRepository<ResourceResourceType> {
     @Query("SELECT rrt FROM ResourceResourceType rrt JOIN FETCH rrt.node r JOIN FETCH rrt.resourceType")
@@ -23,4 +27,23 @@ public interface ResourceResourceTypeRepository extends TaxonomyRepository<Resou
             LEFT JOIN FETCH rt.parent
             WHERE rrt.node.publicId = :parentNodeId""")
     List<ResourceResourceType> resourceResourceTypeByParentId(URI parentNodeId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resource_resource_type"))
+    @Query(nativeQuery = true, value = """
+            INSERT INTO resource_resource_type (public_id, resource_id, resource_type_id)
+            SELECT 'urn:resource-resourcetype:' || gen_random_uuid(), c.clone_id, rrt.resource_type_id
+            FROM resource_resource_type rrt
+            JOIN unnest(cast(:sourceIds as int[]), cast(:cloneIds as int[])) AS c(source_id, clone_id)
+                ON c.source_id = rrt.resource_id
+            """)
+    int cloneResourceTypes(Integer[] sourceIds, Integer[] cloneIds);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resource_resource_type"))
+    @Query(nativeQuery = true, value = """
+            DELETE FROM resource_resource_type
+            WHERE resource_id = ANY(cast(:nodeIds as int[]))
+            """)
+    int deleteByNodeIds(Integer[] nodeIds);
 }
@@ -7,30 +7,21 @@
 
 package no.ndla.taxonomy.repositories;
 
-import java.net.URI;
+import jakarta.persistence.QueryHint;
 import java.util.List;
-import java.util.Optional;
 import no.ndla.taxonomy.domain.ResourceType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface ResourceTypeRepository extends TaxonomyRepository<ResourceType> {
-    @Query("""
-            SELECT DISTINCT rt
-            FROM ResourceType rt
-            LEFT JOIN FETCH rt.subtypes
-            WHERE (:parent IS NULL AND rt.parent IS NULL) OR rt.parent = :parent
-            ORDER BY rt.order ASC""")
-    List<ResourceType> findAllByParentIncludingTranslationsAndFirstLevelSubtypes(ResourceType parent);
-
-    @Query("SELECT DISTINCT rt FROM ResourceType rt WHERE rt.publicId = :publicId")
-    Optional<ResourceType> findFirstByPublicIdIncludingTranslations(URI publicId);
-
-    @Query(
-            "SELECT DISTINCT rt FROM ResourceType rt JOIN rt.parent prt LEFT JOIN FETCH rt.subtypes WHERE prt.publicId = :publicId ORDER BY rt.order ASC")
-    List<ResourceType> findAllByParentPublicIdIncludingTranslationsAndFirstLevelSubtypes(URI publicId);
-
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<ResourceType> findAllByOrderByOrderAsc();
 
     @Query("SELECT COALESCE(MAX(rt.order), -1) + 1 FROM ResourceType rt")
     int nextOrderValue();
+
+    /** Tells every instance that the resource types of the schema changed, once the transaction commits. */
+    @Query(value = "SELECT count(*) FROM pg_notify('taxonomy_resource_types', :schema)", nativeQuery = true)
+    long notifyResourceTypesChanged(String schema);
 }
@@ -8,6 +8,8 @@
 package no.ndla.taxonomy.repositories;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.List;
 import no.ndla.taxonomy.domain.exceptions.NotFoundException;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -17,6 +19,8 @@ import org.springframework.data.repository.NoRepositoryBean;
 public interface TaxonomyRepository<T> extends JpaRepository<T, Integer>, JpaSpecificationExecutor<T> {
     T findByPublicId(URI id);
 
+    List<T> findAllByPublicIdIn(Collection<URI> ids);
+
     default T getByPublicId(URI id) {
         T entity = findByPublicId(id);
         if (null == entity) throw new NotFoundException("entity", id);
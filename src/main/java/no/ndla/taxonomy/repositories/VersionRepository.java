@@ -26,4 +26,12 @@ public interface VersionRepository extends TaxonomyRepository<Version> {
 
     @Query(value = "SELECT * from Version v where v.version_type = :#{#versionType.name()}", nativeQuery = true)
     Optional<Version> findFirstByVersionType(VersionType versionType);
+
+    /** Whether delta versions are stored on top of the version with this hash. */
+    @Query(value = "SELECT count(*) > 0 from Version v where v.base_hash = :hash", nativeQuery = true)
+    boolean isBaseOfDeltaVersions(String hash);
+
+    /** Tells every instance listening on the channel that versions changed, once the transaction commits. */
+    @Query(value = "SELECT count(*) FROM pg_notify('taxonomy_versions', '')", nativeQuery = true)
+    long notifyVersionsChanged();
 }
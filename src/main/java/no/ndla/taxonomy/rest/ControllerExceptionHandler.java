@@ -9,11 +9,13 @@ package no.ndla.taxonomy.rest;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import jakarta.persistence.OptimisticLockException;
 import no.ndla.taxonomy.domain.exceptions.*;
 import no.ndla.taxonomy.service.exceptions.DuplicateConnectionException;
 import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
 import no.ndla.taxonomy.service.exceptions.NotFoundServiceException;
 import no.ndla.taxonomy.service.exceptions.ServiceUnavailableException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -62,11 +64,21 @@ public class ControllerExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(createErrorBody(exception), createHeaders(), HttpStatus.NOT_FOUND);
     }
 
-    @ExceptionHandler({DuplicateIdException.class, DuplicateConnectionException.class})
+    @ExceptionHandler({
+        DuplicateIdException.class,
+        DuplicateConnectionException.class,
+        OptimisticLockingFailureException.class,
+        OptimisticLockException.class
+    })
     protected ResponseEntity<String> handleConflictExceptions(RuntimeException exception) {
         return new ResponseEntity<>(createErrorBody(exception), createHeaders(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(PreconditionFailedHttpResponseException.class)
+    protected ResponseEntity<String> handlePreconditionFailedException(RuntimeException exception) {
+        return new ResponseEntity<>(createErrorBody(exception), createHeaders(), HttpStatus.PRECONDITION_FAILED);
+    }
+
     @ExceptionHandler({UnsupportedOperationException.class})
     protected ResponseEntity<String> handleUnsupportedExceptions(RuntimeException exception) {
         return new ResponseEntity<>(createErrorBody(exception), createHeaders(), HttpStatus.GONE);
@@ -0,0 +1,14 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest;
+
+public class PreconditionFailedHttpResponseException extends RuntimeException {
+    public PreconditionFailedHttpResponseException(String message) {
+        super(message);
+    }
+}
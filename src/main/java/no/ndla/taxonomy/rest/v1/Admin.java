@@ -10,8 +10,10 @@ package no.ndla.taxonomy.rest.v1;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import java.net.URI;
+import no.ndla.taxonomy.rest.NotFoundHttpResponseException;
 import no.ndla.taxonomy.service.NodeService;
 import no.ndla.taxonomy.service.QualityEvaluationService;
+import no.ndla.taxonomy.service.dtos.AverageTreeJobDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -48,10 +50,23 @@ public class Admin {
 
     @PostMapping("/buildAverageTree")
     @Operation(
-            summary = "Updates average tree for all nodes. Requires taxonomy:admin access.",
+            summary = "Updates average tree for all nodes in the background. Requires taxonomy:admin access.",
+            description = "Returns the started job, or the running one if a rebuild is already in progress.",
+            security = {@SecurityRequirement(name = "oauth")})
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
+    public AverageTreeJobDTO buildAverageTree() {
+        return qualityEvaluationService.updateQualityEvaluationOfAllNodes();
+    }
+
+    @GetMapping("/buildAverageTree/status")
+    @Operation(
+            summary = "Gets the progress of the last average tree rebuild. Requires taxonomy:admin access.",
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
-    public void buildAverageTree() {
-        qualityEvaluationService.updateQualityEvaluationOfAllNodes();
+    public AverageTreeJobDTO getAverageTreeJob() {
+        return qualityEvaluationService
+                .getAverageTreeJob()
+                .orElseThrow(() -> new NotFoundHttpResponseException("No average tree rebuild has been started"));
     }
 }
@@ -106,12 +106,21 @@ public abstract class CrudController<T extends DomainEntity> {
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
     protected T updateEntity(URI id, UpdatableDto<T> command) {
+        return updateEntity(id, command, Optional.empty());
+    }
+
+    /**
+     * @param ifMatch entity tag the client read the node with. The update is refused with 412 if the node has changed
+     *     since. A change committed while this update runs makes it fail on the row version instead, and callers
+     *     annotated with {@link no.ndla.taxonomy.config.RetryOnConflict} then get the 412 on the next attempt.
+     */
+    @Transactional
+    protected T updateEntity(URI id, UpdatableDto<T> command, Optional<String> ifMatch) {
         T entity = repository.getByPublicId(id);
         validator.validate(id, entity);
-
-        // if (entity instanceof Node node && qualityEvaluationService != null) {
-        //     qualityEvaluationService.lockNodeForQualityEvaluationUpdate(node, command);
-        // }
+        if (entity instanceof Node node) {
+            ETags.checkIfMatch(ifMatch, node.getRowVersion());
+        }
 
         var oldGrade = getOldGrade(entity);
 
@@ -0,0 +1,41 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1;
+
+import java.util.Arrays;
+import java.util.Optional;
+import no.ndla.taxonomy.rest.PreconditionFailedHttpResponseException;
+
+/**
+ * Entity tags for nodes and connections, made from their row version. A client sends the tag it read back in If-Match
+ * when updating, and gets 412 if someone else has changed the entity since.
+ */
+final class ETags {
+    private ETags() {}
+
+    static String of(int rowVersion) {
+        return "\"" + rowVersion + "\"";
+    }
+
+    /**
+     * @param ifMatch the If-Match header, a comma separated list of tags or *. Weak tags never match.
+     */
+    static void checkIfMatch(Optional<String> ifMatch, int rowVersion) {
+        if (ifMatch.isEmpty() || ifMatch.get().isBlank()) {
+            return;
+        }
+        var current = of(rowVersion);
+        var matches = Arrays.stream(ifMatch.get().split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(current));
+        if (!matches) {
+            throw new PreconditionFailedHttpResponseException(
+                    "Entity has been changed by someone else, current version is " + current);
+        }
+    }
+}
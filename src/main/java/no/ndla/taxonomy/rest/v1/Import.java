@@ -0,0 +1,57 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+import no.ndla.taxonomy.rest.NotFoundHttpResponseException;
+import no.ndla.taxonomy.service.NodeImportService;
+import no.ndla.taxonomy.service.dtos.ImportStatusDTO;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(path = {"/v1/import", "/v1/import/"})
+public class Import {
+    private final NodeImportService nodeImportService;
+
+    public Import(NodeImportService nodeImportService) {
+        this.nodeImportService = nodeImportService;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "Imports nodes and connections in one go",
+            description = "Takes a document of the form {\"nodes\": [ImportNode], \"connections\": [ImportConnection]}."
+                    + " Nodes must come before the connections referring to them, connections may also refer to"
+                    + " existing nodes. The body is read as it arrives, so large subtrees can be imported without"
+                    + " being held in memory. Nothing is kept if the import fails. Progress can be followed with"
+                    + " GET /v1/import/{importId} while the import runs.",
+            security = {@SecurityRequirement(name = "oauth")})
+    @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
+    public ImportStatusDTO importNodes(
+            @Parameter(description = "Id to follow the import by. Generated if not given")
+                    @RequestParam(value = "importId", required = false)
+                    Optional<String> importId,
+            InputStream body) {
+        return nodeImportService.importSubtree(importId.orElseGet(() -> UUID.randomUUID().toString()), body);
+    }
+
+    @GetMapping("/{importId}")
+    @Operation(summary = "Gets the progress of a running or recent import")
+    public ImportStatusDTO getImportStatus(@PathVariable("importId") String importId) {
+        return nodeImportService
+                .getStatus(importId)
+                .orElseThrow(() -> new NotFoundHttpResponseException("Import not found"));
+    }
+}
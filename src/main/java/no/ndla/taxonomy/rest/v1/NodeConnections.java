@@ -13,8 +13,10 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.NodeConnectionType;
@@ -22,6 +24,8 @@ import no.ndla.taxonomy.domain.Relevance;
 import no.ndla.taxonomy.domain.exceptions.PrimaryParentRequiredException;
 import no.ndla.taxonomy.repositories.NodeConnectionRepository;
 import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchOperation;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchResultDTO;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionDTO;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionPOST;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionPUT;
@@ -29,6 +33,7 @@ import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.*;
 import no.ndla.taxonomy.service.dtos.SearchResultDTO;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -41,11 +46,13 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
     private final NodeRepository nodeRepository;
     private final NodeConnectionRepository nodeConnectionRepository;
     private final NodeConnectionService connectionService;
+    private final NodeConnectionBatchService connectionBatchService;
 
     public NodeConnections(
             NodeRepository nodeRepository,
             NodeConnectionRepository nodeConnectionRepository,
             NodeConnectionService connectionService,
+            NodeConnectionBatchService connectionBatchService,
             ContextUpdaterService contextUpdaterService,
             NodeService nodeService,
             QualityEvaluationService qualityEvaluationService,
@@ -59,6 +66,7 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
         this.nodeRepository = nodeRepository;
         this.nodeConnectionRepository = nodeConnectionRepository;
         this.connectionService = connectionService;
+        this.connectionBatchService = connectionBatchService;
     }
 
     @GetMapping
@@ -98,9 +106,11 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
     @GetMapping("/{id}")
     @Operation(summary = "Gets a single connection between a node and a child")
     @Transactional(readOnly = true)
-    public NodeConnectionDTO getNodeConnection(@PathVariable("id") URI id) {
+    public ResponseEntity<NodeConnectionDTO> getNodeConnection(@PathVariable("id") URI id) {
         NodeConnection topicSubtopic = nodeConnectionRepository.getByPublicId(id);
-        return new NodeConnectionDTO(topicSubtopic);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(topicSubtopic.getRowVersion()))
+                .body(new NodeConnectionDTO(topicSubtopic));
     }
 
     @PostMapping
@@ -110,6 +120,7 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
     @Created201ApiResponse
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public ResponseEntity<Void> createNodeConnection(
             @Parameter(name = "connection", description = "The new connection") @RequestBody
                     NodeConnectionPOST command) {
@@ -125,6 +136,21 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
         return ResponseEntity.created(location).build();
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Applies a list of connection changes in one transaction",
+            description =
+                    "All operations are validated before any is applied. They are applied in order, and if one fails none are kept. Contexts are updated once for everything touched.",
+            security = {@SecurityRequirement(name = "oauth")})
+    @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
+    @Transactional
+    @RetryOnConflict
+    public List<NodeConnectionBatchResultDTO> batchUpdateNodeConnections(
+            @Parameter(name = "operations", description = "The changes to apply, in order") @RequestBody
+                    List<NodeConnectionBatchOperation> operations) {
+        return connectionBatchService.applyBatch(operations);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(
@@ -132,6 +158,7 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void deleteEntity(@PathVariable("id") URI id) {
         var connection = nodeConnectionRepository.getByPublicId(id);
         connectionService.disconnectParentChildConnection(connection);
@@ -145,11 +172,16 @@ public class NodeConnections extends CrudControllerWithMetadata<NodeConnection>
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateNodeConnection(
             @PathVariable("id") URI id,
             @Parameter(name = "connection", description = "The updated connection") @RequestBody
-                    NodeConnectionPUT command) {
+                    NodeConnectionPUT command,
+            @Parameter(description = "ETag of the connection as it was read. Fails with 412 if it has changed")
+                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                    Optional<String> ifMatch) {
         final var connection = nodeConnectionRepository.getByPublicId(id);
+        ETags.checkIfMatch(ifMatch, connection.getRowVersion());
         var relevance = Relevance.unsafeGetRelevance(command.relevanceId.orElse(URI.create("urn:relevance:core")));
         if (connection.isPrimary().orElse(false) && !command.primary.orElse(false)) {
             throw new PrimaryParentRequiredException();
@@ -12,7 +12,9 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.*;
 import no.ndla.taxonomy.domain.exceptions.PrimaryParentRequiredException;
 import no.ndla.taxonomy.repositories.NodeConnectionRepository;
@@ -24,6 +26,7 @@ import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.*;
 import no.ndla.taxonomy.service.dtos.SearchResultDTO;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -90,9 +93,9 @@ public class NodeResources extends CrudControllerWithMetadata<NodeConnection> {
     @GetMapping("/{id}")
     @Operation(summary = "Gets a specific connection between a node and a resource")
     @Transactional(readOnly = true)
-    public NodeResourceDTO getNodeResource(@PathVariable("id") URI id) {
+    public ResponseEntity<NodeResourceDTO> getNodeResource(@PathVariable("id") URI id) {
         NodeConnection connection = nodeConnectionRepository.getByPublicId(id);
-        return new NodeResourceDTO(connection);
+        return ResponseEntity.ok().eTag(ETags.of(connection.getRowVersion())).body(new NodeResourceDTO(connection));
     }
 
     @PostMapping
@@ -102,6 +105,7 @@ public class NodeResources extends CrudControllerWithMetadata<NodeConnection> {
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Created201ApiResponse
     @Transactional
+    @RetryOnConflict
     public ResponseEntity<Void> createNodeResource(
             @Parameter(name = "connection", description = "new node/resource connection ") @RequestBody
                     NodeResourcePOST command) {
@@ -124,6 +128,7 @@ public class NodeResources extends CrudControllerWithMetadata<NodeConnection> {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void deleteEntity(@PathVariable("id") URI id) {
         var connection = nodeConnectionRepository.getByPublicId(id);
         connectionService.disconnectParentChildConnection(connection);
@@ -137,11 +142,16 @@ public class NodeResources extends CrudControllerWithMetadata<NodeConnection> {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateNodeResource(
             @PathVariable("id") URI id,
             @Parameter(name = "connection", description = "Updated node/resource connection") @RequestBody
-                    NodeResourcePUT command) {
+                    NodeResourcePUT command,
+            @Parameter(description = "ETag of the connection as it was read. Fails with 412 if it has changed")
+                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                    Optional<String> ifMatch) {
         final var nodeResource = nodeConnectionRepository.getByPublicId(id);
+        ETags.checkIfMatch(ifMatch, nodeResource.getRowVersion());
         var relevance = Relevance.unsafeGetRelevance(command.relevanceId.orElse(URI.create("urn:relevance:core")));
         if (nodeResource.isPrimary().orElse(false) && !command.primary.orElse(false)) {
             throw new PrimaryParentRequiredException();
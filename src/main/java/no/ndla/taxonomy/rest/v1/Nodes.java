@@ -14,6 +14,7 @@ import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 import no.ndla.taxonomy.config.Constants;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.NodeConnectionType;
@@ -21,12 +22,14 @@ import no.ndla.taxonomy.domain.NodeType;
 import no.ndla.taxonomy.domain.exceptions.NotFoundException;
 import no.ndla.taxonomy.repositories.NodeConnectionRepository;
 import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.rest.v1.commands.NodeClonePost;
 import no.ndla.taxonomy.rest.v1.commands.NodePostPut;
 import no.ndla.taxonomy.rest.v1.commands.NodeSearchBody;
 import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.*;
 import no.ndla.taxonomy.service.dtos.*;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -42,6 +45,8 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
     private final RecursiveNodeTreeService recursiveNodeTreeService;
     private final TreeSorter treeSorter;
     private final SearchService searchService;
+    private final NodeSuggestService nodeSuggestService;
+    private final ResourceTypeTreeService resourceTypeTreeService;
 
     public Nodes(
             NodeRepository nodeRepository,
@@ -52,7 +57,9 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
             TreeSorter treeSorter,
             QualityEvaluationService qualityEvaluationService,
             SearchService searchService,
-            ResourceTypeService resourceTypeService) {
+            NodeSuggestService nodeSuggestService,
+            ResourceTypeService resourceTypeService,
+            ResourceTypeTreeService resourceTypeTreeService) {
         super(nodeRepository, contextUpdaterService, nodeService, qualityEvaluationService, resourceTypeService);
 
         this.nodeRepository = nodeRepository;
@@ -61,6 +68,8 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
         this.recursiveNodeTreeService = recursiveNodeTreeService;
         this.treeSorter = treeSorter;
         this.searchService = searchService;
+        this.nodeSuggestService = nodeSuggestService;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     private List<NodeType> getDefaultNodeTypes(
@@ -68,11 +77,16 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
             Optional<URI> contentURI,
             Optional<String> contextId,
             Optional<Boolean> isContext,
+            Optional<List<String>> grepCodes,
             MetadataFilters metadataFilters) {
         if (nodeType.isPresent() && !nodeType.get().isEmpty()) {
             return nodeType.get();
         }
-        if (contentURI.isEmpty() && contextId.isEmpty() && isContext.isEmpty() && !metadataFilters.hasFilters()) {
+        if (contentURI.isEmpty()
+                && contextId.isEmpty()
+                && isContext.isEmpty()
+                && grepCodes.isEmpty()
+                && !metadataFilters.hasFilters()) {
             return List.of(NodeType.TOPIC, NodeType.NODE, NodeType.SUBJECT, NodeType.PROGRAMME);
         }
         return List.of(NodeType.values());
@@ -94,6 +108,9 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                     Optional<URI> contentUri,
             @Parameter(description = "Ids to filter by") @RequestParam(value = "ids", required = false)
                     Optional<List<URI>> publicIds,
+            @Parameter(description = "Filter by grep codes, nodes having any of them are returned", example = "KM123")
+                    @RequestParam(value = "grepCode", required = false)
+                    Optional<List<String>> grepCodes,
             @Parameter(description = "Only root level contexts", deprecated = true)
                     @RequestParam(value = "isRoot", required = false)
                     Optional<Boolean> isRoot,
@@ -103,6 +120,9 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                     Optional<String> key,
             @Parameter(description = "Filter by key and value") @RequestParam(value = "value", required = false)
                     Optional<String> value,
+            @Parameter(description = "Whether value must match the whole value or just a part of it")
+                    @RequestParam(value = "valueMatch", required = false, defaultValue = "EXACT")
+                    MetadataFilters.ValueMatch valueMatch,
             @Parameter(description = "Filter by context id. Beware: handled separately from other parameters!")
                     @RequestParam(value = "contextId", required = false)
                     Optional<String> contextId,
@@ -119,14 +139,16 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                     Optional<URI> rootId,
             @Parameter(description = "Id to parent id in context.") @RequestParam(value = "parentId", required = false)
                     Optional<URI> parentId) {
-        MetadataFilters metadataFilters = new MetadataFilters(key, value, isVisible);
+        MetadataFilters metadataFilters = new MetadataFilters(key, value, isVisible, valueMatch);
         var isRootOrContext = isRoot.isPresent() ? isRoot : isContext;
-        var defaultNodeTypes = getDefaultNodeTypes(nodeType, contentUri, contextId, isRootOrContext, metadataFilters);
+        var defaultNodeTypes = getDefaultNodeTypes(
+                nodeType, contentUri, contextId, isRootOrContext, grepCodes, metadataFilters);
         return nodeService.getNodesByType(
                 Optional.of(defaultNodeTypes),
                 language,
                 publicIds,
                 contentUri,
+                grepCodes,
                 contextId,
                 isRoot,
                 isContext,
@@ -169,8 +191,17 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                     Optional<URI> rootId,
             @Parameter(description = "Id to parent id in context to select. Does not affect search results")
                     @RequestParam(value = "parentId", required = false)
-                    Optional<URI> parentId) {
-        return searchService.searchByNodeType(
+                    Optional<URI> parentId,
+            @Parameter(description = "Count all results. If false, totalCount is only a lower bound")
+                    @RequestParam(value = "includeTotal", required = false, defaultValue = "true")
+                    boolean includeTotal,
+            @Parameter(description = "Estimate totalCount from database statistics instead of counting")
+                    @RequestParam(value = "estimateTotal", required = false, defaultValue = "false")
+                    boolean estimateTotal,
+            @Parameter(description = "Count all matches per nodeType, resource type, relevance and visibility")
+                    @RequestParam(value = "includeFacets", required = false, defaultValue = "false")
+                    boolean includeFacets) {
+        return searchService.search(
                 query,
                 ids,
                 contentUris,
@@ -182,14 +213,15 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                 nodeType,
                 Optional.empty(),
                 rootId,
-                parentId);
+                parentId,
+                SearchOptions.requested(includeTotal, estimateTotal, includeFacets));
     }
 
     @PostMapping("/search")
     @Operation(summary = "Search all nodes")
     @Transactional(readOnly = true)
     public SearchResultDTO<NodeDTO> searchNodes(@RequestBody NodeSearchBody searchBodyParams) {
-        return searchService.searchByNodeType(
+        return searchService.search(
                 searchBodyParams.query,
                 searchBodyParams.ids,
                 searchBodyParams.contentUris,
@@ -201,7 +233,43 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                 searchBodyParams.nodeType,
                 searchBodyParams.customFields,
                 searchBodyParams.rootId,
-                searchBodyParams.parentId);
+                searchBodyParams.parentId,
+                SearchOptions.requested(
+                        searchBodyParams.includeTotal, searchBodyParams.estimateTotal, searchBodyParams.includeFacets));
+    }
+
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggests nodes whose names or translations start with the words in the query")
+    public List<NodeSuggestionDTO> suggestNodes(
+            @Parameter(description = "Start of the words to look for", required = true)
+                    @RequestParam(value = "query")
+                    String query,
+            @Parameter(description = "ISO-639-1 language code", example = "nb")
+                    @RequestParam(value = "language", defaultValue = Constants.DefaultLanguage, required = false)
+                    String language,
+            @Parameter(description = "Filter by nodeType") @RequestParam(value = "nodeType", required = false)
+                    Optional<List<NodeType>> nodeType,
+            @Parameter(description = "Filter by start of contentUri", example = "urn:article:")
+                    @RequestParam(value = "contentUri", required = false)
+                    Optional<String> contentUri,
+            @Parameter(description = "Filter by key and value") @RequestParam(value = "key", required = false)
+                    Optional<String> key,
+            @Parameter(description = "Filter by key and value") @RequestParam(value = "value", required = false)
+                    Optional<String> value,
+            @Parameter(description = "How many suggestions to return, at most 100")
+                    @RequestParam(value = "limit", defaultValue = "10")
+                    int limit) {
+        return nodeSuggestService.suggest(query, language, nodeType, contentUri, key, value, limit);
+    }
+
+    @PostMapping("/grep-codes")
+    @Operation(
+            summary = "Finds the nodes tagged with each of the given grep codes",
+            description = "Returns a map from each code to the ids of the nodes having it")
+    public Map<String, List<URI>> getNodeIdsByGrepCodes(
+            @Parameter(description = "Grep codes to look up", example = "[\"KM123\", \"KE45\"]") @RequestBody
+                    List<String> grepCodes) {
+        return nodeService.getPublicIdsByGrepCodes(grepCodes);
     }
 
     @GetMapping("/page")
@@ -229,6 +297,7 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
         var ids = nodeType.map(nt -> nodeRepository.findIdsByTypePaginated(PageRequest.of(page - 1, pageSize), nt))
                 .orElseGet(() -> nodeRepository.findIdsPaginated(PageRequest.of(page - 1, pageSize)));
         var results = nodeRepository.findByIds(ids.getContent());
+        var resourceTypes = resourceTypeTreeService.getTree();
         var contents = results.stream()
                 .map(node -> new NodeDTO(
                         Optional.empty(),
@@ -240,7 +309,8 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                         includeContexts,
                         filterProgrammes,
                         isVisible,
-                        false))
+                        false,
+                        resourceTypes))
                 .collect(Collectors.toList());
         return new SearchResultDTO<>(ids.getTotalElements(), page, pageSize, contents);
     }
@@ -248,7 +318,7 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
     @GetMapping("/{id}")
     @Operation(summary = "Gets a single node")
     @Transactional(readOnly = true)
-    public NodeDTO getNode(
+    public ResponseEntity<NodeDTO> getNode(
             @PathVariable("id") URI id,
             @Parameter(description = "Id to root id in context.") @RequestParam(value = "rootId", required = false)
                     Optional<URI> rootId,
@@ -266,7 +336,11 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "ISO-639-1 language code", example = "nb")
                     @RequestParam(value = "language", required = false, defaultValue = Constants.DefaultLanguage)
                     String language) {
-        return nodeService.getNode(id, language, rootId, parentId, includeContexts, filterProgrammes, isVisible);
+        var node = nodeService.getNode(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(node.getRowVersion()))
+                .body(nodeService.getNode(
+                        node, language, rootId, parentId, includeContexts, filterProgrammes, isVisible));
     }
 
     @PostMapping
@@ -288,12 +362,16 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateNode(
             @PathVariable("id") URI id,
             @Parameter(name = "node", description = "The updated node. Fields not included will be set to null.")
                     @RequestBody
-                    NodePostPut command) {
-        updateEntity(id, command);
+                    NodePostPut command,
+            @Parameter(description = "ETag of the node as it was read. Fails with 412 if it has changed")
+                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                    Optional<String> ifMatch) {
+        updateEntity(id, command, ifMatch);
     }
 
     @PutMapping("/{id}/publish")
@@ -354,6 +432,7 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 new MetadataFilters(Optional.empty(), Optional.empty(), Optional.empty()));
         if (recursive) {
             childrenIds = recursiveNodeTreeService.getRecursiveNodes(node, nodeTypes).stream()
@@ -373,10 +452,17 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
                 nodeConnectionRepository.findAllByChildIdIncludeTranslationsAndCachedUrlsAndFilters(childrenIds);
 
         final var returnList = new ArrayList<NodeChildDTO>();
+        final var resourceTypes = resourceTypeTreeService.getTree();
 
         children.stream()
                 .map(nodeConnection -> new NodeChildDTO(
-                        Optional.of(node), nodeConnection, language, includeContexts, filterProgrammes, isVisible))
+                        Optional.of(node),
+                        nodeConnection,
+                        language,
+                        includeContexts,
+                        filterProgrammes,
+                        isVisible,
+                        resourceTypes))
                 .forEach(returnList::add);
 
         var filtered = returnList.stream()
@@ -405,6 +491,23 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
         nodeService.delete(id);
     }
 
+    @DeleteMapping(value = "/{id}", params = "cascade")
+    @Operation(
+            summary = "Deletes a node, removing its connections in bulk",
+            description = "With cascade=subtree the nodes that only hang below the node are deleted as well. With"
+                    + " cascade=detach only the node is deleted and its children lose it as a parent. Much faster than"
+                    + " a plain delete for nodes with many children.",
+            security = {@SecurityRequirement(name = "oauth")})
+    @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Transactional
+    public void deleteWithCascade(
+            @PathVariable("id") URI id,
+            @Parameter(description = "subtree or detach", example = "subtree") @RequestParam("cascade")
+                    String cascade) {
+        nodeService.delete(id, NodeService.DeleteCascade.fromString(cascade));
+    }
+
     @GetMapping("/{id}/resources")
     @Operation(
             summary = "Gets all resources for the given node",
@@ -463,7 +566,23 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "Include all contexts") @RequestParam(value = "includeContexts", required = false)
                     boolean includeContexts) {
         var node = nodeService.getNode(id);
-        return new NodeWithParents(node, language, includeContexts);
+        return new NodeWithParents(node, language, includeContexts, resourceTypeTreeService.getTree());
+    }
+
+    @PutMapping("/{id}/children/order")
+    @Operation(
+            summary = "Sets the order of the children of a node",
+            description =
+                    "Takes the ids of all the child connections of the node in the wanted order. The children get ranks 1 to n.",
+            security = {@SecurityRequirement(name = "oauth")})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
+    @Transactional
+    public void reorderChildren(
+            @Parameter(name = "id", required = true) @PathVariable("id") URI id,
+            @Parameter(name = "connectionIds", description = "Every child connection id, in order") @RequestBody
+                    List<URI> connectionIds) {
+        nodeService.reorderChildren(id, connectionIds);
     }
 
     @PutMapping("/{id}/makeResourcesPrimary")
@@ -483,16 +602,26 @@ public class Nodes extends CrudControllerWithMetadata<Node> {
     @PostMapping("{id}/clone")
     @Operation(
             summary = "Clones a node, presumably a resource, including resource-types and translations",
+            description = "With recursive=true everything below the node is cloned as well, including the"
+                    + " connections between the nodes with their ranks and relevances.",
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
     public ResponseEntity<Void> cloneResource(
             @Parameter(name = "id", description = "Id of node to clone", example = "urn:resource:1") @PathVariable("id")
                     URI publicId,
-            @Parameter(name = "node", description = "Object containing contentUri. Other values are ignored.")
+            @Parameter(description = "Clone the whole subtree below the node")
+                    @RequestParam(value = "recursive", required = false, defaultValue = "false")
+                    boolean recursive,
+            @Parameter(
+                            name = "node",
+                            description =
+                                    "Object containing contentUri, and contentUriMapping when recursive. Other values are ignored.")
                     @RequestBody
-                    NodePostPut command) {
-        var entity = nodeService.cloneNode(publicId, command.contentUri);
+                    NodeClonePost command) {
+        var entity = recursive
+                ? nodeService.cloneSubtree(publicId, command.contentUri, command.contentUriMapping)
+                : nodeService.cloneNode(publicId, command.contentUri);
         URI location = URI.create(getLocation() + "/" + entity.getPublicId());
         return ResponseEntity.created(location).build();
     }
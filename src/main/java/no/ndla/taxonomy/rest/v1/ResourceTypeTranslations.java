@@ -18,6 +18,8 @@ import no.ndla.taxonomy.domain.ResourceType;
 import no.ndla.taxonomy.domain.exceptions.NotFoundException;
 import no.ndla.taxonomy.repositories.ResourceTypeRepository;
 import no.ndla.taxonomy.rest.v1.dtos.TranslationPUT;
+import no.ndla.taxonomy.service.ResourceTypeTree;
+import no.ndla.taxonomy.service.ResourceTypeTreeService;
 import no.ndla.taxonomy.service.dtos.TranslationDTO;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -32,19 +34,28 @@ public class ResourceTypeTranslations {
 
     private final EntityManager entityManager;
 
-    public ResourceTypeTranslations(ResourceTypeRepository resourceTypeRepository, EntityManager entityManager) {
+    private final ResourceTypeTreeService resourceTypeTreeService;
+
+    public ResourceTypeTranslations(
+            ResourceTypeRepository resourceTypeRepository,
+            EntityManager entityManager,
+            ResourceTypeTreeService resourceTypeTreeService) {
         this.resourceTypeRepository = resourceTypeRepository;
         this.entityManager = entityManager;
+        this.resourceTypeTreeService = resourceTypeTreeService;
+    }
+
+    private ResourceTypeTree.Entry getResourceType(URI id) {
+        return resourceTypeTreeService.getTree().get(id).orElseThrow(() -> new NotFoundException("entity", id));
     }
 
     @GetMapping
     @Operation(summary = "Gets all relevanceTranslations for a single resource type")
-    @Transactional(readOnly = true)
     public List<TranslationDTO> getAllResourceTypeTranslations(@PathVariable("id") URI id) {
-        ResourceType resourceType = resourceTypeRepository.getByPublicId(id);
+        var resourceType = getResourceType(id);
         List<TranslationDTO> result = new ArrayList<>();
         resourceType
-                .getTranslations()
+                .translations()
                 .forEach(t -> result.add(new TranslationDTO() {
                     {
                         name = t.getName();
@@ -56,15 +67,14 @@ public class ResourceTypeTranslations {
 
     @GetMapping("/{language}")
     @Operation(summary = "Gets a single translation for a single resource type")
-    @Transactional(readOnly = true)
     public TranslationDTO getResourceTypeTranslation(
             @PathVariable("id") URI id,
             @Parameter(description = "ISO-639-1 language code", example = "nb", required = true)
                     @PathVariable("language")
                     String language) {
-        ResourceType resourceType = resourceTypeRepository.getByPublicId(id);
-        var translation = resourceType
-                .getTranslation(language)
+        var translation = getResourceType(id).translations().stream()
+                .filter(t -> t.getLanguageCode().equals(language))
+                .findFirst()
                 .orElseThrow(() ->
                         new NotFoundException("translation with language code " + language + " for resource type", id));
 
@@ -93,6 +103,7 @@ public class ResourceTypeTranslations {
         ResourceType resourceType = resourceTypeRepository.getByPublicId(id);
         resourceType.addTranslation(command.name, language);
         entityManager.persist(resourceType);
+        resourceTypeTreeService.invalidateAfterCompletion();
     }
 
     @DeleteMapping("/{language}")
@@ -111,6 +122,7 @@ public class ResourceTypeTranslations {
         resourceType.getTranslation(language).ifPresent((translation) -> {
             resourceType.removeTranslation(language);
             entityManager.persist(resourceType);
+            resourceTypeTreeService.invalidateAfterCompletion();
         });
     }
 }
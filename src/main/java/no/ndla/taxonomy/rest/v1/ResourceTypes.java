@@ -19,6 +19,8 @@ import no.ndla.taxonomy.repositories.ResourceTypeRepository;
 import no.ndla.taxonomy.rest.v1.dtos.ResourceTypeDTO;
 import no.ndla.taxonomy.rest.v1.dtos.ResourceTypePUT;
 import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
+import no.ndla.taxonomy.service.ResourceTypeTree;
+import no.ndla.taxonomy.service.ResourceTypeTreeService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,36 +32,38 @@ import org.springframework.web.bind.annotation.*;
 public class ResourceTypes extends CrudController<ResourceType> {
 
     private final ResourceTypeRepository resourceTypeRepository;
+    private final ResourceTypeTreeService resourceTypeTreeService;
 
-    public ResourceTypes(ResourceTypeRepository resourceTypeRepository) {
+    public ResourceTypes(
+            ResourceTypeRepository resourceTypeRepository, ResourceTypeTreeService resourceTypeTreeService) {
         super(resourceTypeRepository);
 
         this.resourceTypeRepository = resourceTypeRepository;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     @GetMapping
     @Operation(summary = "Gets a list of all resource types")
-    @Transactional(readOnly = true)
     public List<ResourceTypeDTO> getAllResourceTypes(
             @Parameter(description = "ISO-639-1 language code", example = "nb")
                     @RequestParam(value = "language", required = false, defaultValue = "")
                     String language) {
         // Returns all resource types that is NOT a subtype
-        return resourceTypeRepository.findAllByParentIncludingTranslationsAndFirstLevelSubtypes(null).stream()
+        return resourceTypeTreeService.getTree().getRoots().stream()
                 .map(resourceType -> new ResourceTypeDTO(resourceType, language, 100))
                 .collect(Collectors.toList());
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Gets a single resource type")
-    @Transactional(readOnly = true)
     public ResourceTypeDTO getResourceType(
             @PathVariable("id") URI id,
             @Parameter(description = "ISO-639-1 language code", example = "nb")
                     @RequestParam(value = "language", required = false, defaultValue = "")
                     String language) {
-        return resourceTypeRepository
-                .findFirstByPublicIdIncludingTranslations(id)
+        return resourceTypeTreeService
+                .getTree()
+                .get(id)
                 .map(resourceType -> new ResourceTypeDTO(resourceType, language, 0))
                 .orElseThrow(() -> new NotFoundException("ResourceType", id));
     }
@@ -117,7 +121,6 @@ public class ResourceTypes extends CrudController<ResourceType> {
 
     @GetMapping("/{id}/subtypes")
     @Operation(summary = "Gets subtypes of one resource type")
-    @Transactional(readOnly = true)
     public List<ResourceTypeDTO> getResourceTypeSubtypes(
             @PathVariable("id") URI id,
             @Parameter(description = "ISO-639-1 language code", example = "nb")
@@ -126,7 +129,12 @@ public class ResourceTypes extends CrudController<ResourceType> {
             @RequestParam(value = "recursive", required = false, defaultValue = "false")
                     @Parameter(description = "If true, sub resource types are fetched recursively")
                     boolean recursive) {
-        return resourceTypeRepository.findAllByParentPublicIdIncludingTranslationsAndFirstLevelSubtypes(id).stream()
+        return resourceTypeTreeService
+                .getTree()
+                .get(id)
+                .map(ResourceTypeTree.Entry::subtypes)
+                .orElse(List.of())
+                .stream()
                 .map(resourceType -> new ResourceTypeDTO(resourceType, language, 100))
                 .collect(Collectors.toList());
     }
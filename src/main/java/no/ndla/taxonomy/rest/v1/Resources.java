@@ -15,6 +15,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import no.ndla.taxonomy.config.Constants;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeType;
 import no.ndla.taxonomy.repositories.NodeRepository;
@@ -22,9 +23,12 @@ import no.ndla.taxonomy.repositories.ResourceResourceTypeRepository;
 import no.ndla.taxonomy.rest.v1.commands.ResourcePostPut;
 import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.ContextUpdaterService;
+import no.ndla.taxonomy.service.MetadataFilters;
 import no.ndla.taxonomy.service.NodeService;
 import no.ndla.taxonomy.service.QualityEvaluationService;
 import no.ndla.taxonomy.service.ResourceTypeService;
+import no.ndla.taxonomy.service.ResourceTypeTreeService;
+import no.ndla.taxonomy.service.SearchService;
 import no.ndla.taxonomy.service.dtos.NodeDTO;
 import no.ndla.taxonomy.service.dtos.NodeWithParents;
 import no.ndla.taxonomy.service.dtos.ResourceTypeWithConnectionDTO;
@@ -39,8 +43,10 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping(path = {"/v1/resources", "/v1/resources/"})
 public class Resources extends CrudControllerWithMetadata<Node> {
     private final Nodes nodes;
+    private final SearchService searchService;
     private final ResourceResourceTypeRepository resourceResourceTypeRepository;
     private final NodeService nodeService;
+    private final ResourceTypeTreeService resourceTypeTreeService;
 
     public Resources(
             Nodes nodes,
@@ -49,13 +55,17 @@ public class Resources extends CrudControllerWithMetadata<Node> {
             ContextUpdaterService contextUpdaterService,
             NodeService nodeService,
             QualityEvaluationService qualityEvaluationService,
-            ResourceTypeService resourceTypeService) {
+            ResourceTypeService resourceTypeService,
+            SearchService searchService,
+            ResourceTypeTreeService resourceTypeTreeService) {
         super(nodeRepository, contextUpdaterService, nodeService, qualityEvaluationService, resourceTypeService);
 
         this.nodes = nodes;
+        this.searchService = searchService;
         this.resourceResourceTypeRepository = resourceResourceTypeRepository;
         this.repository = nodeRepository;
         this.nodeService = nodeService;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     @Override
@@ -87,8 +97,10 @@ public class Resources extends CrudControllerWithMetadata<Node> {
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 key,
                 value,
+                MetadataFilters.ValueMatch.EXACT,
                 Optional.empty(),
                 isVisible,
                 true,
@@ -116,16 +128,17 @@ public class Resources extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "ContentURIs to fetch for query")
                     @RequestParam(value = "contentUris", required = false)
                     Optional<List<String>> contentUris) {
-        return nodes.searchNodes(
-                language,
-                pageSize,
-                page,
+        return searchService.searchByNodeType(
                 query,
                 ids,
                 contentUris,
-                Optional.of(List.of(NodeType.RESOURCE)),
+                language,
                 true,
                 true,
+                pageSize,
+                page,
+                Optional.of(List.of(NodeType.RESOURCE)),
+                Optional.empty(),
                 Optional.empty(),
                 Optional.empty());
     }
@@ -153,7 +166,7 @@ public class Resources extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "ISO-639-1 language code", example = "nb")
                     @RequestParam(value = "language", required = false, defaultValue = Constants.DefaultLanguage)
                     String language) {
-        return nodes.getNode(id, Optional.empty(), Optional.empty(), true, true, true, language);
+        return nodes.getNode(id, Optional.empty(), Optional.empty(), true, true, true, language).getBody();
     }
 
     @Deprecated
@@ -164,6 +177,7 @@ public class Resources extends CrudControllerWithMetadata<Node> {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateResource(
             @PathVariable("id") URI id,
             @Parameter(
@@ -219,8 +233,10 @@ public class Resources extends CrudControllerWithMetadata<Node> {
                     @RequestParam(value = "language", required = false, defaultValue = Constants.DefaultLanguage)
                     String language) {
 
+        var resourceTypes = resourceTypeTreeService.getTree();
         return resourceResourceTypeRepository.resourceResourceTypeByParentId(id).stream()
-                .map(resourceResourceType -> new ResourceTypeWithConnectionDTO(resourceResourceType, language))
+                .map(resourceResourceType ->
+                        new ResourceTypeWithConnectionDTO(resourceResourceType, resourceTypes, language))
                 .toList();
     }
 
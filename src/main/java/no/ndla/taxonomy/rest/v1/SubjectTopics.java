@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.NodeConnectionType;
 import no.ndla.taxonomy.domain.Relevance;
@@ -103,6 +104,7 @@ public class SubjectTopics {
     @Created201ApiResponse
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public ResponseEntity<Void> createSubjectTopic(
             @Parameter(name = "command", description = "The subject and topic getting connected.") @RequestBody
                     SubjectTopicPOST command) {
@@ -124,6 +126,7 @@ public class SubjectTopics {
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void deleteSubjectTopic(@PathVariable("id") URI id) {
         connectionService.disconnectParentChildConnection(nodeConnectionRepository.getByPublicId(id));
     }
@@ -137,6 +140,7 @@ public class SubjectTopics {
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateSubjectTopic(
             @PathVariable("id") URI id,
             @Parameter(name = "connection", description = "updated subject/topic connection") @RequestBody
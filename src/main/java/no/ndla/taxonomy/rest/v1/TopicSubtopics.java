@@ -16,6 +16,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.NodeConnectionType;
@@ -104,6 +105,7 @@ public class TopicSubtopics {
     @Created201ApiResponse
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public ResponseEntity<Void> createTopicSubtopic(
             @Parameter(name = "connection", description = "The new connection") @RequestBody
                     TopicSubtopicPOST command) {
@@ -127,6 +129,7 @@ public class TopicSubtopics {
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void deleteTopicSubtopic(@PathVariable("id") URI id) {
         connectionService.disconnectParentChildConnection(nodeConnectionRepository.getByPublicId(id));
     }
@@ -140,6 +143,7 @@ public class TopicSubtopics {
             security = {@SecurityRequirement(name = "oauth")})
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateTopicSubtopic(
             @PathVariable("id") URI id,
             @Parameter(name = "connection", description = "The updated connection") @RequestBody
@@ -15,6 +15,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import no.ndla.taxonomy.config.Constants;
+import no.ndla.taxonomy.config.RetryOnConflict;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnectionType;
 import no.ndla.taxonomy.domain.NodeType;
@@ -22,9 +23,11 @@ import no.ndla.taxonomy.repositories.NodeRepository;
 import no.ndla.taxonomy.rest.v1.commands.TopicPostPut;
 import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.ContextUpdaterService;
+import no.ndla.taxonomy.service.MetadataFilters;
 import no.ndla.taxonomy.service.NodeService;
 import no.ndla.taxonomy.service.QualityEvaluationService;
 import no.ndla.taxonomy.service.ResourceTypeService;
+import no.ndla.taxonomy.service.SearchService;
 import no.ndla.taxonomy.service.dtos.ConnectionDTO;
 import no.ndla.taxonomy.service.dtos.NodeChildDTO;
 import no.ndla.taxonomy.service.dtos.NodeDTO;
@@ -39,6 +42,7 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping(path = {"/v1/topics", "/v1/topics/"})
 public class Topics extends CrudControllerWithMetadata<Node> {
     private final Nodes nodes;
+    private final SearchService searchService;
 
     public Topics(
             Nodes nodes,
@@ -46,10 +50,12 @@ public class Topics extends CrudControllerWithMetadata<Node> {
             NodeService nodeService,
             ContextUpdaterService contextUpdaterService,
             QualityEvaluationService qualityEvaluationService,
-            ResourceTypeService resourceTypeService) {
+            ResourceTypeService resourceTypeService,
+            SearchService searchService) {
         super(nodeRepository, contextUpdaterService, nodeService, qualityEvaluationService, resourceTypeService);
 
         this.nodes = nodes;
+        this.searchService = searchService;
         this.nodeService = nodeService;
     }
 
@@ -77,8 +83,10 @@ public class Topics extends CrudControllerWithMetadata<Node> {
                 Optional.empty(),
                 Optional.empty(),
                 Optional.empty(),
+                Optional.empty(),
                 key,
                 value,
+                MetadataFilters.ValueMatch.EXACT,
                 Optional.empty(),
                 isVisible,
                 true,
@@ -106,16 +114,17 @@ public class Topics extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "ContentURIs to fetch for query")
                     @RequestParam(value = "contentUris", required = false)
                     Optional<List<String>> contentUris) {
-        return nodes.searchNodes(
-                language,
-                pageSize,
-                page,
+        return searchService.searchByNodeType(
                 query,
                 ids,
                 contentUris,
-                Optional.of(List.of(NodeType.TOPIC)),
+                language,
                 true,
                 true,
+                pageSize,
+                page,
+                Optional.of(List.of(NodeType.TOPIC)),
+                Optional.empty(),
                 Optional.empty(),
                 Optional.empty());
     }
@@ -143,7 +152,7 @@ public class Topics extends CrudControllerWithMetadata<Node> {
             @Parameter(description = "ISO-639-1 language code", example = "nb")
                     @RequestParam(value = "language", required = false, defaultValue = Constants.DefaultLanguage)
                     String language) {
-        return nodes.getNode(id, Optional.empty(), Optional.empty(), true, true, true, language);
+        return nodes.getNode(id, Optional.empty(), Optional.empty(), true, true, true, language).getBody();
     }
 
     @Deprecated
@@ -168,6 +177,7 @@ public class Topics extends CrudControllerWithMetadata<Node> {
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @PreAuthorize("hasAuthority('TAXONOMY_WRITE')")
     @Transactional
+    @RetryOnConflict
     public void updateTopic(
             @PathVariable("id") URI id,
             @Parameter(name = "topic", description = "The updated topic. Fields not included will be set to null.")
@@ -20,6 +20,8 @@ import no.ndla.taxonomy.rest.NotFoundHttpResponseException;
 import no.ndla.taxonomy.rest.v1.commands.VersionPostPut;
 import no.ndla.taxonomy.rest.v1.responses.Created201ApiResponse;
 import no.ndla.taxonomy.service.VersionService;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import no.ndla.taxonomy.service.dtos.SnapshotJobDTO;
 import no.ndla.taxonomy.service.dtos.VersionDTO;
 import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
 import org.springframework.http.HttpStatus;
@@ -70,6 +72,8 @@ public class Versions extends CrudController<Version> {
     @PostMapping
     @Operation(
             summary = "Creates a new version",
+            description = "The version is copied in the background and listed once the copy is done. Follow the"
+                    + " progress at /v1/versions/{id}/status",
             security = {@SecurityRequirement(name = "oauth")})
     @Created201ApiResponse
     @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
@@ -94,7 +98,11 @@ public class Versions extends CrudController<Version> {
     public void updateVersion(
             @PathVariable("id") URI id,
             @Parameter(name = "version", description = "The updated version.") @RequestBody VersionPostPut command) {
+        if (command.locked.isPresent() && !command.locked.get()) {
+            versionRepository.findFirstByPublicId(id).ifPresent(versionService::checkNotBaseOfDeltaVersions);
+        }
         updateEntity(id, command);
+        versionService.versionUpdated();
     }
 
     @DeleteMapping("/{id}")
@@ -127,4 +135,36 @@ public class Versions extends CrudController<Version> {
         }
         versionService.publishBetaAndArchiveCurrent(id);
     }
+
+    @GetMapping("/{id}/publish")
+    @Operation(
+            summary = "Gets the progress of disconnecting invisible nodes after a version was published",
+            security = {@SecurityRequirement(name = "oauth")})
+    @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
+    public PruneJobDTO getPublishStatus(@PathVariable("id") URI id) {
+        return versionService
+                .getPruneJob(id)
+                .orElseThrow(() -> new NotFoundHttpResponseException("Version has not been published"));
+    }
+
+    @GetMapping("/{id}/status")
+    @Operation(
+            summary = "Gets the progress of copying the schema of a new version",
+            security = {@SecurityRequirement(name = "oauth")})
+    @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
+    public SnapshotJobDTO getStatus(@PathVariable("id") URI id) {
+        return versionService
+                .getSnapshotJob(id)
+                .orElseThrow(() -> new NotFoundHttpResponseException("Version has not been created"));
+    }
+
+    @DeleteMapping("/{id}/status")
+    @Operation(
+            summary = "Cancels copying the schema of a new version. The version is not created",
+            security = {@SecurityRequirement(name = "oauth")})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PreAuthorize("hasAuthority('TAXONOMY_ADMIN')")
+    public void cancelCreation(@PathVariable("id") URI id) {
+        versionService.cancelSnapshot(id);
+    }
 }
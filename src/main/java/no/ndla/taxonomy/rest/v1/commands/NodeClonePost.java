@@ -0,0 +1,23 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1.commands;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.Map;
+
+@Schema(name = "NodeClonePost")
+public class NodeClonePost extends NodePostPut {
+    @JsonProperty
+    @Schema(
+            description = "Only used when cloning recursively. Content uris to replace in the cloned nodes below the"
+                    + " root. Resources not in the mapping get no content uri, other nodes keep theirs.",
+            example = "{\"urn:article:1\": \"urn:article:2\"}")
+    public Map<URI, URI> contentUriMapping = Map.of();
+}
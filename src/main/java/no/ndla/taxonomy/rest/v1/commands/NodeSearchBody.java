@@ -68,6 +68,18 @@ public class NodeSearchBody {
     @JsonProperty
     public Optional<URI> parentId = Optional.empty();
 
+    @Schema(description = "Count all results. If false, totalCount is only a lower bound")
+    @JsonProperty
+    public boolean includeTotal = true;
+
+    @Schema(description = "Estimate totalCount from database statistics instead of counting")
+    @JsonProperty
+    public boolean estimateTotal = false;
+
+    @Schema(description = "Count all matches per nodeType, resource type, relevance and visibility")
+    @JsonProperty
+    public boolean includeFacets = false;
+
     public Optional<Map<String, String>> getCustomFields() {
         return customFields;
     }
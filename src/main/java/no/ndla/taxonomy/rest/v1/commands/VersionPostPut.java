@@ -12,6 +12,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.net.URI;
 import java.util.Optional;
 import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionStorage;
 import no.ndla.taxonomy.service.UpdatableDto;
 
 @Schema(requiredProperties = {"name"})
@@ -31,11 +32,21 @@ public class VersionPostPut implements UpdatableDto<Version> {
     @Schema(description = "If specified, set the locked property to this value.")
     public Optional<Boolean> locked = Optional.empty();
 
+    @JsonProperty
+    @Schema(
+            description =
+                    "How to store a new version. DELTA stores only the changes made on top of the locked version given as sourceId, and is stored in full once published. Defaults to FULL.")
+    public Optional<VersionStorage> storage = Optional.empty();
+
     @Override
     public Optional<URI> getId() {
         return id;
     }
 
+    public Optional<VersionStorage> getStorage() {
+        return storage;
+    }
+
     @Override
     public void apply(Version entity) {
         if (getId().isPresent()) entity.setPublicId(getId().get());
@@ -0,0 +1,48 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+
+@Schema(
+        name = "ImportConnection",
+        requiredProperties = {"parentId", "childId"})
+public class ImportConnectionPOST {
+    @JsonProperty
+    @Schema(description = "Parent id, a node in the import or an existing node", example = "urn:subject:1")
+    public URI parentId;
+
+    @JsonProperty
+    @Schema(description = "Child id, a node in the import or an existing node", example = "urn:topic:1")
+    public URI childId;
+
+    @JsonProperty
+    @Schema(
+            description =
+                    "If this connection is primary. Defaults to true when the child has no primary parent yet.",
+            example = "true")
+    public Optional<Boolean> primary = Optional.empty();
+
+    @JsonProperty
+    @Schema(
+            description = "Order in which to sort the child for the parent. Defaults to after the previous child",
+            example = "1")
+    public Optional<Integer> rank = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Relevance id", example = "urn:relevance:core")
+    public Optional<URI> relevanceId = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Connection type", example = "BRANCH", defaultValue = "BRANCH")
+    public Optional<NodeConnectionType> connectionType = Optional.empty();
+}
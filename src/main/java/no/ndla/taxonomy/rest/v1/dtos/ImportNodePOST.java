@@ -0,0 +1,58 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.JsonTranslation;
+import no.ndla.taxonomy.domain.NodeType;
+
+@Schema(name = "ImportNode", requiredProperties = {"nodeType"})
+public class ImportNodePOST {
+    @JsonProperty
+    @Schema(
+            description = "Id of the new node, referenced by connections. If omitted, an uuid is assigned",
+            example = "urn:topic:1")
+    public Optional<URI> id = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Type of node", example = "topic")
+    public NodeType nodeType;
+
+    @JsonProperty
+    @Schema(description = "The name of the node", example = "Trigonometry")
+    public Optional<String> name = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "ID of content introducing this node", example = "urn:article:1")
+    public Optional<URI> contentUri = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "The node is a root node", example = "true")
+    public boolean context = false;
+
+    @JsonProperty
+    @Schema(description = "The node is visible", example = "true")
+    public boolean visible = true;
+
+    @JsonProperty
+    @Schema(description = "Translations of the name")
+    public List<JsonTranslation> translations = List.of();
+
+    @JsonProperty
+    @Schema(description = "Custom fields")
+    public Map<String, String> customFields = Map.of();
+
+    @JsonProperty
+    @Schema(description = "Ids of resource types", example = "[\"urn:resourcetype:learningPath\"]")
+    public List<URI> resourceTypes = List.of();
+}
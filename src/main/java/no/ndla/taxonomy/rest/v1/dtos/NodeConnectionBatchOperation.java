@@ -0,0 +1,55 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+
+@Schema(name = "NodeConnectionBatchOperation", requiredProperties = {"action"})
+public class NodeConnectionBatchOperation {
+    public enum Action {
+        CONNECT,
+        DISCONNECT,
+        UPDATE
+    }
+
+    @JsonProperty
+    @Schema(description = "What to do. CONNECT needs parentId and childId, DISCONNECT and UPDATE need id")
+    public Action action;
+
+    @JsonProperty
+    @Schema(description = "Connection to disconnect or update", example = "urn:node-connection:1")
+    public Optional<URI> id = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Parent id when connecting", example = "urn:topic:234")
+    public Optional<URI> parentId = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Child id when connecting", example = "urn:topic:234")
+    public Optional<URI> childId = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "If this connection is primary.", example = "true")
+    public Optional<Boolean> primary = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Order in which to sort the child for the parent", example = "1")
+    public Optional<Integer> rank = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Relevance id", example = "urn:relevance:core")
+    public Optional<URI> relevanceId = Optional.empty();
+
+    @JsonProperty
+    @Schema(description = "Connection type when connecting", example = "BRANCH", defaultValue = "BRANCH")
+    public Optional<NodeConnectionType> connectionType = Optional.empty();
+}
@@ -0,0 +1,47 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.Optional;
+
+@Schema(
+        name = "NodeConnectionBatchResult",
+        requiredProperties = {"index", "action", "id"})
+public class NodeConnectionBatchResultDTO {
+    @JsonProperty
+    @Schema(description = "Position of the operation in the request")
+    public int index;
+
+    @JsonProperty
+    @Schema(description = "The operation that was applied")
+    public NodeConnectionBatchOperation.Action action;
+
+    @JsonProperty
+    @Schema(description = "Id of the created, updated or removed connection", example = "urn:node-connection:1")
+    public URI id;
+
+    @JsonProperty
+    @Schema(description = "The connection after the batch. Empty for removed connections")
+    public Optional<NodeConnectionDTO> connection = Optional.empty();
+
+    NodeConnectionBatchResultDTO() {}
+
+    public NodeConnectionBatchResultDTO(
+            int index,
+            NodeConnectionBatchOperation.Action action,
+            URI id,
+            Optional<NodeConnectionDTO> connection) {
+        this.index = index;
+        this.action = action;
+        this.id = id;
+        this.connection = connection;
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import no.ndla.taxonomy.domain.ResourceType;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 import no.ndla.taxonomy.service.dtos.TranslationDTO;
 
 @Schema(
@@ -66,4 +67,22 @@ public class ResourceTypeDTO {
                     .collect(Collectors.toList()));
         }
     }
+
+    public ResourceTypeDTO(ResourceTypeTree.Entry resourceType, String language, int recursionLevels) {
+        this.id = resourceType.publicId();
+
+        this.translations =
+                resourceType.translations().stream().map(TranslationDTO::new).collect(Collectors.toSet());
+        this.supportedLanguages =
+                this.translations.stream().map(t -> t.language).collect(Collectors.toSet());
+
+        this.name = resourceType.getTranslatedName(language);
+        this.order = resourceType.order();
+
+        if (recursionLevels > 0 && !resourceType.subtypes().isEmpty()) {
+            this.subtypes = Optional.of(resourceType.subtypes().stream()
+                    .map(subtype -> new ResourceTypeDTO(subtype, language, recursionLevels - 1))
+                    .collect(Collectors.toList()));
+        }
+    }
 }
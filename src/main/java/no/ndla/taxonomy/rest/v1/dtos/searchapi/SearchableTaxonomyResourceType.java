@@ -11,9 +11,15 @@ import static no.ndla.taxonomy.config.Constants.DefaultLanguage;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.ResourceType;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 
 @Schema(requiredProperties = {"id", "name"})
 public class SearchableTaxonomyResourceType implements Comparable<SearchableTaxonomyResourceType> {
@@ -44,6 +50,38 @@ public class SearchableTaxonomyResourceType implements Comparable<SearchableTaxo
         }
     }
 
+    public SearchableTaxonomyResourceType(ResourceTypeTree.Entry resourceType) {
+        this.id = resourceType.publicId().toString();
+        this.order = resourceType.order();
+        this.parentId = resourceType.parentId().map(URI::toString);
+        this.name = new HashMap<>();
+        this.name.put(DefaultLanguage, resourceType.name());
+
+        for (var t : resourceType.translations()) {
+            name.put(t.getLanguageCode(), t.getName());
+        }
+    }
+
+    /**
+     * The resource types of a node in order. They are mapped from the tree, so no resource type is loaded, except for
+     * types the tree does not know yet.
+     */
+    public static List<SearchableTaxonomyResourceType> of(Node node, ResourceTypeTree resourceTypes) {
+        return node.getResourceResourceTypes().stream()
+                .map(resourceResourceType -> resourceResourceType
+                        .getResourceTypeId()
+                        .flatMap(resourceTypes::getById)
+                        .map(SearchableTaxonomyResourceType::new)
+                        .orElseGet(() -> new SearchableTaxonomyResourceType(resourceResourceType.getResourceType())))
+                .collect(Collectors.toCollection(TreeSet::new))
+                .stream()
+                .toList();
+    }
+
+    public Optional<String> getParentId() {
+        return parentId;
+    }
+
     @Override
     public int compareTo(SearchableTaxonomyResourceType other) {
         if (this.order == -1 || other.order == -1) {
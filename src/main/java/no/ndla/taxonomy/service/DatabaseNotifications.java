@@ -0,0 +1,123 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listens for Postgres notifications on a connection of its own, and hands them to the subscribers of the channel they
+ * were sent on. Postgres only delivers a notification once the transaction that sent it has committed, so this is how
+ * instances tell each other about changes to state they keep in memory. Notifications sent while not listening are
+ * lost, so subscribers are asked to resync whenever listening starts. The connection is checked now and then, so that
+ * a connection that died silently is noticed and listening starts over.
+ */
+@Component
+public class DatabaseNotifications {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseNotifications.class);
+
+    private record Subscriber(Consumer<String> onNotification, Runnable onResync) {}
+
+    private final DataSource dataSource;
+    private final Duration checkInterval;
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean listening = false;
+    private Thread listener;
+
+    public DatabaseNotifications(
+            DataSource dataSource, @Value("${taxonomy.notifications.check-interval:PT1M}") Duration checkInterval) {
+        this.dataSource = dataSource;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Subscribes to a channel. Must be called before the application is ready, the channels are listened to from then.
+     *
+     * @param onNotification called with the payload of each notification on the channel
+     * @param onResync called when listening starts, as notifications could have been missed before
+     */
+    public void subscribe(String channel, Consumer<String> onNotification, Runnable onResync) {
+        subscribers
+                .computeIfAbsent(channel, key -> new CopyOnWriteArrayList<>())
+                .add(new Subscriber(onNotification, onResync));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        listening = true;
+        listener = new Thread(this::listen, "database-notifications");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        listening = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (listening) {
+            try (var connection = dataSource.getConnection();
+                    var statement = connection.createStatement()) {
+                for (var channel : subscribers.keySet()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                // Changes made while not listening were missed
+                resync();
+                var pgConnection = connection.unwrap(PGConnection.class);
+                while (listening) {
+                    var notifications = pgConnection.getNotifications((int) checkInterval.toMillis());
+                    if (notifications == null || notifications.length == 0) {
+                        // Fails if the connection is gone, notifications are only waited for on a live one
+                        statement.execute("SELECT 1");
+                        continue;
+                    }
+                    for (var notification : notifications) {
+                        for (var subscriber : subscribers.getOrDefault(notification.getName(), List.of())) {
+                            subscriber.onNotification().accept(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!listening) {
+                    return;
+                }
+                logger.warn("Listening for database notifications failed, trying again", e);
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void resync() {
+        subscribers.values().forEach(channel -> channel.forEach(subscriber -> subscriber.onResync().run()));
+    }
+}
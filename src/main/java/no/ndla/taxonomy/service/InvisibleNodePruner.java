@@ -0,0 +1,148 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import no.ndla.taxonomy.service.task.ContextRebuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cuts invisible nodes loose from their parents when a version is published. The invisible nodes that can be reached
+ * through visible ones are found with one query and all their parent connections removed in one statement. Contexts
+ * are then rebuilt per root, in parallel and each root in its own transaction.
+ */
+@Service
+public class InvisibleNodePruner {
+    private static final Logger logger = LoggerFactory.getLogger(InvisibleNodePruner.class);
+
+    private final NodeRepository nodeRepository;
+    private final NodeConnectionRepository nodeConnectionRepository;
+    private final ContextUpdaterService contextUpdaterService;
+    private final QualityEvaluationService qualityEvaluationService;
+    private final NodeSuggestIndexListener nodeSuggestIndexListener;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+
+    public InvisibleNodePruner(
+            NodeRepository nodeRepository,
+            NodeConnectionRepository nodeConnectionRepository,
+            ContextUpdaterService contextUpdaterService,
+            QualityEvaluationService qualityEvaluationService,
+            NodeSuggestIndexListener nodeSuggestIndexListener,
+            PlatformTransactionManager transactionManager,
+            @Value("${taxonomy.publish.pruning-threads:4}") int threads) {
+        this.nodeRepository = nodeRepository;
+        this.nodeConnectionRepository = nodeConnectionRepository;
+        this.contextUpdaterService = contextUpdaterService;
+        this.qualityEvaluationService = qualityEvaluationService;
+        this.nodeSuggestIndexListener = nodeSuggestIndexListener;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Prunes the schema of the current {@link VersionContext}. Failures are recorded on the job.
+     */
+    public void prune(PruneJobDTO job) {
+        var startTime = System.currentTimeMillis();
+        try {
+            job.finding();
+            var nodesByRoot = transactionTemplate.execute(status -> disconnect(job));
+
+            var rebuilds = new LinkedHashMap<Integer, Future<?>>();
+            nodesByRoot.forEach((root, nodeIds) -> {
+                var rebuilder = new ContextRebuilder();
+                rebuilder.setPruner(this);
+                rebuilder.setNodeIds(nodeIds);
+                rebuilder.setJob(job);
+                rebuilder.setVersion(VersionContext.getCurrentVersion());
+                rebuilds.put(root, executor.submit(rebuilder));
+            });
+            var failed = new ArrayList<Integer>();
+            for (var rebuild : rebuilds.entrySet()) {
+                try {
+                    rebuild.getValue().get();
+                } catch (ExecutionException e) {
+                    // Roots can share nodes further down, so two rebuilds may collide. Retried one by one below.
+                    logger.warn("Rebuilding contexts below root {} failed, retrying", rebuild.getKey(), e.getCause());
+                    failed.add(rebuild.getKey());
+                }
+            }
+            for (var root : failed) {
+                rebuildContexts(nodesByRoot.get(root), job);
+            }
+            nodeSuggestIndexListener.nodesChangedInBulk();
+
+            job.done();
+            logger.info(
+                    "Disconnected {} invisible nodes below {} roots, removing {} connections. Took {} ms",
+                    job.getNodes(),
+                    job.getRoots(),
+                    job.getConnections(),
+                    System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.failed("Interrupted");
+        } catch (RuntimeException e) {
+            logger.error("Disconnecting invisible nodes failed", e);
+            job.failed(e.getMessage());
+        }
+    }
+
+    private Map<Integer, List<Integer>> disconnect(PruneJobDTO job) {
+        // A node below several roots is handled with the first one, its contexts do not depend on which
+        var nodesByRoot = new LinkedHashMap<Integer, List<Integer>>();
+        var seen = new HashSet<Integer>();
+        nodeRepository.findInvisibleFrontier().forEach(node -> {
+            if (seen.add(node.getNodeId())) {
+                nodesByRoot
+                        .computeIfAbsent(node.getRootId(), root -> new ArrayList<>())
+                        .add(node.getNodeId());
+            }
+        });
+        var nodeIds = seen.toArray(Integer[]::new);
+        job.disconnecting(nodesByRoot.size(), nodeIds.length);
+        if (nodeIds.length == 0) {
+            job.rebuildingContexts(0);
+            return nodesByRoot;
+        }
+
+        var parentIds = nodeConnectionRepository.findParentIds(nodeIds);
+        var connections = nodeConnectionRepository.deleteByChildIds(nodeIds);
+        if (!parentIds.isEmpty()) {
+            qualityEvaluationService.recalculateChildQualityEvaluationAverages(nodeRepository.findByIds(parentIds));
+        }
+        job.rebuildingContexts(connections);
+        return nodesByRoot;
+    }
+
+    /**
+     * Rebuilds the contexts of the given, now parentless, nodes and everything below them in a transaction of its own.
+     */
+    public void rebuildContexts(List<Integer> nodeIds, PruneJobDTO job) {
+        transactionTemplate.executeWithoutResult(
+                status -> nodeRepository.findByIds(nodeIds).forEach(contextUpdaterService::updateContexts));
+        job.rootDone();
+    }
+}
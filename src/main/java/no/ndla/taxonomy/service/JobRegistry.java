@@ -0,0 +1,69 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import no.ndla.taxonomy.service.dtos.JobDTO;
+
+/**
+ * Background jobs by key, kept in memory so that their progress can be followed while they run and for a while after.
+ * At most one job runs per key, and only the most recently started jobs are kept once they are done.
+ */
+public class JobRegistry<K, J extends JobDTO<?>> {
+    private final Map<K, J> jobs = new LinkedHashMap<>();
+    private final int kept;
+
+    public JobRegistry(int kept) {
+        this.kept = kept;
+    }
+
+    /**
+     * Registers the job, unless another job is running with the same key.
+     *
+     * @return the job running for the key, which is the given one if it was registered
+     */
+    public synchronized J start(K key, J job) {
+        var running = jobs.get(key);
+        if (running != null && running.isRunning()) {
+            return running;
+        }
+        // Removed first so that the job counts as the most recent
+        jobs.remove(key);
+        jobs.put(key, job);
+        removeOldest();
+        return job;
+    }
+
+    /**
+     * Registers the job, unless a job with the same key is still kept, running or not.
+     *
+     * @return whether the job was registered
+     */
+    public synchronized boolean startOnce(K key, J job) {
+        if (jobs.putIfAbsent(key, job) != null) {
+            return false;
+        }
+        removeOldest();
+        return true;
+    }
+
+    public synchronized Optional<J> get(K key) {
+        return Optional.ofNullable(jobs.get(key));
+    }
+
+    private void removeOldest() {
+        var iterator = jobs.values().iterator();
+        while (jobs.size() > kept && iterator.hasNext()) {
+            if (!iterator.next().isRunning()) {
+                iterator.remove();
+            }
+        }
+    }
+}
@@ -10,14 +10,28 @@ package no.ndla.taxonomy.service;
 import java.util.Optional;
 
 public class MetadataFilters {
+    public enum ValueMatch {
+        /** The value must equal the whole customfield value. Key and value together can use the customfields index. */
+        EXACT,
+        /** The value must be part of the customfield value. Always scans. */
+        SUBSTRING
+    }
+
     private final Optional<String> key;
     private final Optional<String> value;
     private final Optional<Boolean> visible;
+    private final ValueMatch valueMatch;
 
     public MetadataFilters(Optional<String> key, Optional<String> value, Optional<Boolean> visible) {
+        this(key, value, visible, ValueMatch.EXACT);
+    }
+
+    public MetadataFilters(
+            Optional<String> key, Optional<String> value, Optional<Boolean> visible, ValueMatch valueMatch) {
         this.key = key;
         this.value = value;
         this.visible = visible;
+        this.valueMatch = valueMatch;
     }
 
     public static MetadataFilters empty() {
@@ -28,11 +42,6 @@ public class MetadataFilters {
         return key;
     }
 
-    public Optional<String> getLikeQueryValue() {
-        // NOTE: This formatting of the filter is to be inserted into the `like` query in nodeRepository
-        return value.map(s -> "%\"" + s + "\"%");
-    }
-
     public Optional<String> getValue() {
         return value;
     }
@@ -41,7 +50,56 @@ public class MetadataFilters {
         return visible;
     }
 
+    public ValueMatch getValueMatch() {
+        return valueMatch;
+    }
+
     public boolean hasFilters() {
         return getKey().isPresent() || getValue().isPresent() || getVisible().isPresent();
     }
+
+    /**
+     * Key that must exist when no value is given.
+     */
+    public Optional<String> getRequiredKey() {
+        return value.isEmpty() ? key : Optional.empty();
+    }
+
+    /**
+     * Key of the key value pair customfields must contain, only set for exact matches on both key and value.
+     */
+    public Optional<String> getContainedKey() {
+        return isContainment() ? key : Optional.empty();
+    }
+
+    public Optional<String> getContainedValue() {
+        return isContainment() ? value : Optional.empty();
+    }
+
+    /**
+     * Jsonpath predicate for the value filters containment can not express: a value under any key, or part of a
+     * value.
+     */
+    public Optional<String> getValuePath() {
+        if (value.isEmpty() || isContainment()) {
+            return Optional.empty();
+        }
+        var accessor = key.map(k -> "$." + jsonPathString(k)).orElse("$.*");
+        var predicate = valueMatch == ValueMatch.EXACT
+                ? " == " + jsonPathString(value.get())
+                : " like_regex " + jsonPathString(escapeRegex(value.get()));
+        return Optional.of(accessor + predicate);
+    }
+
+    private boolean isContainment() {
+        return valueMatch == ValueMatch.EXACT && key.isPresent() && value.isPresent();
+    }
+
+    private static String jsonPathString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String escapeRegex(String value) {
+        return value.replaceAll("[\\\\.^$|?*+()\\[\\]{}]", "\\\\$0");
+    }
 }
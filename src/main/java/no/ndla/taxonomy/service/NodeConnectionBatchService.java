@@ -0,0 +1,180 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import no.ndla.taxonomy.domain.DomainEntity;
+import no.ndla.taxonomy.domain.Node;
+import no.ndla.taxonomy.domain.NodeConnection;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+import no.ndla.taxonomy.domain.Relevance;
+import no.ndla.taxonomy.domain.exceptions.PrimaryParentRequiredException;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchOperation;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchOperation.Action;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchResultDTO;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionDTO;
+import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Applies a list of connection changes as one unit of work. Everything is validated before anything is changed, and
+ * the changes are applied in order with contexts and quality evaluation averages updated once at the end.
+ */
+@Transactional
+@Service
+public class NodeConnectionBatchService {
+    private final NodeRepository nodeRepository;
+    private final NodeConnectionRepository nodeConnectionRepository;
+    private final NodeConnectionService connectionService;
+    private final SubtreeLockService subtreeLockService;
+
+    public NodeConnectionBatchService(
+            NodeRepository nodeRepository,
+            NodeConnectionRepository nodeConnectionRepository,
+            NodeConnectionService connectionService,
+            SubtreeLockService subtreeLockService) {
+        this.nodeRepository = nodeRepository;
+        this.nodeConnectionRepository = nodeConnectionRepository;
+        this.connectionService = connectionService;
+        this.subtreeLockService = subtreeLockService;
+    }
+
+    public List<NodeConnectionBatchResultDTO> applyBatch(List<NodeConnectionBatchOperation> operations) {
+        var nodes = byPublicId(nodeRepository.findAllByPublicIdIn(operations.stream()
+                .flatMap(operation -> Stream.concat(operation.parentId.stream(), operation.childId.stream()))
+                .collect(Collectors.toSet())));
+        var connections = byPublicId(nodeConnectionRepository.findAllByPublicIdIn(operations.stream()
+                .flatMap(operation -> operation.id.stream())
+                .collect(Collectors.toSet())));
+
+        validate(operations, nodes, connections);
+
+        // Taking every lock the batch needs up front keeps the order the same as for single changes
+        subtreeLockService.lockSubtreesOf(Stream.concat(
+                        nodes.values().stream(),
+                        connections.values().stream()
+                                .flatMap(connection -> Stream.of(connection.getParent(), connection.getChild()))
+                                .flatMap(Optional::stream))
+                .toArray(Node[]::new));
+
+        var removed = new HashSet<URI>();
+        var applied = connectionService.runBatched(() -> {
+            var result = new ArrayList<NodeConnection>();
+            for (var operation : operations) {
+                result.add(apply(operation, nodes, connections));
+                if (operation.action == Action.DISCONNECT) {
+                    removed.add(operation.id.orElseThrow());
+                }
+            }
+            return result;
+        });
+
+        var results = new ArrayList<NodeConnectionBatchResultDTO>();
+        for (var i = 0; i < operations.size(); i++) {
+            var connection = applied.get(i);
+            var dto = removed.contains(connection.getPublicId())
+                    ? Optional.<NodeConnectionDTO>empty()
+                    : Optional.of(new NodeConnectionDTO(connection));
+            results.add(new NodeConnectionBatchResultDTO(i, operations.get(i).action, connection.getPublicId(), dto));
+        }
+        return results;
+    }
+
+    private NodeConnection apply(
+            NodeConnectionBatchOperation operation, Map<URI, Node> nodes, Map<URI, NodeConnection> connections) {
+        return switch (operation.action) {
+            case CONNECT -> connectionService.connectParentChild(
+                    nodes.get(operation.parentId.orElseThrow()),
+                    nodes.get(operation.childId.orElseThrow()),
+                    operation.relevanceId.map(Relevance::unsafeGetRelevance).orElse(Relevance.CORE),
+                    operation.rank.orElse(null),
+                    operation.primary.or(() -> Optional.of(true)),
+                    operation.connectionType.orElse(NodeConnectionType.BRANCH));
+            case DISCONNECT -> {
+                var connection = connections.get(operation.id.orElseThrow());
+                connectionService.disconnectParentChildConnection(connection);
+                yield connection;
+            }
+            case UPDATE -> {
+                var connection = connections.get(operation.id.orElseThrow());
+                if (connection.isPrimary().orElse(false) && !operation.primary.orElse(true)) {
+                    throw new PrimaryParentRequiredException();
+                }
+                var relevance = operation.relevanceId
+                        .map(Relevance::unsafeGetRelevance)
+                        .or(connection::getRelevance)
+                        .orElse(Relevance.CORE);
+                connectionService.updateParentChild(connection, relevance, operation.rank, operation.primary);
+                yield connection;
+            }
+        };
+    }
+
+    private void validate(
+            List<NodeConnectionBatchOperation> operations, Map<URI, Node> nodes, Map<URI, NodeConnection> connections) {
+        var errors = new ArrayList<String>();
+        var disconnected = new HashSet<URI>();
+        for (var i = 0; i < operations.size(); i++) {
+            var operation = operations.get(i);
+            var prefix = "Operation " + i + ": ";
+            if (operation.action == null) {
+                errors.add(prefix + "action is required");
+                continue;
+            }
+            operation.relevanceId
+                    .filter(relevanceId -> Relevance.getRelevance(relevanceId).isEmpty())
+                    .ifPresent(relevanceId -> errors.add(prefix + "unknown relevance " + relevanceId));
+            switch (operation.action) {
+                case CONNECT -> {
+                    if (operation.parentId.isEmpty() || operation.childId.isEmpty()) {
+                        errors.add(prefix + "parentId and childId are required");
+                        continue;
+                    }
+                    Stream.of(operation.parentId.get(), operation.childId.get())
+                            .filter(id -> !nodes.containsKey(id))
+                            .forEach(id -> errors.add(prefix + "node " + id + " not found"));
+                    if (operation.parentId.equals(operation.childId)) {
+                        errors.add(prefix + "cannot connect node to itself");
+                    }
+                }
+                case DISCONNECT, UPDATE -> {
+                    if (operation.id.isEmpty()) {
+                        errors.add(prefix + "id is required");
+                        continue;
+                    }
+                    var id = operation.id.get();
+                    if (!connections.containsKey(id)) {
+                        errors.add(prefix + "connection " + id + " not found");
+                    } else if (disconnected.contains(id)) {
+                        errors.add(prefix + "connection " + id + " is disconnected by an earlier operation");
+                    } else if (operation.action == Action.DISCONNECT) {
+                        disconnected.add(id);
+                    }
+                }
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidArgumentServiceException(String.join("; ", errors));
+        }
+    }
+
+    private static <T extends DomainEntity> Map<URI, T> byPublicId(List<T> entities) {
+        return entities.stream().collect(Collectors.toMap(DomainEntity::getPublicId, Function.identity()));
+    }
+}
@@ -9,7 +9,9 @@ package no.ndla.taxonomy.service;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import no.ndla.taxonomy.domain.*;
 
 public interface NodeConnectionService {
@@ -40,5 +42,15 @@ public interface NodeConnectionService {
 
     void disconnectAllChildren(Node entity);
 
-    Optional<DomainEntity> disconnectAllInvisibleNodes();
+    /**
+     * Ranks the children of a node in the given order. Only ranks change, so contexts are patched in place instead of
+     * being rebuilt.
+     */
+    void reorderChildren(Node parent, List<URI> connectionIds);
+
+    /**
+     * Runs connection changes without flushing in between. Contexts and quality evaluation averages of everything
+     * touched are updated once when the work is done.
+     */
+    <T> T runBatched(Supplier<T> work);
 }
@@ -10,6 +10,8 @@ package no.ndla.taxonomy.service;
 import java.net.URI;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import no.ndla.taxonomy.domain.*;
 import no.ndla.taxonomy.integration.DraftApiClient;
 import no.ndla.taxonomy.repositories.NodeConnectionRepository;
@@ -29,18 +31,31 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
     private final NodeRepository nodeRepository;
     private final QualityEvaluationService qualityEvaluationService;
     private final DraftApiClient draftApiClient;
+    private final SubtreeLockService subtreeLockService;
+    private final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+    /**
+     * Work deferred while running a batch of connection changes. Contexts and quality evaluation averages only depend
+     * on the final tree, so they are computed once for everything the batch touched.
+     */
+    private static class Batch {
+        private final Set<Node> contextNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<Node> qualityEvaluationParents = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
 
     public NodeConnectionServiceImpl(
             NodeConnectionRepository nodeConnectionRepository,
             ContextUpdaterService contextUpdaterService,
             NodeRepository nodeRepository,
             QualityEvaluationService qualityEvaluationService,
-            DraftApiClient draftApiClient) {
+            DraftApiClient draftApiClient,
+            SubtreeLockService subtreeLockService) {
         this.nodeConnectionRepository = nodeConnectionRepository;
         this.contextUpdaterService = contextUpdaterService;
         this.nodeRepository = nodeRepository;
         this.qualityEvaluationService = qualityEvaluationService;
         this.draftApiClient = draftApiClient;
+        this.subtreeLockService = subtreeLockService;
     }
 
     private NodeConnection doCreateConnection(
@@ -73,7 +88,7 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
 
         updateRank(connection, rank);
 
-        contextUpdaterService.updateContexts(child);
+        updateContexts(child);
 
         return connection;
     }
@@ -100,6 +115,7 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
             Integer rank,
             Optional<Boolean> isPrimary,
             NodeConnectionType connectionType) {
+        subtreeLockService.lockSubtreesOf(parent, child);
         if (!child.getParentConnections().isEmpty()) {
             if (connectionType == NodeConnectionType.BRANCH && child.getNodeType() == NodeType.TOPIC)
                 throw new DuplicateConnectionException();
@@ -147,8 +163,16 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
         }
 
         var newConnection = createConnection(parent, child, relevance, rank, isPrimary, connectionType);
-        qualityEvaluationService.updateQualityEvaluationOfNewConnection(newConnection);
+        var batch = currentBatch.get();
+        if (batch != null) {
+            deferQualityEvaluation(batch, newConnection);
+        } else {
+            qualityEvaluationService.updateQualityEvaluationOfNewConnection(newConnection);
+        }
         draftApiClient.updateNotesWithNewConnection(newConnection);
+        if (batch != null) {
+            return nodeConnectionRepository.save(newConnection);
+        }
         return nodeConnectionRepository.saveAndFlush(newConnection);
     }
 
@@ -162,9 +186,15 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
 
     @Override
     public void disconnectParentChildConnection(NodeConnection nodeConnection) {
+        lockSubtreesOf(nodeConnection);
         final var child = nodeConnection.getChild();
+        var batch = currentBatch.get();
 
-        qualityEvaluationService.removeQualityEvaluationOfDeletedConnection(nodeConnection);
+        if (batch != null) {
+            deferQualityEvaluation(batch, nodeConnection);
+        } else {
+            qualityEvaluationService.removeQualityEvaluationOfDeletedConnection(nodeConnection);
+        }
         draftApiClient.updateNotesWithDeletedConnection(nodeConnection);
 
         nodeConnection.disassociate();
@@ -179,20 +209,82 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
                             .findFirst()
                             .ifPresent(nextConnection -> {
                                 nextConnection.setPrimary(true);
-                                nodeConnectionRepository.saveAndFlush(nextConnection);
-                                nextConnection.getResource().ifPresent(contextUpdaterService::updateContexts);
+                                nodeConnectionRepository.save(nextConnection);
+                                nextConnection.getResource().ifPresent(this::updateContexts);
                             });
                 }
             }
-            contextUpdaterService.updateContexts(childToDisconnect);
+            updateContexts(childToDisconnect);
         });
 
+        flush();
+    }
+
+    @Override
+    public <T> T runBatched(Supplier<T> work) {
+        if (currentBatch.get() != null) {
+            return work.get();
+        }
+        var batch = new Batch();
+        currentBatch.set(batch);
+        T result;
+        try {
+            result = work.get();
+        } finally {
+            currentBatch.remove();
+        }
+
+        topmostNodes(batch.contextNodes).forEach(contextUpdaterService::updateContexts);
+        qualityEvaluationService.recalculateChildQualityEvaluationAverages(batch.qualityEvaluationParents);
         nodeConnectionRepository.flush();
+        return result;
+    }
+
+    /**
+     * Updating contexts of a node also updates its whole subtree, so nodes below another node in the set are skipped.
+     */
+    static List<Node> topmostNodes(Set<Node> nodes) {
+        return nodes.stream().filter(node -> !hasAncestorIn(node, nodes, 100)).toList();
+    }
+
+    private static boolean hasAncestorIn(Node node, Set<Node> nodes, int ttl) {
+        if (ttl < 0) {
+            return false;
+        }
+        return node.getParentConnections().stream()
+                .map(NodeConnection::getParent)
+                .flatMap(Optional::stream)
+                .anyMatch(parent -> nodes.contains(parent) || hasAncestorIn(parent, nodes, ttl - 1));
+    }
+
+    private void deferQualityEvaluation(Batch batch, NodeConnection connection) {
+        if (connection.getConnectionType() != NodeConnectionType.LINK) {
+            connection.getParent().ifPresent(batch.qualityEvaluationParents::add);
+        }
+    }
+
+    private void lockSubtreesOf(NodeConnection connection) {
+        subtreeLockService.lockSubtreesOf(connection.getParent().orElse(null), connection.getChild().orElse(null));
+    }
+
+    private void updateContexts(Node node) {
+        var batch = currentBatch.get();
+        if (batch != null) {
+            batch.contextNodes.add(node);
+        } else {
+            contextUpdaterService.updateContexts(node);
+        }
+    }
+
+    private void flush() {
+        if (currentBatch.get() == null) {
+            nodeConnectionRepository.flush();
+        }
     }
 
     private void saveConnections(Collection<NodeConnection> connections) {
         connections.forEach(nodeConnectionRepository::save);
-        nodeConnectionRepository.flush();
+        flush();
     }
 
     private void updatePrimaryConnection(NodeConnection connectable, boolean setPrimaryTo) {
@@ -231,7 +323,7 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
         saveConnections(updatedConnectables);
 
         updatedConnectables.forEach(
-                updatedConnectable -> updatedConnectable.getChild().ifPresent(contextUpdaterService::updateContexts));
+                updatedConnectable -> updatedConnectable.getChild().ifPresent(this::updateContexts));
 
         if (!setPrimaryTo && !foundNewPrimary.get()) {
             throw new InvalidArgumentServiceException(
@@ -261,17 +353,19 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
             Relevance newRelevance,
             Optional<Integer> newRank,
             Optional<Boolean> isPrimary) {
+        lockSubtreesOf(nodeConnection);
         draftApiClient.updateRelevanceNotesWithUpdatedConnection(nodeConnection, newRelevance);
         draftApiClient.updatePrimaryNotesWithUpdatedConnection(nodeConnection, isPrimary);
         newRank.ifPresent(integer -> updateRank(nodeConnection, integer));
         isPrimary.ifPresent(primary -> updatePrimaryConnection(nodeConnection, primary));
         updateRelevance(nodeConnection, newRelevance);
 
-        nodeConnection.getChild().ifPresent(contextUpdaterService::updateContexts);
+        nodeConnection.getChild().ifPresent(this::updateContexts);
     }
 
     @Override
     public void replacePrimaryConnectionsFor(Node entity) {
+        subtreeLockService.lockSubtreesOf(entity);
         entity.getChildConnections().stream()
                 .filter(connection -> connection.isPrimary().orElse(false))
                 .forEach(connection -> {
@@ -320,21 +414,18 @@ public class NodeConnectionServiceImpl implements NodeConnectionService {
 
     @Transactional
     @Override
-    public Optional<DomainEntity> disconnectAllInvisibleNodes() {
-        nodeRepository.findRootSubjects().forEach(subject -> {
-            disconnectInvisibleConnections(subject);
-            nodeRepository.save(subject);
-        });
-        return Optional.empty();
-    }
-
-    private void disconnectInvisibleConnections(Node node) {
-        if (!node.isVisible()) {
-            node.getParentConnections().forEach(this::disconnectParentChildConnection);
-        } else {
-            node.getChildConnections()
-                    .forEach(nodeConnection ->
-                            nodeConnection.getChild().ifPresent(this::disconnectInvisibleConnections));
+    public void reorderChildren(Node parent, List<URI> connectionIds) {
+        subtreeLockService.lockSubtreesOf(parent);
+        var childConnectionIds = parent.getChildConnections().stream()
+                .map(NodeConnection::getPublicId)
+                .collect(Collectors.toSet());
+        if (connectionIds.size() != childConnectionIds.size()
+                || !childConnectionIds.equals(new HashSet<>(connectionIds))) {
+            throw new InvalidArgumentServiceException(
+                    "Order must list every child connection of " + parent.getPublicId() + " exactly once");
         }
+        var ids = connectionIds.stream().map(URI::toString).toArray(String[]::new);
+        nodeConnectionRepository.updateChildRanks(parent.getId(), ids);
+        nodeConnectionRepository.updateChildContextRanks(parent.getId(), ids);
     }
 }
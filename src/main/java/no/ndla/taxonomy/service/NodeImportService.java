@@ -0,0 +1,486 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import no.ndla.taxonomy.config.cache.TenantCacheEviction;
+import no.ndla.taxonomy.domain.Node;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+import no.ndla.taxonomy.domain.Relevance;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.rest.v1.dtos.ImportConnectionPOST;
+import no.ndla.taxonomy.rest.v1.dtos.ImportNodePOST;
+import no.ndla.taxonomy.service.dtos.ImportStatusDTO;
+import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Imports a subtree from a streamed JSON document of the form {@code {"nodes": [...], "connections": [...]}}. Rows
+ * are inserted with batched JDBC statements as the document is read, without going through the entities, and contexts
+ * are built once at the end. Connections can point to nodes earlier in the document or to existing nodes, and the
+ * import is rejected if they connect nodes in a loop.
+ */
+@Service
+public class NodeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(NodeImportService.class);
+    static final int BATCH_SIZE = 500;
+    private static final int KEPT_STATUSES = 20;
+
+    private static final String INSERT_NODE = """
+            INSERT INTO node (public_id, node_type, ident, name, content_uri, context, visible, translations,
+                grepcodes, customfields, contexts, contextids, requires_technical_evaluation, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, cast(? as jsonb), '[]', cast(? as jsonb), '[]', '[]', false, now(), now())
+            """;
+    private static final String INSERT_RESOURCE_TYPE = """
+            INSERT INTO resource_resource_type (public_id, resource_id, resource_type_id) VALUES (?, ?, ?)
+            """;
+    private static final String INSERT_CONNECTION = """
+            INSERT INTO node_connection (public_id, parent_id, child_id, rank, is_primary, relevance, visible,
+                grepcodes, customfields, connection_type, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, true, '[]', '{}', ?, now(), now())
+            """;
+    private static final String FIND_LOOP = """
+            WITH RECURSIVE walk(start_id, node_id) AS (
+                SELECT e.parent_id, e.child_id FROM unnest(?, ?) AS e(parent_id, child_id)
+                UNION
+                SELECT w.start_id, nc.child_id FROM walk w JOIN node_connection nc ON nc.parent_id = w.node_id
+            )
+            SELECT start_id FROM walk WHERE node_id = start_id LIMIT 1
+            """;
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final NodeRepository nodeRepository;
+    private final ContextUpdaterService contextUpdaterService;
+    private final NodeSuggestIndexListener nodeSuggestIndexListener;
+    private final JobRegistry<String, ImportStatusDTO> statuses = new JobRegistry<>(KEPT_STATUSES);
+
+    public NodeImportService(
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            NodeRepository nodeRepository,
+            ContextUpdaterService contextUpdaterService,
+            NodeSuggestIndexListener nodeSuggestIndexListener) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.nodeRepository = nodeRepository;
+        this.contextUpdaterService = contextUpdaterService;
+        this.nodeSuggestIndexListener = nodeSuggestIndexListener;
+    }
+
+    public Optional<ImportStatusDTO> getStatus(String importId) {
+        return statuses.get(importId);
+    }
+
+    @Transactional
+    public ImportStatusDTO importSubtree(String importId, InputStream document) {
+        var status = new ImportStatusDTO(importId);
+        if (!statuses.startOnce(importId, status)) {
+            throw new InvalidArgumentServiceException("Import " + importId + " has already been used");
+        }
+        try {
+            var importer = new Importer(status);
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                importer.read(connection, document);
+                importer.checkForLoops(connection);
+            });
+
+            status.buildingContexts();
+            entityManager.clear();
+            evictConnections(importer);
+            importer.contextRoots().forEach(id -> {
+                contextUpdaterService.updateContexts(nodeRepository.getReferenceById(id));
+                status.addContexts(1);
+            });
+            entityManager.flush();
+
+            nodeSuggestIndexListener.nodesChangedInBulk();
+            afterCommit(importer);
+            status.done();
+            logger.info(
+                    "Import {} done: {} nodes, {} connections", importId, status.getNodes(), status.getConnections());
+            return status;
+        } catch (UncheckedIOException e) {
+            status.failed(e.getCause().getMessage());
+            throw new InvalidArgumentServiceException("Could not read import: " + e.getCause().getMessage(), e);
+        } catch (RuntimeException e) {
+            status.failed(e.getMessage());
+            throw e;
+        }
+    }
+
+    private void afterCommit(Importer importer) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Other transactions may have cached the collections as they were before the commit meanwhile
+                evictConnections(importer);
+            }
+        });
+    }
+
+    /**
+     * Rows were inserted behind Hibernate's back, so the cached connection collections of existing nodes that got a
+     * new parent or child are stale. They are evicted before contexts are built from them, and again after commit.
+     */
+    private void evictConnections(Importer importer) {
+        var session = entityManager.unwrap(SessionImplementor.class);
+        TenantCacheEviction.evictCollections(
+                session, Node.class.getName() + ".childConnections", importer.existingParents);
+        TenantCacheEviction.evictCollections(
+                session, Node.class.getName() + ".parentConnections", importer.existingChildren);
+    }
+
+    /**
+     * State for one import: ids of the nodes read so far and what the connections have touched.
+     */
+    private class Importer {
+        private final ImportStatusDTO status;
+        private final Map<URI, Integer> nodeIds = new HashMap<>();
+        private final Set<Integer> importedNodes = new LinkedHashSet<>();
+        private final Set<Integer> importedWithImportedParent = new HashSet<>();
+        private final Set<Integer> existingParents = new HashSet<>();
+        private final Set<Integer> existingChildren = new HashSet<>();
+        private final Set<Integer> childrenWithPrimary = new HashSet<>();
+        private final Map<Integer, Integer> lastRank = new HashMap<>();
+        private final Map<Integer, List<Integer>> importedEdges = new HashMap<>();
+        private final List<Integer[]> edgesToExisting = new ArrayList<>();
+        private Map<URI, Integer> resourceTypeIds;
+        private int position = 0;
+
+        Importer(ImportStatusDTO status) {
+            this.status = status;
+        }
+
+        void read(Connection connection, InputStream document) {
+            try (var parser = objectMapper.getFactory().createParser(document)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new InvalidArgumentServiceException("Import must be a JSON object");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    var field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "nodes" -> readArray(
+                                parser, ImportNodePOST.class, batch -> insertNodes(connection, batch));
+                        case "connections" -> readArray(
+                                parser, ImportConnectionPOST.class, batch -> insertConnections(connection, batch));
+                        default -> parser.skipChildren();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw new InvalidArgumentServiceException("Invalid import document: " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private <T> void readArray(JsonParser parser, Class<T> type, Consumer<List<T>> insert) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new InvalidArgumentServiceException("Expected an array of " + type.getSimpleName());
+            }
+            var batch = new ArrayList<T>(BATCH_SIZE);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                batch.add(objectMapper.readValue(parser, type));
+                if (batch.size() == BATCH_SIZE) {
+                    insert.accept(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insert.accept(batch);
+            }
+        }
+
+        private void insertNodes(Connection connection, List<ImportNodePOST> batch) {
+            var publicIds = new ArrayList<URI>(batch.size());
+            try (var statement = connection.prepareStatement(INSERT_NODE, new String[] {"id"})) {
+                for (var imported : batch) {
+                    var label = "Node " + position++;
+                    if (imported.nodeType == null) {
+                        throw new InvalidArgumentServiceException(label + ": nodeType is required");
+                    }
+                    var node = new Node(imported.nodeType);
+                    imported.id.ifPresent(node::setPublicId);
+                    if (nodeIds.containsKey(node.getPublicId()) || publicIds.contains(node.getPublicId())) {
+                        throw new InvalidArgumentServiceException(label + ": " + node.getPublicId() + " is repeated");
+                    }
+                    publicIds.add(node.getPublicId());
+
+                    statement.setString(1, node.getPublicId().toString());
+                    statement.setString(2, imported.nodeType.name());
+                    statement.setString(3, node.getIdent());
+                    statement.setString(4, imported.name.orElse(null));
+                    statement.setString(5, imported.contentUri.map(URI::toString).orElse(null));
+                    statement.setBoolean(6, imported.context);
+                    statement.setBoolean(7, imported.visible);
+                    statement.setString(8, objectMapper.writeValueAsString(imported.translations));
+                    statement.setString(9, objectMapper.writeValueAsString(imported.customFields));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (var keys = statement.getGeneratedKeys()) {
+                    var index = 0;
+                    while (keys.next()) {
+                        var id = keys.getInt(1);
+                        nodeIds.put(publicIds.get(index++), id);
+                        importedNodes.add(id);
+                    }
+                }
+            } catch (SQLException e) {
+                throw failed("nodes", e);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            status.addNodes(batch.size());
+            insertResourceTypes(connection, batch, publicIds);
+        }
+
+        private void insertResourceTypes(Connection connection, List<ImportNodePOST> batch, List<URI> publicIds) {
+            if (batch.stream().allMatch(imported -> imported.resourceTypes.isEmpty())) {
+                return;
+            }
+            var count = 0;
+            try (var statement = connection.prepareStatement(INSERT_RESOURCE_TYPE)) {
+                for (var i = 0; i < batch.size(); i++) {
+                    for (var resourceType : batch.get(i).resourceTypes) {
+                        var resourceTypeId = resourceTypeIds(connection).get(resourceType);
+                        if (resourceTypeId == null) {
+                            throw new InvalidArgumentServiceException(
+                                    publicIds.get(i) + ": unknown resource type " + resourceType);
+                        }
+                        statement.setString(1, "urn:resource-resourcetype:" + UUID.randomUUID());
+                        statement.setInt(2, nodeIds.get(publicIds.get(i)));
+                        statement.setInt(3, resourceTypeId);
+                        statement.addBatch();
+                        count++;
+                    }
+                }
+                statement.executeBatch();
+            } catch (SQLException e) {
+                throw failed("resource types", e);
+            }
+            status.addResourceTypes(count);
+        }
+
+        private Map<URI, Integer> resourceTypeIds(Connection connection) throws SQLException {
+            if (resourceTypeIds == null) {
+                resourceTypeIds = new HashMap<>();
+                try (var statement = connection.createStatement();
+                        var result = statement.executeQuery("SELECT id, public_id FROM resource_type")) {
+                    while (result.next()) {
+                        resourceTypeIds.put(URI.create(result.getString(2)), result.getInt(1));
+                    }
+                }
+            }
+            return resourceTypeIds;
+        }
+
+        private void insertConnections(Connection connection, List<ImportConnectionPOST> batch) {
+            try {
+                resolveExistingNodes(connection, batch);
+                try (var statement = connection.prepareStatement(INSERT_CONNECTION)) {
+                    for (var imported : batch) {
+                        var label = "Connection " + imported.parentId + " -> " + imported.childId;
+                        var parentId = nodeId(imported.parentId, label);
+                        var childId = nodeId(imported.childId, label);
+                        if (parentId.equals(childId)) {
+                            throw new InvalidArgumentServiceException(label + ": cannot connect node to itself");
+                        }
+                        var relevance = imported.relevanceId
+                                .map(id -> Relevance.getRelevance(id)
+                                        .orElseThrow(() ->
+                                                new InvalidArgumentServiceException(label + ": unknown relevance")))
+                                .orElse(Relevance.CORE);
+                        var connectionType = imported.connectionType.orElse(NodeConnectionType.BRANCH);
+                        var hasPrimary = childrenWithPrimary.contains(childId);
+                        var primary = imported.primary.orElse(!hasPrimary);
+                        if (primary && hasPrimary) {
+                            throw new InvalidArgumentServiceException(label + ": child already has a primary parent");
+                        }
+                        var rank = imported.rank.orElseGet(() -> lastRank.getOrDefault(parentId, 0) + 1);
+                        lastRank.merge(parentId, rank, Math::max);
+                        if (primary) {
+                            childrenWithPrimary.add(childId);
+                        }
+                        track(parentId, childId);
+
+                        statement.setString(1, "urn:node-connection:" + UUID.randomUUID());
+                        statement.setInt(2, parentId);
+                        statement.setInt(3, childId);
+                        statement.setInt(4, rank);
+                        statement.setBoolean(5, primary);
+                        statement.setString(6, relevance.name());
+                        statement.setString(7, connectionType.name());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            } catch (SQLException e) {
+                throw failed("connections", e);
+            }
+            status.addConnections(batch.size());
+        }
+
+        private Integer nodeId(URI publicId, String label) {
+            if (publicId == null) {
+                throw new InvalidArgumentServiceException(label + ": parentId and childId are required");
+            }
+            var id = nodeIds.get(publicId);
+            if (id == null) {
+                throw new InvalidArgumentServiceException(label + ": node " + publicId + " not found");
+            }
+            return id;
+        }
+
+        /**
+         * Looks up nodes the batch refers to that are not part of the import, along with whether they already have a
+         * primary parent and the highest rank among their children.
+         */
+        private void resolveExistingNodes(Connection connection, List<ImportConnectionPOST> batch)
+                throws SQLException {
+            var unknown = batch.stream()
+                    .flatMap(imported -> Stream.of(imported.parentId, imported.childId))
+                    .filter(Objects::nonNull)
+                    .filter(publicId -> !nodeIds.containsKey(publicId))
+                    .map(URI::toString)
+                    .distinct()
+                    .toArray(String[]::new);
+            if (unknown.length == 0) {
+                return;
+            }
+            try (var statement = connection.prepareStatement("""
+                    SELECT n.id, n.public_id,
+                        EXISTS (SELECT 1 FROM node_connection nc WHERE nc.child_id = n.id AND nc.is_primary),
+                        (SELECT coalesce(max(nc.rank), 0) FROM node_connection nc WHERE nc.parent_id = n.id)
+                    FROM node n
+                    WHERE n.public_id = ANY(?)
+                    """)) {
+                statement.setArray(1, connection.createArrayOf("text", unknown));
+                try (var result = statement.executeQuery()) {
+                    while (result.next()) {
+                        var id = result.getInt(1);
+                        nodeIds.put(URI.create(result.getString(2)), id);
+                        if (result.getBoolean(3)) {
+                            childrenWithPrimary.add(id);
+                        }
+                        lastRank.put(id, result.getInt(4));
+                    }
+                }
+            }
+        }
+
+        private void track(Integer parentId, Integer childId) {
+            var parentImported = importedNodes.contains(parentId);
+            if (!parentImported) {
+                existingParents.add(parentId);
+            }
+            if (!importedNodes.contains(childId)) {
+                existingChildren.add(childId);
+                edgesToExisting.add(new Integer[] {parentId, childId});
+            } else if (parentImported) {
+                importedWithImportedParent.add(childId);
+                importedEdges.computeIfAbsent(parentId, id -> new ArrayList<>()).add(childId);
+            }
+        }
+
+        /**
+         * Existing connections never point to imported nodes, so a loop is either made of connections between imported
+         * nodes only, or it goes through a connection from the import to an existing node. The former are found in
+         * memory, the latter by walking down from the existing children in the database, where the imported rows are
+         * already visible.
+         */
+        void checkForLoops(Connection connection) {
+            findLoopInImport().or(() -> findLoopThroughExisting(connection)).ifPresent(id -> {
+                var publicId = nodeIds.entrySet().stream()
+                        .filter(entry -> entry.getValue().equals(id))
+                        .map(Map.Entry::getKey)
+                        .findFirst()
+                        .orElseThrow();
+                throw new InvalidArgumentServiceException("Loop detected when trying to connect " + publicId);
+            });
+        }
+
+        /**
+         * Removes nodes without imported parents level by level. Whatever is left over lies on or below a loop.
+         */
+        private Optional<Integer> findLoopInImport() {
+            var parentCount = new HashMap<Integer, Integer>();
+            importedEdges.values().stream()
+                    .flatMap(List::stream)
+                    .forEach(child -> parentCount.merge(child, 1, Integer::sum));
+            var queue = new ArrayDeque<Integer>(importedEdges.keySet());
+            queue.removeIf(parentCount::containsKey);
+            while (!queue.isEmpty()) {
+                for (var child : importedEdges.getOrDefault(queue.poll(), List.of())) {
+                    if (parentCount.merge(child, -1, Integer::sum) == 0) {
+                        parentCount.remove(child);
+                        queue.add(child);
+                    }
+                }
+            }
+            return parentCount.keySet().stream().findFirst();
+        }
+
+        private Optional<Integer> findLoopThroughExisting(Connection connection) {
+            if (edgesToExisting.isEmpty()) {
+                return Optional.empty();
+            }
+            var parentIds = edgesToExisting.stream().map(edge -> edge[0]).toArray();
+            var childIds = edgesToExisting.stream().map(edge -> edge[1]).toArray();
+            try (var statement = connection.prepareStatement(FIND_LOOP)) {
+                statement.setArray(1, connection.createArrayOf("integer", parentIds));
+                statement.setArray(2, connection.createArrayOf("integer", childIds));
+                try (var result = statement.executeQuery()) {
+                    return result.next() ? Optional.of(result.getInt(1)) : Optional.empty();
+                }
+            } catch (SQLException e) {
+                throw failed("connections", e);
+            }
+        }
+
+        /**
+         * Nodes to build contexts from. Building contexts for a node also builds them for everything below it, so
+         * these are the imported nodes without an imported parent, and existing nodes that got a new parent.
+         */
+        Set<Integer> contextRoots() {
+            var roots = new LinkedHashSet<Integer>();
+            importedNodes.stream()
+                    .filter(id -> !importedWithImportedParent.contains(id))
+                    .forEach(roots::add);
+            roots.addAll(existingChildren);
+            return roots;
+        }
+
+        private InvalidArgumentServiceException failed(String what, SQLException e) {
+            var cause = e instanceof BatchUpdateException && e.getNextException() != null ? e.getNextException() : e;
+            return new InvalidArgumentServiceException("Could not import " + what + ": " + cause.getMessage(), e);
+        }
+    }
+}
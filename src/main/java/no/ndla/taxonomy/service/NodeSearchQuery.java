@@ -0,0 +1,211 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import no.ndla.taxonomy.domain.NodeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Native SQL for node search. All filters are collected in one WHERE clause so that fetching and counting use the
+ * same conditions. Name matching uses the same expressions as the search indexes on node, so they must be kept in
+ * sync with db-master-changelog.xml.
+ */
+class NodeSearchQuery {
+    // Name and all translated names as one string
+    static final String SEARCH_NAMES = "coalesce(n.name, '') || ' ' || "
+            + "coalesce(cast(jsonb_path_query_array(n.translations, '$[*].name') as text), '')";
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+    // Counts for every facet, plus the total in the empty grouping set, in one scan over the matches
+    private static final String FACET_COUNTS = """
+            SELECT CASE
+                       WHEN GROUPING(f.node_type) = 0 THEN 'nodeType'
+                       WHEN GROUPING(f.resource_type) = 0 THEN 'resourceType'
+                       WHEN GROUPING(f.relevance) = 0 THEN 'relevance'
+                       WHEN GROUPING(f.visible) = 0 THEN 'visible'
+                       ELSE 'total'
+                   END,
+                   coalesce(f.node_type, f.resource_type, f.relevance, cast(f.visible as text)),
+                   count(DISTINCT f.id)
+            FROM (
+                SELECT n.id, n.node_type, n.visible, pc.relevance, rt.public_id AS resource_type
+                FROM node n
+                LEFT JOIN node_connection pc ON pc.child_id = n.id AND pc.is_primary = true
+                LEFT JOIN resource_resource_type rrt ON rrt.resource_id = n.id
+                LEFT JOIN resource_type rt ON rt.id = rrt.resource_type_id
+                %s
+            ) f
+            GROUP BY GROUPING SETS ((f.node_type), (f.resource_type), (f.relevance), (f.visible), ())
+            """;
+
+    record FacetCount(String facet, String value, long count) {}
+
+    private final List<String> conditions = new ArrayList<>();
+    private final Map<String, Object> parameters = new HashMap<>();
+    private Optional<String> query = Optional.empty();
+    private String textSearchConfig = "simple";
+
+    /**
+     * Text search configuration for the language. Only configurations with a matching index are returned.
+     */
+    static String textSearchConfig(String language) {
+        if (language == null) {
+            return "simple";
+        }
+        return switch (language.toLowerCase(Locale.ROOT)) {
+            case "nb", "nn", "no" -> "norwegian";
+            case "en" -> "english";
+            default -> "simple";
+        };
+    }
+
+    NodeSearchQuery withQuery(String query, String language) {
+        if (query == null || query.isBlank()) {
+            return this;
+        }
+        this.query = Optional.of(query.trim());
+        this.textSearchConfig = textSearchConfig(language);
+        var searchVector = searchVector();
+        conditions.add("(" + searchVector + " @@ websearch_to_tsquery('" + textSearchConfig + "', :query)"
+                + " OR lower(" + SEARCH_NAMES + ") LIKE :queryPattern ESCAPE '\\')");
+        parameters.put("query", this.query.get());
+        parameters.put("queryPattern", "%" + escapeLike(this.query.get().toLowerCase(Locale.ROOT)) + "%");
+        return this;
+    }
+
+    NodeSearchQuery withPublicIds(List<URI> publicIds) {
+        if (!publicIds.isEmpty()) {
+            conditions.add("n.public_id IN (:publicIds)");
+            parameters.put("publicIds", publicIds.stream().map(URI::toString).toList());
+        }
+        return this;
+    }
+
+    NodeSearchQuery withContentUris(List<URI> contentUris) {
+        if (!contentUris.isEmpty()) {
+            conditions.add("n.content_uri IN (:contentUris)");
+            parameters.put("contentUris", contentUris.stream().map(URI::toString).toList());
+        }
+        return this;
+    }
+
+    NodeSearchQuery withNodeTypes(List<NodeType> nodeTypes) {
+        if (!nodeTypes.isEmpty()) {
+            conditions.add("n.node_type IN (:nodeTypes)");
+            parameters.put("nodeTypes", nodeTypes.stream().map(NodeType::name).toList());
+        }
+        return this;
+    }
+
+    /**
+     * Matches nodes having at least one of the key value pairs in customfields. Written as containment so the
+     * jsonb_path_ops index on customfields can be used.
+     */
+    NodeSearchQuery withCustomFields(Map<String, String> customFields) {
+        if (customFields.isEmpty()) {
+            return this;
+        }
+        var alternatives = new ArrayList<String>();
+        var i = 0;
+        for (var entry : customFields.entrySet()) {
+            alternatives.add("n.customfields @> jsonb_build_object(cast(:customFieldKey" + i
+                    + " as text), cast(:customFieldValue" + i + " as text))");
+            parameters.put("customFieldKey" + i, entry.getKey());
+            parameters.put("customFieldValue" + i, entry.getValue());
+            i++;
+        }
+        conditions.add("(" + String.join(" OR ", alternatives) + ")");
+        return this;
+    }
+
+    private String searchVector() {
+        return "to_tsvector('" + textSearchConfig + "', " + SEARCH_NAMES + ")";
+    }
+
+    String where() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private String orderBy() {
+        if (query.isEmpty()) {
+            return " ORDER BY n.id";
+        }
+        // Exact name matches first, then text search relevance, then closest names
+        return " ORDER BY (lower(n.name) = lower(:query)) DESC, ts_rank(" + searchVector()
+                + ", websearch_to_tsquery('" + textSearchConfig + "', :query)) DESC,"
+                + " extensions.similarity(lower(n.name), lower(:query)) DESC, n.id";
+    }
+
+    /**
+     * Ids of the nodes on the given page, ordered by relevance when searching.
+     */
+    @SuppressWarnings("unchecked")
+    List<Integer> fetchIds(EntityManager entityManager, int offset, int limit) {
+        var nativeQuery = entityManager.createNativeQuery(
+                "SELECT n.id FROM node n" + where() + orderBy() + " LIMIT :limit OFFSET :offset", Integer.class);
+        bind(nativeQuery);
+        nativeQuery.setParameter("limit", limit);
+        nativeQuery.setParameter("offset", offset);
+        return nativeQuery.getResultList();
+    }
+
+    /**
+     * Fetches one id more than the page size to find out if there is a next page, without counting.
+     */
+    Slice<Integer> fetchSlice(EntityManager entityManager, Pageable pageable) {
+        var ids = fetchIds(entityManager, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        var hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    long count(EntityManager entityManager) {
+        var nativeQuery = entityManager.createNativeQuery("SELECT count(*) FROM node n" + where(), Long.class);
+        bind(nativeQuery);
+        return ((Number) nativeQuery.getSingleResult()).longValue();
+    }
+
+    /**
+     * Row count estimated by the planner. Cheap, but can be far off for selective filters.
+     */
+    long estimateCount(EntityManager entityManager) {
+        var nativeQuery = entityManager.createNativeQuery("EXPLAIN (FORMAT JSON) SELECT 1 FROM node n" + where());
+        bind(nativeQuery);
+        // The outermost plan node comes first
+        var matcher = PLAN_ROWS.matcher(String.valueOf(nativeQuery.getSingleResult()));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<FacetCount> facetCounts(EntityManager entityManager) {
+        var nativeQuery = entityManager.createNativeQuery(FACET_COUNTS.formatted(where()));
+        bind(nativeQuery);
+        List<Object[]> rows = nativeQuery.getResultList();
+        return rows.stream()
+                .map(row -> new FacetCount((String) row[0], (String) row[1], ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    void bind(Query nativeQuery) {
+        parameters.forEach(nativeQuery::setParameter);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
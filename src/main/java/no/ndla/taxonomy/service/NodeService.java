@@ -14,8 +14,10 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import no.ndla.taxonomy.config.Constants;
 import no.ndla.taxonomy.domain.*;
+import no.ndla.taxonomy.integration.DraftApiClient;
 import no.ndla.taxonomy.repositories.NodeConnectionRepository;
 import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.repositories.ResourceResourceTypeRepository;
 import no.ndla.taxonomy.rest.NotFoundHttpResponseException;
 import no.ndla.taxonomy.rest.v1.dtos.searchapi.LanguageFieldDTO;
 import no.ndla.taxonomy.rest.v1.dtos.searchapi.SearchableTaxonomyResourceType;
@@ -24,6 +26,7 @@ import no.ndla.taxonomy.rest.v1.dtos.searchapi.TaxonomyCrumbDTO;
 import no.ndla.taxonomy.service.dtos.ConnectionDTO;
 import no.ndla.taxonomy.service.dtos.NodeChildDTO;
 import no.ndla.taxonomy.service.dtos.NodeDTO;
+import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
 import no.ndla.taxonomy.service.exceptions.NotFoundServiceException;
 import no.ndla.taxonomy.util.PrettyUrlUtil;
 import org.slf4j.Logger;
@@ -43,6 +46,29 @@ public class NodeService {
     private final RecursiveNodeTreeService recursiveNodeTreeService;
     private final TreeSorter treeSorter;
     private final ContextUpdaterService contextUpdaterService;
+    private final ResourceResourceTypeRepository resourceResourceTypeRepository;
+    private final NodeSuggestIndexListener nodeSuggestIndexListener;
+    private final QualityEvaluationService qualityEvaluationService;
+    private final DraftApiClient draftApiClient;
+    private final ResourceTypeTreeService resourceTypeTreeService;
+
+    /**
+     * What happens to the nodes below a node that is deleted.
+     */
+    public enum DeleteCascade {
+        /** The node and everything that only hangs below it is deleted. */
+        SUBTREE,
+        /** Only the node is deleted, the nodes below it lose it as a parent. */
+        DETACH;
+
+        public static DeleteCascade fromString(String value) {
+            return Arrays.stream(values())
+                    .filter(cascade -> cascade.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidArgumentServiceException("Unknown cascade '" + value
+                            + "', must be one of " + Arrays.toString(values()).toLowerCase(Locale.ROOT)));
+        }
+    }
 
     public NodeService(
             DomainEntityHelperService domainEntityHelperService,
@@ -51,7 +77,12 @@ public class NodeService {
             NodeRepository nodeRepository,
             RecursiveNodeTreeService recursiveNodeTreeService,
             TreeSorter treeSorter,
-            ContextUpdaterService contextUpdaterService) {
+            ContextUpdaterService contextUpdaterService,
+            ResourceResourceTypeRepository resourceResourceTypeRepository,
+            NodeSuggestIndexListener nodeSuggestIndexListener,
+            QualityEvaluationService qualityEvaluationService,
+            DraftApiClient draftApiClient,
+            ResourceTypeTreeService resourceTypeTreeService) {
         this.nodeRepository = nodeRepository;
         this.nodeConnectionRepository = nodeConnectionRepository;
         this.connectionService = connectionService;
@@ -59,6 +90,11 @@ public class NodeService {
         this.recursiveNodeTreeService = recursiveNodeTreeService;
         this.treeSorter = treeSorter;
         this.contextUpdaterService = contextUpdaterService;
+        this.resourceResourceTypeRepository = resourceResourceTypeRepository;
+        this.nodeSuggestIndexListener = nodeSuggestIndexListener;
+        this.qualityEvaluationService = qualityEvaluationService;
+        this.draftApiClient = draftApiClient;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     @Transactional
@@ -74,11 +110,56 @@ public class NodeService {
         nodeRepository.flush();
     }
 
+    /**
+     * Deletes a node, and with {@link DeleteCascade#SUBTREE} the nodes below it, without going through the connections
+     * one by one. Connections and nodes are removed with a few statements, and primary parents, contexts and quality
+     * evaluation averages are fixed once for the remaining nodes that lost a parent or a child.
+     */
+    @Transactional
+    public void delete(URI publicId, DeleteCascade cascade) {
+        final var nodeToDelete = nodeRepository
+                .findFirstByPublicId(publicId)
+                .orElseThrow(() -> new NotFoundServiceException("Node was not found"));
+
+        var deleteIds = cascade == DeleteCascade.SUBTREE
+                ? nodeRepository.findSubtreeToDelete(nodeToDelete.getId()).toArray(Integer[]::new)
+                : new Integer[] {nodeToDelete.getId()};
+        var orphanedIds = nodeConnectionRepository.findChildIdsOutside(deleteIds);
+        var parentIds = nodeConnectionRepository.findParentIdsOutside(deleteIds);
+
+        var connectionIds = nodeConnectionRepository.findIdsByNodeIds(deleteIds);
+        if (!connectionIds.isEmpty()) {
+            nodeConnectionRepository.findByIds(connectionIds).forEach(draftApiClient::updateNotesWithDeletedConnection);
+        }
+
+        resourceResourceTypeRepository.deleteByNodeIds(deleteIds);
+        nodeConnectionRepository.deleteByNodeIds(deleteIds);
+        nodeRepository.deleteByIds(deleteIds);
+
+        if (!orphanedIds.isEmpty()) {
+            nodeConnectionRepository.ensurePrimaryParents(orphanedIds.toArray(Integer[]::new));
+            var orphaned = new HashSet<>(nodeRepository.findByIds(orphanedIds));
+            NodeConnectionServiceImpl.topmostNodes(orphaned).forEach(contextUpdaterService::updateContexts);
+        }
+        if (!parentIds.isEmpty()) {
+            qualityEvaluationService.recalculateChildQualityEvaluationAverages(nodeRepository.findByIds(parentIds));
+        }
+        nodeRepository.flush();
+        nodeSuggestIndexListener.nodesChangedInBulk();
+        logger.info(
+                "Deleted {} nodes and {} connections from {}, {} nodes lost a parent",
+                deleteIds.length,
+                connectionIds.size(),
+                publicId,
+                orphanedIds.size());
+    }
+
     public List<NodeDTO> getNodesByType(
             Optional<List<NodeType>> nodeType,
             String language,
             Optional<List<URI>> publicIds,
             Optional<URI> contentUri,
+            Optional<List<String>> grepCodes,
             Optional<String> contextId,
             Optional<Boolean> isRoot,
             Optional<Boolean> isContext,
@@ -93,18 +174,30 @@ public class NodeService {
         if (contextId.isPresent()) {
             ids = nodeRepository.findIdsByContextId(contextId);
         } else {
+            Optional<Collection<Integer>> grepCodeIds = grepCodes
+                    .filter(codes -> !codes.isEmpty())
+                    .map(codes -> findByGrepCodes(codes).stream()
+                            .map(NodeRepository.GrepCodeNode::getId)
+                            .collect(Collectors.toSet()));
+            if (grepCodeIds.isPresent() && grepCodeIds.get().isEmpty()) {
+                return listToReturn;
+            }
             ids = nodeRepository.findIdsFiltered(
                     nodeType,
                     publicIds,
-                    metadataFilters.getKey(),
-                    metadataFilters.getLikeQueryValue(),
+                    metadataFilters.getRequiredKey(),
+                    metadataFilters.getContainedKey(),
+                    metadataFilters.getContainedValue(),
+                    metadataFilters.getValuePath(),
                     contentUri,
+                    grepCodeIds,
                     isRoot,
                     isContext);
         }
         final var counter = new AtomicInteger();
         var root = rootId.map(this::getNode);
         var parent = parentId.map(this::getNode);
+        var resourceTypes = resourceTypeTreeService.getTree();
         ids.stream()
                 .collect(Collectors.groupingBy(i -> counter.getAndIncrement() / 1000))
                 .values()
@@ -121,7 +214,8 @@ public class NodeService {
                                     includeContexts,
                                     filterProgrammes,
                                     metadataFilters.getVisible().orElse(false),
-                                    includeParents))
+                                    includeParents,
+                                    resourceTypes))
                             .toList();
                     listToReturn.addAll(dtos);
                 });
@@ -129,6 +223,20 @@ public class NodeService {
         return listToReturn;
     }
 
+    /**
+     * Public ids of the nodes tagged with each code. Every code is in the result, with an empty list if no node has it.
+     */
+    public Map<String, List<URI>> getPublicIdsByGrepCodes(Collection<String> codes) {
+        var result = new LinkedHashMap<String, List<URI>>();
+        codes.forEach(code -> result.put(code, new ArrayList<>()));
+        findByGrepCodes(codes).forEach(node -> result.get(node.getCode()).add(URI.create(node.getPublicId())));
+        return result;
+    }
+
+    private List<NodeRepository.GrepCodeNode> findByGrepCodes(Collection<String> codes) {
+        return nodeRepository.findByGrepCodes(codes.stream().distinct().toArray(String[]::new));
+    }
+
     public List<ConnectionDTO> getAllConnections(URI nodePublicId) {
         final var node = nodeRepository
                 .findFirstByPublicId(nodePublicId)
@@ -148,7 +256,17 @@ public class NodeService {
             boolean includeContexts,
             boolean filterProgrammes,
             boolean isVisible) {
-        var node = getNode(publicId);
+        return getNode(getNode(publicId), language, rootId, parentId, includeContexts, filterProgrammes, isVisible);
+    }
+
+    public NodeDTO getNode(
+            Node node,
+            String language,
+            Optional<URI> rootId,
+            Optional<URI> parentId,
+            boolean includeContexts,
+            boolean filterProgrammes,
+            boolean isVisible) {
         var root = rootId.flatMap(this::getMaybeNode);
         var parent = parentId.flatMap(this::getMaybeNode);
         return new NodeDTO(
@@ -161,7 +279,8 @@ public class NodeService {
                 includeContexts,
                 filterProgrammes,
                 isVisible,
-                true);
+                true,
+                resourceTypeTreeService.getTree());
     }
 
     public Optional<Node> getMaybeNode(URI publicId) {
@@ -257,6 +376,8 @@ public class NodeService {
 
         nodeResources.forEach(nodeResource -> sortableListToAddTo.add(new ResourceTreeSortable(nodeResource)));
 
+        var resourceTypes = resourceTypeTreeService.getTree();
+
         // Sort the list, extract all the topicResource objects in between topics and return list of documents
         return treeSorter.sortList(sortableListToAddTo).stream()
                 .map(ResourceTreeSortable::getResourceConnection)
@@ -274,7 +395,8 @@ public class NodeService {
                             languageCode.orElse(Constants.DefaultLanguage),
                             includeContexts,
                             filterProgrammes,
-                            isVisible);
+                            isVisible,
+                            resourceTypes);
                 })
                 .toList();
     }
@@ -298,6 +420,14 @@ public class NodeService {
                 .allMatch(resourceConnection -> resourceConnection.isPrimary().orElse(false));
     }
 
+    @Transactional
+    public void reorderChildren(URI nodePublicId, List<URI> connectionIds) {
+        final var node = nodeRepository
+                .findFirstByPublicId(nodePublicId)
+                .orElseThrow(() -> new NotFoundServiceException("Node was not found"));
+        connectionService.reorderChildren(node, connectionIds);
+    }
+
     public Node cloneNode(URI publicId, Optional<URI> contentUri) {
         final var node = getNode(publicId);
         var cloned = new Node(node, false);
@@ -305,6 +435,57 @@ public class NodeService {
         return nodeRepository.save(cloned);
     }
 
+    /**
+     * Clones the node and everything below it, with the connections between them. Rows are copied with a few
+     * INSERT ... SELECT statements and contexts are built once for the new subtree at the end.
+     *
+     * @param contentUri content uri of the cloned root, none if empty
+     * @param contentUriMapping content uris to replace in the cloned nodes below the root. Unmapped resources get no
+     *     content uri, as two resources cannot share one. Other nodes keep theirs.
+     */
+    @Transactional
+    public Node cloneSubtree(URI publicId, Optional<URI> contentUri, Map<URI, URI> contentUriMapping) {
+        final var root = getNode(publicId);
+        var subtree = nodeRepository.findSubtree(root.getId());
+        var sourceIds = new Integer[subtree.size()];
+        var publicIds = new String[subtree.size()];
+        var idents = new String[subtree.size()];
+        var contentUris = new String[subtree.size()];
+        URI clonedRootId = null;
+        for (var i = 0; i < subtree.size(); i++) {
+            var source = subtree.get(i);
+            var nodeType = NodeType.valueOf(source.getNodeType());
+            var clone = new Node(nodeType);
+            sourceIds[i] = source.getId();
+            publicIds[i] = clone.getPublicId().toString();
+            idents[i] = clone.getIdent();
+            if (source.getId().equals(root.getId())) {
+                clonedRootId = clone.getPublicId();
+                contentUris[i] = contentUri.map(URI::toString).orElse(null);
+            } else if (source.getContentUri() != null) {
+                var mapped = contentUriMapping.get(URI.create(source.getContentUri()));
+                if (mapped != null) {
+                    contentUris[i] = mapped.toString();
+                } else if (nodeType != NodeType.RESOURCE) {
+                    contentUris[i] = source.getContentUri();
+                }
+            }
+        }
+
+        nodeRepository.cloneNodes(sourceIds, publicIds, idents, contentUris);
+        var cloneIds = nodeRepository.findIdsByPublicIds(publicIds).toArray(Integer[]::new);
+        nodeConnectionRepository.cloneConnections(sourceIds, cloneIds);
+        resourceResourceTypeRepository.cloneResourceTypes(sourceIds, cloneIds);
+        // A node whose primary parent is outside the subtree would otherwise end up without one
+        nodeConnectionRepository.ensurePrimaryParents(cloneIds);
+
+        var cloned = nodeRepository.getByPublicId(clonedRootId);
+        contextUpdaterService.updateContexts(cloned);
+        nodeSuggestIndexListener.nodesChangedInBulk();
+        logger.info("Cloned {} nodes below {} to {}", cloneIds.length, publicId, clonedRootId);
+        return cloned;
+    }
+
     public List<TaxonomyContextDTO> getSearchableByContentUri(
             Optional<URI> contentURI, boolean filterVisibles, String language) {
         var nodes = nodeRepository.findByContentUri(contentURI);
@@ -316,6 +497,7 @@ public class NodeService {
     }
 
     public List<TaxonomyContextDTO> nodesToContexts(List<Node> nodes, boolean filterVisibles, String language) {
+        var resourceTypeTree = resourceTypeTreeService.getTree();
         return nodes.stream()
                 .flatMap(node -> {
                     var contexts = filterVisibles
@@ -329,9 +511,7 @@ public class NodeService {
                         if (relevance.isPresent()) {
                             relevanceName = LanguageField.fromRelevance(relevance.get());
                         }
-                        var resourceTypes = node.getResourceTypes().stream()
-                                .map(SearchableTaxonomyResourceType::new)
-                                .toList();
+                        var resourceTypes = SearchableTaxonomyResourceType.of(node, resourceTypeTree);
                         var breadcrumbs = context.breadcrumbs();
                         var parentContexts = node.getAllParentContexts();
                         var parents = context.parentContextIds().stream()
@@ -0,0 +1,65 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import no.ndla.taxonomy.domain.JsonTranslation;
+import no.ndla.taxonomy.domain.Node;
+import no.ndla.taxonomy.domain.NodeType;
+
+/**
+ * The parts of a node needed for suggestions. Copied out of the entity so the index never holds on to managed
+ * entities.
+ */
+public record NodeSuggestDocument(
+        Integer id,
+        URI publicId,
+        String name,
+        List<JsonTranslation> translations,
+        NodeType nodeType,
+        URI contentUri,
+        Map<String, String> customfields) {
+
+    public NodeSuggestDocument {
+        translations = translations == null
+                ? List.of()
+                : translations.stream().map(JsonTranslation::new).toList();
+        customfields = customfields == null ? Map.of() : Collections.unmodifiableMap(new HashMap<>(customfields));
+    }
+
+    public static NodeSuggestDocument of(Node node) {
+        return new NodeSuggestDocument(
+                node.getId(),
+                node.getPublicId(),
+                node.getName(),
+                node.getTranslations(),
+                node.getNodeType(),
+                node.getContentUri(),
+                node.getCustomFields());
+    }
+
+    public Stream<String> names() {
+        return Stream.concat(Stream.of(name), translations.stream().map(JsonTranslation::getName))
+                .filter(Objects::nonNull);
+    }
+
+    public String getTranslatedName(String languageCode) {
+        return translations.stream()
+                .filter(t -> Objects.equals(t.getLanguageCode(), languageCode))
+                .map(JsonTranslation::getName)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(name);
+    }
+}
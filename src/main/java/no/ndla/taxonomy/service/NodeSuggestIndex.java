@@ -0,0 +1,101 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.service.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one suggest index per version schema. An index is only kept up to date once it has been requested, schemas
+ * nobody searches in cost nothing. Indexes of versions that are deleted are dropped when the versions are reloaded.
+ */
+@Component
+public class NodeSuggestIndex {
+    private final Map<String, NodeSuggestSchemaIndex> indexes = new ConcurrentHashMap<>();
+    private final String defaultSchema;
+
+    public NodeSuggestIndex(
+            VersionRegistry versionRegistry,
+            @Value("${spring.datasource.hikari.schema:taxonomy_api}") String defaultSchema) {
+        this.defaultSchema = defaultSchema;
+        versionRegistry.onReload(this::retainVersions);
+    }
+
+    NodeSuggestSchemaIndex getOrLoad(String schema, Supplier<Collection<NodeSuggestDocument>> loader) {
+        var created = new boolean[1];
+        var index = indexes.computeIfAbsent(schema, key -> {
+            created[0] = true;
+            return new NodeSuggestSchemaIndex();
+        });
+        if (created[0]) {
+            try {
+                index.load(loader.get());
+            } catch (RuntimeException e) {
+                indexes.remove(schema, index);
+                index.loadFailed();
+                throw e;
+            }
+            return index;
+        }
+        try {
+            if (!index.awaitLoaded()) {
+                return getOrLoad(schema, loader);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for suggest index");
+        }
+        return index;
+    }
+
+    Optional<NodeSuggestSchemaIndex> get(String schema) {
+        return Optional.ofNullable(indexes.get(schema));
+    }
+
+    public void documentChanged(String schema, NodeSuggestDocument document) {
+        get(schema).ifPresent(index -> index.put(document));
+    }
+
+    public void documentRemoved(String schema, Integer id) {
+        get(schema).ifPresent(index -> index.remove(id));
+    }
+
+    /**
+     * Marks documents changed by another instance, they are reloaded before the index is searched next.
+     */
+    public void documentsChanged(String schema, Collection<Integer> ids) {
+        get(schema).ifPresent(index -> index.markStale(ids));
+    }
+
+    /**
+     * Drops the index for a schema, used after bulk changes that bypass the entity listener.
+     */
+    public void invalidate(String schema) {
+        indexes.remove(schema);
+    }
+
+    public void invalidateAll() {
+        indexes.clear();
+    }
+
+    void retainVersions(List<Version> versions) {
+        var schemas = versions.stream()
+                .map(version -> defaultSchema + "_" + version.getHash())
+                .collect(Collectors.toSet());
+        indexes.keySet().removeIf(schema -> !schema.equals(defaultSchema) && !schemas.contains(schema));
+    }
+}
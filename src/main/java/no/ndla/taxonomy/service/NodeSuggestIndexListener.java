@@ -0,0 +1,200 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import jakarta.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import no.ndla.taxonomy.domain.Node;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the suggest indexes in line with node writes, registered with Hibernate in
+ * {@link no.ndla.taxonomy.config.HibernateListenerConfig}. Changes are applied to the index of this instance when the
+ * transaction commits, so rolled back writes never show up in suggestions. Other instances are told which nodes
+ * changed with a notification on {@link #CHANNEL}, sent with the transaction so that it is only delivered if it
+ * commits.
+ */
+@Component
+public class NodeSuggestIndexListener
+        implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    static final String CHANNEL = "taxonomy_nodes";
+    private static final String ALL = "*";
+    // Notification payloads are limited to 8000 bytes, larger changes drop the index on the other instances instead
+    private static final int MAX_NOTIFIED_IDS = 500;
+
+    private record Notification(String instance, String schema, String ids) {
+        static Notification parse(String payload) {
+            var parts = payload.split(" ", 3);
+            return new Notification(parts[0], parts[1], parts[2]);
+        }
+
+        String payload() {
+            return String.join(" ", instance, schema, ids);
+        }
+    }
+
+    /** Node changes in one session, waiting for its transaction to complete. */
+    private static class Changes {
+        private final String schema;
+        // Empty for removed nodes
+        private final Map<Integer, Optional<NodeSuggestDocument>> documents = new LinkedHashMap<>();
+
+        Changes(String schema) {
+            this.schema = schema;
+        }
+    }
+
+    private final String instance = UUID.randomUUID().toString();
+    private final Map<SharedSessionContractImplementor, Changes> pending = new ConcurrentHashMap<>();
+    private final NodeSuggestIndex nodeSuggestIndex;
+    private final VersionIdentifierResolver versionIdentifierResolver;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public NodeSuggestIndexListener(
+            NodeSuggestIndex nodeSuggestIndex,
+            VersionIdentifierResolver versionIdentifierResolver,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            DatabaseNotifications databaseNotifications) {
+        this.nodeSuggestIndex = nodeSuggestIndex;
+        this.versionIdentifierResolver = versionIdentifierResolver;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        databaseNotifications.subscribe(CHANNEL, this::notified, nodeSuggestIndex::invalidateAll);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Node node) {
+            changed(event.getSession(), node.getId(), Optional.of(NodeSuggestDocument.of(node)));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Node node) {
+            changed(event.getSession(), node.getId(), Optional.of(NodeSuggestDocument.of(node)));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Node) {
+            changed(event.getSession(), (Integer) event.getId(), Optional.empty());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void changed(EventSource session, Integer id, Optional<NodeSuggestDocument> document) {
+        pending.computeIfAbsent(session, key -> {
+                    var changes = new Changes(session.getTenantIdentifierValue().toString());
+                    // Runs after the last flush, so every change of the transaction is in the notification
+                    session.getActionQueue()
+                            .registerProcess((BeforeTransactionCompletionProcess) completing -> notifyOthers(
+                                    completing, changes.schema, ids(changes)));
+                    session.getActionQueue()
+                            .registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+                                pending.remove(session);
+                                if (success) {
+                                    apply(changes);
+                                }
+                            });
+                    return changes;
+                })
+                .documents
+                .put(id, document);
+    }
+
+    private void apply(Changes changes) {
+        changes.documents.forEach((id, document) -> document.ifPresentOrElse(
+                changed -> nodeSuggestIndex.documentChanged(changes.schema, changed),
+                () -> nodeSuggestIndex.documentRemoved(changes.schema, id)));
+    }
+
+    private static String ids(Changes changes) {
+        if (changes.documents.size() > MAX_NOTIFIED_IDS) {
+            return ALL;
+        }
+        return changes.documents.keySet().stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * For writes made with bulk SQL that the listener does not see. The index for the schema is reloaded the next time
+     * it is used, here and on the other instances.
+     */
+    public void nodesChangedInBulk() {
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            nodeSuggestIndex.invalidate(schema);
+            transactionTemplate.executeWithoutResult(
+                    status -> notifyOthers(entityManager.unwrap(Session.class), schema, ALL));
+            return;
+        }
+        notifyOthers(entityManager.unwrap(Session.class), schema, ALL);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                nodeSuggestIndex.invalidate(schema);
+            }
+        });
+    }
+
+    private void notifyOthers(SharedSessionContract session, String schema, String ids) {
+        var payload = new Notification(instance, schema, ids).payload();
+        session.doWork(connection -> {
+            try (var statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        });
+    }
+
+    void notified(String payload) {
+        var notification = Notification.parse(payload);
+        if (notification.instance().equals(instance)) {
+            // Already applied when the transaction committed
+            return;
+        }
+        if (notification.ids().equals(ALL)) {
+            nodeSuggestIndex.invalidate(notification.schema());
+            return;
+        }
+        nodeSuggestIndex.documentsChanged(
+                notification.schema(),
+                Arrays.stream(notification.ids().split(",")).map(Integer::valueOf).toList());
+    }
+}
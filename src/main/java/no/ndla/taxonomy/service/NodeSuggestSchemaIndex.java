@@ -0,0 +1,261 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Edge n-gram index over node names and translations for one schema. Every token is indexed by its prefixes, with
+ * postings kept as sorted int arrays to keep memory use low. Reads are lock free, writes are serialized.
+ */
+class NodeSuggestSchemaIndex {
+    static final int MIN_GRAM = 2;
+    static final int MAX_GRAM = 12;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<Integer, NodeSuggestDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, int[]> postings = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    // Documents changed by other instances, reloaded before the next search
+    private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+    // Changes committed while the initial load runs, replayed once it is done
+    private List<Runnable> pending = new ArrayList<>();
+    private final CountDownLatch loadFinished = new CountDownLatch(1);
+
+    boolean isLoaded() {
+        synchronized (writeLock) {
+            return pending == null;
+        }
+    }
+
+    /**
+     * Waits for the initial load, returns false if it failed.
+     */
+    boolean awaitLoaded() throws InterruptedException {
+        loadFinished.await();
+        return isLoaded();
+    }
+
+    void loadFailed() {
+        loadFinished.countDown();
+    }
+
+    void load(Collection<NodeSuggestDocument> initial) {
+        var grams = new HashMap<String, List<Integer>>();
+        for (var document : initial) {
+            for (var gram : grams(document)) {
+                grams.computeIfAbsent(gram, k -> new ArrayList<>()).add(document.id());
+            }
+        }
+        synchronized (writeLock) {
+            initial.forEach(document -> documents.put(document.id(), document));
+            grams.forEach((gram, ids) -> postings.put(
+                    gram, ids.stream().mapToInt(Integer::intValue).sorted().distinct().toArray()));
+            pending.forEach(Runnable::run);
+            pending = null;
+        }
+        loadFinished.countDown();
+    }
+
+    void put(NodeSuggestDocument document) {
+        write(() -> {
+            doRemove(document.id());
+            documents.put(document.id(), document);
+            grams(document).forEach(gram -> postings.merge(gram, new int[] {document.id()}, (existing, added) ->
+                    insert(existing, added[0])));
+        });
+    }
+
+    void remove(Integer id) {
+        write(() -> doRemove(id));
+    }
+
+    private void write(Runnable change) {
+        synchronized (writeLock) {
+            if (pending != null) {
+                pending.add(change);
+                return;
+            }
+            change.run();
+        }
+    }
+
+    private void doRemove(Integer id) {
+        var existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        grams(existing).forEach(gram -> postings.computeIfPresent(gram, (key, ids) -> {
+            var removed = delete(ids, id);
+            return removed.length == 0 ? null : removed;
+        }));
+    }
+
+    void markStale(Collection<Integer> ids) {
+        stale.addAll(ids);
+    }
+
+    /**
+     * The documents marked stale since the last call. Ids marked while the caller reloads them are kept for the next.
+     */
+    Set<Integer> takeStale() {
+        var taken = Set.copyOf(stale);
+        stale.removeAll(taken);
+        return taken;
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * Documents where every token in the query is a prefix of a token in one of the names, best matches first.
+     */
+    List<NodeSuggestDocument> search(
+            String query, String language, Predicate<NodeSuggestDocument> filter, int limit) {
+        var queryTokens = tokens(query);
+        int[] candidates = null;
+        for (var token : queryTokens) {
+            if (token.length() < MIN_GRAM) {
+                continue;
+            }
+            var ids = postings.getOrDefault(gram(token), EMPTY);
+            candidates = candidates == null ? ids : intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+        if (candidates == null) {
+            return List.of();
+        }
+        var normalizedQuery = normalize(query).trim();
+        return Arrays.stream(candidates)
+                .mapToObj(documents::get)
+                .filter(Objects::nonNull)
+                .filter(document -> matchesAll(document, queryTokens))
+                .filter(filter)
+                .sorted(Comparator.<NodeSuggestDocument>comparingInt(
+                                document -> score(document.getTranslatedName(language), normalizedQuery))
+                        .thenComparingInt(document -> nameLength(document.getTranslatedName(language)))
+                        .thenComparing(document -> document.getTranslatedName(language), Comparator.nullsLast(
+                                Comparator.naturalOrder())))
+                .limit(limit)
+                .toList();
+    }
+
+    private static int score(String name, String normalizedQuery) {
+        if (name == null) {
+            return 3;
+        }
+        var normalizedName = normalize(name);
+        if (normalizedName.equals(normalizedQuery)) {
+            return 0;
+        }
+        return normalizedName.startsWith(normalizedQuery) ? 1 : 2;
+    }
+
+    private static int nameLength(String name) {
+        return name == null ? Integer.MAX_VALUE : name.length();
+    }
+
+    private static boolean matchesAll(NodeSuggestDocument document, Set<String> queryTokens) {
+        var documentTokens = tokens(document);
+        return queryTokens.stream()
+                .allMatch(queryToken -> documentTokens.stream().anyMatch(token -> token.startsWith(queryToken)));
+    }
+
+    private static Set<String> grams(NodeSuggestDocument document) {
+        var grams = new LinkedHashSet<String>();
+        for (var token : tokens(document)) {
+            for (var length = MIN_GRAM; length <= Math.min(token.length(), MAX_GRAM); length++) {
+                grams.add(token.substring(0, length));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> tokens(NodeSuggestDocument document) {
+        var tokens = new LinkedHashSet<String>();
+        document.names().forEach(name -> tokens.addAll(tokens(name)));
+        return tokens;
+    }
+
+    private static Set<String> tokens(String text) {
+        var tokens = new LinkedHashSet<String>();
+        for (var token : TOKEN_SEPARATOR.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String gram(String token) {
+        return token.length() > MAX_GRAM ? token.substring(0, MAX_GRAM) : token;
+    }
+
+    private static int[] insert(int[] ids, int id) {
+        var index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        var position = -index - 1;
+        var result = new int[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(ids, position, result, position + 1, ids.length - position);
+        return result;
+    }
+
+    private static int[] delete(int[] ids, int id) {
+        var index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        var result = new int[ids.length - 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        var result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                result[k++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.service.dtos.NodeSuggestionDTO;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class NodeSuggestService {
+    static final int MAX_LIMIT = 100;
+
+    private final EntityManager entityManager;
+    private final NodeSuggestIndex nodeSuggestIndex;
+    private final VersionIdentifierResolver versionIdentifierResolver;
+
+    public NodeSuggestService(
+            EntityManager entityManager,
+            NodeSuggestIndex nodeSuggestIndex,
+            VersionIdentifierResolver versionIdentifierResolver) {
+        this.entityManager = entityManager;
+        this.nodeSuggestIndex = nodeSuggestIndex;
+        this.versionIdentifierResolver = versionIdentifierResolver;
+    }
+
+    public List<NodeSuggestionDTO> suggest(
+            String query,
+            String language,
+            Optional<List<NodeType>> nodeTypes,
+            Optional<String> contentUri,
+            Optional<String> key,
+            Optional<String> value,
+            int limit) {
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        var index = isInsideWritableTransaction() ? privateIndex() : sharedIndex(schema);
+
+        Predicate<NodeSuggestDocument> filter = document -> true;
+        if (nodeTypes.isPresent() && !nodeTypes.get().isEmpty()) {
+            filter = filter.and(document -> nodeTypes.get().contains(document.nodeType()));
+        }
+        if (contentUri.isPresent()) {
+            // Prefix match, so urn:article: gives all articles and a full uri gives exact matches
+            filter = filter.and(document -> document.contentUri() != null
+                    && document.contentUri().toString().startsWith(contentUri.get()));
+        }
+        if (key.isPresent()) {
+            filter = filter.and(document -> document.customfields().containsKey(key.get()));
+        }
+        if (value.isPresent()) {
+            filter = filter.and(document -> key.map(k -> Objects.equals(document.customfields().get(k), value.get()))
+                    .orElseGet(() -> document.customfields().containsValue(value.get())));
+        }
+
+        return index.search(query, language, filter, Math.max(1, Math.min(limit, MAX_LIMIT))).stream()
+                .map(document -> new NodeSuggestionDTO(document, language))
+                .toList();
+    }
+
+    private NodeSuggestSchemaIndex sharedIndex(String schema) {
+        var index = nodeSuggestIndex.getOrLoad(schema, this::loadDocuments);
+        var stale = index.takeStale();
+        if (!stale.isEmpty()) {
+            try {
+                var documents = loadDocuments(stale);
+                documents.forEach(index::put);
+                var found = documents.stream().map(NodeSuggestDocument::id).collect(Collectors.toSet());
+                stale.stream().filter(id -> !found.contains(id)).forEach(index::remove);
+            } catch (RuntimeException e) {
+                index.markStale(stale);
+                throw e;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Index only for the current transaction, so uncommitted nodes never end up in the shared index.
+     */
+    private NodeSuggestSchemaIndex privateIndex() {
+        var index = new NodeSuggestSchemaIndex();
+        index.load(loadDocuments());
+        return index;
+    }
+
+    private boolean isInsideWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private List<NodeSuggestDocument> loadDocuments() {
+        return entityManager
+                .createQuery(
+                        """
+                        SELECT new no.ndla.taxonomy.service.NodeSuggestDocument(
+                            n.id, n.publicId, n.name, n.translations, n.nodeType, n.contentUri, n.customfields)
+                        FROM Node n
+                        """,
+                        NodeSuggestDocument.class)
+                .getResultList();
+    }
+
+    private List<NodeSuggestDocument> loadDocuments(Collection<Integer> ids) {
+        return entityManager
+                .createQuery(
+                        """
+                        SELECT new no.ndla.taxonomy.service.NodeSuggestDocument(
+                            n.id, n.publicId, n.name, n.translations, n.nodeType, n.contentUri, n.customfields)
+                        FROM Node n
+                        WHERE n.id IN :ids
+                        """,
+                        NodeSuggestDocument.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import no.ndla.taxonomy.config.cache.TenantCacheRegionFactory;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.service.dtos.AverageTreeJobDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds the child quality evaluation averages of every node. Grades and connections are loaded with two queries,
+ * the averages are computed in memory by {@link QualityEvaluationGraph} and written back in batches, only touching
+ * rows whose averages were wrong.
+ *
+ * <p>The rebuild runs on a pool thread, so the schema of the version to rebuild is passed along and set as the version
+ * of that thread before the transaction is opened.
+ */
+@Service
+public class QualityEvaluationAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(QualityEvaluationAggregator.class);
+    static final int WRITE_BATCH_SIZE = 5000;
+
+    private final NodeRepository nodeRepository;
+    private final NodeConnectionRepository nodeConnectionRepository;
+    private final TenantCacheRegionFactory cacheRegionFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    public QualityEvaluationAggregator(
+            NodeRepository nodeRepository,
+            NodeConnectionRepository nodeConnectionRepository,
+            TenantCacheRegionFactory cacheRegionFactory,
+            PlatformTransactionManager transactionManager) {
+        this.nodeRepository = nodeRepository;
+        this.nodeConnectionRepository = nodeConnectionRepository;
+        this.cacheRegionFactory = cacheRegionFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Async
+    public void rebuildAsync(AverageTreeJobDTO job, String schema) {
+        var previousVersion = VersionContext.getCurrentVersion();
+        VersionContext.setCurrentVersion(schema);
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuild(job, schema));
+            job.done();
+            logger.info(
+                    "Rebuilt quality evaluation averages of {} nodes in {}, {} changed. Took {} ms",
+                    job.getWritten(),
+                    schema,
+                    job.getChanged(),
+                    job.getDurationMs());
+        } catch (RuntimeException e) {
+            logger.error("Rebuilding quality evaluation averages in {} failed", schema, e);
+            job.failed(e.getMessage());
+            throw e;
+        } finally {
+            if (previousVersion == null) {
+                VersionContext.clear();
+            } else {
+                VersionContext.setCurrentVersion(previousVersion);
+            }
+        }
+    }
+
+    private void rebuild(AverageTreeJobDTO job, String schema) {
+        job.loading();
+        var graph = new QualityEvaluationGraph((int) nodeRepository.count());
+        try (var nodes = nodeRepository.streamQualityEvaluationNodes()) {
+            nodes.forEach(node ->
+                    graph.addNode(node.getId(), node.getGrade(), Boolean.TRUE.equals(node.getResource())));
+        }
+        try (var edges = nodeConnectionRepository.streamQualityEvaluationEdges()) {
+            edges.forEach(edge -> graph.addEdge(edge.getParentId(), edge.getChildId()));
+        }
+
+        job.calculating(graph.size(), graph.edgeCount());
+        var averages = graph.aggregate();
+
+        job.writing();
+        for (var from = 0; from < graph.size(); from += WRITE_BATCH_SIZE) {
+            var to = Math.min(graph.size(), from + WRITE_BATCH_SIZE);
+            var ids = new Integer[to - from];
+            var sums = new Integer[to - from];
+            var counts = new Integer[to - from];
+            for (var i = from; i < to; i++) {
+                ids[i - from] = graph.id(i);
+                sums[i - from] = averages.sums()[i];
+                counts[i - from] = averages.counts()[i];
+            }
+            var changed = nodeRepository.updateChildQualityEvaluationAverages(ids, sums, counts);
+            job.addWritten(ids.length, changed);
+        }
+        evictCachedNodesAfterCommit(schema);
+    }
+
+    /**
+     * The averages are written around Hibernate, so cached nodes of the schema have to go.
+     */
+    private void evictCachedNodesAfterCommit(String schema) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheRegionFactory.invalidateTenant(schema);
+            }
+        });
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The whole node tree reduced to primitive arrays, for computing every node's child quality evaluation average in one
+ * pass. Like the incremental updates, a resource counts once for each path to it. Links are expected to be left out by
+ * the caller, and cycles are broken where they are found.
+ */
+final class QualityEvaluationGraph {
+    private int[] ids;
+    private int[] grades;
+    private int size = 0;
+    private final Map<Integer, Integer> indexes;
+    private int[] parents = new int[1024];
+    private int[] children = new int[1024];
+    private int edgeCount = 0;
+
+    QualityEvaluationGraph(int expectedNodes) {
+        ids = new int[Math.max(expectedNodes, 16)];
+        grades = new int[ids.length];
+        indexes = new HashMap<>(ids.length * 2);
+    }
+
+    /**
+     * @param grade the node's grade. Only counted for resources
+     */
+    void addNode(int id, Integer grade, boolean resource) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            grades = Arrays.copyOf(grades, size * 2);
+        }
+        ids[size] = id;
+        grades[size] = resource && grade != null ? grade : 0;
+        indexes.put(id, size++);
+    }
+
+    /**
+     * Connections to nodes that were not added are ignored.
+     */
+    void addEdge(int parentId, int childId) {
+        var parent = indexes.get(parentId);
+        var child = indexes.get(childId);
+        if (parent == null || child == null) {
+            return;
+        }
+        if (edgeCount == parents.length) {
+            parents = Arrays.copyOf(parents, edgeCount * 2);
+            children = Arrays.copyOf(children, edgeCount * 2);
+        }
+        parents[edgeCount] = parent;
+        children[edgeCount++] = child;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int edgeCount() {
+        return edgeCount;
+    }
+
+    int id(int index) {
+        return ids[index];
+    }
+
+    record Averages(int[] sums, int[] counts) {}
+
+    /**
+     * Computes sum and count of the grades below each node, indexed like {@link #id(int)}. Each node is visited once,
+     * children before parents, so shared subtrees are only summed once.
+     */
+    Averages aggregate() {
+        // Children of node i are childList[childStart[i]] until childStart[i + 1]
+        var childStart = new int[size + 1];
+        for (var i = 0; i < edgeCount; i++) {
+            childStart[parents[i] + 1]++;
+        }
+        for (var i = 0; i < size; i++) {
+            childStart[i + 1] += childStart[i];
+        }
+        var childList = new int[edgeCount];
+        var fill = Arrays.copyOf(childStart, size);
+        for (var i = 0; i < edgeCount; i++) {
+            childList[fill[parents[i]]++] = children[i];
+        }
+
+        var sums = new int[size];
+        var counts = new int[size];
+        // 0 = not visited, 1 = on the stack, 2 = done
+        var state = new byte[size];
+        var nextChild = new int[size];
+        var stack = new int[size];
+        for (var root = 0; root < size; root++) {
+            if (state[root] != 0) {
+                continue;
+            }
+            var top = 0;
+            stack[0] = root;
+            state[root] = 1;
+            nextChild[root] = childStart[root];
+            while (top >= 0) {
+                var node = stack[top];
+                if (nextChild[node] < childStart[node + 1]) {
+                    var child = childList[nextChild[node]++];
+                    if (state[child] == 0) {
+                        state[child] = 1;
+                        nextChild[child] = childStart[child];
+                        stack[++top] = child;
+                    }
+                    continue;
+                }
+                top--;
+                var sum = 0;
+                var count = 0;
+                for (var i = childStart[node]; i < childStart[node + 1]; i++) {
+                    var child = childList[i];
+                    // A child still on the stack is an ancestor, the connection closes a cycle
+                    if (state[child] != 2) {
+                        continue;
+                    }
+                    sum += sums[child] + grades[child];
+                    count += counts[child] + (grades[child] > 0 ? 1 : 0);
+                }
+                sums[node] = sum;
+                counts[node] = count;
+                state[node] = 2;
+            }
+        }
+        return new Averages(sums, counts);
+    }
+}
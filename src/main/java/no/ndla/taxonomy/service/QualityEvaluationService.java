@@ -8,31 +8,44 @@
 package no.ndla.taxonomy.service;
 
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
 import java.net.URI;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import no.ndla.taxonomy.config.cache.TenantCacheEviction;
 import no.ndla.taxonomy.domain.*;
 import no.ndla.taxonomy.repositories.NodeRepository;
 import no.ndla.taxonomy.rest.v1.commands.NodePostPut;
+import no.ndla.taxonomy.service.dtos.AverageTreeJobDTO;
 import no.ndla.taxonomy.service.dtos.QualityEvaluationDTO;
 import no.ndla.taxonomy.service.exceptions.NotFoundServiceException;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Transactional(readOnly = true)
 @Service
 public class QualityEvaluationService {
+    // Rebuilds cover all nodes of a version, so one is kept per version
+    private static final int KEPT_AVERAGE_TREE_JOBS = 20;
+
     private final NodeRepository nodeRepository;
     private final EntityManager entityManager;
-
-    public QualityEvaluationService(NodeRepository nodeRepository, EntityManager entityManager) {
+    private final QualityEvaluationAggregator qualityEvaluationAggregator;
+    private final VersionIdentifierResolver versionIdentifierResolver;
+    private final JobRegistry<String, AverageTreeJobDTO> averageTreeJobs = new JobRegistry<>(KEPT_AVERAGE_TREE_JOBS);
+
+    public QualityEvaluationService(
+            NodeRepository nodeRepository,
+            EntityManager entityManager,
+            QualityEvaluationAggregator qualityEvaluationAggregator,
+            VersionIdentifierResolver versionIdentifierResolver) {
         this.nodeRepository = nodeRepository;
         this.entityManager = entityManager;
+        this.qualityEvaluationAggregator = qualityEvaluationAggregator;
+        this.versionIdentifierResolver = versionIdentifierResolver;
     }
 
     private boolean shouldBeIncludedInQualityEvaluationAverage(NodeType nodeType) {
@@ -48,7 +61,7 @@ public class QualityEvaluationService {
     }
 
     /**
-     * Acquires a pessimistic lock on the node and refreshes it from the database, ensuring
+     * Acquires the lock on the grade of the node and refreshes it from the database, ensuring
      * that the subsequent getOldGrade/apply/updateParents sequence sees the latest persisted state.
      * Must be called within the same transaction as the update (e.g. from CrudController.updateEntity).
      */
@@ -87,30 +100,21 @@ public class QualityEvaluationService {
             return;
         }
 
-        // Lock the parent tree once upfront to avoid double lock+refresh discarding changes.
-        // var allNodes = lockParentTree(List.of(parent));
-        // lockAndRefresh(child);
-
-        // Update parents quality evaluation average with the newly linked one.
-        updateQualityEvaluationOfParents(
-                child.getNodeType(), List.of(parent), Optional.empty(), child.getQualityEvaluationGrade());
-
-        child.getChildQualityEvaluationAverage().ifPresent(childAverage -> {
-            addGradeAverageTreeToParents(parent, childAverage);
-        });
-
-        // nodeRepository.saveAll(allNodes);
-    }
-
-    private void addGradeAverageTreeToParents(Node node, GradeAverage averageToAdd) {
-        node.addGradeAverageTreeToAverageCalculation(averageToAdd);
-        node.getParentNodesForQualityEvaluation().forEach(parent -> addGradeAverageTreeToParents(parent, averageToAdd));
-    }
+        // The parent gains the child's own grade and everything already counted below the child
+        var sum = 0;
+        var count = 0;
+        var grade = child.getQualityEvaluationGrade();
+        if (shouldBeIncludedInQualityEvaluationAverage(child.getNodeType()) && grade.isPresent()) {
+            sum += grade.get().toInt();
+            count++;
+        }
+        var childAverage = child.getChildQualityEvaluationAverage();
+        if (childAverage.isPresent()) {
+            sum += childAverage.get().getAverageSum();
+            count += childAverage.get().getCount();
+        }
 
-    private void removeGradeAverageTreeFromParents(Node node, GradeAverage averageToRemove) {
-        node.removeGradeAverageTreeFromAverageCalculation(averageToRemove);
-        node.getParentNodesForQualityEvaluation()
-                .forEach(parent -> removeGradeAverageTreeFromParents(parent, averageToRemove));
+        addToAncestors(List.of(parent), sum, count);
     }
 
     @Transactional
@@ -133,9 +137,7 @@ public class QualityEvaluationService {
         if (child.getChildQualityEvaluationAverage().isEmpty()) return;
         var childAverage = child.getChildQualityEvaluationAverage().get();
 
-        // var allNodes = lockParentTree(List.of(parent));
-        removeGradeAverageTreeFromParents(parent, childAverage);
-        // nodeRepository.saveAll(allNodes);
+        addToAncestors(List.of(parent), -childAverage.getAverageSum(), -childAverage.getCount());
     }
 
     @Transactional
@@ -154,55 +156,96 @@ public class QualityEvaluationService {
     @Transactional
     public void updateQualityEvaluationOfRecursive(
             Collection<Node> parents, Optional<Grade> oldGrade, Optional<Grade> newGrade) {
-        // var allNodes = lockParentTree(parents);
-        updateQualityEvaluationOfRecursiveUnlocked(parents, oldGrade, newGrade);
-        // nodeRepository.saveAll(allNodes);
+        var sum = newGrade.map(Grade::toInt).orElse(0) - oldGrade.map(Grade::toInt).orElse(0);
+        var count = (newGrade.isPresent() ? 1 : 0) - (oldGrade.isPresent() ? 1 : 0);
+        addToAncestors(parents, sum, count);
     }
 
-    private void updateQualityEvaluationOfRecursiveUnlocked(
-            Collection<Node> parents, Optional<Grade> oldGrade, Optional<Grade> newGrade) {
-        parents.forEach(p -> {
-            p.updateChildQualityEvaluationAverage(oldGrade, newGrade);
-            var parentsParents = p.getParentNodesForQualityEvaluation();
-            updateQualityEvaluationOfRecursiveUnlocked(parentsParents, oldGrade, newGrade);
-        });
+    /**
+     * Adds sum and count to the child averages of the given nodes and all their ancestors, once for every path, as a
+     * single update in the database. Concurrent changes to the same nodes are applied one after the other rather than
+     * overwriting each other. Nodes already loaded in this session are refreshed afterwards, as their averages are
+     * stale.
+     */
+    private void addToAncestors(Collection<Node> nodes, int sum, int count) {
+        if (nodes.isEmpty() || sum == 0 && count == 0) {
+            return;
+        }
+
+        var seeds = nodes.stream().map(Node::getId).toArray(Integer[]::new);
+        var ancestors = nodeRepository.findQualityEvaluationAncestors(seeds);
+        var ids = ancestors.stream()
+                .map(NodeRepository.QualityEvaluationAncestor::getId)
+                .toArray(Integer[]::new);
+        var paths = ancestors.stream()
+                .map(NodeRepository.QualityEvaluationAncestor::getPaths)
+                .toArray(Integer[]::new);
+        // The ancestors come sorted by id, which is the order the locks must be taken in
+        nodeRepository.lockQualityEvaluations(ids);
+        nodeRepository.addChildQualityEvaluationDelta(ids, paths, sum, count);
+
+        refreshLoadedNodes(ids);
     }
 
-    private Collection<Node> lockParentTree(Collection<Node> parents) {
-        // Flush pending changes before locking so that refresh does not discard in-memory mutations
-        // made earlier in this transaction (e.g. command.apply on the child node).
-        entityManager.flush();
-        var allNodes = collectParentTree(parents);
-        // Lock in consistent ID order to prevent deadlocks between concurrent transactions.
-        allNodes.stream().sorted(Comparator.comparing(Node::getId)).forEach(this::lockAndRefresh);
-        return allNodes;
+    /**
+     * The averages were changed behind Hibernate's back, which is told to leave the cached nodes alone so that one
+     * change does not drop every node of the version. The changed nodes are evicted instead, and again after commit, as
+     * other transactions may have cached them as they were meanwhile. Nodes loaded in this session are refreshed.
+     */
+    private void refreshLoadedNodes(Integer[] ids) {
+        var session = entityManager.unwrap(SessionImplementor.class);
+        var changed = List.of(ids);
+        TenantCacheEviction.evictEntities(session, Node.class, changed);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TenantCacheEviction.evictEntities(session, Node.class, changed);
+                }
+            });
+        }
+
+        var persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Node.class);
+        var persistenceContext = session.getPersistenceContextInternal();
+        for (var id : ids) {
+            var loaded = persistenceContext.getEntity(session.generateEntityKey(id, persister));
+            if (loaded != null) {
+                entityManager.refresh(loaded);
+            }
+        }
     }
 
     /**
-     * Acquires a pessimistic write lock and refreshes the entity from the database.
+     * Acquires the lock on the grade of the node and refreshes the entity from the database.
      * WARNING: refresh overwrites any in-memory changes not yet flushed — call flush() first
      * if the entity (or related entities) may have been modified in this transaction.
      */
     private void lockAndRefresh(Node node) {
-        entityManager.lock(node, LockModeType.PESSIMISTIC_WRITE);
+        nodeRepository.lockQualityEvaluationGrade(node.getId());
         entityManager.refresh(node);
     }
 
-    private Collection<Node> collectParentTree(Collection<Node> parents) {
-        Map<Integer, Node> nodesById = new HashMap<>();
-        collectParentTree(parents, nodesById);
-        return nodesById.values();
-    }
+    /**
+     * Recalculates the child averages of the given nodes from the averages and grades of their children, and adds the
+     * difference to all their ancestors in the same update. For changes made in bulk, where the connections that were
+     * added or removed are no longer at hand. The children are trusted to be up to date, so nothing below the nodes is
+     * walked.
+     */
+    @Transactional
+    public void recalculateChildQualityEvaluationAverages(Collection<Node> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
 
-    private void collectParentTree(Collection<Node> parents, Map<Integer, Node> nodesById) {
-        parents.forEach(parent -> {
-            if (parent == null || nodesById.containsKey(parent.getId())) {
-                return;
-            }
+        var seeds = nodes.stream().map(Node::getId).distinct().toArray(Integer[]::new);
+        var ids = nodeRepository.findQualityEvaluationAncestors(seeds).stream()
+                .map(NodeRepository.QualityEvaluationAncestor::getId)
+                .toArray(Integer[]::new);
+        // Locked before the averages of the children are read, so grade changes below are applied before or after
+        nodeRepository.lockQualityEvaluations(ids);
+        nodeRepository.recalculateChildQualityEvaluations(seeds);
 
-            nodesById.put(parent.getId(), parent);
-            collectParentTree(parent.getParentNodesForQualityEvaluation(), nodesById);
-        });
+        refreshLoadedNodes(ids);
     }
 
     @Transactional
@@ -214,14 +257,24 @@ public class QualityEvaluationService {
         nodeRepository.save(node);
     }
 
-    @Transactional
-    public void updateQualityEvaluationOfAllNodes() {
-        nodeRepository.wipeQualityEvaluationAverages();
-        var nodeStream = nodeRepository.findNodesWithQualityEvaluation();
-        nodeStream.forEach(node -> updateQualityEvaluationOfParents(
-                node.getNodeType(),
-                node.getParentNodesForQualityEvaluation(),
-                Optional.empty(),
-                node.getQualityEvaluationGrade()));
+    /**
+     * Starts rebuilding the averages of all nodes of the current version in the background. If a rebuild of the version
+     * is already running, that one is returned instead of starting another.
+     */
+    public AverageTreeJobDTO updateQualityEvaluationOfAllNodes() {
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        var job = new AverageTreeJobDTO();
+        var running = averageTreeJobs.start(schema, job);
+        if (running == job) {
+            qualityEvaluationAggregator.rebuildAsync(job, schema);
+        }
+        return running;
+    }
+
+    /**
+     * The last rebuild of the current version.
+     */
+    public Optional<AverageTreeJobDTO> getAverageTreeJob() {
+        return averageTreeJobs.get(versionIdentifierResolver.resolveCurrentTenantIdentifier());
     }
 }
@@ -19,14 +19,20 @@ import org.springframework.transaction.annotation.Transactional;
 public class ResourceTypeService {
     private final EntityManager entityManager;
     private final ResourceTypeRepository resourceTypeRepository;
+    private final ResourceTypeTreeService resourceTypeTreeService;
 
-    public ResourceTypeService(EntityManager entityManager, ResourceTypeRepository resourceTypeRepository) {
+    public ResourceTypeService(
+            EntityManager entityManager,
+            ResourceTypeRepository resourceTypeRepository,
+            ResourceTypeTreeService resourceTypeTreeService) {
         this.entityManager = entityManager;
         this.resourceTypeRepository = resourceTypeRepository;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     @Transactional
     public void shiftOrderAfterInsertUpdate(ResourceType resourceType) {
+        resourceTypeTreeService.invalidateAfterCompletion();
         if (resourceType.getOrder() == -1) {
             resourceType.setOrder(resourceTypeRepository.nextOrderValue());
             entityManager.merge(resourceType);
@@ -49,6 +55,7 @@ public class ResourceTypeService {
 
     @Transactional
     public void updateOrderAfterDelete() {
+        resourceTypeTreeService.invalidateAfterCompletion();
         var allResourceTypes = resourceTypeRepository.findAllByOrderByOrderAsc();
         for (var i = 0; i < allResourceTypes.size(); i++) {
             var rt = allResourceTypes.get(i);
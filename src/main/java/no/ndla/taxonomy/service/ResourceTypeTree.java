@@ -0,0 +1,123 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.JsonTranslation;
+import no.ndla.taxonomy.domain.ResourceType;
+
+/**
+ * Immutable snapshot of all resource types in one schema. Built from a single query and shared between requests until
+ * resource types are changed.
+ */
+public final class ResourceTypeTree {
+    public record Entry(
+            URI publicId,
+            String name,
+            int order,
+            Optional<URI> parentId,
+            List<JsonTranslation> translations,
+            List<Entry> subtypes) {
+
+        public String getTranslatedName(String languageCode) {
+            return translations.stream()
+                    .filter(t -> Objects.equals(t.getLanguageCode(), languageCode))
+                    .findFirst()
+                    .map(JsonTranslation::getName)
+                    .orElse(name);
+        }
+    }
+
+    // Same ordering as ResourceType.compareTo
+    private static final Comparator<ResourceType> ORDERING = (a, b) -> a.getOrder() == -1 || b.getOrder() == -1
+            ? a.getPublicId().compareTo(b.getPublicId())
+            : Integer.compare(a.getOrder(), b.getOrder());
+
+    private final long generation;
+    private final List<Entry> roots;
+    private final Map<URI, Entry> entries;
+    private final Map<Integer, Entry> entriesById;
+
+    private ResourceTypeTree(
+            long generation, List<Entry> roots, Map<URI, Entry> entries, Map<Integer, Entry> entriesById) {
+        this.generation = generation;
+        this.roots = roots;
+        this.entries = entries;
+        this.entriesById = entriesById;
+    }
+
+    public static ResourceTypeTree of(long generation, Collection<ResourceType> resourceTypes) {
+        var children = new HashMap<URI, List<ResourceType>>();
+        var roots = new ArrayList<ResourceType>();
+        for (var resourceType : resourceTypes) {
+            resourceType
+                    .getParent()
+                    .ifPresentOrElse(
+                            parent -> children.computeIfAbsent(parent.getPublicId(), k -> new ArrayList<>())
+                                    .add(resourceType),
+                            () -> roots.add(resourceType));
+        }
+        var entries = new HashMap<URI, Entry>();
+        var rootEntries = roots.stream()
+                .sorted(ORDERING)
+                .map(rt -> toEntry(rt, children, entries))
+                .toList();
+        var entriesById = new HashMap<Integer, Entry>();
+        for (var resourceType : resourceTypes) {
+            var entry = entries.get(resourceType.getPublicId());
+            if (resourceType.getId() != null && entry != null) {
+                entriesById.put(resourceType.getId(), entry);
+            }
+        }
+        return new ResourceTypeTree(generation, rootEntries, Map.copyOf(entries), Map.copyOf(entriesById));
+    }
+
+    private static Entry toEntry(
+            ResourceType resourceType, Map<URI, List<ResourceType>> children, Map<URI, Entry> entries) {
+        var subtypes = children.getOrDefault(resourceType.getPublicId(), List.of()).stream()
+                .sorted(ORDERING)
+                .map(rt -> toEntry(rt, children, entries))
+                .toList();
+        var entry = new Entry(
+                resourceType.getPublicId(),
+                resourceType.getName(),
+                resourceType.getOrder(),
+                resourceType.getParent().map(ResourceType::getPublicId),
+                resourceType.getTranslations().stream().map(JsonTranslation::new).toList(),
+                subtypes);
+        entries.put(entry.publicId(), entry);
+        return entry;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<Entry> getRoots() {
+        return roots;
+    }
+
+    public Optional<Entry> get(URI publicId) {
+        return Optional.ofNullable(entries.get(publicId));
+    }
+
+    /**
+     * Looks up a resource type by its database id, as referenced from the resource types of nodes.
+     */
+    public Optional<Entry> getById(Integer id) {
+        return Optional.ofNullable(entriesById.get(id));
+    }
+}
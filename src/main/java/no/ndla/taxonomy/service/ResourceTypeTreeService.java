@@ -0,0 +1,95 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import no.ndla.taxonomy.repositories.ResourceTypeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps one {@link ResourceTypeTree} per version schema. The tree is dropped when a transaction touching resource
+ * types completes and rebuilt on the next read. Other instances drop theirs when the notification sent on
+ * {@link #CHANNEL} by the transaction is delivered on commit, see {@link DatabaseNotifications}.
+ */
+@Service
+public class ResourceTypeTreeService {
+    static final String CHANNEL = "taxonomy_resource_types";
+
+    private final ResourceTypeRepository resourceTypeRepository;
+    private final VersionIdentifierResolver versionIdentifierResolver;
+    private final Map<String, ResourceTypeTree> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public ResourceTypeTreeService(
+            ResourceTypeRepository resourceTypeRepository,
+            VersionIdentifierResolver versionIdentifierResolver,
+            DatabaseNotifications databaseNotifications) {
+        this.resourceTypeRepository = resourceTypeRepository;
+        this.versionIdentifierResolver = versionIdentifierResolver;
+        databaseNotifications.subscribe(CHANNEL, this::invalidate, this::invalidateAll);
+    }
+
+    public ResourceTypeTree getTree() {
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        var generation = generation(schema);
+        if (isInsideWritableTransaction()) {
+            // Uncommitted changes must neither be shared nor hidden from the writing transaction
+            return ResourceTypeTree.of(generation.get(), resourceTypeRepository.findAll());
+        }
+        var snapshot = snapshots.get(schema);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        var expected = generation.get();
+        var tree = ResourceTypeTree.of(expected, resourceTypeRepository.findAll());
+        // Only publish the tree if no write completed while it was being built
+        var published = snapshots.compute(schema, (key, existing) -> generation.get() == expected ? tree : existing);
+        return published != null ? published : tree;
+    }
+
+    /**
+     * Drops the tree for the current schema when the surrounding transaction completes, here and on every other
+     * instance.
+     */
+    public void invalidateAfterCompletion() {
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        resourceTypeRepository.notifyResourceTypesChanged(schema);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(schema);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(schema);
+            }
+        });
+    }
+
+    private void invalidate(String schema) {
+        generation(schema).incrementAndGet();
+        snapshots.remove(schema);
+    }
+
+    private void invalidateAll() {
+        generations.keySet().forEach(this::invalidate);
+    }
+
+    private AtomicLong generation(String schema) {
+        return generations.computeIfAbsent(schema, key -> new AtomicLong());
+    }
+
+    private boolean isInsideWritableTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import no.ndla.taxonomy.service.dtos.SnapshotJobDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the statements that copy or lay out version schemas on one connection, on behalf of a job that can cancel them.
+ */
+class SchemaStatements {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaStatements.class);
+
+    private final Connection connection;
+    private final SnapshotJobDTO job;
+    private volatile PreparedStatement running;
+
+    SchemaStatements(Connection connection, SnapshotJobDTO job) {
+        this.connection = connection;
+        this.job = job;
+        job.onCancel(this::cancelRunning);
+    }
+
+    /**
+     * Returns every row as strings, with the parameters bound in order.
+     */
+    List<List<String>> query(String sql, String... parameters) throws SQLException {
+        try (var statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (var result = statement.executeQuery()) {
+                var rows = new ArrayList<List<String>>();
+                var columns = result.getMetaData().getColumnCount();
+                while (result.next()) {
+                    var row = new ArrayList<String>(columns);
+                    for (int i = 1; i <= columns; i++) {
+                        row.add(result.getString(i));
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            }
+        }
+    }
+
+    String queryString(String sql, String... parameters) throws SQLException {
+        return query(sql, parameters).getFirst().getFirst();
+    }
+
+    void setLocal(String setting, String value) throws SQLException {
+        query("SELECT set_config(?, ?, true)", setting, value);
+    }
+
+    /**
+     * Runs one statement, so it can be cancelled. Returns the number of rows changed.
+     */
+    long execute(String sql) throws SQLException {
+        if (job.isCancelRequested()) {
+            throw new CancellationException("Cancelled");
+        }
+        try (var statement = connection.prepareStatement(sql)) {
+            running = statement;
+            if (statement.execute()) {
+                return 0;
+            }
+            return statement.getLargeUpdateCount();
+        } finally {
+            running = null;
+        }
+    }
+
+    private void cancelRunning() {
+        var statement = running;
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            logger.warn("Failed to cancel statement", e);
+        }
+    }
+
+    static String qualified(String schema, String name) {
+        return quoteIdent(schema) + "." + quoteIdent(name);
+    }
+
+    static String quoteIdent(String name) {
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    static String quoteLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import no.ndla.taxonomy.service.dtos.SearchResultDTO.TotalCountType;
+
+/**
+ * How much a search should compute besides the page of results.
+ *
+ * @param totalCountType how the total number of matches is found
+ * @param includeFacets whether to count all matches per facet
+ */
+public record SearchOptions(TotalCountType totalCountType, boolean includeFacets) {
+    /** Exact total and no facets. */
+    public static final SearchOptions DEFAULT = new SearchOptions(TotalCountType.EXACT, false);
+
+    public static SearchOptions requested(boolean includeTotal, boolean estimateTotal, boolean includeFacets) {
+        TotalCountType totalCountType;
+        if (!includeTotal) {
+            totalCountType = TotalCountType.OMITTED;
+        } else {
+            totalCountType = estimateTotal ? TotalCountType.ESTIMATED : TotalCountType.EXACT;
+        }
+        return new SearchOptions(totalCountType, includeFacets);
+    }
+}
@@ -7,33 +7,42 @@
 
 package no.ndla.taxonomy.service;
 
+import jakarta.persistence.EntityManager;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnectionType;
 import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.domain.Relevance;
 import no.ndla.taxonomy.repositories.NodeRepository;
 import no.ndla.taxonomy.service.dtos.NodeDTO;
+import no.ndla.taxonomy.service.dtos.SearchFacetsDTO;
 import no.ndla.taxonomy.service.dtos.SearchResultDTO;
+import no.ndla.taxonomy.service.dtos.SearchResultDTO.TotalCountType;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
 public class SearchService {
 
     private final NodeRepository nodeRepository;
+    private final EntityManager entityManager;
+    private final ResourceTypeTreeService resourceTypeTreeService;
 
-    public SearchService(NodeRepository nodeRepository) {
+    public SearchService(
+            NodeRepository nodeRepository,
+            EntityManager entityManager,
+            ResourceTypeTreeService resourceTypeTreeService) {
         this.nodeRepository = nodeRepository;
-    }
-
-    public Specification<Node> nodeHasOneOfNodeType(List<NodeType> nodeType) {
-        return (root, query, builder) -> root.get("nodeType").in(nodeType);
+        this.entityManager = entityManager;
+        this.resourceTypeTreeService = resourceTypeTreeService;
     }
 
     public SearchResultDTO<NodeDTO> searchByNodeType(
@@ -49,7 +58,6 @@ public class SearchService {
             Optional<Map<String, String>> customfieldsFilter,
             Optional<URI> rootId,
             Optional<URI> parentId) {
-        Optional<ExtraSpecification> nodeSpecLambda = nodeType.map(nt -> (s -> s.and(nodeHasOneOfNodeType(nt))));
         return this.search(
                 query,
                 ids,
@@ -59,39 +67,46 @@ public class SearchService {
                 filterProgrammes,
                 pageSize,
                 page,
-                nodeSpecLambda,
+                nodeType,
                 customfieldsFilter,
                 rootId,
                 parentId);
     }
 
-    private Specification<Node> base() {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.isNotNull(root.get("id"));
-    }
-
-    private Specification<Node> withNameLike(String name) {
-        return (root, query, criteriaBuilder) ->
-                criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%");
-    }
-
-    private Specification<Node> withPublicIdsIn(List<URI> ids) {
-        return (root, query, criteriaBuilder) -> root.get("publicId").in(ids);
-    }
-
-    private Specification<Node> withContentUriIn(List<URI> contentUris) {
-        return (root, query, criteriaBuilder) -> root.get("contentUri").in(contentUris);
-    }
-
-    private Specification<Node> withKeyAndValue(String key, String value) {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(
-                criteriaBuilder.function(
-                        "jsonb_extract_path_text",
-                        String.class,
-                        root.get("customfields"),
-                        criteriaBuilder.literal(key)),
-                value);
+    public SearchResultDTO<NodeDTO> search(
+            Optional<String> query,
+            Optional<List<String>> ids,
+            Optional<List<String>> contentUris,
+            String language,
+            boolean includeContexts,
+            boolean filterProgrammes,
+            int pageSize,
+            int page,
+            Optional<List<NodeType>> nodeTypes,
+            Optional<Map<String, String>> customFieldFilters,
+            Optional<URI> rootId,
+            Optional<URI> parentId) {
+        return search(
+                query,
+                ids,
+                contentUris,
+                language,
+                includeContexts,
+                filterProgrammes,
+                pageSize,
+                page,
+                nodeTypes,
+                customFieldFilters,
+                rootId,
+                parentId,
+                SearchOptions.DEFAULT);
     }
 
+    /**
+     * Searches nodes. Counting all matches can cost as much as fetching the page, so the total can be estimated from
+     * planner statistics or skipped entirely. Either way one extra row is fetched to tell if there are more pages.
+     * Facet counts are computed in one grouped query, which also gives the exact total.
+     */
     public SearchResultDTO<NodeDTO> search(
             Optional<String> query,
             Optional<List<String>> ids,
@@ -101,36 +116,55 @@ public class SearchService {
             boolean filterProgrammes,
             int pageSize,
             int page,
-            Optional<ExtraSpecification> applySpecLambda,
+            Optional<List<NodeType>> nodeTypes,
             Optional<Map<String, String>> customFieldFilters,
             Optional<URI> rootId,
-            Optional<URI> parentId) {
+            Optional<URI> parentId,
+            SearchOptions options) {
 
         if (page < 1) throw new IllegalArgumentException("page parameter must be bigger than 0");
 
-        var pageRequest = PageRequest.of(page - 1, pageSize);
-        Specification<Node> spec = base();
-
-        if (query.isPresent()) {
-            spec = spec.and(withNameLike(query.get()));
+        var languageCode = language != null ? language : "";
+        var searchQuery = new NodeSearchQuery()
+                .withPublicIds(parseUris(ids))
+                .withContentUris(parseUris(contentUris))
+                .withNodeTypes(nodeTypes.orElse(List.of()))
+                .withCustomFields(customFieldFilters.orElse(Map.of()));
+        query.ifPresent(q -> searchQuery.withQuery(q, languageCode));
+
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize parameter must be bigger than 0");
+
+        var totalCountType = options.totalCountType();
+
+        var slice = searchQuery.fetchSlice(entityManager, PageRequest.of(page - 1, pageSize));
+        var lowerBound = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        if (isLastPage(slice)) {
+            // Nothing left to count
+            totalCountType = TotalCountType.EXACT;
         }
-
-        spec = applyIdFilters(ids, spec);
-        spec = applyContentUriFilters(contentUris, spec);
-
-        if (applySpecLambda.isPresent()) {
-            spec = applySpecLambda.get().applySpecification(spec);
+        var facetCounts = options.includeFacets()
+                ? searchQuery.facetCounts(entityManager)
+                : List.<NodeSearchQuery.FacetCount>of();
+        var facetTotal = facetCounts.stream()
+                .filter(count -> count.facet().equals("total"))
+                .mapToLong(NodeSearchQuery.FacetCount::count)
+                .findFirst();
+        if (facetTotal.isPresent()) {
+            totalCountType = TotalCountType.EXACT;
         }
-
-        spec = applyCustomFieldsFilters(spec, customFieldFilters);
-
-        var fetched = nodeRepository.findAll(spec, pageRequest);
+        var totalCount =
+                switch (totalCountType) {
+                    case EXACT -> facetTotal.orElseGet(
+                            () -> isLastPage(slice) ? lowerBound : searchQuery.count(entityManager));
+                    case ESTIMATED -> Math.max(searchQuery.estimateCount(entityManager), lowerBound);
+                    case OMITTED -> lowerBound;
+                };
 
         var rootNode = rootId.flatMap(nodeRepository::findFirstByPublicId);
         var parentNode = parentId.flatMap(nodeRepository::findFirstByPublicId);
+        var resourceTypes = resourceTypeTreeService.getTree();
 
-        var languageCode = language != null ? language : "";
-        var dtos = fetched.stream()
+        var dtos = fetchNodesInOrder(slice.getContent()).stream()
                 .map(r -> new NodeDTO(
                         rootNode,
                         parentNode,
@@ -141,63 +175,60 @@ public class SearchService {
                         includeContexts,
                         filterProgrammes,
                         false,
-                        false))
+                        false,
+                        resourceTypes))
                 .collect(Collectors.toList());
 
-        return new SearchResultDTO<>(fetched.getTotalElements(), page, pageSize, dtos);
+        var result = new SearchResultDTO<>(totalCount, totalCountType, slice.hasNext(), page, pageSize, dtos);
+        if (options.includeFacets()) {
+            result.setFacets(Optional.of(toFacets(facetCounts)));
+        }
+        return result;
     }
 
-    private Specification<Node> applyContentUriFilters(Optional<List<String>> contentUris, Specification<Node> spec) {
-        if (contentUris.isPresent()) {
-            List<URI> urisToPass = contentUris.get().stream()
-                    .flatMap(id -> {
-                        try {
-                            return Optional.of(new URI(id)).stream();
-                        } catch (URISyntaxException ignored) {
-                            /* ignore invalid urls sent by user */
-                        }
-                        return Optional.<URI>empty().stream();
-                    })
-                    .collect(Collectors.toList());
-
-            if (!urisToPass.isEmpty()) spec = spec.and(withContentUriIn(urisToPass));
+    private static SearchFacetsDTO toFacets(List<NodeSearchQuery.FacetCount> facetCounts) {
+        var facets = new SearchFacetsDTO();
+        for (var count : facetCounts) {
+            if (count.value() == null) {
+                continue;
+            }
+            switch (count.facet()) {
+                case "nodeType" -> facets.getNodeType().put(count.value(), count.count());
+                case "resourceType" -> facets.getResourceType().put(count.value(), count.count());
+                case "relevance" -> facets.getRelevance()
+                        .put(Relevance.valueOf(count.value()).getPublicId().toString(), count.count());
+                case "visible" -> facets.getVisible().put(count.value(), count.count());
+                default -> {}
+            }
         }
-        return spec;
+        return facets;
     }
 
-    private Specification<Node> applyIdFilters(Optional<List<String>> ids, Specification<Node> spec) {
-        if (ids.isPresent()) {
-            List<URI> urisToPass = ids.get().stream()
-                    .flatMap(id -> {
-                        try {
-                            return Optional.of(new URI(id)).stream();
-                        } catch (URISyntaxException ignored) {
-                            /* ignore invalid urls sent by user */
-                        }
-                        return Optional.<URI>empty().stream();
-                    })
-                    .collect(Collectors.toList());
-
-            if (!urisToPass.isEmpty()) spec = spec.and(withPublicIdsIn(urisToPass));
-        }
-        return spec;
+    /**
+     * True when the slice is known to hold the last results, so that the total follows from its position.
+     */
+    private static boolean isLastPage(Slice<Integer> slice) {
+        return !slice.hasNext() && (slice.hasContent() || slice.isFirst());
     }
 
-    private Specification<Node> applyCustomFieldsFilters(
-            Specification<Node> spec, Optional<Map<String, String>> metadataFilters) {
-        if (metadataFilters.isPresent()) {
-            Specification<Node> filterSpec = null;
-            for (var entry : metadataFilters.get().entrySet()) {
-                if (filterSpec != null) {
-                    filterSpec = filterSpec.or(withKeyAndValue(entry.getKey(), entry.getValue()));
-                } else {
-                    filterSpec = withKeyAndValue(entry.getKey(), entry.getValue());
-                }
-            }
-            if (filterSpec != null) {
-                return spec.and(filterSpec);
-            }
+    private List<Node> fetchNodesInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
         }
-        return spec;
+        var nodes = nodeRepository.findByIds(ids).stream().collect(Collectors.toMap(Node::getId, Function.identity()));
+        return ids.stream().map(nodes::get).filter(Objects::nonNull).toList();
+    }
+
+    private List<URI> parseUris(Optional<List<String>> uris) {
+        return uris.orElse(List.of()).stream()
+                .flatMap(id -> {
+                    try {
+                        return Optional.of(new URI(id)).stream();
+                    } catch (URISyntaxException ignored) {
+                        /* ignore invalid urls sent by user */
+                    }
+                    return Optional.<URI>empty().stream();
+                })
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import no.ndla.taxonomy.domain.Node;
+import no.ndla.taxonomy.domain.NodeConnection;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+import no.ndla.taxonomy.domain.TaxonomyContext;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Serializes structural changes within the same subtree. A change takes a transaction scoped advisory lock for every
+ * root above the nodes it touches, so changes below different roots run in parallel while changes below the same root
+ * wait for each other. Locks are taken in root id order and only once per transaction.
+ *
+ * <p>The roots are read from the contexts stored on the nodes. Only nodes without contexts, such as nodes outside any
+ * context or not yet connected, have their roots looked up by following branch connections upwards. Links do not
+ * define contexts, so a node linked from another subject does not lock that subject.
+ */
+@Service
+public class SubtreeLockService {
+    private static final int MAX_DEPTH = 100;
+
+    private final NodeRepository nodeRepository;
+    private final Timer waitTimer;
+
+    public SubtreeLockService(NodeRepository nodeRepository, MeterRegistry meterRegistry) {
+        this.nodeRepository = nodeRepository;
+        this.waitTimer = Timer.builder("taxonomy.subtree.lock.wait")
+                .description("Time spent waiting for subtree locks before changing connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Locks the subtrees of every root above the given nodes until the transaction ends. A node without contexts or
+     * branch parents is its own root, and nodes not saved yet are skipped.
+     */
+    public void lockSubtreesOf(Node... nodes) {
+        var roots = new TreeSet<String>();
+        var visited = new HashSet<Integer>();
+        for (var node : nodes) {
+            if (node != null) {
+                collectRoots(node, roots, visited, MAX_DEPTH);
+            }
+        }
+        lockRoots(roots);
+    }
+
+    private void collectRoots(Node node, Set<String> roots, Set<Integer> visited, int ttl) {
+        if (node.getId() == null || !visited.add(node.getId())) {
+            return;
+        }
+        var contexts = node.getContexts();
+        if (contexts != null && !contexts.isEmpty()) {
+            contexts.stream().map(TaxonomyContext::rootId).forEach(roots::add);
+            return;
+        }
+        var parents = node.getParentConnections().stream()
+                .filter(connection -> connection.getConnectionType() == NodeConnectionType.BRANCH)
+                .map(NodeConnection::getParent)
+                .flatMap(Optional::stream)
+                .toList();
+        if (parents.isEmpty() || ttl <= 0) {
+            roots.add(node.getPublicId().toString());
+            return;
+        }
+        parents.forEach(parent -> collectRoots(parent, roots, visited, ttl - 1));
+    }
+
+    private void lockRoots(TreeSet<String> roots) {
+        var held = heldLocks();
+        roots.removeAll(held);
+        if (roots.isEmpty()) {
+            return;
+        }
+        waitTimer.record(() -> roots.forEach(nodeRepository::lockSubtree));
+        held.addAll(roots);
+    }
+
+    /**
+     * Roots locked by the current transaction. Advisory locks are reentrant, this only saves the round trips.
+     */
+    private Set<String> heldLocks() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new HashSet<>();
+        }
+        @SuppressWarnings("unchecked")
+        var held = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (held != null) {
+            return held;
+        }
+        var locks = new HashSet<String>();
+        TransactionSynchronizationManager.bindResource(this, locks);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(SubtreeLockService.this);
+            }
+        });
+        return locks;
+    }
+}
@@ -9,6 +9,9 @@ package no.ndla.taxonomy.service;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.sql.DataSource;
 import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +19,19 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Updates the Connection object with the correct schema, based on the tenant identifier
+ * Updates the Connection object with the correct schema, based on the tenant identifier.
+ *
+ * <p>The schema each pooled connection was last switched to is remembered, so a connection is only switched when it
+ * is checked out for a different version than last time. Connections go back to the pool in whatever schema they were
+ * used with, so code taking connections directly from the {@link DataSource} must set the schema it needs itself.
  */
 @Component
 public class VersionConnectionProvider extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> {
     private final DataSource dataSource;
 
+    /** Keyed by the physical connection, which outlives the pool's wrapper and goes away when the pool retires it. */
+    private final Map<Connection, String> schemas = Collections.synchronizedMap(new WeakHashMap<>());
+
     @Value("${spring.datasource.hikari.schema:taxonomy_api}")
     private String defaultSchema;
 
@@ -43,13 +53,37 @@ public class VersionConnectionProvider extends AbstractDataSourceBasedMultiTenan
     @Override
     public Connection getConnection(String versionSchemaName) throws SQLException {
         final Connection connection = getAnyConnection();
-        connection.setSchema(versionSchemaName);
+        try {
+            switchSchema(connection, versionSchemaName);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
         return connection;
     }
 
+    private void switchSchema(Connection connection, String schema) throws SQLException {
+        var physical = physicalConnection(connection);
+        if (schema.equals(schemas.get(physical))) {
+            return;
+        }
+        // Forget the old schema first, so a failed switch is retried next time
+        schemas.remove(physical);
+        // Switching on the physical connection keeps the pool from switching back when the connection is closed
+        physical.setSchema(schema);
+        if (!physical.getAutoCommit()) {
+            // Settings are rolled back with the transaction they were changed in
+            physical.commit();
+        }
+        schemas.put(physical, schema);
+    }
+
+    private Connection physicalConnection(Connection connection) throws SQLException {
+        return connection.isWrapperFor(Connection.class) ? connection.unwrap(Connection.class) : connection;
+    }
+
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
-        connection.setSchema(defaultSchema);
         connection.close();
     }
 }
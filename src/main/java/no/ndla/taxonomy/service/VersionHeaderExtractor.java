@@ -8,15 +8,14 @@
 package no.ndla.taxonomy.service;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.Optional;
-import no.ndla.taxonomy.domain.Version;
-import no.ndla.taxonomy.domain.VersionType;
-import no.ndla.taxonomy.repositories.VersionRepository;
+import no.ndla.taxonomy.config.LiquibaseConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Takes a http request and extracts a given header. Returns a database schema name.
+ * Takes a http request and extracts a given header. Returns a database schema name. Versions are looked up in the
+ * {@link VersionRegistry}, so this does not touch the database. Archived versions are migrated after startup, so the
+ * first request for one may wait for its migration.
  */
 @Component
 public class VersionHeaderExtractor {
@@ -26,11 +25,15 @@ public class VersionHeaderExtractor {
 
     private final VersionService versionService;
 
-    private final VersionRepository versionRepository;
+    private final VersionRegistry versionRegistry;
 
-    public VersionHeaderExtractor(VersionRepository versionRepository, VersionService versionService) {
-        this.versionRepository = versionRepository;
+    private final LiquibaseConfig liquibaseConfig;
+
+    public VersionHeaderExtractor(
+            VersionRegistry versionRegistry, VersionService versionService, LiquibaseConfig liquibaseConfig) {
+        this.versionRegistry = versionRegistry;
         this.versionService = versionService;
+        this.liquibaseConfig = liquibaseConfig;
     }
 
     public String getVersionSchemaFromHeader(HttpServletRequest req) {
@@ -38,26 +41,18 @@ public class VersionHeaderExtractor {
         if (req.getRequestURI().startsWith("/v1/versions")) {
             return defaultSchema;
         }
-        try {
-            if (versionHash == null) {
-                // No header, check published and use for gets
-                Optional<Version> published = versionRepository.findFirstByVersionType(VersionType.PUBLISHED);
-                if (published.isPresent() && "GET".equals(req.getMethod())) {
-                    // Use published for all GETs
-                    return versionService.schemaFromHash(published.get().getHash());
-                }
-            } else {
-                // Header supplied, use that version if in database
-                Optional<Version> version = versionRepository.findFirstByHash(versionHash);
-                if (version.isPresent()) {
-                    return versionService.schemaFromHash(version.get().getHash());
-                }
+        if (versionHash == null) {
+            // No header, use published for all GETs
+            if ("GET".equals(req.getMethod())) {
+                return versionRegistry.getPublishedHash().map(versionService::schemaFromHash).orElse(defaultSchema);
             }
-            // Either no header or no version matching header. Use default schema.
-            return defaultSchema;
-        } catch (Exception e) {
-            // Something happened when fetching version!
-            return defaultSchema;
+        } else if (versionRegistry.hasVersion(versionHash)) {
+            // Header supplied, use that version if in database
+            var schema = versionService.schemaFromHash(versionHash);
+            liquibaseConfig.awaitMigration(schema);
+            return schema;
         }
+        // Either no header or no version matching header. Use default schema.
+        return defaultSchema;
     }
 }
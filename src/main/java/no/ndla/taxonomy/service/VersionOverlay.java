@@ -0,0 +1,238 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static no.ndla.taxonomy.service.SchemaStatements.qualified;
+import static no.ndla.taxonomy.service.SchemaStatements.quoteIdent;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Lays out the schema of a delta version on top of the schema of its base, a locked version that no longer changes.
+ * Every table of the base with a primary key gets two tables in the delta schema: {@code <table>__delta} with the rows
+ * written in the version and {@code <table>__deleted} with the keys of base rows deleted in it. A view named like the
+ * table shows the delta rows and the base rows neither replaced nor deleted, and a trigger on the view sends writes to
+ * the delta tables. Sequences continue where those of the base stopped. Tables without a primary key are copied.
+ *
+ * <p>Creating a delta version copies no rows, but the overlay has limits: foreign keys and unique constraints are only
+ * enforced on the delta rows, and rows cannot be locked with FOR UPDATE through the views. The overlay is laid out for
+ * the base as it is, so delta versions are materialized before their base is migrated, see LiquibaseConfig.
+ */
+class VersionOverlay {
+    private static final String DELTA = "__delta";
+    private static final String DELETED = "__deleted";
+
+    private final SchemaStatements statements;
+    private final String base;
+    private final String schema;
+
+    private record Column(String name, String type, String defaultValue) {}
+
+    private record Table(String name, List<Column> columns, List<String> key) {
+        String columnList(String alias) {
+            return columns.stream().map(column -> alias + quoteIdent(column.name())).collect(Collectors.joining(", "));
+        }
+
+        String keyList(String alias) {
+            return key.stream().map(column -> alias + quoteIdent(column)).collect(Collectors.joining(", "));
+        }
+    }
+
+    VersionOverlay(SchemaStatements statements, String base, String schema) {
+        this.statements = statements;
+        this.base = base;
+        this.schema = schema;
+    }
+
+    void create() throws SQLException {
+        var searchPath = statements.queryString("SELECT current_setting('search_path')");
+        var tables = readTables();
+        var sequences = readSequences();
+
+        statements.execute("CREATE SCHEMA " + quoteIdent(schema));
+        statements.setLocal("search_path", quoteIdent(schema));
+        for (var sequence : sequences) {
+            statements.execute(sequence);
+        }
+        for (var table : tables) {
+            if (table.key().isEmpty()) {
+                statements.execute(String.format(
+                        "CREATE TABLE %s (LIKE %s INCLUDING ALL)",
+                        qualified(schema, table.name()), qualified(base, table.name())));
+                statements.execute(String.format(
+                        "INSERT INTO %s SELECT * FROM %s",
+                        qualified(schema, table.name()), qualified(base, table.name())));
+                continue;
+            }
+            createDeltaTables(table);
+            createView(table);
+        }
+        statements.setLocal("search_path", searchPath);
+    }
+
+    /**
+     * Tables of the base with their columns, key and defaults. Defaults are read with the base on the search path so
+     * that they name the sequences without a schema, which then resolve to the sequences of the delta schema.
+     */
+    private List<Table> readTables() throws SQLException {
+        statements.setLocal("search_path", quoteIdent(base));
+        var columns = new LinkedHashMap<String, List<Column>>();
+        for (var row : statements.query(
+                """
+                SELECT c.relname, a.attname, format_type(a.atttypid, a.atttypmod),
+                       CASE WHEN a.attidentity <> '' THEN format('nextval(%L::regclass)', (
+                                SELECT quote_ident(s.relname)
+                                FROM pg_depend d
+                                JOIN pg_class s ON s.oid = d.objid AND s.relkind = 'S'
+                                WHERE d.refobjid = c.oid AND d.refobjsubid = a.attnum))
+                            ELSE pg_get_expr(ad.adbin, ad.adrelid) END
+                FROM pg_class c
+                JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+                LEFT JOIN pg_attrdef ad ON ad.adrelid = c.oid AND ad.adnum = a.attnum
+                WHERE c.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND c.relkind = 'r'
+                ORDER BY c.relname, a.attnum
+                """,
+                base)) {
+            columns.computeIfAbsent(row.get(0), name -> new ArrayList<>())
+                    .add(new Column(row.get(1), row.get(2), row.get(3)));
+        }
+        var keys = new LinkedHashMap<String, List<String>>();
+        for (var row : statements.query(
+                """
+                SELECT c.relname, a.attname
+                FROM pg_index x
+                JOIN pg_class c ON c.oid = x.indrelid
+                JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY(x.indkey)
+                WHERE c.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND x.indisprimary
+                ORDER BY c.relname, array_position(x.indkey, a.attnum)
+                """,
+                base)) {
+            keys.computeIfAbsent(row.get(0), name -> new ArrayList<>()).add(row.get(1));
+        }
+        var tables = new ArrayList<Table>();
+        for (Map.Entry<String, List<Column>> table : columns.entrySet()) {
+            tables.add(new Table(table.getKey(), table.getValue(), keys.getOrDefault(table.getKey(), List.of())));
+        }
+        return tables;
+    }
+
+    /**
+     * Every sequence of the base, identity sequences included, continuing where the base stopped.
+     */
+    private List<String> readSequences() throws SQLException {
+        var sequences = new ArrayList<String>();
+        for (var row : statements.query(
+                """
+                SELECT c.relname, format_type(s.seqtypid, NULL), s.seqincrement, s.seqmin, s.seqmax, s.seqstart,
+                       s.seqcache, s.seqcycle
+                FROM pg_class c
+                JOIN pg_sequence s ON s.seqrelid = c.oid
+                WHERE c.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND c.relkind = 'S'
+                ORDER BY c.relname
+                """,
+                base)) {
+            sequences.add(String.format(
+                    "CREATE SEQUENCE %s AS %s INCREMENT BY %s MINVALUE %s MAXVALUE %s START WITH %s CACHE %s %s",
+                    qualified(schema, row.get(0)),
+                    row.get(1),
+                    row.get(2),
+                    row.get(3),
+                    row.get(4),
+                    row.get(5),
+                    row.get(6),
+                    "t".equals(row.get(7)) ? "CYCLE" : "NO CYCLE"));
+            sequences.add(String.format(
+                    "SELECT setval(cast(%s as regclass), last_value, is_called) FROM %s",
+                    SchemaStatements.quoteLiteral(qualified(schema, row.get(0))),
+                    qualified(base, row.get(0))));
+        }
+        return sequences;
+    }
+
+    private void createDeltaTables(Table table) throws SQLException {
+        var delta = qualified(schema, table.name() + DELTA);
+        var deleted = qualified(schema, table.name() + DELETED);
+        // Defaults live on the view, the trigger always writes every column
+        statements.execute(String.format(
+                "CREATE TABLE %s (LIKE %s INCLUDING CONSTRAINTS)", delta, qualified(base, table.name())));
+        statements.execute(String.format("ALTER TABLE %s ADD PRIMARY KEY (%s)", delta, table.keyList("")));
+        statements.execute(String.format(
+                "CREATE TABLE %s AS SELECT %s FROM %s WITH NO DATA",
+                deleted, table.keyList(""), qualified(base, table.name())));
+        statements.execute(String.format("ALTER TABLE %s ADD PRIMARY KEY (%s)", deleted, table.keyList("")));
+    }
+
+    private void createView(Table table) throws SQLException {
+        var view = qualified(schema, table.name());
+        var delta = qualified(schema, table.name() + DELTA);
+        var deleted = qualified(schema, table.name() + DELETED);
+        var keyMatches = table.key().stream()
+                .map(column -> "o." + quoteIdent(column) + " = b." + quoteIdent(column))
+                .collect(Collectors.joining(" AND "));
+        statements.execute(String.format(
+                """
+                CREATE VIEW %1$s AS
+                SELECT %2$s FROM %3$s
+                UNION ALL
+                SELECT %4$s FROM %5$s b
+                WHERE NOT EXISTS (SELECT 1 FROM %3$s o WHERE %6$s)
+                  AND NOT EXISTS (SELECT 1 FROM %7$s o WHERE %6$s)
+                """,
+                view,
+                table.columnList(""),
+                delta,
+                table.columnList("b."),
+                qualified(base, table.name()),
+                keyMatches,
+                deleted));
+        for (var column : table.columns()) {
+            if (column.defaultValue() != null) {
+                statements.execute(String.format(
+                        "ALTER VIEW %s ALTER COLUMN %s SET DEFAULT %s",
+                        view, quoteIdent(column.name()), column.defaultValue()));
+            }
+        }
+
+        var oldKey = table.keyList("OLD.");
+        var newKey = table.keyList("NEW.");
+        var writer = qualified(schema, table.name() + "__write");
+        statements.execute(String.format(
+                """
+                CREATE OR REPLACE FUNCTION %1$s() RETURNS trigger LANGUAGE plpgsql AS $overlay$
+                BEGIN
+                    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+                        DELETE FROM %2$s WHERE (%4$s) = (%5$s);
+                        INSERT INTO %3$s (%4$s) VALUES (%5$s) ON CONFLICT DO NOTHING;
+                    END IF;
+                    IF TG_OP = 'DELETE' THEN
+                        RETURN OLD;
+                    END IF;
+                    DELETE FROM %3$s WHERE (%4$s) = (%6$s);
+                    INSERT INTO %2$s (%7$s) VALUES (%8$s);
+                    RETURN NEW;
+                END
+                $overlay$
+                """,
+                writer,
+                delta,
+                deleted,
+                table.keyList(""),
+                oldKey,
+                newKey,
+                table.columnList(""),
+                table.columnList("NEW.")));
+        statements.execute(String.format(
+                "CREATE TRIGGER %s INSTEAD OF INSERT OR UPDATE OR DELETE ON %s FOR EACH ROW EXECUTE FUNCTION %s()",
+                quoteIdent(table.name() + "__write"), view, writer));
+    }
+}
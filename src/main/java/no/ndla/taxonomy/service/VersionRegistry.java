@@ -0,0 +1,96 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionType;
+import no.ndla.taxonomy.repositories.VersionRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The versions in the database, held in memory so that finding the schema of a request costs no queries. Loaded at
+ * startup and reloaded when a transaction that changed versions commits. Other instances hear about the change through
+ * a notification on {@link #CHANNEL}, see {@link DatabaseNotifications}.
+ */
+@Component
+public class VersionRegistry {
+    static final String CHANNEL = "taxonomy_versions";
+
+    private record Versions(Set<String> hashes, Optional<String> publishedHash) {}
+
+    private final VersionRepository versionRepository;
+    private final AtomicReference<Versions> versions = new AtomicReference<>();
+    private final List<Consumer<List<Version>>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    public VersionRegistry(VersionRepository versionRepository, DatabaseNotifications databaseNotifications) {
+        this.versionRepository = versionRepository;
+        databaseNotifications.subscribe(CHANNEL, payload -> reload(), this::reload);
+    }
+
+    public boolean hasVersion(String hash) {
+        return versions().hashes().contains(hash);
+    }
+
+    public Optional<String> getPublishedHash() {
+        return versions().publishedHash();
+    }
+
+    private Versions versions() {
+        var current = versions.get();
+        if (current == null) {
+            reload();
+            current = versions.get();
+        }
+        return current;
+    }
+
+    public void reload() {
+        var all = versionRepository.findAll();
+        versions.set(new Versions(
+                all.stream().map(Version::getHash).collect(Collectors.toUnmodifiableSet()),
+                all.stream()
+                        .filter(version -> version.getVersionType() == VersionType.PUBLISHED)
+                        .map(Version::getHash)
+                        .findFirst()));
+        reloadListeners.forEach(listener -> listener.accept(all));
+    }
+
+    /**
+     * Hands the listener every version each time they are reloaded, whichever instance changed them.
+     */
+    public void onReload(Consumer<List<Version>> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /**
+     * To be called by transactions that create, publish or delete versions. This and every other instance reload once
+     * the transaction has committed.
+     */
+    public void versionsChanged() {
+        versionRepository.notifyVersionsChanged();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+}
@@ -16,11 +16,18 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import no.ndla.taxonomy.config.LiquibaseConfig;
+import no.ndla.taxonomy.config.cache.TenantCacheRegionFactory;
+import no.ndla.taxonomy.domain.exceptions.DuplicateIdException;
 import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionStorage;
 import no.ndla.taxonomy.domain.VersionType;
 import no.ndla.taxonomy.repositories.VersionRepository;
 import no.ndla.taxonomy.rest.v1.commands.VersionPostPut;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import no.ndla.taxonomy.service.dtos.SnapshotJobDTO;
 import no.ndla.taxonomy.service.dtos.VersionDTO;
+import no.ndla.taxonomy.service.exceptions.InvalidArgumentServiceException;
 import no.ndla.taxonomy.service.exceptions.NotFoundServiceException;
 import no.ndla.taxonomy.service.task.Deleter;
 import org.slf4j.Logger;
@@ -33,10 +40,17 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 @Service
 public class VersionService {
+    private static final int KEPT_JOBS = 20;
     final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final EntityManager entityManager;
     private final VersionRepository versionRepository;
-    private final NodeConnectionService nodeConnectionService;
+    private final TenantCacheRegionFactory cacheRegionFactory;
+    private final InvisibleNodePruner invisibleNodePruner;
+    private final VersionRegistry versionRegistry;
+    private final VersionSnapshotter versionSnapshotter;
+    private final LiquibaseConfig liquibaseConfig;
+    private final JobRegistry<URI, PruneJobDTO> pruneJobs = new JobRegistry<>(KEPT_JOBS);
+    private final JobRegistry<URI, SnapshotJobDTO> snapshotJobs = new JobRegistry<>(KEPT_JOBS);
     private final URNValidator validator = new URNValidator();
     private final ExecutorService executor = Executors.newSingleThreadExecutor();
 
@@ -46,10 +60,37 @@ public class VersionService {
     public VersionService(
             EntityManager entityManager,
             VersionRepository versionRepository,
-            NodeConnectionService nodeConnectionService) {
+            TenantCacheRegionFactory cacheRegionFactory,
+            InvisibleNodePruner invisibleNodePruner,
+            VersionRegistry versionRegistry,
+            VersionSnapshotter versionSnapshotter,
+            LiquibaseConfig liquibaseConfig) {
         this.entityManager = entityManager;
         this.versionRepository = versionRepository;
-        this.nodeConnectionService = nodeConnectionService;
+        this.cacheRegionFactory = cacheRegionFactory;
+        this.invisibleNodePruner = invisibleNodePruner;
+        this.versionRegistry = versionRegistry;
+        this.versionSnapshotter = versionSnapshotter;
+        this.liquibaseConfig = liquibaseConfig;
+        versionRegistry.onReload(this::updateCachePolicy);
+    }
+
+    /**
+     * Only locked versions are cached. Every instance reloads the versions when they change, and updates which are
+     * cached from them, so a version locked or unlocked through one instance is picked up by all.
+     */
+    private void updateCachePolicy(List<Version> versions) {
+        cacheRegionFactory.setLockedTenants(versions.stream()
+                .filter(Version::isLocked)
+                .map(version -> schemaFromHash(version.getHash()))
+                .collect(Collectors.toSet()));
+    }
+
+    /**
+     * To be called by transactions that update a version, so that a changed locked flag reaches every instance.
+     */
+    public void versionUpdated() {
+        versionRegistry.versionsChanged();
     }
 
     @Transactional
@@ -57,6 +98,7 @@ public class VersionService {
         final var versionToDelete = versionRepository
                 .findFirstByPublicId(publicId)
                 .orElseThrow(() -> new NotFoundServiceException("Version was not found"));
+        checkNotBaseOfDeltaVersions(versionToDelete);
 
         String schema = schemaFromHash(versionToDelete.getHash());
         try {
@@ -67,6 +109,16 @@ public class VersionService {
             logger.warn("Failed to drop schema. Possible manual cleanup required");
         }
         versionRepository.delete(versionToDelete);
+        versionRegistry.versionsChanged();
+    }
+
+    /**
+     * Delta versions read the rows of their base, which must stay as it is until they are published.
+     */
+    public void checkNotBaseOfDeltaVersions(Version version) {
+        if (versionRepository.isBaseOfDeltaVersions(version.getHash())) {
+            throw new InvalidArgumentServiceException("Version is the base of delta versions");
+        }
     }
 
     public List<VersionDTO> getVersions() {
@@ -90,20 +142,30 @@ public class VersionService {
             versionRepository.saveAndFlush(version);
         }
         Version beta = versionRepository.getByPublicId(id);
+        if (beta.getStorage() == VersionStorage.DELTA) {
+            versionSnapshotter.materialize(beta, schemaFromHash(beta.getBaseHash()), schemaFromHash(beta.getHash()));
+        }
         beta.setVersionType(VersionType.PUBLISHED);
         beta.setLocked(true);
         beta.setPublished(Instant.now());
         versionRepository.saveAndFlush(beta);
+        versionRegistry.versionsChanged();
 
-        disconnectAllInvisibleNodes(beta.getHash());
+        disconnectAllInvisibleNodes(id, beta.getHash());
     }
 
-    private void disconnectAllInvisibleNodes(String hash) {
+    private void disconnectAllInvisibleNodes(URI id, String hash) {
         // Use a task to run in a separate thread against a specified schema
-        // Do not care about the result so no need to wait for it
+        // Progress is tracked on the job, so no need to look at the result
+        var job = new PruneJobDTO();
+        if (pruneJobs.start(id, job) != job) {
+            logger.info("Invisible nodes of version {} are already being disconnected", id);
+            return;
+        }
         try {
             Deleter deleter = new Deleter();
-            deleter.setNodeConnectionService(nodeConnectionService);
+            deleter.setPruner(invisibleNodePruner);
+            deleter.setJob(job);
             deleter.setVersion(schemaFromHash(hash));
             executor.submit(deleter).get();
         } catch (Exception e) {
@@ -111,6 +173,19 @@ public class VersionService {
         }
     }
 
+    /**
+     * Progress of disconnecting invisible nodes after the version was published, if it has been published since the
+     * application started.
+     */
+    public Optional<PruneJobDTO> getPruneJob(URI id) {
+        return pruneJobs.get(id);
+    }
+
+    /**
+     * Starts copying the source version, or the default schema, into a new version. The version is saved once the copy
+     * is done, follow the progress with {@link #getSnapshotJob(URI)}. Delta versions are laid out on top of the source
+     * version instead, which must be locked and stored in full.
+     */
     @Transactional
     public Version createNewVersion(Optional<URI> sourceId, VersionPostPut command) {
         Version entity = new Version();
@@ -119,23 +194,46 @@ public class VersionService {
             entity.setPublicId(id);
         });
         command.apply(entity);
-        Version version = versionRepository.save(entity);
+        if (versionRepository.findFirstByPublicId(entity.getPublicId()).isPresent()) {
+            throw new DuplicateIdException(entity.getPublicId().toString());
+        }
 
         String sourceSchema = defaultSchema;
-        if (sourceId.isPresent()) {
-            Version source = versionRepository.getByPublicId(sourceId.get());
-            if (source != null) {
-                sourceSchema = schemaFromHash(source.getHash());
+        Version source = sourceId.map(versionRepository::getByPublicId).orElse(null);
+        if (source != null) {
+            sourceSchema = schemaFromHash(source.getHash());
+            liquibaseConfig.awaitMigration(sourceSchema);
+        }
+        if (command.getStorage().orElse(VersionStorage.FULL) == VersionStorage.DELTA) {
+            if (source == null || !source.isLocked() || source.getStorage() != VersionStorage.FULL) {
+                throw new InvalidArgumentServiceException(
+                        "Delta versions must be based on a locked version stored in full");
             }
+            entity.setStorage(VersionStorage.DELTA);
+            entity.setBaseHash(source.getHash());
         }
 
-        String schema = schemaFromHash(version.getHash());
-        // JPA does not like functions returning void so adds a count(*) to sql.
-        entityManager
-                .createNativeQuery(String.format(
-                        "SELECT count(*) from clone_schema('%s', '%s', true, false)", sourceSchema, schema))
-                .getSingleResult();
-        return version;
+        var job = new SnapshotJobDTO();
+        if (snapshotJobs.start(entity.getPublicId(), job) != job) {
+            throw new DuplicateIdException(entity.getPublicId().toString());
+        }
+        versionSnapshotter.snapshot(job, entity, sourceSchema, schemaFromHash(entity.getHash()));
+        return entity;
+    }
+
+    /**
+     * Progress of copying the schema of the version, if it has been created since the application started.
+     */
+    public Optional<SnapshotJobDTO> getSnapshotJob(URI id) {
+        return snapshotJobs.get(id);
+    }
+
+    public void cancelSnapshot(URI id) {
+        var job = getSnapshotJob(id).orElseThrow(() -> new NotFoundServiceException("Version is not being created"));
+        if (!job.isRunning()) {
+            throw new InvalidArgumentServiceException("Version is already created");
+        }
+        job.cancel();
     }
 
     public String schemaFromHash(String hash) {
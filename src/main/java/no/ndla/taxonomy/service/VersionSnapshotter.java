@@ -0,0 +1,350 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static no.ndla.taxonomy.service.SchemaStatements.qualified;
+import static no.ndla.taxonomy.service.SchemaStatements.quoteIdent;
+import static no.ndla.taxonomy.service.SchemaStatements.quoteLiteral;
+
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionStorage;
+import no.ndla.taxonomy.repositories.VersionRepository;
+import no.ndla.taxonomy.service.dtos.SnapshotJobDTO;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Copies the schema of one version into the schema of a new one. Tables are created bare, rows copied with one
+ * INSERT ... SELECT per table, and indexes and constraints built once the rows are in, before the tables are analyzed.
+ * Everything happens in one transaction together with saving the version, so other requests see either all of the new
+ * version or none of it, and a failed or cancelled copy leaves nothing behind.
+ *
+ * <p>Only tables, sequences, indexes and constraints are copied. Versions have no views or triggers, and the functions
+ * they use live in the default schema.
+ *
+ * <p>Versions stored as {@link VersionStorage#DELTA} are laid out by {@link VersionOverlay} instead, and copied in full
+ * with {@link #materialize} when they are published.
+ */
+@Component
+public class VersionSnapshotter {
+    private static final Logger logger = LoggerFactory.getLogger(VersionSnapshotter.class);
+
+    private final VersionRepository versionRepository;
+    private final VersionRegistry versionRegistry;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final String maintenanceWorkMem;
+
+    public VersionSnapshotter(
+            VersionRepository versionRepository,
+            VersionRegistry versionRegistry,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${taxonomy.versions.snapshot.maintenance-work-mem:256MB}") String maintenanceWorkMem) {
+        this.versionRepository = versionRepository;
+        this.versionRegistry = versionRegistry;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maintenanceWorkMem = maintenanceWorkMem;
+    }
+
+    /**
+     * Saves the version and copies the source schema into the schema of the version, or lays out an overlay on top of
+     * the source schema for delta versions. Failures are recorded on the job.
+     */
+    @Async
+    public void snapshot(SnapshotJobDTO job, Version version, String sourceSchema, String schema) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // The copy is made with plain SQL, so everything must be written before it starts
+                versionRepository.saveAndFlush(version);
+                entityManager.unwrap(Session.class).doWork(connection -> {
+                    if (version.getStorage() == VersionStorage.DELTA) {
+                        new VersionOverlay(new SchemaStatements(connection, job), sourceSchema, schema).create();
+                    } else {
+                        new Snapshot(connection, job, sourceSchema, sourceSchema, schema).run();
+                    }
+                });
+                versionRegistry.versionsChanged();
+            });
+            job.done();
+            logger.info(
+                    "Copied {} tables with {} rows from {} to {}. Took {} ms",
+                    job.getTables(),
+                    job.getRows(),
+                    sourceSchema,
+                    schema,
+                    job.getDurationMs());
+        } catch (RuntimeException e) {
+            if (job.isCancelRequested()) {
+                logger.info("Copying {} to {} was cancelled", sourceSchema, schema);
+                job.cancelled();
+            } else {
+                logger.error("Copying {} to {} failed", sourceSchema, schema, e);
+                job.failed(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the overlay of a delta version with a full copy of what it shows, in the current transaction. The
+     * version is stored in full afterwards.
+     */
+    public void materialize(Version version, String baseSchema, String schema) {
+        entityManager.unwrap(Session.class).doWork(connection -> materialize(connection, baseSchema, schema));
+        version.setStorage(VersionStorage.FULL);
+        version.setBaseHash(null);
+    }
+
+    /**
+     * Replaces the overlay of a delta version with a full copy of what it shows, in the transaction of the connection.
+     * The version itself is left for the caller to update.
+     */
+    public void materialize(Connection connection, String baseSchema, String schema) throws SQLException {
+        var copy = schema + "_full";
+        new Snapshot(connection, new SnapshotJobDTO(), baseSchema, schema, copy).run();
+        var statements = new SchemaStatements(connection, new SnapshotJobDTO());
+        statements.execute("DROP SCHEMA " + quoteIdent(schema) + " CASCADE");
+        statements.execute("ALTER SCHEMA " + quoteIdent(copy) + " RENAME TO " + quoteIdent(schema));
+        logger.info("Materialized delta version {} on top of {}", schema, baseSchema);
+    }
+
+    /**
+     * Copies the tables as defined in one schema with the rows of another. The two are the same unless a delta version
+     * is materialized, where the rows are read through its overlay.
+     */
+    private class Snapshot {
+        private final SchemaStatements statements;
+        private final SnapshotJobDTO job;
+        private final String definitions;
+        private final String rows;
+        private final String target;
+        private final List<Table> tables = new ArrayList<>();
+        private final List<String> sequences = new ArrayList<>();
+        private final List<String> sequenceDefaults = new ArrayList<>();
+        private final List<String> indexes = new ArrayList<>();
+
+        private record Table(String name, String columns) {}
+
+        Snapshot(Connection connection, SnapshotJobDTO job, String definitions, String rows, String target) {
+            this.statements = new SchemaStatements(connection, job);
+            this.job = job;
+            this.definitions = definitions;
+            this.rows = rows;
+            this.target = target;
+        }
+
+        void run() throws SQLException {
+            var searchPath = statements.queryString("SELECT current_setting('search_path')");
+
+            // Definitions name the objects of their schema without it, so they are read with that schema on the search
+            // path and created with the target schema on it
+            job.planning();
+            statements.setLocal("search_path", quoteIdent(definitions));
+            plan();
+
+            job.creatingTables(tables.size(), indexes.size());
+            statements.setLocal("search_path", quoteIdent(target));
+            statements.setLocal("maintenance_work_mem", maintenanceWorkMem);
+            statements.execute("CREATE SCHEMA " + quoteIdent(target));
+            for (var sequence : sequences) {
+                statements.execute(sequence);
+            }
+            for (var table : tables) {
+                statements.execute(String.format(
+                        "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED"
+                                + " INCLUDING IDENTITY INCLUDING STORAGE INCLUDING COMMENTS)",
+                        qualified(target, table.name()), qualified(definitions, table.name())));
+            }
+            for (var sequenceDefault : sequenceDefaults) {
+                statements.execute(sequenceDefault);
+            }
+
+            job.copying();
+            for (var table : tables) {
+                job.tableCopied(statements.execute(String.format(
+                        "INSERT INTO %s (%s) OVERRIDING SYSTEM VALUE SELECT %s FROM %s",
+                        qualified(target, table.name()),
+                        table.columns(),
+                        table.columns(),
+                        qualified(rows, table.name()))));
+            }
+
+            job.indexing();
+            for (var index : indexes) {
+                statements.execute(index);
+                job.indexBuilt();
+            }
+
+            job.analyzing();
+            for (var table : tables) {
+                statements.execute("ANALYZE " + qualified(target, table.name()));
+                job.tableAnalyzed();
+            }
+
+            statements.setLocal("search_path", searchPath);
+        }
+
+        private void plan() throws SQLException {
+            for (var row : statements.query(
+                    """
+                    SELECT c.relname,
+                           string_agg(quote_ident(a.attname), ', ' ORDER BY a.attnum)
+                    FROM pg_class c
+                    JOIN pg_attribute a ON a.attrelid = c.oid AND a.attnum > 0 AND NOT a.attisdropped
+                                           AND a.attgenerated = ''
+                    WHERE c.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND c.relkind = 'r'
+                    GROUP BY c.relname
+                    ORDER BY c.relname
+                    """,
+                    definitions)) {
+                tables.add(new Table(row.get(0), row.get(1)));
+            }
+
+            // Identity sequences are created with their tables, the rest here
+            for (var row : statements.query(
+                    """
+                    SELECT c.relname, format_type(s.seqtypid, NULL), s.seqincrement, s.seqmin, s.seqmax, s.seqstart,
+                           s.seqcache, s.seqcycle
+                    FROM pg_class c
+                    JOIN pg_sequence s ON s.seqrelid = c.oid
+                    WHERE c.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND c.relkind = 'S'
+                      AND NOT EXISTS (SELECT 1 FROM pg_depend d
+                                      WHERE d.classid = 'pg_class'::regclass AND d.objid = c.oid AND d.deptype = 'i')
+                    ORDER BY c.relname
+                    """,
+                    definitions)) {
+                sequences.add(String.format(
+                        "CREATE SEQUENCE %s AS %s INCREMENT BY %s MINVALUE %s MAXVALUE %s START WITH %s CACHE %s %s",
+                        qualified(target, row.get(0)),
+                        row.get(1),
+                        row.get(2),
+                        row.get(3),
+                        row.get(4),
+                        row.get(5),
+                        row.get(6),
+                        "t".equals(row.get(7)) ? "CYCLE" : "NO CYCLE"));
+                sequences.add(String.format(
+                        "SELECT setval(%s::regclass, last_value, is_called) FROM %s",
+                        quoteLiteral(qualified(target, row.get(0))),
+                        qualified(rows, row.get(0))));
+            }
+
+            // LIKE copies defaults as they are, so serial columns would still draw from the source sequences
+            for (var row : statements.query(
+                    """
+                    SELECT t.relname, a.attname, s.relname,
+                           EXISTS (SELECT 1 FROM pg_depend o
+                                   WHERE o.classid = 'pg_class'::regclass AND o.objid = s.oid AND o.refobjid = t.oid
+                                     AND o.refobjsubid = a.attnum AND o.deptype = 'a')
+                    FROM pg_attrdef ad
+                    JOIN pg_class t ON t.oid = ad.adrelid
+                    JOIN pg_attribute a ON a.attrelid = ad.adrelid AND a.attnum = ad.adnum
+                    JOIN pg_depend d ON d.classid = 'pg_attrdef'::regclass AND d.objid = ad.oid
+                                        AND d.refclassid = 'pg_class'::regclass
+                    JOIN pg_class s ON s.oid = d.refobjid AND s.relkind = 'S' AND s.relnamespace = t.relnamespace
+                    WHERE t.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND t.relkind = 'r'
+                    """,
+                    definitions)) {
+                var table = qualified(target, row.get(0));
+                var column = quoteIdent(row.get(1));
+                var sequence = qualified(target, row.get(2));
+                sequenceDefaults.add(String.format(
+                        "ALTER TABLE %s ALTER COLUMN %s SET DEFAULT nextval(%s::regclass)",
+                        table, column, quoteLiteral(sequence)));
+                if ("t".equals(row.get(3))) {
+                    sequenceDefaults.add(String.format("ALTER SEQUENCE %s OWNED BY %s.%s", sequence, table, column));
+                }
+            }
+
+            // Identity columns get sequences of their own, which must continue where the source ones are
+            for (var row : statements.query(
+                    """
+                    SELECT t.relname, a.attname, s.relname
+                    FROM pg_class t
+                    JOIN pg_attribute a ON a.attrelid = t.oid AND a.attidentity <> ''
+                    JOIN pg_depend d ON d.classid = 'pg_class'::regclass AND d.refobjid = t.oid
+                                        AND d.refobjsubid = a.attnum AND d.deptype = 'i'
+                    JOIN pg_class s ON s.oid = d.objid AND s.relkind = 'S'
+                    WHERE t.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND t.relkind = 'r'
+                    """,
+                    definitions)) {
+                sequenceDefaults.add(String.format(
+                        "SELECT setval(pg_get_serial_sequence(%s, %s), last_value, is_called) FROM %s",
+                        quoteLiteral(qualified(target, row.get(0))),
+                        quoteLiteral(row.get(1)),
+                        qualified(rows, row.get(2))));
+            }
+
+            // Keys and exclusion constraints first, then the other indexes, then foreign keys that need the keys
+            for (var row : statements.query(
+                    """
+                    SELECT t.relname, c.conname, pg_get_constraintdef(c.oid)
+                    FROM pg_constraint c
+                    JOIN pg_class t ON t.oid = c.conrelid
+                    WHERE t.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND t.relkind = 'r'
+                      AND c.contype IN ('p', 'u', 'x')
+                    ORDER BY t.relname, c.conname
+                    """,
+                    definitions)) {
+                indexes.add(addConstraint(row));
+            }
+            for (var row : statements.query(
+                    """
+                    SELECT t.relname, i.relname, x.indisunique, pg_get_indexdef(x.indexrelid)
+                    FROM pg_index x
+                    JOIN pg_class i ON i.oid = x.indexrelid
+                    JOIN pg_class t ON t.oid = x.indrelid
+                    WHERE t.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND t.relkind = 'r'
+                      AND NOT EXISTS (SELECT 1 FROM pg_constraint c
+                                      WHERE c.conindid = x.indexrelid AND c.conrelid = x.indrelid
+                                        AND c.contype IN ('p', 'u', 'x'))
+                    ORDER BY t.relname, i.relname
+                    """,
+                    definitions)) {
+                // The definition names the table with its schema, so only what follows USING is kept
+                var definition = row.get(3);
+                indexes.add(String.format(
+                        "CREATE %sINDEX %s ON %s%s",
+                        "t".equals(row.get(2)) ? "UNIQUE " : "",
+                        quoteIdent(row.get(1)),
+                        qualified(target, row.get(0)),
+                        definition.substring(definition.indexOf(" USING "))));
+            }
+            for (var row : statements.query(
+                    """
+                    SELECT t.relname, c.conname, pg_get_constraintdef(c.oid)
+                    FROM pg_constraint c
+                    JOIN pg_class t ON t.oid = c.conrelid
+                    WHERE t.relnamespace = (SELECT oid FROM pg_namespace WHERE nspname = ?) AND t.relkind = 'r'
+                      AND c.contype = 'f'
+                    ORDER BY t.relname, c.conname
+                    """,
+                    definitions)) {
+                indexes.add(addConstraint(row));
+            }
+        }
+
+        private String addConstraint(List<String> row) {
+            return String.format(
+                    "ALTER TABLE %s ADD CONSTRAINT %s %s",
+                    qualified(target, row.get(0)), quoteIdent(row.get(1)), row.get(2));
+        }
+    }
+}
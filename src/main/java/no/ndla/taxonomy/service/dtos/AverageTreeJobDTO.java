@@ -0,0 +1,103 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a rebuild of all quality evaluation averages.
+ */
+@Schema(
+        name = "AverageTreeJob",
+        requiredProperties = {
+            "id",
+            "phase",
+            "started",
+            "durationMs",
+            "phaseDurationsMs",
+            "nodes",
+            "connections",
+            "written",
+            "changed"
+        })
+public class AverageTreeJobDTO extends JobDTO<AverageTreeJobDTO.Phase> {
+    public enum Phase {
+        QUEUED,
+        LOADING,
+        CALCULATING,
+        WRITING,
+        DONE,
+        FAILED
+    }
+
+    @JsonProperty
+    @Schema(description = "Id of the job")
+    private final String id = UUID.randomUUID().toString();
+
+    @JsonProperty
+    @Schema(description = "Nodes loaded")
+    private final AtomicInteger nodes = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Connections loaded")
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Nodes whose averages have been written so far")
+    private final AtomicInteger written = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Nodes whose averages were wrong and have been corrected so far")
+    private final AtomicInteger changed = new AtomicInteger();
+
+    public AverageTreeJobDTO() {
+        super(Phase.QUEUED, Phase.DONE, Phase.FAILED);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getNodes() {
+        return nodes.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getWritten() {
+        return written.get();
+    }
+
+    public int getChanged() {
+        return changed.get();
+    }
+
+    public void loading() {
+        enter(Phase.LOADING);
+    }
+
+    public void calculating(int nodes, int connections) {
+        this.nodes.set(nodes);
+        this.connections.set(connections);
+        enter(Phase.CALCULATING);
+    }
+
+    public void writing() {
+        enter(Phase.WRITING);
+    }
+
+    public void addWritten(int written, int changed) {
+        this.written.addAndGet(written);
+        this.changed.addAndGet(changed);
+    }
+}
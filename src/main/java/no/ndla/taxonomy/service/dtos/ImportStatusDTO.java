@@ -0,0 +1,102 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of an import. Nothing from a failed import is kept.
+ */
+@Schema(
+        name = "ImportStatus",
+        requiredProperties = {
+            "id",
+            "phase",
+            "started",
+            "durationMs",
+            "phaseDurationsMs",
+            "nodes",
+            "connections",
+            "resourceTypes",
+            "contexts"
+        })
+public class ImportStatusDTO extends JobDTO<ImportStatusDTO.Phase> {
+    public enum Phase {
+        IMPORTING,
+        BUILDING_CONTEXTS,
+        DONE,
+        FAILED
+    }
+
+    @JsonProperty
+    @Schema(description = "Id of the import", example = "subject-import-1")
+    private final String id;
+
+    @JsonProperty
+    @Schema(description = "Nodes inserted so far")
+    private final AtomicInteger nodes = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Connections inserted so far")
+    private final AtomicInteger connections = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Resource types added to nodes so far")
+    private final AtomicInteger resourceTypes = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Nodes whose contexts, and those of everything below them, have been built")
+    private final AtomicInteger contexts = new AtomicInteger();
+
+    public ImportStatusDTO(String id) {
+        super(Phase.IMPORTING, Phase.DONE, Phase.FAILED);
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getNodes() {
+        return nodes.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getResourceTypes() {
+        return resourceTypes.get();
+    }
+
+    public int getContexts() {
+        return contexts.get();
+    }
+
+    public void addNodes(int count) {
+        nodes.addAndGet(count);
+    }
+
+    public void addConnections(int count) {
+        connections.addAndGet(count);
+    }
+
+    public void addResourceTypes(int count) {
+        resourceTypes.addAndGet(count);
+    }
+
+    public void addContexts(int count) {
+        contexts.addAndGet(count);
+    }
+
+    public void buildingContexts() {
+        enter(Phase.BUILDING_CONTEXTS);
+    }
+}
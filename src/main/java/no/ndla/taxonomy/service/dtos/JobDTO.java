@@ -0,0 +1,107 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Progress of a job running in the background, updated by the job while it runs so that it can be polled from other
+ * requests. Subclasses add the phases of the job and its counters.
+ */
+public abstract class JobDTO<P extends Enum<P>> {
+    @JsonProperty
+    @Schema(description = "What the job is doing now")
+    private volatile P phase;
+
+    @JsonProperty
+    @Schema(description = "When the job was started")
+    private final Instant started = Instant.now();
+
+    @JsonProperty
+    @Schema(description = "When the job finished, failed or was cancelled")
+    private volatile Instant finished;
+
+    private volatile Instant phaseStarted = started;
+
+    @JsonProperty
+    @Schema(description = "How long each phase the job has been through took, in milliseconds")
+    private final Map<P, Long> phaseDurationsMs = new ConcurrentSkipListMap<>();
+
+    @JsonProperty
+    @Schema(description = "Why the job failed")
+    private volatile String error;
+
+    private final P donePhase;
+    private final P failedPhase;
+
+    protected JobDTO(P initialPhase, P donePhase, P failedPhase) {
+        this.phase = initialPhase;
+        this.donePhase = donePhase;
+        this.failedPhase = failedPhase;
+    }
+
+    public P getPhase() {
+        return phase;
+    }
+
+    public boolean isRunning() {
+        return finished == null;
+    }
+
+    public Instant getStarted() {
+        return started;
+    }
+
+    public Optional<Instant> getFinished() {
+        return Optional.ofNullable(finished);
+    }
+
+    @JsonProperty
+    @Schema(description = "How long the job has been running, or ran, in milliseconds")
+    public long getDurationMs() {
+        return Duration.between(started, getFinished().orElseGet(Instant::now)).toMillis();
+    }
+
+    public Map<P, Long> getPhaseDurationsMs() {
+        return phaseDurationsMs;
+    }
+
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    protected void enter(P next) {
+        var now = Instant.now();
+        phaseDurationsMs.put(phase, Duration.between(phaseStarted, now).toMillis());
+        phaseStarted = now;
+        phase = next;
+    }
+
+    /**
+     * Enters the last phase of the job. The job is no longer running after this.
+     */
+    protected void finish(P last) {
+        enter(last);
+        finished = Instant.now();
+    }
+
+    public void done() {
+        finish(donePhase);
+    }
+
+    public void failed(String error) {
+        this.error = error;
+        finish(failedPhase);
+    }
+}
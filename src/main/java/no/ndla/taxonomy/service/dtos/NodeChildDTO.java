@@ -16,6 +16,7 @@ import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnection;
 import no.ndla.taxonomy.domain.Relevance;
 import no.ndla.taxonomy.domain.exceptions.NotFoundException;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 import no.ndla.taxonomy.service.TreeSorter;
 
 /**
@@ -67,7 +68,8 @@ public class NodeChildDTO extends NodeDTO implements TreeSorter.Sortable {
             String language,
             boolean includeContexts,
             boolean filterProgrammes,
-            boolean isVisible) {
+            boolean isVisible,
+            ResourceTypeTree resourceTypes) {
         super(
                 root,
                 nodeConnection.getParent(),
@@ -78,7 +80,8 @@ public class NodeChildDTO extends NodeDTO implements TreeSorter.Sortable {
                 includeContexts,
                 filterProgrammes,
                 isVisible,
-                false);
+                false,
+                resourceTypes);
 
         // This must be enabled when ed is updated to update metadata for connections.
         // this.metadata = new MetadataDto(nodeConnection.getMetadata());
@@ -97,7 +100,8 @@ public class NodeChildDTO extends NodeDTO implements TreeSorter.Sortable {
     /*
      * Special constructor used to get parents for resource/full
      */
-    public NodeChildDTO(Node parent, NodeConnection nodeConnection, String language) {
+    public NodeChildDTO(
+            Node parent, NodeConnection nodeConnection, String language, ResourceTypeTree resourceTypes) {
         super(
                 Optional.empty(),
                 nodeConnection.getParent(),
@@ -108,7 +112,8 @@ public class NodeChildDTO extends NodeDTO implements TreeSorter.Sortable {
                 false,
                 false,
                 true,
-                false);
+                false,
+                resourceTypes);
 
         this.rank = nodeConnection.getRank();
         this.connectionId = nodeConnection.getPublicId();
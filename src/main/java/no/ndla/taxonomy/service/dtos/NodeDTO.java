@@ -19,6 +19,7 @@ import no.ndla.taxonomy.rest.v1.dtos.searchapi.LanguageFieldDTO;
 import no.ndla.taxonomy.rest.v1.dtos.searchapi.SearchableTaxonomyResourceType;
 import no.ndla.taxonomy.rest.v1.dtos.searchapi.TaxonomyContextDTO;
 import no.ndla.taxonomy.rest.v1.dtos.searchapi.TaxonomyCrumbDTO;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 import no.ndla.taxonomy.util.PrettyUrlUtil;
 
 @Schema(
@@ -142,7 +143,8 @@ public class NodeDTO {
             boolean includeContexts,
             boolean filterProgrammes,
             boolean isVisible,
-            boolean includeParents) {
+            boolean includeParents,
+            ResourceTypeTree resourceTypes) {
 
         var contexts = entity.getContexts();
         var visibleContexts =
@@ -181,17 +183,18 @@ public class NodeDTO {
         this.metadata = new MetadataDTO(entity.getMetadata());
 
         this.resourceTypes = entity.getResourceResourceTypes().stream()
-                .map(resourceType -> new ResourceTypeWithConnectionDTO(resourceType, this.language))
+                .map(resourceType -> new ResourceTypeWithConnectionDTO(resourceType, resourceTypes, this.language))
                 .collect(Collectors.toCollection(TreeSet::new));
 
         this.nodeType = entity.getNodeType();
         this.contextids = entity.getContextIds();
 
         Set<TaxonomyContext> parentContexts = includeParents ? entity.getAllParentContexts() : Set.of();
+        var searchableResourceTypes = getSearchableResourceTypes(entity, resourceTypes);
         Optional<TaxonomyContext> selected =
                 entity.pickContext(contextId, parent, root, connectionType, filteredContexts);
         selected.ifPresent(ctx -> {
-            var contextDto = getTaxonomyContextDTO(entity, ctx, parentContexts);
+            var contextDto = getTaxonomyContextDTO(entity, ctx, parentContexts, searchableResourceTypes);
 
             // TODO: this changes the content in context breadcrumbs
             LanguageField<List<String>> breadcrumbList =
@@ -210,13 +213,26 @@ public class NodeDTO {
 
         if (includeContexts) {
             this.contexts = filteredContexts.stream()
-                    .map(ctx -> getTaxonomyContextDTO(entity, ctx, parentContexts))
+                    .map(ctx -> getTaxonomyContextDTO(entity, ctx, parentContexts, searchableResourceTypes))
                     .toList();
         }
     }
 
+    /**
+     * The resource types of the node with the root types first.
+     */
+    private static List<SearchableTaxonomyResourceType> getSearchableResourceTypes(
+            Node entity, ResourceTypeTree resourceTypes) {
+        return SearchableTaxonomyResourceType.of(entity, resourceTypes).stream()
+                .sorted(Comparator.comparing(resourceType -> resourceType.getParentId().isPresent()))
+                .toList();
+    }
+
     private TaxonomyContextDTO getTaxonomyContextDTO(
-            Node entity, TaxonomyContext ctx, Collection<TaxonomyContext> parentContexts) {
+            Node entity,
+            TaxonomyContext ctx,
+            Collection<TaxonomyContext> parentContexts,
+            List<SearchableTaxonomyResourceType> searchableResourceTypes) {
         var parents = ctx.parentContextIds().stream()
                 .map(parentCtxId -> {
                     var parent = parentContexts.stream()
@@ -269,14 +285,7 @@ public class NodeDTO {
                 entity.getContextType(),
                 URI.create(ctx.relevanceId()),
                 LanguageFieldDTO.fromLanguageField(LanguageField.fromRelevance(relevance)),
-                entity.getResourceTypes().stream()
-                        .sorted((o1, o2) -> {
-                            if (o1.getParent().isEmpty()) return -1;
-                            if (o2.getParent().isEmpty()) return 1;
-                            return 0;
-                        })
-                        .map(SearchableTaxonomyResourceType::new)
-                        .toList(),
+                searchableResourceTypes,
                 ctx.parentIds().stream().map(URI::create).toList(),
                 ctx.parentContextIds().stream().toList(),
                 ctx.isPrimary(),
@@ -0,0 +1,45 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.net.URI;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.service.NodeSuggestDocument;
+
+@Schema(
+        name = "NodeSuggestion",
+        requiredProperties = {"id", "name", "nodeType"})
+public class NodeSuggestionDTO {
+    @JsonProperty
+    @Schema(description = "Node id", example = "urn:topic:234")
+    public URI id;
+
+    @JsonProperty
+    @Schema(description = "The name of the node, translated if possible", example = "Trigonometry")
+    public String name;
+
+    @JsonProperty
+    @Schema(description = "Type of node", example = "topic")
+    public NodeType nodeType;
+
+    @JsonProperty
+    @Schema(description = "ID of content introducing this node", example = "urn:article:1")
+    public Optional<URI> contentUri = Optional.empty();
+
+    public NodeSuggestionDTO() {}
+
+    public NodeSuggestionDTO(NodeSuggestDocument document, String language) {
+        this.id = document.publicId();
+        this.name = document.getTranslatedName(language);
+        this.nodeType = document.nodeType();
+        this.contentUri = Optional.ofNullable(document.contentUri());
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Set;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnectionType;
 import no.ndla.taxonomy.domain.exceptions.NotFoundException;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 
 @Schema(
         name = "NodeWithParents",
@@ -31,7 +32,8 @@ public class NodeWithParents extends NodeDTO {
 
     public NodeWithParents() {}
 
-    public NodeWithParents(Node node, String languageCode, boolean includeContexts) {
+    public NodeWithParents(
+            Node node, String languageCode, boolean includeContexts, ResourceTypeTree resourceTypes) {
         super(
                 Optional.empty(),
                 Optional.empty(),
@@ -42,12 +44,13 @@ public class NodeWithParents extends NodeDTO {
                 includeContexts,
                 false,
                 true,
-                false);
+                false,
+                resourceTypes);
 
         node.getParentConnections().stream()
                 .map(nodeResource -> {
                     Node parent = nodeResource.getParent().orElseThrow(() -> new NotFoundException("Parent not found"));
-                    return new NodeChildDTO(parent, nodeResource, languageCode);
+                    return new NodeChildDTO(parent, nodeResource, languageCode, resourceTypes);
                 })
                 .forEach(parents::add);
     }
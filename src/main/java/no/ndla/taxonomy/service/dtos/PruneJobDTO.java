@@ -0,0 +1,93 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of cutting invisible nodes loose from their parents after a version is published.
+ */
+@Schema(
+        name = "PruneJob",
+        requiredProperties = {
+            "phase",
+            "started",
+            "durationMs",
+            "phaseDurationsMs",
+            "roots",
+            "rootsDone",
+            "nodes",
+            "connections"
+        })
+public class PruneJobDTO extends JobDTO<PruneJobDTO.Phase> {
+    public enum Phase {
+        QUEUED,
+        FINDING,
+        DISCONNECTING,
+        REBUILDING_CONTEXTS,
+        DONE,
+        FAILED
+    }
+
+    @JsonProperty
+    @Schema(description = "Roots with invisible nodes below them. A node below several roots is counted with one")
+    private final AtomicInteger roots = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Roots whose contexts have been rebuilt so far")
+    private final AtomicInteger rootsDone = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Invisible nodes cut loose from their parents")
+    private final AtomicInteger nodes = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Connections removed")
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public PruneJobDTO() {
+        super(Phase.QUEUED, Phase.DONE, Phase.FAILED);
+    }
+
+    public int getRoots() {
+        return roots.get();
+    }
+
+    public int getRootsDone() {
+        return rootsDone.get();
+    }
+
+    public int getNodes() {
+        return nodes.get();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public void finding() {
+        enter(Phase.FINDING);
+    }
+
+    public void disconnecting(int roots, int nodes) {
+        this.roots.set(roots);
+        this.nodes.set(nodes);
+        enter(Phase.DISCONNECTING);
+    }
+
+    public void rebuildingContexts(int connections) {
+        this.connections.set(connections);
+        enter(Phase.REBUILDING_CONTEXTS);
+    }
+
+    public void rootDone() {
+        rootsDone.incrementAndGet();
+    }
+}
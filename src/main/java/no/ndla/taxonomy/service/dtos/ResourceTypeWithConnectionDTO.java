@@ -18,6 +18,7 @@ import java.util.stream.Collectors;
 import no.ndla.taxonomy.domain.ResourceResourceType;
 import no.ndla.taxonomy.domain.ResourceType;
 import no.ndla.taxonomy.domain.Translation;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 
 @Schema(
         name = "ResourceTypeWithConnection",
@@ -53,9 +54,34 @@ public class ResourceTypeWithConnectionDTO implements Comparable<ResourceTypeWit
 
     public ResourceTypeWithConnectionDTO() {}
 
-    public ResourceTypeWithConnectionDTO(ResourceResourceType resourceResourceType, String languageCode) {
-        var resourceType = resourceResourceType.getResourceType();
+    /**
+     * Maps the resource type from the tree, so that no resource type is loaded. Falls back to the entity for resource
+     * types the tree does not know yet.
+     */
+    public ResourceTypeWithConnectionDTO(
+            ResourceResourceType resourceResourceType, ResourceTypeTree resourceTypes, String languageCode) {
+        resourceResourceType
+                .getResourceTypeId()
+                .flatMap(resourceTypes::getById)
+                .ifPresentOrElse(
+                        entry -> mapEntry(entry, languageCode),
+                        () -> mapEntity(resourceResourceType.getResourceType(), languageCode));
+        this.connectionId = resourceResourceType.getPublicId();
+    }
+
+    private void mapEntry(ResourceTypeTree.Entry resourceType, String languageCode) {
+        this.id = resourceType.publicId();
+        this.order = resourceType.order();
+        this.translations = resourceType.translations().stream()
+                .map(TranslationDTO::new)
+                .collect(Collectors.toCollection(TreeSet::new));
+        this.supportedLanguages =
+                this.translations.stream().map(t -> t.language).collect(Collectors.toCollection(TreeSet::new));
+        this.parentId = resourceType.parentId();
+        this.name = resourceType.getTranslatedName(languageCode);
+    }
 
+    private void mapEntity(ResourceType resourceType, String languageCode) {
         this.id = resourceType.getPublicId();
         this.order = resourceType.getOrder();
 
@@ -72,8 +98,6 @@ public class ResourceTypeWithConnectionDTO implements Comparable<ResourceTypeWit
                 .findFirst()
                 .map(Translation::getName)
                 .orElse(resourceType.getName());
-
-        this.connectionId = resourceResourceType.getPublicId();
     }
 
     public URI getId() {
@@ -0,0 +1,50 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Schema(
+        name = "SearchFacets",
+        requiredProperties = {"nodeType", "resourceType", "relevance", "visible"})
+public class SearchFacetsDTO {
+    @JsonProperty
+    @Schema(description = "Number of matching nodes per node type")
+    private final Map<String, Long> nodeType = new TreeMap<>();
+
+    @JsonProperty
+    @Schema(description = "Number of matching nodes per resource type id")
+    private final Map<String, Long> resourceType = new TreeMap<>();
+
+    @JsonProperty
+    @Schema(description = "Number of matching nodes per relevance id of the primary connection")
+    private final Map<String, Long> relevance = new TreeMap<>();
+
+    @JsonProperty
+    @Schema(description = "Number of matching nodes that are visible or not")
+    private final Map<String, Long> visible = new TreeMap<>();
+
+    public Map<String, Long> getNodeType() {
+        return nodeType;
+    }
+
+    public Map<String, Long> getResourceType() {
+        return resourceType;
+    }
+
+    public Map<String, Long> getRelevance() {
+        return relevance;
+    }
+
+    public Map<String, Long> getVisible() {
+        return visible;
+    }
+}
@@ -10,15 +10,34 @@ package no.ndla.taxonomy.service.dtos;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
+import java.util.Optional;
 
 @Schema(
         name = "SearchResult",
-        requiredProperties = {"totalCount", "page", "pageSize", "results"})
+        requiredProperties = {"totalCount", "totalCountType", "hasMore", "page", "pageSize", "results"})
 public class SearchResultDTO<T> {
+    @Schema(name = "TotalCountType")
+    public enum TotalCountType {
+        /** Counted, the total is exact. */
+        EXACT,
+        /** Estimated from planner statistics. */
+        ESTIMATED,
+        /** Not counted, the total is only a lower bound. */
+        OMITTED
+    }
+
     @JsonProperty
     @Schema(example = "Total search result count, useful for fetching multiple pages")
     private long totalCount;
 
+    @JsonProperty
+    @Schema(description = "Whether totalCount is exact, estimated or just a lower bound when counting was skipped")
+    private TotalCountType totalCountType;
+
+    @JsonProperty
+    @Schema(description = "Whether there are more results after this page")
+    private boolean hasMore;
+
     @JsonProperty
     @Schema(example = "The page number")
     private int page;
@@ -31,8 +50,24 @@ public class SearchResultDTO<T> {
     @Schema(example = "List of search results")
     private List<T> results;
 
+    @JsonProperty
+    @Schema(description = "Counts of all matches per facet, only when requested")
+    private Optional<SearchFacetsDTO> facets = Optional.empty();
+
     public SearchResultDTO(long totalCount, int pageNumber, int pageSize, List<T> results) {
+        this(totalCount, TotalCountType.EXACT, (long) pageNumber * pageSize < totalCount, pageNumber, pageSize, results);
+    }
+
+    public SearchResultDTO(
+            long totalCount,
+            TotalCountType totalCountType,
+            boolean hasMore,
+            int pageNumber,
+            int pageSize,
+            List<T> results) {
         this.totalCount = totalCount;
+        this.totalCountType = totalCountType;
+        this.hasMore = hasMore;
         this.page = pageNumber;
         this.pageSize = pageSize;
         this.results = results;
@@ -53,4 +88,20 @@ public class SearchResultDTO<T> {
     public long getTotalCount() {
         return totalCount;
     }
+
+    public TotalCountType getTotalCountType() {
+        return totalCountType;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public Optional<SearchFacetsDTO> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Optional<SearchFacetsDTO> facets) {
+        this.facets = facets;
+    }
 }
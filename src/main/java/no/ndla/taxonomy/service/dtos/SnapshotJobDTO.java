@@ -0,0 +1,160 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of copying the schema of a new version.
+ */
+@Schema(
+        name = "SnapshotJob",
+        requiredProperties = {
+            "phase",
+            "started",
+            "durationMs",
+            "phaseDurationsMs",
+            "tables",
+            "tablesCopied",
+            "rows",
+            "indexes",
+            "indexesBuilt",
+            "tablesAnalyzed"
+        })
+public class SnapshotJobDTO extends JobDTO<SnapshotJobDTO.Phase> {
+    public enum Phase {
+        QUEUED,
+        PLANNING,
+        CREATING_TABLES,
+        COPYING,
+        INDEXING,
+        ANALYZING,
+        DONE,
+        FAILED,
+        CANCELLED
+    }
+
+    @JsonProperty
+    @Schema(description = "Tables in the version copied from")
+    private final AtomicInteger tables = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Tables whose rows have been copied so far")
+    private final AtomicInteger tablesCopied = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Rows copied so far")
+    private final AtomicLong rows = new AtomicLong();
+
+    @JsonProperty
+    @Schema(description = "Indexes and constraints to build after the rows are copied")
+    private final AtomicInteger indexes = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Indexes and constraints built so far")
+    private final AtomicInteger indexesBuilt = new AtomicInteger();
+
+    @JsonProperty
+    @Schema(description = "Tables analyzed so far")
+    private final AtomicInteger tablesAnalyzed = new AtomicInteger();
+
+    private volatile boolean cancelRequested = false;
+    private volatile Runnable onCancel = () -> {};
+
+    public SnapshotJobDTO() {
+        super(Phase.QUEUED, Phase.DONE, Phase.FAILED);
+    }
+
+    public int getTables() {
+        return tables.get();
+    }
+
+    public int getTablesCopied() {
+        return tablesCopied.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public int getIndexes() {
+        return indexes.get();
+    }
+
+    public int getIndexesBuilt() {
+        return indexesBuilt.get();
+    }
+
+    public int getTablesAnalyzed() {
+        return tablesAnalyzed.get();
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Asks the job to stop. What it has done so far is rolled back.
+     */
+    public void cancel() {
+        cancelRequested = true;
+        onCancel.run();
+    }
+
+    /**
+     * Called when the job is cancelled, to stop whatever it is waiting for.
+     */
+    public void onCancel(Runnable onCancel) {
+        this.onCancel = onCancel;
+        if (cancelRequested) {
+            onCancel.run();
+        }
+    }
+
+    public void planning() {
+        enter(Phase.PLANNING);
+    }
+
+    public void creatingTables(int tables, int indexes) {
+        this.tables.set(tables);
+        this.indexes.set(indexes);
+        enter(Phase.CREATING_TABLES);
+    }
+
+    public void copying() {
+        enter(Phase.COPYING);
+    }
+
+    public void tableCopied(long rows) {
+        this.rows.addAndGet(rows);
+        tablesCopied.incrementAndGet();
+    }
+
+    public void indexing() {
+        enter(Phase.INDEXING);
+    }
+
+    public void indexBuilt() {
+        indexesBuilt.incrementAndGet();
+    }
+
+    public void analyzing() {
+        enter(Phase.ANALYZING);
+    }
+
+    public void tableAnalyzed() {
+        tablesAnalyzed.incrementAndGet();
+    }
+
+    public void cancelled() {
+        finish(Phase.CANCELLED);
+    }
+}
@@ -15,6 +15,7 @@ import java.net.URI;
 import java.time.Instant;
 import java.util.Optional;
 import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionStorage;
 import no.ndla.taxonomy.domain.VersionType;
 
 @Schema(
@@ -54,6 +55,11 @@ public class VersionDTO {
     @Schema(description = "Timestamp for when version was archived")
     private Optional<Instant> archived = Optional.empty();
 
+    @JsonProperty
+    @Schema(description = "How the version is stored", example = "FULL")
+    @Enumerated(EnumType.STRING)
+    private VersionStorage storage;
+
     public VersionDTO() {}
 
     public VersionDTO(Version version) {
@@ -65,6 +71,7 @@ public class VersionDTO {
         this.created = version.getCreated();
         this.published = Optional.ofNullable(version.getPublished());
         this.archived = Optional.ofNullable(version.getArchived());
+        this.storage = version.getStorage();
     }
 
     public URI getId() {
@@ -94,4 +101,8 @@ public class VersionDTO {
     public Optional<Instant> getArchived() {
         return archived;
     }
+
+    public VersionStorage getStorage() {
+        return storage;
+    }
 }
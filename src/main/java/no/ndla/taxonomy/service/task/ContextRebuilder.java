@@ -0,0 +1,38 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service.task;
+
+import java.util.List;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.DomainEntity;
+import no.ndla.taxonomy.service.InvisibleNodePruner;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+
+public class ContextRebuilder extends Task<DomainEntity> {
+    private InvisibleNodePruner pruner;
+    private List<Integer> nodeIds;
+    private PruneJobDTO job;
+
+    public void setPruner(InvisibleNodePruner pruner) {
+        this.pruner = pruner;
+    }
+
+    public void setNodeIds(List<Integer> nodeIds) {
+        this.nodeIds = nodeIds;
+    }
+
+    public void setJob(PruneJobDTO job) {
+        this.job = job;
+    }
+
+    @Override
+    protected Optional<DomainEntity> execute() {
+        pruner.rebuildContexts(nodeIds, job);
+        return Optional.empty();
+    }
+}
@@ -9,17 +9,24 @@ package no.ndla.taxonomy.service.task;
 
 import java.util.Optional;
 import no.ndla.taxonomy.domain.DomainEntity;
-import no.ndla.taxonomy.service.NodeConnectionService;
+import no.ndla.taxonomy.service.InvisibleNodePruner;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
 
 public class Deleter extends Task<DomainEntity> {
-    private NodeConnectionService nodeConnectionService;
+    private InvisibleNodePruner pruner;
+    private PruneJobDTO job;
 
-    public void setNodeConnectionService(NodeConnectionService nodeService) {
-        this.nodeConnectionService = nodeService;
+    public void setPruner(InvisibleNodePruner pruner) {
+        this.pruner = pruner;
+    }
+
+    public void setJob(PruneJobDTO job) {
+        this.job = job;
     }
 
     @Override
     protected Optional<DomainEntity> execute() {
-        return nodeConnectionService.disconnectAllInvisibleNodes();
+        pruner.prune(job);
+        return Optional.empty();
     }
 }
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.function.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
@@ -124,6 +125,17 @@ public class TestUtils {
                 .getResponse();
     }
 
+    public MockHttpServletResponse updateResourceIfMatch(
+            String path, Object command, String ifMatch, ResultMatcher resultMatcher) throws Exception {
+        entityManager.flush();
+        return mockMvc.perform(put(path).contentType(APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, ifMatch)
+                        .content(json(command)))
+                .andExpect(resultMatcher)
+                .andReturn()
+                .getResponse();
+    }
+
     public MockHttpServletResponse updateResource(String path, Object command, ResultMatcher resultMatcher)
             throws Exception {
         entityManager.flush();
@@ -0,0 +1,63 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+class ConflictRetryAspectTest {
+    private final ConflictRetryAspect aspect = new ConflictRetryAspect(3);
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    void setUp() {
+        joinPoint = mock(ProceedingJoinPoint.class);
+        var signature = mock(Signature.class);
+        when(signature.toShortString()).thenReturn("Nodes.updateNode(..)");
+        when(joinPoint.getSignature()).thenReturn(signature);
+    }
+
+    private static ObjectOptimisticLockingFailureException stale() {
+        return new ObjectOptimisticLockingFailureException("Node", 1);
+    }
+
+    @Test
+    void retries_until_the_method_wins() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(stale()).thenThrow(stale()).thenReturn("done");
+
+        assertEquals("done", aspect.retry(joinPoint));
+        verify(joinPoint, times(3)).proceed();
+    }
+
+    @Test
+    void gives_up_after_the_last_attempt() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(stale());
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> aspect.retry(joinPoint));
+        verify(joinPoint, times(3)).proceed();
+    }
+
+    @Test
+    void other_failures_are_not_retried() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> aspect.retry(joinPoint));
+        verify(joinPoint, times(1)).proceed();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.config.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TenantPartitionedStorageAccessTest {
+    private TenantPartitionedStorageAccess storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new TenantPartitionedStorageAccess(
+                "region", true, tenant -> Caffeine.newBuilder().recordStats().build());
+    }
+
+    private SharedSessionContractImplementor session(String tenant) {
+        var session = mock(SharedSessionContractImplementor.class);
+        when(session.getTenantIdentifierValue()).thenReturn(tenant);
+        return session;
+    }
+
+    @Test
+    void entries_are_only_visible_to_own_tenant() {
+        var published = session("taxonomy_api_published");
+        var beta = session("taxonomy_api_beta");
+
+        storage.putIntoCache("key", "published value", published);
+
+        assertEquals("published value", storage.getFromCache("key", published));
+        assertNull(storage.getFromCache("key", beta));
+        assertTrue(storage.contains("key"));
+    }
+
+    @Test
+    void evicting_tenant_keeps_other_tenants() {
+        var published = session("taxonomy_api_published");
+        var beta = session("taxonomy_api_beta");
+        storage.putIntoCache("key", "published value", published);
+        storage.putIntoCache("key", "beta value", beta);
+
+        storage.evictTenant("taxonomy_api_beta");
+
+        assertNull(storage.getFromCache("key", beta));
+        assertEquals("published value", storage.getFromCache("key", published));
+    }
+
+    @Test
+    void stats_survive_tenant_eviction() {
+        var beta = session("taxonomy_api_beta");
+        storage.putIntoCache("key", "beta value", beta);
+        storage.getFromCache("key", beta);
+        storage.getFromCache("other", beta);
+
+        storage.evictTenant("taxonomy_api_beta");
+
+        assertEquals(1, storage.stats().hitCount());
+        assertEquals(1, storage.stats().missCount());
+        assertEquals(0.5, storage.hitRatio());
+    }
+
+    @Test
+    void tenants_that_are_not_cached_are_passed_through() {
+        var onlyPublished = new TenantPartitionedStorageAccess(
+                "region",
+                true,
+                tenant -> Caffeine.newBuilder().recordStats().build(),
+                "taxonomy_api_published"::equals);
+        var published = session("taxonomy_api_published");
+        var editable = session("taxonomy_api");
+
+        onlyPublished.putIntoCache("key", "published value", published);
+        onlyPublished.putIntoCache("key", "editable value", editable);
+
+        assertEquals("published value", onlyPublished.getFromCache("key", published));
+        assertNull(onlyPublished.getFromCache("key", editable));
+        assertEquals(1, onlyPublished.size());
+        assertEquals(0, onlyPublished.stats().missCount());
+    }
+
+    @Test
+    void unpartitioned_region_is_shared_between_tenants() {
+        var shared = new TenantPartitionedStorageAccess(
+                "timestamps", false, tenant -> Caffeine.newBuilder().build());
+        shared.putIntoCache("node", 1L, session("taxonomy_api_published"));
+
+        assertEquals(1L, shared.getFromCache("node", session("taxonomy_api_beta")));
+
+        shared.evictData("node");
+        assertFalse(shared.contains("node"));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import no.ndla.taxonomy.domain.PendingDraftNote;
+import no.ndla.taxonomy.integration.dtos.UpdateNotesDTO;
+import no.ndla.taxonomy.repositories.PendingDraftNoteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DraftNotesDispatcherTest {
+    private record ReceivedRequest(String authorization, String body) {}
+
+    private HttpServer draftApi;
+    private final List<ReceivedRequest> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger responseStatus = new AtomicInteger(200);
+    private DraftNotesOutbox outbox;
+    private DraftNotesDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        draftApi = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        draftApi.createContext("/draft-api/v1/drafts/notes", exchange -> {
+            received.add(new ReceivedRequest(
+                    exchange.getRequestHeaders().getFirst("Authorization"),
+                    new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+            exchange.sendResponseHeaders(responseStatus.get(), -1);
+            exchange.close();
+        });
+        draftApi.start();
+
+        outbox = mock(DraftNotesOutbox.class);
+        var stats = mock(PendingDraftNoteRepository.OutboxStats.class);
+        when(outbox.stats()).thenReturn(stats);
+        var serviceTokenProvider = mock(ServiceTokenProvider.class);
+        when(serviceTokenProvider.authorization()).thenReturn(Optional.of("Bearer service-token"));
+        var client = new DraftApiClient("localhost:" + draftApi.getAddress().getPort(), outbox, serviceTokenProvider);
+        dispatcher = new DraftNotesDispatcher(outbox, client, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        draftApi.stop(0);
+    }
+
+    private PendingDraftNote note(int id, long draftId, String text) {
+        var note = new PendingDraftNote(draftId, text);
+        ReflectionTestUtils.setField(note, "id", id);
+        return note;
+    }
+
+    @Test
+    public void sends_notes_for_each_draft_in_one_call() throws Exception {
+        when(outbox.claimDue(anyInt(), any()))
+                .thenReturn(List.of(note(1, 10, "first"), note(2, 20, "second"), note(3, 10, "third")))
+                .thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        assertEquals(1, received.size());
+        assertEquals("Bearer service-token", received.getFirst().authorization());
+        var sent = new ObjectMapper().readValue(received.getFirst().body(), UpdateNotesDTO.class);
+        assertEquals(2, sent.data().size());
+        var firstDraft = sent.data().iterator().next();
+        assertEquals(10, firstDraft.draftId());
+        assertEquals(List.of("first", "third"), List.copyOf(firstDraft.notes()));
+        verify(outbox).delivered(List.of(1, 2, 3));
+        verify(outbox, never()).failed(any(), any());
+    }
+
+    @Test
+    public void failed_delivery_is_handed_back_for_retry() {
+        responseStatus.set(503);
+        when(outbox.claimDue(anyInt(), any())).thenReturn(List.of(note(1, 10, "first")));
+
+        dispatcher.dispatch();
+
+        verify(outbox).failed(List.of(1), "Got status code 503");
+        verify(outbox, never()).delivered(any());
+        // Stops after a failure instead of claiming more
+        verify(outbox, times(1)).claimDue(anyInt(), any());
+    }
+
+    @Test
+    public void dead_lettered_notes_are_purged_after_the_retention() {
+        dispatcher.purgeDeadLettered();
+
+        verify(outbox).purgeDeadLettered(DraftNotesDispatcher.DEAD_LETTER_RETENTION);
+    }
+
+    @Test
+    public void backoff_grows_and_is_capped() {
+        assertEquals(5, DraftNotesOutbox.backoff(0).toSeconds());
+        assertEquals(10, DraftNotesOutbox.backoff(1).toSeconds());
+        assertEquals(3600, DraftNotesOutbox.backoff(15).toSeconds());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import no.ndla.taxonomy.domain.PendingDraftNote;
+import no.ndla.taxonomy.integration.dtos.DraftNotesDTO;
+import no.ndla.taxonomy.integration.dtos.UpdateNotesDTO;
+import no.ndla.taxonomy.repositories.PendingDraftNoteRepository;
+import no.ndla.taxonomy.service.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the outbox against the database, every call commits on its own as it does when called from the dispatcher.
+ */
+@SpringBootTest
+@ActiveProfiles("junit")
+public class DraftNotesOutboxTest extends AbstractIntegrationTest {
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    @Autowired
+    private DraftNotesOutbox outbox;
+
+    @Autowired
+    private PendingDraftNoteRepository pendingDraftNoteRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        pendingDraftNoteRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        pendingDraftNoteRepository.deleteAllInBatch();
+    }
+
+    private static UpdateNotesDTO notes(long draftId, String... notes) {
+        return new UpdateNotesDTO(List.of(new DraftNotesDTO(draftId, List.of(notes))));
+    }
+
+    @Test
+    void notes_are_only_kept_if_the_change_is_committed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.enqueue(notes(1, "rolled back"));
+            status.setRollbackOnly();
+        });
+        assertEquals(0, pendingDraftNoteRepository.count());
+
+        transactionTemplate.executeWithoutResult(status -> outbox.enqueue(notes(1, "first", "second")));
+        assertEquals(2, pendingDraftNoteRepository.count());
+    }
+
+    @Test
+    void claimed_notes_are_leased_and_deleted_once_delivered() {
+        outbox.enqueue(notes(1, "first", "second"));
+
+        var claimed = outbox.claimDue(10, LEASE);
+        assertEquals(2, claimed.size());
+        assertTrue(outbox.claimDue(10, LEASE).isEmpty());
+
+        outbox.delivered(claimed.stream().map(PendingDraftNote::getId).toList());
+        assertEquals(0, pendingDraftNoteRepository.count());
+    }
+
+    @Test
+    void failed_notes_back_off_and_are_dead_lettered_after_max_attempts() {
+        outbox.enqueue(notes(1, "failing"));
+        var ids = outbox.claimDue(10, LEASE).stream().map(PendingDraftNote::getId).toList();
+
+        outbox.failed(ids, "Got status code 503");
+        var note = pendingDraftNoteRepository.findById(ids.getFirst()).orElseThrow();
+        assertEquals(1, note.getAttempts());
+        assertEquals("Got status code 503", note.getLastError().orElseThrow());
+        assertTrue(note.getNextAttempt().isAfter(Instant.now()));
+        assertTrue(note.getDeadLettered().isEmpty());
+
+        for (var attempt = 1; attempt < DraftNotesOutbox.MAX_ATTEMPTS; attempt++) {
+            outbox.failed(ids, "Got status code 503");
+        }
+        note = pendingDraftNoteRepository.findById(ids.getFirst()).orElseThrow();
+        assertEquals(DraftNotesOutbox.MAX_ATTEMPTS, note.getAttempts());
+        assertTrue(note.getDeadLettered().isPresent());
+
+        // Dead-lettered notes are never claimed again, even when due
+        jdbcTemplate.update("UPDATE pending_draft_note SET next_attempt = now() - interval '1 day'");
+        assertTrue(outbox.claimDue(10, LEASE).isEmpty());
+        var stats = outbox.stats();
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getDeadLettered());
+    }
+
+    @Test
+    void dispatchers_skip_notes_claimed_by_another() throws Exception {
+        outbox.enqueue(notes(1, "first", "second", "third"));
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            // Holds the row locks of a claim that has not committed yet
+            var holder = executor.submit(() -> transactionTemplate.execute(status -> {
+                var claimed = pendingDraftNoteRepository.lockDue(2);
+                locked.countDown();
+                await(release);
+                return claimed;
+            }));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            var claimed = outbox.claimDue(10, LEASE);
+            release.countDown();
+            var held = holder.get(5, TimeUnit.SECONDS);
+
+            assertEquals(1, claimed.size());
+            assertEquals(2, held.size());
+            assertTrue(held.stream().noneMatch(note -> note.getId().equals(claimed.getFirst().getId())));
+        }
+    }
+
+    @Test
+    void dead_lettered_notes_are_purged_after_the_retention() {
+        outbox.enqueue(notes(1, "old", "recent", "pending"));
+        jdbcTemplate.update(
+                "UPDATE pending_draft_note SET dead_lettered = now() - interval '31 days' WHERE note = 'old'");
+        jdbcTemplate.update("UPDATE pending_draft_note SET dead_lettered = now() WHERE note = 'recent'");
+
+        assertEquals(1, outbox.purgeDeadLettered(Duration.ofDays(30)));
+        assertEquals(
+                List.of("pending", "recent"),
+                pendingDraftNoteRepository.findAll().stream()
+                        .map(PendingDraftNote::getNote)
+                        .sorted()
+                        .toList());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1;
+
+import static no.ndla.taxonomy.TestUtils.getId;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.webAppContextSetup;
+
+import java.net.URI;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.repositories.VersionRepository;
+import no.ndla.taxonomy.service.AbstractIntegrationTest;
+import no.ndla.taxonomy.service.VersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Writes to a delta version through the API, so that every request commits and goes through Hibernate and the views
+ * and triggers of the overlay, as it does in production. Not transactional, so everything is cleaned up afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("junit")
+public class DeltaVersionsTest extends AbstractIntegrationTest {
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private VersionRepository versionRepository;
+
+    @Autowired
+    private VersionService versionService;
+
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeConnectionRepository nodeConnectionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+    private String hash;
+    private String baseSchema;
+    private String deltaSchema;
+    private URI topicId;
+    private URI resourceId;
+    private URI connectionId;
+
+    @BeforeEach
+    void createDeltaVersion() throws Exception {
+        mockMvc = webAppContextSetup(webApplicationContext).build();
+        cleanUp();
+
+        var subjectId = create("/v1/nodes", "{\"nodeType\":\"SUBJECT\",\"name\":\"Subject\",\"context\":true}");
+        topicId = create("/v1/nodes", "{\"nodeType\":\"TOPIC\",\"name\":\"Topic\"}");
+        resourceId = create("/v1/nodes", "{\"nodeType\":\"RESOURCE\",\"name\":\"Resource\"}");
+        create("/v1/node-connections", connection(subjectId, topicId));
+        connectionId = create("/v1/node-connections", connection(topicId, resourceId));
+        perform(put("/v1/nodes/" + resourceId).content("{\"qualityEvaluation\": {\"grade\": 4}}"), null)
+                .andExpect(status().isNoContent());
+
+        create("/v1/versions", "{\"id\":\"urn:version:base\",\"name\":\"Base\",\"locked\":true}");
+        create(
+                "/v1/versions?sourceId=urn:version:base",
+                "{\"id\":\"urn:version:delta\",\"name\":\"Delta\",\"storage\":\"DELTA\"}");
+        var base = versionRepository.getByPublicId(URI.create("urn:version:base"));
+        hash = versionRepository.getByPublicId(URI.create("urn:version:delta")).getHash();
+        baseSchema = versionService.schemaFromHash(base.getHash());
+        deltaSchema = versionService.schemaFromHash(hash);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        versionRepository.findAll().stream()
+                .sorted((a, b) -> Boolean.compare(a.getBaseHash() == null, b.getBaseHash() == null))
+                .forEach(version -> versionService.delete(version.getPublicId()));
+        nodeConnectionRepository.deleteAllAndFlush();
+        nodeRepository.deleteAllAndFlush();
+    }
+
+    @Test
+    void nodes_created_in_delta_version_draw_ids_after_the_base() throws Exception {
+        var newId = create("/v1/nodes", "{\"nodeType\":\"RESOURCE\",\"name\":\"New\"}", hash);
+
+        assertEquals(1, count("SELECT count(*) FROM " + deltaSchema + ".node WHERE public_id = '" + newId + "'"));
+        assertEquals(0, count("SELECT count(*) FROM " + baseSchema + ".node WHERE public_id = '" + newId + "'"));
+        assertTrue(count("SELECT id FROM " + deltaSchema + ".node WHERE public_id = '" + newId + "'")
+                > count("SELECT max(id) FROM " + baseSchema + ".node"));
+        perform(get("/v1/nodes/" + newId), hash).andExpect(status().isOk());
+    }
+
+    @Test
+    void connections_and_grades_are_written_to_delta_version_only() throws Exception {
+        var newId = create("/v1/nodes", "{\"nodeType\":\"RESOURCE\",\"name\":\"New\"}", hash);
+        create("/v1/node-connections", connection(topicId, newId), hash);
+        perform(put("/v1/nodes/" + newId).content("{\"qualityEvaluation\": {\"grade\": 2}}"), hash)
+                .andExpect(status().isNoContent());
+
+        assertEquals(2, childQualityEvaluationCount(deltaSchema, topicId));
+        assertEquals(6, childQualityEvaluationSum(deltaSchema, topicId));
+        assertEquals(1, childQualityEvaluationCount(baseSchema, topicId));
+
+        perform(delete("/v1/node-connections/" + connectionId), hash).andExpect(status().isNoContent());
+
+        assertEquals(1, childQualityEvaluationCount(deltaSchema, topicId));
+        assertEquals(2, childQualityEvaluationSum(deltaSchema, topicId));
+        assertEquals(2, count("SELECT count(*) FROM " + deltaSchema + ".node_connection"));
+        assertEquals(2, count("SELECT count(*) FROM " + baseSchema + ".node_connection"));
+        assertEquals(1, childQualityEvaluationCount(baseSchema, topicId));
+    }
+
+    @Test
+    void updates_in_delta_version_check_row_version() throws Exception {
+        var etag = perform(get("/v1/nodes/" + topicId), hash)
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        var rename = put("/v1/nodes/" + topicId).header(HttpHeaders.IF_MATCH, etag);
+        perform(rename.content("{\"name\":\"Renamed\"}"), hash).andExpect(status().isNoContent());
+        var stale = put("/v1/nodes/" + topicId).header(HttpHeaders.IF_MATCH, etag);
+        perform(stale.content("{\"name\":\"Again\"}"), hash).andExpect(status().isPreconditionFailed());
+
+        assertEquals(
+                1, count("SELECT count(*) FROM " + deltaSchema + ".node WHERE name = 'Renamed' AND row_version = 1"));
+        assertEquals(0, count("SELECT count(*) FROM " + baseSchema + ".node WHERE name = 'Renamed'"));
+    }
+
+    private URI create(String path, String json) throws Exception {
+        return create(path, json, null);
+    }
+
+    private URI create(String path, String json, String versionHash) throws Exception {
+        MockHttpServletResponse response = perform(post(path).content(json), versionHash)
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse();
+        return getId(response);
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, String versionHash) throws Exception {
+        request.contentType(APPLICATION_JSON);
+        if (versionHash != null) {
+            request.header("VersionHash", versionHash);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private static String connection(URI parentId, URI childId) {
+        return String.format("{\"parentId\":\"%s\",\"childId\":\"%s\"}", parentId, childId);
+    }
+
+    private long childQualityEvaluationCount(String schema, URI id) {
+        return count("SELECT child_quality_evaluation_count FROM " + schema + ".node WHERE public_id = '" + id + "'");
+    }
+
+    private long childQualityEvaluationSum(String schema, URI id) {
+        return count("SELECT child_quality_evaluation_sum FROM " + schema + ".node WHERE public_id = '" + id + "'");
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
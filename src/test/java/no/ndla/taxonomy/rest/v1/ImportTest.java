@@ -0,0 +1,181 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.domain.TaxonomyContext;
+import org.junit.jupiter.api.Test;
+
+public class ImportTest extends RestTest {
+    private record ImportDocument(List<?> nodes, List<?> connections) {}
+
+    @Test
+    public void can_import_subtree_below_existing_node() throws Exception {
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true).publicId("urn:subject:1"));
+        var resourceType = builder.resourceType(rt -> rt.name("Subject material"));
+
+        var document = new ImportDocument(
+                List.of(
+                        Map.of("id", "urn:topic:1", "nodeType", "TOPIC", "name", "Topic"),
+                        Map.of(
+                                "id",
+                                "urn:resource:1",
+                                "nodeType",
+                                "RESOURCE",
+                                "name",
+                                "Resource",
+                                "contentUri",
+                                "urn:article:1",
+                                "translations",
+                                List.of(Map.of("name", "Ressurs", "languageCode", "nn")),
+                                "customFields",
+                                Map.of("key", "value"),
+                                "resourceTypes",
+                                List.of(resourceType.getPublicId().toString()))),
+                List.of(
+                        Map.of("parentId", "urn:subject:1", "childId", "urn:topic:1"),
+                        Map.of("parentId", "urn:topic:1", "childId", "urn:resource:1")));
+
+        var response = testUtils.createResource("/v1/import?importId=import-1", document, status().isOk());
+        var result = testUtils.getObject(Map.class, response);
+        assertEquals("DONE", result.get("phase"));
+        assertEquals(2, result.get("nodes"));
+        assertEquals(2, result.get("connections"));
+        assertEquals(1, result.get("resourceTypes"));
+
+        var topic = nodeRepository.getByPublicId(URI.create("urn:topic:1"));
+        assertEquals(
+                List.of("/subject:1/topic:1"),
+                topic.getContexts().stream().map(TaxonomyContext::path).toList());
+        var resource = nodeRepository.getByPublicId(URI.create("urn:resource:1"));
+        assertEquals(
+                List.of("/subject:1/topic:1/resource:1"),
+                resource.getContexts().stream().map(TaxonomyContext::path).toList());
+        assertEquals("value", resource.getCustomFields().get("key"));
+        assertEquals("Ressurs", resource.getTranslations().getFirst().getName());
+        assertEquals(resourceType, resource.getResourceTypes().iterator().next());
+        assertTrue(resource.getParentConnections().iterator().next().isPrimary().orElseThrow());
+
+        var importStatus = testUtils.getObject(Map.class, testUtils.getResource("/v1/import/import-1"));
+        assertEquals("DONE", importStatus.get("phase"));
+    }
+
+    @Test
+    public void can_attach_existing_node_with_cached_parents() throws Exception {
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1")));
+        // Caches the parent connections of the topic as they are before the import
+        assertEquals(
+                1,
+                nodeRepository
+                        .getByPublicId(URI.create("urn:topic:1"))
+                        .getParentConnections()
+                        .size());
+        entityManager.flush();
+        entityManager.clear();
+
+        var document = new ImportDocument(
+                List.of(Map.of("id", "urn:subject:2", "nodeType", "SUBJECT", "context", true)),
+                List.of(Map.of("parentId", "urn:subject:2", "childId", "urn:topic:1")));
+        testUtils.createResource("/v1/import", document, status().isOk());
+
+        var topic = nodeRepository.getByPublicId(URI.create("urn:topic:1"));
+        assertEquals(2, topic.getParentConnections().size());
+        assertEquals(
+                List.of("/subject:1/topic:1", "/subject:2/topic:1"),
+                topic.getContexts().stream().map(TaxonomyContext::path).sorted().toList());
+        var connection = topic.getParentConnections().stream()
+                .filter(c -> c.getParent().orElseThrow().getPublicId().equals(URI.create("urn:subject:2")))
+                .findFirst()
+                .orElseThrow();
+        assertFalse(connection.isPrimary().orElseThrow());
+    }
+
+    @Test
+    public void can_import_more_nodes_than_one_batch() throws Exception {
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true).publicId("urn:subject:1"));
+        // One more than a batch of NodeImportService
+        var count = 501;
+        var nodes = new ArrayList<Map<String, Object>>();
+        var connections = new ArrayList<Map<String, Object>>();
+        nodes.add(Map.of("id", "urn:topic:1", "nodeType", "TOPIC"));
+        connections.add(Map.of("parentId", "urn:subject:1", "childId", "urn:topic:1"));
+        for (var i = 1; i <= count; i++) {
+            nodes.add(Map.of("id", "urn:resource:" + i, "nodeType", "RESOURCE"));
+            connections.add(Map.of("parentId", "urn:topic:1", "childId", "urn:resource:" + i));
+        }
+
+        var response = testUtils.createResource("/v1/import", new ImportDocument(nodes, connections), status().isOk());
+        var result = testUtils.getObject(Map.class, response);
+        assertEquals(count + 1, result.get("nodes"));
+        assertEquals(count + 1, result.get("connections"));
+
+        var topic = nodeRepository.getByPublicId(URI.create("urn:topic:1"));
+        assertEquals(count, topic.getChildConnections().size());
+        var last = nodeRepository.getByPublicId(URI.create("urn:resource:" + count));
+        assertEquals(
+                List.of("/subject:1/topic:1/resource:" + count),
+                last.getContexts().stream().map(TaxonomyContext::path).toList());
+        assertEquals(count, last.getParentConnections().iterator().next().getRank());
+    }
+
+    @Test
+    public void unknown_node_in_connection_fails_import() throws Exception {
+        var document = new ImportDocument(
+                List.of(Map.of("id", "urn:topic:1", "nodeType", "TOPIC")),
+                List.of(Map.of("parentId", "urn:subject:missing", "childId", "urn:topic:1")));
+
+        testUtils.createResource("/v1/import?importId=import-2", document, status().isBadRequest());
+
+        var importStatus = testUtils.getObject(Map.class, testUtils.getResource("/v1/import/import-2"));
+        assertEquals("FAILED", importStatus.get("phase"));
+        testUtils.getResource("/v1/import/unknown", status().isNotFound());
+    }
+
+    @Test
+    public void connections_in_a_loop_fail_import() throws Exception {
+        var document = new ImportDocument(
+                List.of(
+                        Map.of("id", "urn:topic:a", "nodeType", "TOPIC"),
+                        Map.of("id", "urn:topic:b", "nodeType", "TOPIC")),
+                List.of(
+                        Map.of("parentId", "urn:topic:a", "childId", "urn:topic:b"),
+                        Map.of("parentId", "urn:topic:b", "childId", "urn:topic:a")));
+
+        testUtils.createResource("/v1/import?importId=import-3", document, status().isBadRequest());
+
+        var importStatus = testUtils.getObject(Map.class, testUtils.getResource("/v1/import/import-3"));
+        assertEquals("FAILED", importStatus.get("phase"));
+        assertTrue(((String) importStatus.get("error")).startsWith("Loop detected"));
+    }
+
+    @Test
+    public void existing_node_below_its_own_descendant_fails_import() throws Exception {
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1")));
+        var document = new ImportDocument(
+                List.of(Map.of("id", "urn:topic:2", "nodeType", "TOPIC")),
+                List.of(
+                        Map.of("parentId", "urn:topic:1", "childId", "urn:topic:2"),
+                        Map.of("parentId", "urn:topic:2", "childId", "urn:subject:1")));
+
+        testUtils.createResource("/v1/import?importId=import-4", document, status().isBadRequest());
+
+        var importStatus = testUtils.getObject(Map.class, testUtils.getResource("/v1/import/import-4"));
+        assertEquals("FAILED", importStatus.get("phase"));
+    }
+}
@@ -16,6 +16,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import no.ndla.taxonomy.domain.*;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchOperation;
+import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionBatchResultDTO;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionDTO;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionPOST;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionPUT;
@@ -24,6 +26,7 @@ import no.ndla.taxonomy.service.dtos.MetadataDTO;
 import no.ndla.taxonomy.service.dtos.SearchResultDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 public class NodeConnectionsTest extends RestTest {
@@ -99,6 +102,79 @@ public class NodeConnectionsTest extends RestTest {
         assertNull(nodeRepository.findByPublicId(id));
     }
 
+    @Test
+    public void can_apply_batch_of_connection_changes() throws Exception {
+        var subject = builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1"))
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:2")));
+        var topic3 = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:3"));
+        var first = subject.getChildConnections().stream()
+                .filter(c -> c.getChild().orElseThrow().getPublicId().equals(URI.create("urn:topic:1")))
+                .findFirst()
+                .orElseThrow();
+        var second = subject.getChildConnections().stream()
+                .filter(c -> c.getChild().orElseThrow().getPublicId().equals(URI.create("urn:topic:2")))
+                .findFirst()
+                .orElseThrow();
+
+        var connect = new NodeConnectionBatchOperation();
+        connect.action = NodeConnectionBatchOperation.Action.CONNECT;
+        connect.parentId = Optional.of(subject.getPublicId());
+        connect.childId = Optional.of(topic3.getPublicId());
+        var update = new NodeConnectionBatchOperation();
+        update.action = NodeConnectionBatchOperation.Action.UPDATE;
+        update.id = Optional.of(second.getPublicId());
+        update.rank = Optional.of(5);
+        update.relevanceId = Optional.of(URI.create("urn:relevance:supplementary"));
+        var disconnect = new NodeConnectionBatchOperation();
+        disconnect.action = NodeConnectionBatchOperation.Action.DISCONNECT;
+        disconnect.id = Optional.of(first.getPublicId());
+
+        var response = testUtils.createResource(
+                "/v1/node-connections/batch", List.of(connect, update, disconnect), status().isOk());
+        var results = testUtils.getObject(NodeConnectionBatchResultDTO[].class, response);
+
+        assertEquals(3, results.length);
+        assertEquals(topic3.getPublicId(), results[0].connection.orElseThrow().childId);
+        assertEquals(5, results[1].connection.orElseThrow().rank);
+        assertEquals(
+                Optional.of(URI.create("urn:relevance:supplementary")),
+                results[1].connection.orElseThrow().relevanceId);
+        assertEquals(first.getPublicId(), results[2].id);
+        assertTrue(results[2].connection.isEmpty());
+
+        assertNull(nodeConnectionRepository.findByPublicId(first.getPublicId()));
+        assertEquals(
+                Set.of("/subject:1/topic:3"), nodeRepository.getByPublicId(topic3.getPublicId()).getAllPaths());
+        assertTrue(nodeRepository
+                .getByPublicId(URI.create("urn:topic:1"))
+                .getAllPaths()
+                .isEmpty());
+    }
+
+    @Test
+    public void invalid_batch_applies_nothing() throws Exception {
+        var subject = builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1")));
+        var topic2 = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:2"));
+
+        var connect = new NodeConnectionBatchOperation();
+        connect.action = NodeConnectionBatchOperation.Action.CONNECT;
+        connect.parentId = Optional.of(subject.getPublicId());
+        connect.childId = Optional.of(topic2.getPublicId());
+        var disconnect = new NodeConnectionBatchOperation();
+        disconnect.action = NodeConnectionBatchOperation.Action.DISCONNECT;
+        disconnect.id = Optional.of(URI.create("urn:node-connection:does-not-exist"));
+
+        testUtils.createResource(
+                "/v1/node-connections/batch", List.of(connect, disconnect), status().isBadRequest());
+
+        assertTrue(nodeRepository.getByPublicId(topic2.getPublicId()).getParentConnections().isEmpty());
+        assertEquals(1, subject.getChildConnections().size());
+    }
+
     @Test
     public void can_get_nodes() throws Exception {
         URI alternatingCurrentId = builder.node("ac", NodeType.TOPIC, t -> t.name("alternating current"))
@@ -223,6 +299,25 @@ public class NodeConnectionsTest extends RestTest {
         assertEquals(99, nodeConnectionRepository.getByPublicId(id).getRank());
     }
 
+    @Test
+    public void update_with_stale_etag_is_refused() throws Exception {
+        URI id = save(NodeConnection.create(newTopic(), newTopic(), Relevance.CORE))
+                .getPublicId();
+        var etag = testUtils.getResource("/v1/node-connections/" + id).getHeader(HttpHeaders.ETAG);
+        var command = new NodeConnectionPUT() {
+            {
+                primary = Optional.of(true);
+                rank = Optional.of(5);
+            }
+        };
+        testUtils.updateResourceIfMatch("/v1/node-connections/" + id, command, etag, status().isNoContent());
+
+        command.rank = Optional.of(99);
+        testUtils.updateResourceIfMatch("/v1/node-connections/" + id, command, etag, status().isPreconditionFailed());
+
+        assertEquals(5, nodeConnectionRepository.getByPublicId(id).getRank());
+    }
+
     @Test
     public void update_child_rank_modifies_other_contiguous_ranks() throws Exception {
         List<NodeConnection> nodeConnections = createTenContiguousRankedConnections(); // creates ranks 1, 2, 3, 4, 5,
@@ -18,6 +18,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import no.ndla.taxonomy.TestSeeder;
 import no.ndla.taxonomy.domain.*;
+import no.ndla.taxonomy.rest.v1.commands.NodeClonePost;
 import no.ndla.taxonomy.rest.v1.commands.NodePostPut;
 import no.ndla.taxonomy.rest.v1.dtos.NodeConnectionPOST;
 import no.ndla.taxonomy.rest.v1.dtos.NodeResourcePOST;
@@ -25,6 +26,7 @@ import no.ndla.taxonomy.service.dtos.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.transaction.TestTransaction;
 
 public class NodesTest extends RestTest {
@@ -251,6 +253,104 @@ public class NodesTest extends RestTest {
         }
     }
 
+    @Test
+    public void can_get_nodes_by_grep_codes() throws Exception {
+        var photosynthesis = builder.node(NodeType.TOPIC, t -> t.name("photo synthesis")
+                .grepCode("KM123")
+                .grepCode("KE45"));
+        var trigonometry = builder.node(NodeType.RESOURCE, t -> t.name("trigonometry").grepCode("KM124"));
+        builder.node(NodeType.TOPIC, t -> t.name("algebra"));
+
+        {
+            final var response = testUtils.getResource("/v1/nodes?grepCode=KM123&grepCode=KM124");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(2, nodes.length);
+            assertAnyTrue(nodes, n -> n.getId().equals(photosynthesis.getPublicId()));
+            assertAnyTrue(nodes, n -> n.getId().equals(trigonometry.getPublicId()));
+        }
+        {
+            final var response = testUtils.getResource("/v1/nodes?grepCode=KM12");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(0, nodes.length);
+        }
+        {
+            final var response = testUtils.createResource(
+                    "/v1/nodes/grep-codes", List.of("KE45", "KM124", "KM999"), status().isOk());
+            final var ids = testUtils.getObject(Map.class, response);
+            assertEquals(List.of(photosynthesis.getPublicId().toString()), ids.get("KE45"));
+            assertEquals(List.of(trigonometry.getPublicId().toString()), ids.get("KM124"));
+            assertEquals(List.of(), ids.get("KM999"));
+        }
+    }
+
+    @Test
+    public void can_reorder_children() throws Exception {
+        var subject = builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1"))
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:2"))
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:3")));
+        var connectionIds = new HashMap<URI, URI>();
+        subject.getChildConnections()
+                .forEach(c -> connectionIds.put(c.getChild().orElseThrow().getPublicId(), c.getPublicId()));
+        var topic1 = URI.create("urn:topic:1");
+        var topic2 = URI.create("urn:topic:2");
+        var topic3 = URI.create("urn:topic:3");
+
+        testUtils.updateResource(
+                "/v1/nodes/urn:subject:1/children/order",
+                List.of(connectionIds.get(topic3), connectionIds.get(topic1), connectionIds.get(topic2)));
+
+        assertEquals(1, nodeConnectionRepository.getByPublicId(connectionIds.get(topic3)).getRank());
+        assertEquals(2, nodeConnectionRepository.getByPublicId(connectionIds.get(topic1)).getRank());
+        assertEquals(3, nodeConnectionRepository.getByPublicId(connectionIds.get(topic2)).getRank());
+        assertEquals(
+                1,
+                nodeRepository.getByPublicId(topic3).getContexts().iterator().next().rank());
+        assertEquals(
+                "/subject:1/topic:3",
+                nodeRepository.getByPublicId(topic3).getContexts().iterator().next().path());
+        assertEquals(
+                3,
+                nodeRepository.getByPublicId(topic2).getContexts().iterator().next().rank());
+
+        testUtils.updateResource(
+                "/v1/nodes/urn:subject:1/children/order",
+                List.of(connectionIds.get(topic3), connectionIds.get(topic1)),
+                status().isBadRequest());
+    }
+
+    @Test
+    public void can_get_nodes_by_part_of_value() throws Exception {
+        builder.node(NodeType.TOPIC, t -> t.name("photo synthesis").customField("subjectCategory", "active"));
+        builder.node(NodeType.TOPIC, t -> t.name("trigonometry").customField("subjectCategory", "archive (old)"));
+        builder.node(NodeType.TOPIC, t -> t.name("algebra").customField("subjectType", "active"));
+
+        {
+            final var response = testUtils.getResource("/v1/nodes?key=subjectCategory&value=active");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(1, nodes.length);
+            assertEquals("photo synthesis", nodes[0].getName());
+        }
+        {
+            final var response =
+                    testUtils.getResource("/v1/nodes?key=subjectCategory&value=ive%20(&valueMatch=SUBSTRING");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(1, nodes.length);
+            assertEquals("trigonometry", nodes[0].getName());
+        }
+        {
+            final var response = testUtils.getResource("/v1/nodes?value=act&valueMatch=SUBSTRING");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(2, nodes.length);
+        }
+        {
+            final var response = testUtils.getResource("/v1/nodes?value=act");
+            final var nodes = testUtils.getObject(NodeDTO[].class, response);
+            assertEquals(0, nodes.length);
+        }
+    }
+
     @Test
     public void can_get_nodes_by_key_and_value() throws Exception {
         builder.node(
@@ -878,6 +978,46 @@ public class NodesTest extends RestTest {
         assertEquals("urn:article:1", node.getContentUri().toString());
     }
 
+    @Test
+    public void update_with_current_etag_is_accepted_and_changes_etag() throws Exception {
+        Node n = builder.node(NodeType.TOPIC);
+        var command = new NodePostPut() {
+            {
+                nodeType = NodeType.TOPIC;
+                nodeId = Optional.of(n.getIdent());
+                name = Optional.of("trigonometry");
+            }
+        };
+
+        var etag = testUtils.getResource("/v1/nodes/" + n.getPublicId()).getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        testUtils.updateResourceIfMatch("/v1/nodes/" + n.getPublicId(), command, etag, status().isNoContent());
+
+        assertEquals("trigonometry", nodeRepository.getByPublicId(n.getPublicId()).getName());
+        assertNotEquals(etag, testUtils.getResource("/v1/nodes/" + n.getPublicId()).getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void update_with_stale_etag_is_refused() throws Exception {
+        Node n = builder.node(NodeType.TOPIC, t -> t.name("original"));
+        var command = new NodePostPut() {
+            {
+                nodeType = NodeType.TOPIC;
+                nodeId = Optional.of(n.getIdent());
+                name = Optional.of("trigonometry");
+            }
+        };
+        var etag = testUtils.getResource("/v1/nodes/" + n.getPublicId()).getHeader(HttpHeaders.ETAG);
+        testUtils.updateResource("/v1/nodes/" + n.getPublicId(), command);
+
+        command.name = Optional.of("geometry");
+        testUtils.updateResourceIfMatch(
+                "/v1/nodes/" + n.getPublicId(), command, etag, status().isPreconditionFailed());
+
+        assertEquals("trigonometry", nodeRepository.getByPublicId(n.getPublicId()).getName());
+    }
+
     @Test
     public void can_update_node_with_new_id() throws Exception {
         URI publicId = builder.node(NodeType.TOPIC).getPublicId();
@@ -1008,6 +1148,79 @@ public class NodesTest extends RestTest {
         assertNotNull(nodeRepository.findByPublicId(resource.getPublicId()));
     }
 
+    @Test
+    public void can_delete_subtree_but_keep_nodes_connected_elsewhere() throws Exception {
+        Node shared = builder.node(NodeType.RESOURCE, r -> r.publicId("urn:resource:2"));
+        // The shared resource gets its primary parent inside the deleted subtree
+        Node topic = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:1")
+                .child(NodeType.TOPIC, sub -> sub.publicId("urn:topic:2")
+                        .resource(r -> r.publicId("urn:resource:1"))
+                        .resource(shared)));
+        Node other = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:3").resource(shared, false));
+        builder.node(NodeType.SUBJECT, s -> s.publicId("urn:subject:1").child(topic).child(other));
+
+        testUtils.deleteResource("/v1/nodes/urn:topic:1?cascade=subtree");
+
+        assertNull(nodeRepository.findByPublicId(URI.create("urn:topic:1")));
+        assertNull(nodeRepository.findByPublicId(URI.create("urn:topic:2")));
+        assertNull(nodeRepository.findByPublicId(URI.create("urn:resource:1")));
+        var remaining = nodeRepository.findByPublicId(URI.create("urn:resource:2"));
+        assertNotNull(remaining);
+        assertEquals(1, remaining.getParentConnections().size());
+        var connection = remaining.getParentConnections().iterator().next();
+        assertEquals(URI.create("urn:topic:3"), connection.getParent().orElseThrow().getPublicId());
+        assertTrue(connection.isPrimary().orElseThrow());
+        assertTrue(remaining.getContexts().stream()
+                .noneMatch(context -> context.parentIds().contains("urn:topic:2")));
+    }
+
+    @Test
+    public void delete_makes_a_branch_primary_rather_than_a_link() throws Exception {
+        Node shared = builder.node(NodeType.RESOURCE, r -> r.publicId("urn:resource:1"));
+        builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:3").link(shared));
+        builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:1").resource(shared));
+        builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:2").resource(shared, false));
+
+        testUtils.deleteResource("/v1/nodes/urn:topic:1?cascade=subtree");
+
+        var remaining = nodeRepository.findByPublicId(URI.create("urn:resource:1"));
+        var branch = remaining.getParentConnections().stream()
+                .filter(connection -> connection.getConnectionType() == NodeConnectionType.BRANCH)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(URI.create("urn:topic:2"), branch.getParent().orElseThrow().getPublicId());
+        assertTrue(branch.isPrimary().orElseThrow());
+    }
+
+    @Test
+    public void can_detach_node_from_its_children() throws Exception {
+        Node topic = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:1")
+                .child(NodeType.TOPIC, sub -> sub.publicId("urn:topic:2"))
+                .resource(r -> r.publicId("urn:resource:1")));
+        builder.node(NodeType.SUBJECT, s -> s.publicId("urn:subject:1").child(topic));
+
+        testUtils.deleteResource("/v1/nodes/urn:topic:1?cascade=detach");
+
+        assertNull(nodeRepository.findByPublicId(URI.create("urn:topic:1")));
+        var subject = nodeRepository.findByPublicId(URI.create("urn:subject:1"));
+        assertTrue(subject.getChildConnections().isEmpty());
+        for (var id : List.of("urn:topic:2", "urn:resource:1")) {
+            var child = nodeRepository.findByPublicId(URI.create(id));
+            assertNotNull(child);
+            assertTrue(child.getParentConnections().isEmpty());
+            assertTrue(child.getContexts().isEmpty());
+        }
+    }
+
+    @Test
+    public void delete_with_unknown_cascade_is_rejected() throws Exception {
+        Node topic = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:1"));
+
+        testUtils.deleteResource("/v1/nodes/urn:topic:1?cascade=everything", status().isBadRequest());
+
+        assertNotNull(nodeRepository.findByPublicId(topic.getPublicId()));
+    }
+
     @Test
     void publishing_node_fails_if_no_target_version() throws Exception {
         Node node = builder.node();
@@ -1124,6 +1337,77 @@ public class NodesTest extends RestTest {
         assertNull(resWithoutContentUri.getContentUri());
     }
 
+    @Test
+    public void can_clone_subtree() throws Exception {
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .name("Subject")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1")
+                        .contentUri("urn:article:10")
+                        .resource(r -> r.publicId("urn:resource:1")
+                                .contentUri("urn:article:1")
+                                .resourceType(rt -> rt.name("Fagstoff")))
+                        .resource(r -> r.publicId("urn:resource:2").contentUri("urn:article:2"))));
+
+        final var command = new NodeClonePost() {
+            {
+                contentUriMapping = Map.of(URI.create("urn:article:1"), URI.create("urn:article:11"));
+            }
+        };
+        URI id = getId(testUtils.createResource("/v1/nodes/urn:subject:1/clone?recursive=true", command));
+
+        var clonedSubject = nodeRepository.getByPublicId(id);
+        assertEquals("Subject", clonedSubject.getName());
+        var clonedTopic = clonedSubject.getChildNodes().iterator().next();
+        assertNotEquals(URI.create("urn:topic:1"), clonedTopic.getPublicId());
+        assertEquals("urn:article:10", clonedTopic.getContentUri().toString());
+        assertEquals(2, clonedTopic.getChildNodes().size());
+        var remapped = clonedTopic.getChildNodes().stream()
+                .filter(node -> node.getContentUri() != null)
+                .findFirst()
+                .orElseThrow();
+        var cleared = clonedTopic.getChildNodes().stream()
+                .filter(node -> node.getContentUri() == null)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("urn:article:11", remapped.getContentUri().toString());
+        assertEquals(1, remapped.getResourceTypes().size());
+        assertTrue(cleared.getParentConnections().iterator().next().isPrimary().orElseThrow());
+        assertEquals(
+                "/" + id.getSchemeSpecificPart() + "/" + clonedTopic.getPublicId().getSchemeSpecificPart() + "/"
+                        + remapped.getPublicId().getSchemeSpecificPart(),
+                remapped.getContexts().iterator().next().path());
+
+        // The source is left alone
+        assertEquals(
+                2, nodeRepository.getByPublicId(URI.create("urn:topic:1")).getChildConnections().size());
+        assertEquals(
+                1, nodeRepository.getByPublicId(URI.create("urn:resource:1")).getParentConnections().size());
+    }
+
+    @Test
+    public void clone_subtree_does_not_follow_links() throws Exception {
+        Node linked = builder.node(NodeType.TOPIC, t -> t.publicId("urn:topic:2")
+                .resource(r -> r.publicId("urn:resource:2")));
+        builder.node(NodeType.SUBJECT, s -> s.isContext(true)
+                .publicId("urn:subject:1")
+                .child(NodeType.TOPIC, t -> t.publicId("urn:topic:1"))
+                .link(linked));
+        var nodesBefore = nodeRepository.count();
+
+        URI id = getId(testUtils.createResource("/v1/nodes/urn:subject:1/clone?recursive=true", new NodeClonePost()));
+
+        assertEquals(nodesBefore + 2, nodeRepository.count());
+        var clonedSubject = nodeRepository.getByPublicId(id);
+        assertEquals(1, clonedSubject.getChildConnections().size());
+        assertEquals(
+                NodeConnectionType.BRANCH,
+                clonedSubject.getChildConnections().iterator().next().getConnectionType());
+        // The linked topic is neither cloned nor linked from the clone
+        assertEquals(
+                1, nodeRepository.getByPublicId(URI.create("urn:topic:2")).getParentConnections().size());
+    }
+
     @Test
     public void can_update_delete_and_leave_quality_evaluation() throws Exception {
         var node = builder.node(NodeType.TOPIC);
@@ -14,15 +14,23 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.net.URI;
 import java.util.Optional;
+import no.ndla.taxonomy.domain.NodeType;
 import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionStorage;
 import no.ndla.taxonomy.domain.VersionType;
 import no.ndla.taxonomy.rest.v1.commands.VersionPostPut;
+import no.ndla.taxonomy.service.VersionService;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import no.ndla.taxonomy.service.dtos.SnapshotJobDTO;
 import no.ndla.taxonomy.service.dtos.VersionDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 public class VersionsTest extends RestTest {
+    @Autowired
+    private VersionService versionService;
 
     @BeforeEach
     void cleanDatabase() {
@@ -195,6 +203,155 @@ public class VersionsTest extends RestTest {
         assertNotNull(updated.getPublished());
     }
 
+    @Test
+    public void can_get_pruning_status_of_published_version() throws Exception {
+        Version beta = builder.version(v -> v.type(VersionType.BETA));
+        testUtils.getResource("/v1/versions/" + beta.getPublicId() + "/publish", status().isNotFound());
+
+        testUtils.updateResource("/v1/versions/" + beta.getPublicId() + "/publish", null);
+
+        var response = testUtils.getResource("/v1/versions/" + beta.getPublicId() + "/publish");
+        var job = testUtils.getObject(PruneJobDTO.class, response);
+        assertFalse(job.isRunning());
+        assertTrue(job.getFinished().isPresent());
+    }
+
+    @Test
+    public void new_version_is_copied_with_rows_indexes_and_sequences() throws Exception {
+        builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:1")
+                .child(NodeType.TOPIC, topic -> topic.publicId("urn:topic:1")));
+        final var createVersionCommand = new VersionPostPut() {
+            {
+                id = Optional.of(URI.create("urn:version:1"));
+                name = "Beta";
+            }
+        };
+        testUtils.createResource("/v1/versions", createVersionCommand);
+
+        var response = testUtils.getResource("/v1/versions/urn:version:1/status");
+        var job = testUtils.getObject(SnapshotJobDTO.class, response);
+        assertEquals(SnapshotJobDTO.Phase.DONE, job.getPhase());
+        assertTrue(job.getRows() > 0);
+        assertEquals(job.getTables(), job.getTablesCopied());
+        assertEquals(job.getIndexes(), job.getIndexesBuilt());
+        assertEquals(job.getTables(), job.getTablesAnalyzed());
+
+        var schema = versionService.schemaFromHash(
+                versionRepository.getByPublicId(URI.create("urn:version:1")).getHash());
+        assertEquals(nodeRepository.count(), count("SELECT count(*) FROM " + schema + ".node"));
+        assertEquals(
+                1,
+                count("SELECT count(*) FROM pg_indexes WHERE schemaname = '" + schema
+                        + "' AND indexname = 'node_content_uri'"));
+        assertEquals(
+                1,
+                count("SELECT count(*) FROM pg_constraint WHERE conname = 'unique_content_uri_for_resource'"
+                        + " AND connamespace = '" + schema + "'::regnamespace"));
+        var sequence = entityManager
+                .createNativeQuery("SELECT pg_get_serial_sequence('" + schema + ".node', 'id')")
+                .getSingleResult();
+        assertEquals(schema + ".node_id_seq", sequence);
+    }
+
+    @Test
+    public void cannot_cancel_creating_version_that_is_done_or_unknown() throws Exception {
+        testUtils.getResource("/v1/versions/urn:version:1/status", status().isNotFound());
+        testUtils.deleteResource("/v1/versions/urn:version:1/status", status().isNotFound());
+
+        final var createVersionCommand = new VersionPostPut() {
+            {
+                id = Optional.of(URI.create("urn:version:1"));
+                name = "Beta";
+            }
+        };
+        testUtils.createResource("/v1/versions", createVersionCommand);
+        testUtils.deleteResource("/v1/versions/urn:version:1/status", status().isBadRequest());
+    }
+
+    @Test
+    public void delta_version_reads_through_to_base_until_published() throws Exception {
+        builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:1")
+                .child(NodeType.TOPIC, topic -> topic.publicId("urn:topic:1")));
+        testUtils.createResource("/v1/versions", new VersionPostPut() {
+            {
+                id = Optional.of(URI.create("urn:version:base"));
+                name = "Base";
+                locked = Optional.of(true);
+            }
+        });
+        testUtils.createResource("/v1/versions?sourceId=urn:version:base", new VersionPostPut() {
+            {
+                id = Optional.of(URI.create("urn:version:delta"));
+                name = "Delta";
+                storage = Optional.of(VersionStorage.DELTA);
+            }
+        });
+
+        var delta = versionRepository.getByPublicId(URI.create("urn:version:delta"));
+        var base = versionRepository.getByPublicId(URI.create("urn:version:base"));
+        assertEquals(VersionStorage.DELTA, delta.getStorage());
+        assertEquals(base.getHash(), delta.getBaseHash());
+        var deltaSchema = versionService.schemaFromHash(delta.getHash());
+        var baseSchema = versionService.schemaFromHash(base.getHash());
+        assertEquals(nodeRepository.count(), count("SELECT count(*) FROM " + deltaSchema + ".node"));
+        assertEquals(0, count("SELECT count(*) FROM " + deltaSchema + ".node__delta"));
+
+        entityManager
+                .createNativeQuery(
+                        "UPDATE " + deltaSchema + ".node SET name = 'Changed' WHERE public_id = 'urn:subject:1'")
+                .executeUpdate();
+        entityManager
+                .createNativeQuery("DELETE FROM " + deltaSchema + ".node_connection")
+                .executeUpdate();
+        assertEquals(1, count("SELECT count(*) FROM " + deltaSchema + ".node WHERE name = 'Changed'"));
+        assertEquals(0, count("SELECT count(*) FROM " + baseSchema + ".node WHERE name = 'Changed'"));
+        assertEquals(1, count("SELECT count(*) FROM " + deltaSchema + ".node__delta"));
+        assertEquals(0, count("SELECT count(*) FROM " + deltaSchema + ".node_connection"));
+        assertEquals(1, count("SELECT count(*) FROM " + baseSchema + ".node_connection"));
+
+        testUtils.updateResource(
+                "/v1/versions/urn:version:base",
+                new VersionPostPut() {
+                    {
+                        name = "Base";
+                        locked = Optional.of(false);
+                    }
+                },
+                status().isBadRequest());
+        testUtils.updateResource("/v1/versions/urn:version:delta/publish", null);
+
+        var published = versionRepository.getByPublicId(URI.create("urn:version:delta"));
+        assertEquals(VersionStorage.FULL, published.getStorage());
+        assertNull(published.getBaseHash());
+        assertEquals(0, count("SELECT count(*) FROM pg_views WHERE schemaname = '" + deltaSchema + "'"));
+        assertEquals(1, count("SELECT count(*) FROM " + deltaSchema + ".node WHERE name = 'Changed'"));
+        assertEquals(0, count("SELECT count(*) FROM " + deltaSchema + ".node_connection"));
+    }
+
+    @Test
+    public void delta_version_must_be_based_on_locked_version() throws Exception {
+        testUtils.createResource("/v1/versions", new VersionPostPut() {
+            {
+                id = Optional.of(URI.create("urn:version:base"));
+                name = "Base";
+            }
+        });
+        testUtils.createResource(
+                "/v1/versions?sourceId=urn:version:base",
+                new VersionPostPut() {
+                    {
+                        id = Optional.of(URI.create("urn:version:delta"));
+                        name = "Delta";
+                        storage = Optional.of(VersionStorage.DELTA);
+                    }
+                },
+                status().isBadRequest());
+    }
+
+    private long count(String sql) {
+        return ((Number) entityManager.createNativeQuery(sql).getSingleResult()).longValue();
+    }
+
     @Test
     public void cannot_publish_published_or_archived_version() throws Exception {
         Version version = builder.version(v -> v.type(VersionType.PUBLISHED));
@@ -0,0 +1,96 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import no.ndla.taxonomy.domain.Builder;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class InvisibleNodePrunerTest extends AbstractIntegrationTest {
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private InvisibleNodePruner invisibleNodePruner;
+
+    @Autowired
+    private Builder builder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        nodeRepository.deleteAllAndFlush();
+    }
+
+    @Test
+    void invisible_nodes_below_visible_ones_are_disconnected_from_all_parents() {
+        transactionTemplate.executeWithoutResult(status -> {
+            var hidden = builder.node(NodeType.TOPIC, topic -> topic.publicId("urn:topic:2")
+                    .isVisible(false)
+                    .child(NodeType.TOPIC, child -> child.publicId("urn:topic:3")));
+            builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:1")
+                    .isContext(true)
+                    .child(NodeType.TOPIC, topic -> topic.publicId("urn:topic:1")
+                            .child(hidden)
+                            .child(NodeType.RESOURCE, resource -> resource.publicId("urn:resource:1")
+                                    .isVisible(false))));
+            builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:2")
+                    .isContext(true)
+                    .child(hidden)
+                    .child(NodeType.RESOURCE, resource -> resource.publicId("urn:resource:2")
+                            .isVisible(false)));
+        });
+
+        var job = new PruneJobDTO();
+        invisibleNodePruner.prune(job);
+
+        assertEquals(PruneJobDTO.Phase.DONE, job.getPhase());
+        assertEquals(2, job.getRoots());
+        assertEquals(3, job.getNodes());
+        assertEquals(4, job.getConnections());
+        assertEquals(2, job.getRootsDone());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            var hidden = nodeRepository.getByPublicId(URI.create("urn:topic:2"));
+            assertTrue(hidden.getParentConnections().isEmpty());
+            assertTrue(hidden.getContexts().isEmpty());
+            // Children of the invisible node stay, but lose the contexts through it
+            var below = nodeRepository.getByPublicId(URI.create("urn:topic:3"));
+            assertEquals(1, below.getParentConnections().size());
+            assertTrue(below.getContexts().isEmpty());
+            for (var id : List.of("urn:resource:1", "urn:resource:2")) {
+                var resource = nodeRepository.getByPublicId(URI.create(id));
+                assertTrue(resource.getParentConnections().isEmpty());
+            }
+            var visible = nodeRepository.getByPublicId(URI.create("urn:topic:1"));
+            assertEquals(1, visible.getParentConnections().size());
+            assertEquals(1, visible.getContexts().size());
+        });
+    }
+}
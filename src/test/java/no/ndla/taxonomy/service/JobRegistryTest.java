@@ -0,0 +1,62 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import no.ndla.taxonomy.service.dtos.PruneJobDTO;
+import org.junit.jupiter.api.Test;
+
+class JobRegistryTest {
+    @Test
+    void only_one_job_runs_per_key() {
+        var registry = new JobRegistry<String, PruneJobDTO>(10);
+        var first = new PruneJobDTO();
+        assertSame(first, registry.start("a", first));
+        assertSame(first, registry.start("a", new PruneJobDTO()));
+
+        first.done();
+        var second = new PruneJobDTO();
+        assertSame(second, registry.start("a", second));
+        assertEquals(Optional.of(second), registry.get("a"));
+    }
+
+    @Test
+    void keys_started_once_cannot_be_reused() {
+        var registry = new JobRegistry<String, PruneJobDTO>(10);
+        var job = new PruneJobDTO();
+        assertTrue(registry.startOnce("a", job));
+        job.failed("Failed");
+        assertFalse(registry.startOnce("a", new PruneJobDTO()));
+    }
+
+    @Test
+    void only_the_most_recent_finished_jobs_are_kept() {
+        var registry = new JobRegistry<String, PruneJobDTO>(2);
+        var running = new PruneJobDTO();
+        registry.start("running", running);
+        for (var key : new String[] {"a", "b", "c"}) {
+            var job = new PruneJobDTO();
+            registry.start(key, job);
+            job.done();
+        }
+
+        assertEquals(Optional.of(running), registry.get("running"));
+        assertTrue(registry.get("a").isEmpty());
+
+        running.done();
+        registry.start("d", new PruneJobDTO());
+        assertTrue(registry.get("running").isEmpty());
+        assertTrue(registry.get("b").isEmpty());
+        assertTrue(registry.get("c").isPresent());
+    }
+}
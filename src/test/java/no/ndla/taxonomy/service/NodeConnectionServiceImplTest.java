@@ -48,6 +48,9 @@ public class NodeConnectionServiceImplTest extends AbstractIntegrationTest {
 
     private DraftApiClient draftApiClient;
 
+    @Autowired
+    private SubtreeLockService subtreeLockService;
+
     @BeforeEach
     public void setUp() throws Exception {
         contextUpdaterService = mock(ContextUpdaterService.class);
@@ -58,7 +61,8 @@ public class NodeConnectionServiceImplTest extends AbstractIntegrationTest {
                 contextUpdaterService,
                 nodeRepository,
                 qualityEvaluationService,
-                draftApiClient);
+                draftApiClient,
+                subtreeLockService);
     }
 
     @Test
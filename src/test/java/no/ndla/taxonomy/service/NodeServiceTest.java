@@ -16,10 +16,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import no.ndla.taxonomy.domain.*;
 import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.service.dtos.SearchResultDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -165,6 +167,86 @@ public class NodeServiceTest extends AbstractIntegrationTest {
         assertEquals(5, all.getTotalCount());
     }
 
+    @Test
+    public void searchWithoutTotalFetchesOneExtraToDetectMorePages() {
+        for (var i = 0; i < 5; i++) {
+            builder.node(n -> n.nodeType(NodeType.TOPIC));
+        }
+
+        var first = searchService.search(
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                "",
+                false,
+                false,
+                2,
+                1,
+                Optional.of(List.of(NodeType.TOPIC)),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                new SearchOptions(SearchResultDTO.TotalCountType.OMITTED, false));
+
+        assertEquals(2, first.getResults().size());
+        assertTrue(first.isHasMore());
+        assertEquals(SearchResultDTO.TotalCountType.OMITTED, first.getTotalCountType());
+        assertEquals(3, first.getTotalCount());
+
+        var last = searchService.search(
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                "",
+                false,
+                false,
+                2,
+                3,
+                Optional.of(List.of(NodeType.TOPIC)),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                new SearchOptions(SearchResultDTO.TotalCountType.ESTIMATED, false));
+
+        assertEquals(1, last.getResults().size());
+        assertFalse(last.isHasMore());
+        assertEquals(SearchResultDTO.TotalCountType.EXACT, last.getTotalCountType());
+        assertEquals(5, last.getTotalCount());
+    }
+
+    @Test
+    public void searchCountsFacetsOfAllMatches() {
+        builder.node(s -> s.nodeType(NodeType.SUBJECT)
+                .name("Subject")
+                .resource(true, r -> r.name("Video").resourceType(rt -> rt.publicId("urn:resourcetype:video")))
+                .resource(true, r -> r.name("Article").isVisible(false)));
+
+        var result = searchService.search(
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                "",
+                false,
+                false,
+                1,
+                1,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                new SearchOptions(SearchResultDTO.TotalCountType.OMITTED, true));
+
+        assertEquals(1, result.getResults().size());
+        assertEquals(SearchResultDTO.TotalCountType.EXACT, result.getTotalCountType());
+        assertEquals(3, result.getTotalCount());
+
+        var facets = result.getFacets().orElseThrow();
+        assertEquals(Map.of("SUBJECT", 1L, "RESOURCE", 2L), facets.getNodeType());
+        assertEquals(Map.of("urn:resourcetype:video", 1L), facets.getResourceType());
+        assertEquals(Map.of(Relevance.CORE.getPublicId().toString(), 2L), facets.getRelevance());
+        assertEquals(Map.of("true", 2L, "false", 1L), facets.getVisible());
+    }
+
     @Test
     public void querySearchWorks() {
         builder.node(n -> n.nodeType(NodeType.TOPIC).name("Apekatt"));
@@ -190,6 +272,48 @@ public class NodeServiceTest extends AbstractIntegrationTest {
         assertEquals(1, result.getTotalCount());
     }
 
+    @Test
+    public void querySearchMatchesTranslationsAndRanksExactNameFirst() {
+        var apekatt = builder.node(n -> n.nodeType(NodeType.TOPIC).name("Apekatt").translation("Monkey", "en"));
+        var katt = builder.node(n -> n.nodeType(NodeType.TOPIC).name("Katt"));
+        builder.node(n -> n.nodeType(NodeType.TOPIC).name("Hund"));
+
+        var translated = searchService.search(
+                Optional.of("monkey"),
+                Optional.empty(),
+                Optional.empty(),
+                "en",
+                true,
+                false,
+                10,
+                1,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+
+        assertEquals(1, translated.getTotalCount());
+        assertEquals(apekatt.getPublicId(), translated.getResults().getFirst().getId());
+
+        var ranked = searchService.search(
+                Optional.of("katt"),
+                Optional.empty(),
+                Optional.empty(),
+                "nb",
+                true,
+                false,
+                10,
+                1,
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+
+        assertEquals(2, ranked.getTotalCount());
+        assertEquals(katt.getPublicId(), ranked.getResults().get(0).getId());
+        assertEquals(apekatt.getPublicId(), ranked.getResults().get(1).getId());
+    }
+
     @Test
     public void idsAndQuerySearch() throws URISyntaxException {
         builder.node(n -> n.nodeType(NodeType.TOPIC).name("Apekatt").publicId("urn:topic:1"));
@@ -0,0 +1,131 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import no.ndla.taxonomy.domain.Node;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class NodeSuggestIndexTest extends AbstractIntegrationTest {
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeSuggestService nodeSuggestService;
+
+    @Autowired
+    private NodeSuggestIndex nodeSuggestIndex;
+
+    @Autowired
+    private VersionRegistry versionRegistry;
+
+    @Autowired
+    private VersionIdentifierResolver versionIdentifierResolver;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+    private String schema;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        nodeRepository.deleteAllAndFlush();
+        nodeSuggestIndex.invalidateAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeRepository.deleteAllAndFlush();
+        nodeSuggestIndex.invalidateAll();
+    }
+
+    private List<String> suggest(String query) {
+        return nodeSuggestService
+                .suggest(query, "nb", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), 10)
+                .stream()
+                .map(suggestion -> suggestion.name)
+                .toList();
+    }
+
+    private Node save(String name) {
+        return transactionTemplate.execute(status -> {
+            var node = new Node(NodeType.TOPIC);
+            node.setName(name);
+            return nodeRepository.save(node);
+        });
+    }
+
+    @Test
+    void committed_changes_are_applied_to_the_index() {
+        save("Matematikk");
+        assertEquals(List.of("Matematikk"), suggest("mat"));
+
+        var node = save("Fysikk");
+        assertEquals(List.of("Fysikk"), suggest("fys"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            nodeRepository.delete(nodeRepository.getReferenceById(node.getId()));
+            nodeRepository.flush();
+            status.setRollbackOnly();
+        });
+        assertEquals(List.of("Fysikk"), suggest("fys"));
+    }
+
+    @Test
+    void changes_from_other_instances_are_picked_up_from_the_notification() throws InterruptedException {
+        var node = save("Matematikk");
+        assertEquals(List.of("Matematikk"), suggest("mat"));
+
+        // Another instance would rename and notify without touching this index
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE node SET name = 'Kjemi' WHERE id = ?", node.getId());
+            jdbcTemplate.queryForList(
+                    "SELECT pg_notify(?, ?)", NodeSuggestIndexListener.CHANNEL, "other " + schema + " " + node.getId());
+        });
+
+        for (int i = 0; i < 50 && suggest("kje").isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(List.of("Kjemi"), suggest("kje"));
+        assertTrue(suggest("mat").isEmpty());
+    }
+
+    @Test
+    void indexes_of_deleted_versions_are_dropped() {
+        nodeSuggestIndex.getOrLoad(schema, List::of);
+        nodeSuggestIndex.getOrLoad(schema + "_deleted", List::of);
+
+        versionRegistry.reload();
+
+        assertTrue(nodeSuggestIndex.get(schema).isPresent());
+        assertTrue(nodeSuggestIndex.get(schema + "_deleted").isEmpty());
+    }
+}
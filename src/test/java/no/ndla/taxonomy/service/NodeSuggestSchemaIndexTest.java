@@ -0,0 +1,80 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import no.ndla.taxonomy.domain.JsonTranslation;
+import no.ndla.taxonomy.domain.NodeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class NodeSuggestSchemaIndexTest {
+    private NodeSuggestSchemaIndex index;
+
+    private NodeSuggestDocument document(int id, String name, NodeType nodeType, JsonTranslation... translations) {
+        return new NodeSuggestDocument(
+                id,
+                URI.create("urn:" + nodeType.getName() + ":" + id),
+                name,
+                List.of(translations),
+                nodeType,
+                URI.create("urn:article:" + id),
+                Map.of());
+    }
+
+    private List<Integer> search(String query, String language) {
+        return index.search(query, language, document -> true, 10).stream()
+                .map(NodeSuggestDocument::id)
+                .toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new NodeSuggestSchemaIndex();
+        index.load(List.of(
+                document(1, "Matematikk 1T", NodeType.SUBJECT, new JsonTranslation("Mathematics 1T", "en")),
+                document(2, "Matematikk", NodeType.TOPIC),
+                document(3, "Samfunnsfag", NodeType.SUBJECT)));
+    }
+
+    @Test
+    void finds_by_prefix_of_any_word_in_any_language() {
+        assertEquals(List.of(2, 1), search("mat", "nb"));
+        assertEquals(List.of(1), search("math", "en"));
+        assertEquals(List.of(1), search("matematikk 1t", "nb"));
+        assertTrue(search("fysikk", "nb").isEmpty());
+    }
+
+    @Test
+    void exact_name_is_ranked_first() {
+        assertEquals(List.of(2, 1), search("matematikk", "nb"));
+    }
+
+    @Test
+    void changes_are_reflected() {
+        index.put(document(3, "Samfunn og matte", NodeType.SUBJECT));
+        index.remove(2);
+
+        assertEquals(List.of(1, 3), search("ma", "nb").stream().sorted().toList());
+        assertTrue(search("samfunnsfag", "nb").isEmpty());
+    }
+
+    @Test
+    void changes_during_load_are_replayed() {
+        var loading = new NodeSuggestSchemaIndex();
+        loading.put(document(4, "Historie", NodeType.SUBJECT));
+        loading.load(List.of(document(5, "Historie og filosofi", NodeType.SUBJECT)));
+
+        assertEquals(2, loading.size());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import no.ndla.taxonomy.config.cache.TenantCacheRegionFactory;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import no.ndla.taxonomy.service.dtos.AverageTreeJobDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+class QualityEvaluationAggregatorTest {
+    private final List<String> transactionVersions = new ArrayList<>();
+
+    private final AbstractPlatformTransactionManager transactionManager = new AbstractPlatformTransactionManager() {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            transactionVersions.add(VersionContext.getCurrentVersion());
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {}
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {}
+    };
+
+    @AfterEach
+    void tearDown() {
+        VersionContext.clear();
+    }
+
+    @Test
+    void rebuilds_the_version_it_was_started_for() {
+        var nodeRepository = mock(NodeRepository.class);
+        when(nodeRepository.streamQualityEvaluationNodes()).thenReturn(Stream.empty());
+        var nodeConnectionRepository = mock(NodeConnectionRepository.class);
+        when(nodeConnectionRepository.streamQualityEvaluationEdges()).thenReturn(Stream.empty());
+        var cacheRegionFactory = mock(TenantCacheRegionFactory.class);
+        var aggregator = new QualityEvaluationAggregator(
+                nodeRepository, nodeConnectionRepository, cacheRegionFactory, transactionManager);
+
+        var job = new AverageTreeJobDTO();
+        aggregator.rebuildAsync(job, "taxonomy_api_abc");
+
+        assertEquals(List.of("taxonomy_api_abc"), transactionVersions);
+        verify(cacheRegionFactory).invalidateTenant("taxonomy_api_abc");
+        assertEquals(AverageTreeJobDTO.Phase.DONE, job.getPhase());
+        // Pool threads are reused, so the version must not stick to the thread
+        assertNull(VersionContext.getCurrentVersion());
+    }
+}
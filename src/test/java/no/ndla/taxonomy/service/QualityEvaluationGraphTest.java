@@ -0,0 +1,95 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class QualityEvaluationGraphTest {
+    private int sum(QualityEvaluationGraph graph, QualityEvaluationGraph.Averages averages, int id) {
+        for (var i = 0; i < graph.size(); i++) {
+            if (graph.id(i) == id) {
+                return averages.sums()[i];
+            }
+        }
+        throw new IllegalArgumentException("No node " + id);
+    }
+
+    private int count(QualityEvaluationGraph graph, QualityEvaluationGraph.Averages averages, int id) {
+        for (var i = 0; i < graph.size(); i++) {
+            if (graph.id(i) == id) {
+                return averages.counts()[i];
+            }
+        }
+        throw new IllegalArgumentException("No node " + id);
+    }
+
+    @Test
+    public void sums_grades_of_resources_below_each_node() {
+        var graph = new QualityEvaluationGraph(0);
+        graph.addNode(1, null, false); // subject
+        graph.addNode(2, 5, false); // topic, own grade is not counted
+        graph.addNode(3, null, false); // topic
+        graph.addNode(4, 4, true);
+        graph.addNode(5, 2, true);
+        graph.addNode(6, null, true);
+        graph.addEdge(1, 2);
+        graph.addEdge(1, 3);
+        graph.addEdge(2, 4);
+        graph.addEdge(2, 5);
+        graph.addEdge(3, 6);
+        // Shared resource counts once for each path
+        graph.addEdge(3, 4);
+
+        var averages = graph.aggregate();
+
+        assertEquals(10, sum(graph, averages, 1));
+        assertEquals(3, count(graph, averages, 1));
+        assertEquals(6, sum(graph, averages, 2));
+        assertEquals(2, count(graph, averages, 2));
+        assertEquals(4, sum(graph, averages, 3));
+        assertEquals(1, count(graph, averages, 3));
+        assertEquals(0, count(graph, averages, 4));
+    }
+
+    @Test
+    public void survives_cycles_and_unknown_nodes() {
+        var graph = new QualityEvaluationGraph(2);
+        graph.addNode(1, null, false);
+        graph.addNode(2, null, false);
+        graph.addNode(3, 3, true);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(2, 3);
+        graph.addEdge(2, 99);
+
+        var averages = graph.aggregate();
+
+        assertEquals(3, sum(graph, averages, 1));
+        assertEquals(3, sum(graph, averages, 2));
+        assertEquals(3, graph.edgeCount());
+    }
+
+    @Test
+    public void handles_deep_trees() {
+        var depth = 100_000;
+        var graph = new QualityEvaluationGraph(depth);
+        for (var id = 0; id < depth; id++) {
+            graph.addNode(id, id == depth - 1 ? 5 : null, id == depth - 1);
+            if (id > 0) {
+                graph.addEdge(id - 1, id);
+            }
+        }
+
+        var averages = graph.aggregate();
+
+        assertEquals(5, sum(graph, averages, 0));
+        assertEquals(1, count(graph, averages, 0));
+    }
+}
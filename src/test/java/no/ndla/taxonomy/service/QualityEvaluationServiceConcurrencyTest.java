@@ -11,17 +11,21 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import no.ndla.taxonomy.domain.Builder;
 import no.ndla.taxonomy.domain.Grade;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeType;
 import no.ndla.taxonomy.domain.UpdateOrDelete;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
 import no.ndla.taxonomy.repositories.NodeRepository;
 import no.ndla.taxonomy.rest.v1.commands.NodePostPut;
 import no.ndla.taxonomy.service.dtos.QualityEvaluationDTO;
@@ -40,6 +44,9 @@ class QualityEvaluationServiceConcurrencyTest extends AbstractIntegrationTest {
     @Autowired
     private NodeRepository nodeRepository;
 
+    @Autowired
+    private NodeConnectionRepository nodeConnectionRepository;
+
     @Autowired
     private QualityEvaluationService qualityEvaluationService;
 
@@ -84,8 +91,47 @@ class QualityEvaluationServiceConcurrencyTest extends AbstractIntegrationTest {
         var updatedParent = transactionTemplate.execute(status -> nodeRepository.getByPublicId(parentId));
         var average = updatedParent.getChildQualityEvaluationAverage().orElseThrow();
 
-        assertEquals(1, average.getCount()); // Should be 2
-        // assertEquals(4.5, average.getAverageValue());
+        assertEquals(2, average.getCount());
+        assertEquals(4.5, average.getAverageValue());
+    }
+
+    @Test
+    void many_concurrent_grade_changes_below_the_same_subject_are_all_counted() throws Exception {
+        var resources = 40;
+        var resourceIds = transactionTemplate.execute(status -> {
+            var ids = new ArrayList<URI>();
+            builder.node(NodeType.SUBJECT, subject -> subject.name("Subject")
+                    .publicId("urn:subject:3")
+                    .child(NodeType.TOPIC, topic -> {
+                        topic.name("Topic").publicId("urn:topic:3");
+                        for (var i = 0; i < resources; i++) {
+                            var publicId = URI.create("urn:resource:3" + i);
+                            ids.add(publicId);
+                            topic.child(NodeType.RESOURCE, child -> child.name("Resource")
+                                    .publicId(publicId.toString()));
+                        }
+                    }));
+            return ids;
+        });
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            var updates = new ArrayList<Future<?>>();
+            for (var i = 0; i < resources; i++) {
+                var resourceId = resourceIds.get(i);
+                var grade = i % 2 == 0 ? Grade.Five : Grade.Three;
+                updates.add(executor.submit(() -> applyNodeQualityEvaluationUpdate(resourceId, grade)));
+            }
+            for (var update : updates) {
+                update.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        for (var nodeId : List.of(URI.create("urn:subject:3"), URI.create("urn:topic:3"))) {
+            var node = transactionTemplate.execute(status -> nodeRepository.getByPublicId(nodeId));
+            var average = node.getChildQualityEvaluationAverage().orElseThrow();
+            assertEquals(resources, average.getCount());
+            assertEquals(4.0, average.getAverageValue());
+        }
     }
 
     @Test
@@ -132,6 +178,120 @@ class QualityEvaluationServiceConcurrencyTest extends AbstractIntegrationTest {
         assertEquals(5.0, average.getAverageValue());
     }
 
+    @Test
+    void grade_changes_in_separate_subjects_do_not_wait_for_each_other() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (var i = 5; i <= 6; i++) {
+                var number = i;
+                builder.node(NodeType.SUBJECT, subject -> subject.name("Subject")
+                        .publicId("urn:subject:" + number)
+                        .child(NodeType.TOPIC, topic -> topic.name("Topic")
+                                .publicId("urn:topic:" + number)
+                                .child(NodeType.RESOURCE, child -> child.name("Resource")
+                                        .publicId("urn:resource:" + number))));
+            }
+        });
+
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            // Holds the locks of the first subject until released
+            var held = executor.submit(() -> applyNodeQualityEvaluationUpdate(
+                    URI.create("urn:resource:5"), Grade.Five, null, null, () -> {
+                        holding.countDown();
+                        await(release);
+                    }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            executor.submit(() -> applyNodeQualityEvaluationUpdate(URI.create("urn:resource:6"), Grade.Four))
+                    .get(5, TimeUnit.SECONDS);
+            release.countDown();
+            held.get(5, TimeUnit.SECONDS);
+        }
+
+        var subject = transactionTemplate.execute(status -> nodeRepository.getByPublicId(URI.create("urn:subject:6")));
+        assertEquals(4.0, subject.getChildQualityEvaluationAverage().orElseThrow().getAverageValue());
+    }
+
+    @Test
+    void grade_changes_keep_up_under_concurrency() throws Exception {
+        var subjects = 8;
+        var resourcesPerSubject = 25;
+        var resourceIds = transactionTemplate.execute(status -> {
+            var ids = new ArrayList<URI>();
+            for (var s = 0; s < subjects; s++) {
+                var subjectNumber = s;
+                builder.node(NodeType.SUBJECT, subject -> subject.name("Subject")
+                        .publicId("urn:subject:7" + subjectNumber)
+                        .child(NodeType.TOPIC, topic -> {
+                            topic.name("Topic").publicId("urn:topic:7" + subjectNumber);
+                            for (var r = 0; r < resourcesPerSubject; r++) {
+                                var publicId = URI.create("urn:resource:7" + subjectNumber + "_" + r);
+                                ids.add(publicId);
+                                topic.child(NodeType.RESOURCE, child -> child.name("Resource")
+                                        .publicId(publicId.toString()));
+                            }
+                        }));
+            }
+            return ids;
+        });
+
+        var started = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            var updates = new ArrayList<Future<?>>();
+            for (var resourceId : resourceIds) {
+                updates.add(executor.submit(() -> applyNodeQualityEvaluationUpdate(resourceId, Grade.Four)));
+            }
+            for (var update : updates) {
+                update.get(30, TimeUnit.SECONDS);
+            }
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        // Generous, but fails if grade changes end up serialized behind a lock or a cache rebuild
+        assertTrue(
+                elapsed.compareTo(Duration.ofSeconds(20)) < 0,
+                resourceIds.size() + " grade changes took " + elapsed.toMillis() + " ms");
+        for (var s = 0; s < subjects; s++) {
+            var subjectId = URI.create("urn:subject:7" + s);
+            var subject = transactionTemplate.execute(status -> nodeRepository.getByPublicId(subjectId));
+            assertEquals(resourcesPerSubject, subject.getChildQualityEvaluationAverage().orElseThrow().getCount());
+        }
+    }
+
+    @Test
+    void recalculation_after_bulk_changes_updates_the_nodes_and_their_ancestors() {
+        transactionTemplate.executeWithoutResult(status -> {
+            builder.node(NodeType.SUBJECT, subject -> subject.name("Subject")
+                    .publicId("urn:subject:4")
+                    .child(NodeType.TOPIC, topic -> topic.name("Topic")
+                            .publicId("urn:topic:4")
+                            .child(NodeType.RESOURCE, child -> child.name("Kept")
+                                    .publicId("urn:resource:41")
+                                    .qualityEvaluation(Grade.Five))
+                            .child(NodeType.RESOURCE, child -> child.name("Removed")
+                                    .publicId("urn:resource:42")
+                                    .qualityEvaluation(Grade.One))));
+        });
+        qualityEvaluationService.updateEntireAverageTreeForNode(URI.create("urn:topic:4"));
+        qualityEvaluationService.updateEntireAverageTreeForNode(URI.create("urn:subject:4"));
+
+        // Removed in bulk, as when pruning, so the averages are left as they were
+        transactionTemplate.executeWithoutResult(status -> {
+            var topic = nodeRepository.getByPublicId(URI.create("urn:topic:4"));
+            var removed = nodeRepository.getByPublicId(URI.create("urn:resource:42"));
+            nodeConnectionRepository.deleteByChildIds(new Integer[] {removed.getId()});
+            qualityEvaluationService.recalculateChildQualityEvaluationAverages(List.of(topic));
+        });
+
+        for (var nodeId : List.of(URI.create("urn:subject:4"), URI.create("urn:topic:4"))) {
+            var node = transactionTemplate.execute(status -> nodeRepository.getByPublicId(nodeId));
+            var average = node.getChildQualityEvaluationAverage().orElseThrow();
+            assertEquals(1, average.getCount());
+            assertEquals(5.0, average.getAverageValue());
+        }
+    }
+
     private void applyQualityDelta(
             URI parentId, Grade grade, CountDownLatch loadedParent, CountDownLatch startUpdates) {
         var template = new TransactionTemplate(transactionManager);
@@ -150,6 +310,11 @@ class QualityEvaluationServiceConcurrencyTest extends AbstractIntegrationTest {
 
     private void applyNodeQualityEvaluationUpdate(
             URI nodeId, Grade grade, CountDownLatch loadedNode, CountDownLatch continueUpdate) {
+        applyNodeQualityEvaluationUpdate(nodeId, grade, loadedNode, continueUpdate, () -> {});
+    }
+
+    private void applyNodeQualityEvaluationUpdate(
+            URI nodeId, Grade grade, CountDownLatch loadedNode, CountDownLatch continueUpdate, Runnable beforeCommit) {
         var template = new TransactionTemplate(transactionManager);
         template.executeWithoutResult(status -> {
             Node node = nodeRepository.getByPublicId(nodeId);
@@ -168,6 +333,7 @@ class QualityEvaluationServiceConcurrencyTest extends AbstractIntegrationTest {
             var oldGrade = node.getQualityEvaluationGrade();
             command.apply(node);
             qualityEvaluationService.updateQualityEvaluationOfParents(node, oldGrade, command);
+            beforeCommit.run();
         });
     }
 
@@ -0,0 +1,73 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import no.ndla.taxonomy.domain.ResourceType;
+import no.ndla.taxonomy.repositories.ResourceTypeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class ResourceTypeTreeServiceTest extends AbstractIntegrationTest {
+    private static final URI ARTICLE = URI.create("urn:resourcetype:article");
+
+    @Autowired
+    private ResourceTypeRepository resourceTypeRepository;
+
+    @Autowired
+    private ResourceTypeTreeService resourceTypeTreeService;
+
+    @Autowired
+    private VersionIdentifierResolver versionIdentifierResolver;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        resourceTypeRepository.deleteAllInBatch();
+    }
+
+    @AfterEach
+    void tearDown() {
+        resourceTypeRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void changes_from_other_instances_are_picked_up_from_the_notification() throws InterruptedException {
+        assertTrue(resourceTypeTreeService.getTree().get(ARTICLE).isEmpty());
+
+        // Another instance would save and notify without touching this service
+        var schema = versionIdentifierResolver.resolveCurrentTenantIdentifier();
+        transactionTemplate.executeWithoutResult(status -> {
+            var article = new ResourceType().name("Article");
+            article.setPublicId(ARTICLE);
+            resourceTypeRepository.save(article);
+            resourceTypeRepository.notifyResourceTypesChanged(schema);
+        });
+
+        for (int i = 0; i < 50 && resourceTypeTreeService.getTree().get(ARTICLE).isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(resourceTypeTreeService.getTree().get(ARTICLE).isPresent());
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import no.ndla.taxonomy.domain.ResourceType;
+import org.junit.jupiter.api.Test;
+
+class ResourceTypeTreeTest {
+
+    private ResourceType resourceType(String id, String name, int order, ResourceType parent) {
+        var resourceType = new ResourceType().name(name);
+        resourceType.setPublicId(URI.create(id));
+        resourceType.setOrder(order);
+        if (parent != null) {
+            resourceType.setParent(parent);
+        }
+        return resourceType;
+    }
+
+    @Test
+    void builds_ordered_tree_with_lookup() {
+        var article = resourceType("urn:resourcetype:article", "Article", 1, null);
+        var task = resourceType("urn:resourcetype:task", "Task", 0, null);
+        var exercise = resourceType("urn:resourcetype:exercise", "Exercise", 1, task);
+        var quiz = resourceType("urn:resourcetype:quiz", "Quiz", 0, task);
+        quiz.addTranslation("Quiz nn", "nn");
+
+        var tree = ResourceTypeTree.of(3, List.of(article, exercise, task, quiz));
+
+        assertEquals(3, tree.getGeneration());
+        assertEquals(
+                List.of(task.getPublicId(), article.getPublicId()),
+                tree.getRoots().stream().map(ResourceTypeTree.Entry::publicId).toList());
+
+        var taskEntry = tree.get(task.getPublicId()).orElseThrow();
+        assertEquals(
+                List.of(quiz.getPublicId(), exercise.getPublicId()),
+                taskEntry.subtypes().stream().map(ResourceTypeTree.Entry::publicId).toList());
+
+        var quizEntry = tree.get(quiz.getPublicId()).orElseThrow();
+        assertEquals(task.getPublicId(), quizEntry.parentId().orElseThrow());
+        assertEquals("Quiz nn", quizEntry.getTranslatedName("nn"));
+        assertEquals("Quiz", quizEntry.getTranslatedName("en"));
+        assertTrue(tree.get(URI.create("urn:resourcetype:missing")).isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import no.ndla.taxonomy.domain.Builder;
+import no.ndla.taxonomy.domain.NodeConnection;
+import no.ndla.taxonomy.domain.NodeConnectionType;
+import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.domain.Relevance;
+import no.ndla.taxonomy.repositories.NodeConnectionRepository;
+import no.ndla.taxonomy.repositories.NodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class SubtreeLockServiceTest extends AbstractIntegrationTest {
+    @Autowired
+    private NodeRepository nodeRepository;
+
+    @Autowired
+    private NodeConnectionRepository nodeConnectionRepository;
+
+    @Autowired
+    private SubtreeLockService subtreeLockService;
+
+    @Autowired
+    private Builder builder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        nodeRepository.deleteAllAndFlush();
+    }
+
+    @Test
+    void changes_below_the_same_root_wait_for_each_other_while_other_roots_do_not() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:1")
+                    .child(NodeType.TOPIC, topic -> topic.publicId("urn:topic:1")));
+            builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:2"));
+        });
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(3)) {
+            var holder = executor.submit(() -> lockSubtreeOf("urn:subject:1", locked, release));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            var sameRoot = executor.submit(() -> lockSubtreeOf("urn:topic:1", null, null));
+            var otherRoot = executor.submit(() -> lockSubtreeOf("urn:subject:2", null, null));
+
+            otherRoot.get(5, TimeUnit.SECONDS);
+            assertThrows(TimeoutException.class, () -> sameRoot.get(500, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+            sameRoot.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void links_do_not_lock_the_subject_they_come_from() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:1")
+                    .child(NodeType.TOPIC, topic -> topic.publicId("urn:topic:1")));
+            var topic = nodeRepository.getByPublicId(URI.create("urn:topic:1"));
+            var linking = builder.node(NodeType.SUBJECT, subject -> subject.publicId("urn:subject:2"));
+            nodeConnectionRepository.save(
+                    NodeConnection.create(linking, topic, Relevance.CORE, NodeConnectionType.LINK, false));
+        });
+
+        var locked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            var holder = executor.submit(() -> lockSubtreeOf("urn:subject:2", locked, release));
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            executor.submit(() -> lockSubtreeOf("urn:topic:1", null, null)).get(5, TimeUnit.SECONDS);
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private void lockSubtreeOf(String publicId, CountDownLatch locked, CountDownLatch release) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            subtreeLockService.lockSubtreesOf(nodeRepository.getByPublicId(URI.create(publicId)));
+            if (locked != null) {
+                locked.countDown();
+                await(release);
+            }
+        });
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
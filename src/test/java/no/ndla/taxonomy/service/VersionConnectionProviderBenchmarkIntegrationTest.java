@@ -0,0 +1,159 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.sql.DataSource;
+import org.hibernate.engine.jdbc.connections.spi.AbstractDataSourceBasedMultiTenantConnectionProviderImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Compares checking out connections with {@link VersionConnectionProvider} against switching schema on every checkout
+ * and release, as the provider used to. Traffic is mostly against the published version, some against the default
+ * schema and a little against betas. Every checkout also checks that the connection is in the right schema.
+ *
+ * <p>Will only be run in maven using '-P integration'
+ */
+@SpringBootTest
+public class VersionConnectionProviderBenchmarkIntegrationTest extends AbstractIntegrationTest {
+    private static final Logger logger =
+            LoggerFactory.getLogger(VersionConnectionProviderBenchmarkIntegrationTest.class);
+    private static final int THREADS = 8;
+    private static final int CHECKOUTS_PER_THREAD = 2000;
+    private static final String DEFAULT_SCHEMA = "taxonomy_api";
+    private static final String PUBLISHED_SCHEMA = "taxonomy_api_bench_published";
+    private static final List<String> BETA_SCHEMAS =
+            List.of("taxonomy_api_bench_beta1", "taxonomy_api_bench_beta2", "taxonomy_api_bench_beta3");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private VersionConnectionProvider versionConnectionProvider;
+
+    @BeforeEach
+    void createSchemas() throws SQLException {
+        try (var connection = dataSource.getConnection();
+                var statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + PUBLISHED_SCHEMA);
+            for (var schema : BETA_SCHEMAS) {
+                statement.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+            }
+        }
+    }
+
+    @Test
+    void tracked_schemas_against_switching_on_every_checkout() throws Exception {
+        var switching = new SwitchingOnEveryCheckout(dataSource);
+
+        // The old way leaves every connection in the default schema, so it has to go first
+        run(switching, 200);
+        var switchingMillis = run(switching, CHECKOUTS_PER_THREAD);
+        run(versionConnectionProvider, 200);
+        var trackingMillis = run(versionConnectionProvider, CHECKOUTS_PER_THREAD);
+
+        logger.info(
+                "{} checkouts of mixed versions: switching on every checkout {} ms, tracking schemas {} ms",
+                THREADS * CHECKOUTS_PER_THREAD,
+                switchingMillis,
+                trackingMillis);
+    }
+
+    private long run(AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> provider, int checkouts)
+            throws Exception {
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            var random = new Random(thread);
+            tasks.add(() -> {
+                for (int i = 0; i < checkouts; i++) {
+                    checkout(provider, pickSchema(random));
+                }
+                return null;
+            });
+        }
+        var started = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        }
+        return (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private static String pickSchema(Random random) {
+        var roll = random.nextInt(100);
+        if (roll < 80) {
+            return PUBLISHED_SCHEMA;
+        }
+        if (roll < 95) {
+            return DEFAULT_SCHEMA;
+        }
+        return BETA_SCHEMAS.get(random.nextInt(BETA_SCHEMAS.size()));
+    }
+
+    private static void checkout(
+            AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> provider, String schema)
+            throws SQLException {
+        var connection = provider.getConnection(schema);
+        try (var statement = connection.createStatement();
+                var result = statement.executeQuery("SELECT current_schema()")) {
+            result.next();
+            assertEquals(schema, result.getString(1));
+        } finally {
+            provider.releaseConnection(schema, connection);
+        }
+    }
+
+    /** How connections were checked out before the provider started tracking schemas. */
+    private static class SwitchingOnEveryCheckout
+            extends AbstractDataSourceBasedMultiTenantConnectionProviderImpl<String> {
+        private final DataSource dataSource;
+
+        SwitchingOnEveryCheckout(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        protected DataSource selectAnyDataSource() {
+            return dataSource;
+        }
+
+        @Override
+        protected DataSource selectDataSource(String tenantIdentifier) {
+            return dataSource;
+        }
+
+        @Override
+        public Connection getConnection(String tenantIdentifier) throws SQLException {
+            var connection = getAnyConnection();
+            connection.setSchema(tenantIdentifier);
+            return connection;
+        }
+
+        @Override
+        public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+            connection.setSchema(DEFAULT_SCHEMA);
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VersionConnectionProviderTest {
+    private Connection physical;
+    private Connection pooled;
+    private VersionConnectionProvider provider;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        physical = mock(Connection.class);
+        when(physical.getAutoCommit()).thenReturn(true);
+        pooled = mock(Connection.class);
+        when(pooled.isWrapperFor(Connection.class)).thenReturn(true);
+        when(pooled.unwrap(Connection.class)).thenReturn(physical);
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(pooled);
+        provider = new VersionConnectionProvider(dataSource);
+    }
+
+    private void checkout(String schema) throws SQLException {
+        provider.releaseConnection(schema, provider.getConnection(schema));
+    }
+
+    @Test
+    void switches_only_when_the_schema_changes() throws SQLException {
+        checkout("taxonomy_api_a");
+        checkout("taxonomy_api_a");
+        checkout("taxonomy_api_b");
+        checkout("taxonomy_api_a");
+
+        verify(physical, times(2)).setSchema("taxonomy_api_a");
+        verify(physical, times(1)).setSchema("taxonomy_api_b");
+        verify(pooled, never()).setSchema(anyString());
+        verify(pooled, times(4)).close();
+    }
+
+    @Test
+    void switch_is_committed_outside_of_auto_commit() throws SQLException {
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        checkout("taxonomy_api_a");
+
+        verify(physical).commit();
+    }
+
+    @Test
+    void failed_switch_is_retried_on_next_checkout() throws SQLException {
+        doThrow(new SQLException("broken")).doNothing().when(physical).setSchema("taxonomy_api_a");
+
+        assertThrows(SQLException.class, () -> provider.getConnection("taxonomy_api_a"));
+        verify(pooled).close();
+
+        checkout("taxonomy_api_a");
+        checkout("taxonomy_api_a");
+        verify(physical, times(2)).setSchema("taxonomy_api_a");
+    }
+}
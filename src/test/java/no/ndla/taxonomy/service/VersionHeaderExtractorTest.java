@@ -14,6 +14,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import no.ndla.taxonomy.domain.Version;
 import no.ndla.taxonomy.domain.VersionType;
 import no.ndla.taxonomy.repositories.VersionRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,11 +22,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
 @ExtendWith(SpringExtension.class)
-@Transactional
 public class VersionHeaderExtractorTest extends AbstractIntegrationTest {
 
     @Autowired
@@ -34,12 +33,22 @@ public class VersionHeaderExtractorTest extends AbstractIntegrationTest {
     @Autowired
     private VersionHeaderExtractor versionHeaderExtractor;
 
+    @Autowired
+    private VersionRegistry versionRegistry;
+
     @Value("${spring.datasource.hikari.schema:taxonomy_api}")
     private String defaultSchema;
 
     @BeforeEach
     void setUp() {
         versionRepository.deleteAllAndFlush();
+        versionRegistry.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        versionRepository.deleteAllAndFlush();
+        versionRegistry.reload();
     }
 
     @Test
@@ -76,6 +85,7 @@ public class VersionHeaderExtractorTest extends AbstractIntegrationTest {
         Version version = new Version();
         version.setVersionType(VersionType.BETA);
         Version saved = versionRepository.save(version);
+        versionRegistry.reload();
         {
             HttpServletRequest request = mock(HttpServletRequest.class);
             when(request.getRequestURI()).thenReturn("/v1/subjects");
@@ -99,6 +109,7 @@ public class VersionHeaderExtractorTest extends AbstractIntegrationTest {
         Version version = new Version();
         version.setVersionType(VersionType.PUBLISHED);
         Version saved = versionRepository.save(version);
+        versionRegistry.reload();
         {
             HttpServletRequest request = mock(HttpServletRequest.class);
             when(request.getRequestURI()).thenReturn("/v1/subjects");
@@ -0,0 +1,86 @@
+/*
+ * Part of NDLA taxonomy-api
+ * Copyright (C) 2026 NDLA
+ *
+ * See LICENSE
+ */
+
+package no.ndla.taxonomy.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import no.ndla.taxonomy.domain.Version;
+import no.ndla.taxonomy.domain.VersionType;
+import no.ndla.taxonomy.repositories.VersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+class VersionRegistryTest extends AbstractIntegrationTest {
+    @Autowired
+    private VersionRepository versionRepository;
+
+    @Autowired
+    private VersionRegistry versionRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        versionRepository.deleteAllAndFlush();
+        versionRegistry.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        versionRepository.deleteAllAndFlush();
+        versionRegistry.reload();
+    }
+
+    @Test
+    void changes_are_seen_after_commit() {
+        var version = transactionTemplate.execute(status -> {
+            var published = new Version();
+            published.setVersionType(VersionType.PUBLISHED);
+            versionRepository.save(published);
+            versionRegistry.versionsChanged();
+            assertFalse(versionRegistry.hasVersion(published.getHash()));
+            return published;
+        });
+
+        assertTrue(versionRegistry.hasVersion(version.getHash()));
+        assertEquals(Optional.of(version.getHash()), versionRegistry.getPublishedHash());
+    }
+
+    @Test
+    void changes_from_other_instances_are_picked_up_from_the_notification() throws InterruptedException {
+        // Another instance would save and notify without touching this registry
+        var version = transactionTemplate.execute(status -> {
+            var beta = new Version();
+            beta.setVersionType(VersionType.BETA);
+            versionRepository.save(beta);
+            versionRepository.notifyVersionsChanged();
+            return beta;
+        });
+
+        for (int i = 0; i < 50 && !versionRegistry.hasVersion(version.getHash()); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(versionRegistry.hasVersion(version.getHash()));
+    }
+}
@@ -10,10 +10,16 @@ package no.ndla.taxonomy.service.dtos;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import no.ndla.taxonomy.domain.JsonTranslation;
 import no.ndla.taxonomy.domain.Node;
 import no.ndla.taxonomy.domain.NodeConnectionType;
 import no.ndla.taxonomy.domain.NodeType;
+import no.ndla.taxonomy.domain.ResourceResourceType;
+import no.ndla.taxonomy.domain.ResourceType;
+import no.ndla.taxonomy.service.ResourceTypeTree;
 import org.junit.jupiter.api.Test;
 
 class NodeDTOTest {
@@ -34,8 +40,46 @@ class NodeDTOTest {
                 false,
                 false,
                 true,
-                false);
+                false,
+                ResourceTypeTree.of(0, List.of()));
 
         assertEquals("bokmal-default-name", getField(dto, "defaultUrlName"));
     }
+
+    @Test
+    void resourceTypesAreMappedFromTheTree() {
+        var parentType = new ResourceType().name("Fagstoff");
+        parentType.setId(1);
+        var resourceType = new ResourceType().name("Fagartikkel");
+        resourceType.setId(2);
+        resourceType.setParent(parentType);
+        resourceType.setTranslations(new ArrayList<>(List.of(new JsonTranslation("Article", "en"))));
+
+        var node = new Node(NodeType.RESOURCE);
+        node.setName("Resource");
+        var connection = ResourceResourceType.create(node, resourceType);
+        var tree = ResourceTypeTree.of(0, List.of(parentType, resourceType));
+        // Changes not yet in the tree are not seen, showing that the entity is not read
+        resourceType.setName("Changed");
+
+        var dto = new NodeDTO(
+                Optional.empty(),
+                Optional.empty(),
+                node,
+                NodeConnectionType.BRANCH,
+                "nb",
+                Optional.empty(),
+                false,
+                false,
+                true,
+                false,
+                tree);
+
+        var mapped = dto.getResourceTypes().iterator().next();
+        assertEquals(resourceType.getPublicId(), mapped.getId());
+        assertEquals(Optional.of(parentType.getPublicId()), mapped.getParentId());
+        assertEquals("Fagartikkel", mapped.getName());
+        assertEquals(1, mapped.getTranslations().size());
+        assertEquals(connection.getPublicId(), mapped.getConnectionId());
+    }
 }